@@ -38,6 +38,7 @@ import com.adaptivebp.modules.organisation.model.Organisation;
 import com.adaptivebp.modules.organisation.port.OrganisationLookupPort;
 import com.adaptivebp.modules.organisation.service.PermissionService;
 import com.adaptivebp.shared.security.AdaptiveUserDetails;
+import com.adaptivebp.shared.security.PermissionSnapshotCache;
 
 import jakarta.validation.Valid;
 
@@ -54,6 +55,7 @@ public class AppGroupController {
     @Autowired private OrganisationLookupPort organisationLookupPort;
     @Autowired private DomainUserLookupPort domainUserLookupPort;
     @Autowired private ApplicationProvisioningService applicationProvisioningService;
+    @Autowired private PermissionSnapshotCache permissionCache;
 
     @GetMapping
     public ResponseEntity<?> list(@PathVariable String slug, @PathVariable String appSlug) {
@@ -77,10 +79,13 @@ public class AppGroupController {
         AppGroup defaultViewerGroup = groups.stream()
                 .filter(g -> g.isDefaultGroup() && "App Viewer".equalsIgnoreCase(g.getName()))
                 .findFirst().orElse(null);
+        // One query for the app's memberships rather than one per user
+        Map<String, List<AppGroupMember>> membershipsByUser = appGroupMemberRepository.findByAppId(awd.app.getId())
+                .stream()
+                .collect(Collectors.groupingBy(AppGroupMember::getUserId));
         List<AppUserResponse> userResponses = users.stream().map(user -> {
             AppUserResponse response = new AppUserResponse(user);
-            List<AppGroupMember> memberships = appGroupMemberRepository
-                    .findByAppIdAndUserId(awd.app.getId(), user.getId());
+            List<AppGroupMember> memberships = membershipsByUser.getOrDefault(user.getId(), List.of());
             // If user has no groups and default viewer group exists, return a virtual/computed
             // membership in-memory. No persistence here — GET must remain read-only.
             // To persist the assignment explicitly, call POST /users/{userId}/ensure-default-viewer.
@@ -170,6 +175,7 @@ public class AppGroupController {
         member.setUserId(userId);
         member.setAssignedBy(currentPrincipalId());
         appGroupMemberRepository.save(member);
+        permissionCache.invalidate(awd.app.getId(), userId);
         return ResponseEntity.ok().build();
     }
 
@@ -232,6 +238,7 @@ public class AppGroupController {
             return ResponseEntity.notFound().build();
         }
         appGroupMemberRepository.findByGroupIdAndUserId(groupId, userId).ifPresent(appGroupMemberRepository::delete);
+        permissionCache.invalidate(awd.app.getId(), userId);
         // After removal, fall back to default viewer if user has no remaining groups.
         // Delegates to the service so persistence logic lives in one place.
         applicationProvisioningService.ensureDefaultViewerMembership(awd.app.getId(), userId);
@@ -10,7 +10,8 @@ import org.springframework.data.mongodb.core.mapping.Document;
 @Document(collection = "app_group_members")
 @CompoundIndexes({
         @CompoundIndex(name = "group_user_idx", def = "{'groupId':1,'userId':1}", unique = true),
-        @CompoundIndex(name = "user_app_idx", def = "{'userId':1,'appId':1}")
+        @CompoundIndex(name = "user_app_idx", def = "{'userId':1,'appId':1}"),
+        @CompoundIndex(name = "app_idx", def = "{'appId':1}")
 })
 public class AppGroupMember {
 
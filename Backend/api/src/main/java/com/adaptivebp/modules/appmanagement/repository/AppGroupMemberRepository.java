@@ -6,6 +6,7 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import com.adaptivebp.modules.appmanagement.model.AppGroupMember;
 
 public interface AppGroupMemberRepository extends MongoRepository<AppGroupMember, String> {
+    List<AppGroupMember> findByAppId(String appId);
     List<AppGroupMember> findByAppIdAndUserId(String appId, String userId);
     List<AppGroupMember> findByGroupId(String groupId);
     Optional<AppGroupMember> findByGroupIdAndUserId(String groupId, String userId);
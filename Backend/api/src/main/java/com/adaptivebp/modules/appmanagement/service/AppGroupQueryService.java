@@ -1,5 +1,6 @@
 package com.adaptivebp.modules.appmanagement.service;
 
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Set;
@@ -14,6 +15,7 @@ import com.adaptivebp.modules.appmanagement.permission.AppPermission;
 import com.adaptivebp.modules.appmanagement.port.AppGroupQueryPort;
 import com.adaptivebp.modules.appmanagement.repository.AppGroupMemberRepository;
 import com.adaptivebp.modules.appmanagement.repository.AppGroupRepository;
+import com.adaptivebp.shared.security.PermissionSnapshotCache;
 
 /**
  * Implements AppGroupQueryPort — the public permission-query API for the
@@ -29,8 +31,17 @@ public class AppGroupQueryService implements AppGroupQueryPort {
     @Autowired
     private AppGroupRepository appGroupRepository;
 
+    @Autowired
+    private PermissionSnapshotCache permissionCache;
+
+    /** Cached per app and user; the returned set is read-only. */
     @Override
     public Set<AppPermission> getAppPermissions(String appId, String userId) {
+        return permissionCache.get("app-permissions", appId, userId,
+                () -> Collections.unmodifiableSet(loadAppPermissions(appId, userId)));
+    }
+
+    private Set<AppPermission> loadAppPermissions(String appId, String userId) {
         List<AppGroupMember> memberships = appGroupMemberRepository.findByAppIdAndUserId(appId, userId);
         if (memberships.isEmpty()) {
             return EnumSet.noneOf(AppPermission.class);
@@ -16,8 +16,14 @@ import com.adaptivebp.modules.formbuilder.model.DomainModel;
 import com.adaptivebp.modules.formbuilder.repository.DomainModelRepository;
 import com.adaptivebp.modules.process.repository.ProcessDefinitionRepository;
 import com.adaptivebp.modules.process.repository.ProcessInstanceRepository;
+import com.adaptivebp.modules.workflow.repository.WorkflowActionOutboxRepository;
 import com.adaptivebp.modules.workflow.repository.WorkflowDefinitionRepository;
+import com.adaptivebp.modules.workflow.repository.WorkflowHistoryBucketRepository;
 import com.adaptivebp.modules.workflow.repository.WorkflowInstanceRepository;
+import com.adaptivebp.modules.workflow.repository.WorkflowTimerRepository;
+import com.adaptivebp.modules.workflow.service.WorkflowStatsService;
+import com.adaptivebp.modules.workflow.service.WorkflowTaskInboxService;
+import com.adaptivebp.shared.security.PermissionSnapshotCache;
 
 @Service
 public class ApplicationDeletionService {
@@ -45,12 +51,30 @@ public class ApplicationDeletionService {
     @Autowired
     private WorkflowInstanceRepository workflowInstanceRepository;
 
+    @Autowired
+    private WorkflowHistoryBucketRepository workflowHistoryBucketRepository;
+
+    @Autowired
+    private WorkflowActionOutboxRepository workflowActionOutboxRepository;
+
+    @Autowired
+    private WorkflowTimerRepository workflowTimerRepository;
+
+    @Autowired
+    private WorkflowTaskInboxService workflowTaskInboxService;
+
+    @Autowired
+    private WorkflowStatsService workflowStatsService;
+
     @Autowired
     private ModelRecordRepository modelRecordRepository;
 
     @Autowired
     private DomainModelRepository domainModelRepository;
 
+    @Autowired
+    private PermissionSnapshotCache permissionCache;
+
     public void deleteApplication(String domainId, Application application) {
         if (domainId == null || application == null || application.getId() == null) {
             return;
@@ -61,6 +85,11 @@ public class ApplicationDeletionService {
         safeDelete("modelRecords", () -> modelRecordRepository.deleteByDomainIdAndAppId(domainId, appId));
         safeDelete("processInstances", () -> processInstanceRepository.deleteByDomainIdAndAppId(domainId, appId));
         safeDelete("processDefinitions", () -> processDefinitionRepository.deleteByDomainIdAndAppId(domainId, appId));
+        safeDelete("workflowTaskInbox", () -> workflowTaskInboxService.deleteApp(domainId, appId));
+        safeDelete("workflowActions", () -> workflowActionOutboxRepository.deleteByDomainIdAndAppId(domainId, appId));
+        safeDelete("workflowStats", () -> workflowStatsService.deleteApp(domainId, appId));
+        safeDelete("workflowTimers", () -> workflowTimerRepository.deleteByDomainIdAndAppId(domainId, appId));
+        safeDelete("workflowHistory", () -> workflowHistoryBucketRepository.deleteByDomainIdAndAppId(domainId, appId));
         safeDelete("workflowInstances", () -> workflowInstanceRepository.deleteByDomainIdAndAppId(domainId, appId));
         safeDelete("workflowDefinitions", () -> workflowDefinitionRepository.deleteByDomainIdAndAppId(domainId, appId));
 
@@ -68,6 +97,7 @@ public class ApplicationDeletionService {
         safeDelete("appGroupMembers", () -> appGroupMemberRepository.deleteByAppId(appId));
         safeDelete("appGroups", () -> appGroupRepository.deleteByAppId(appId));
         applicationRepository.deleteById(appId);
+        permissionCache.invalidate(appId);
     }
 
     private void removeAppFromDomainModels(String domainId, String appId) {
@@ -12,6 +12,7 @@ import com.adaptivebp.modules.appmanagement.model.Application;
 import com.adaptivebp.modules.appmanagement.permission.AppPermission;
 import com.adaptivebp.modules.appmanagement.repository.AppGroupMemberRepository;
 import com.adaptivebp.modules.appmanagement.repository.AppGroupRepository;
+import com.adaptivebp.shared.security.PermissionSnapshotCache;
 
 @Service
 public class ApplicationProvisioningService {
@@ -22,6 +23,9 @@ public class ApplicationProvisioningService {
     @Autowired
     private AppGroupMemberRepository appGroupMemberRepository;
 
+    @Autowired
+    private PermissionSnapshotCache permissionCache;
+
     public void provisionDefaultGroups(Application application, String ownerUserId) {
         provisionDefaultGroups(application, ownerUserId, null);
     }
@@ -101,7 +105,9 @@ public class ApplicationProvisioningService {
         member.setAppId(appId);
         member.setUserId(userId);
         member.setAssignedBy("system");
-        return appGroupMemberRepository.save(member);
+        AppGroupMember saved = appGroupMemberRepository.save(member);
+        permissionCache.invalidate(appId, userId);
+        return saved;
     }
 
     public void assignUser(AppGroup group, String appId, String userId, String assignedBy) {
@@ -120,6 +126,7 @@ public class ApplicationProvisioningService {
             member.setUserId(normalizedUser);
             member.setAssignedBy(assignedBy);
             appGroupMemberRepository.save(member);
+            permissionCache.invalidate(appId, normalizedUser);
         }
     }
 
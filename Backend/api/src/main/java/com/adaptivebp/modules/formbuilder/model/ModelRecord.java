@@ -16,7 +16,7 @@ import org.springframework.data.mongodb.core.mapping.Document;
  */
 @Document(collection = "model_records")
 @CompoundIndexes({
-        @CompoundIndex(name = "model_domain_idx", def = "{'modelId':1,'domainId':1}")
+        @CompoundIndex(name = "model_domain_id_idx", def = "{'modelId':1,'domainId':1,'_id':1}")
 })
 public class ModelRecord {
 
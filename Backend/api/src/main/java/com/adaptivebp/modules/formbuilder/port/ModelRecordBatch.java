@@ -0,0 +1,33 @@
+package com.adaptivebp.modules.formbuilder.port;
+
+import java.util.Map;
+
+import com.adaptivebp.modules.formbuilder.model.ModelRecord;
+
+/**
+ * Record mutations collected in memory and written together by {@link #flush()}, so a chain
+ * of process DATA_ACTION nodes costs one write instead of a round trip per node. Changes made
+ * through the batch are visible to later calls on it: a record created here can be updated or
+ * deleted before the flush.
+ */
+public interface ModelRecordBatch {
+
+    /** Stages a new record; its id is assigned immediately. */
+    ModelRecord create(String modelId, String domainId, String appId,
+            String instanceId, String createdBy, Map<String, Object> data);
+
+    /** Stages a merge of {@code newData} into the record's data; throws if the record does not exist. */
+    ModelRecord update(String recordId, Map<String, Object> newData);
+
+    /** Stages removal of the record; a record that does not exist is ignored. */
+    void delete(String recordId);
+
+    /**
+     * Writes the staged changes in one bulk operation. If the write fails, whatever it may have
+     * applied is reverted before the exception is rethrown.
+     */
+    void flush();
+
+    /** Reverts a flushed batch, e.g. when the write it belonged with failed afterwards. */
+    void rollback();
+}
@@ -0,0 +1,13 @@
+package com.adaptivebp.modules.formbuilder.port;
+
+import java.util.List;
+
+import com.adaptivebp.modules.formbuilder.model.ModelRecord;
+
+/**
+ * A page of {@link ModelRecordQuery} results. Records carry only the requested data fields.
+ *
+ * @param nextCursor pass back as {@link ModelRecordQuery#cursor()} for the next page; null on the last page
+ */
+public record ModelRecordPage(List<ModelRecord> records, String nextCursor) {
+}
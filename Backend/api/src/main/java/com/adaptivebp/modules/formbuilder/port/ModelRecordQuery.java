@@ -0,0 +1,28 @@
+package com.adaptivebp.modules.formbuilder.port;
+
+import java.util.List;
+
+/**
+ * One page of a model's records as a DATA_VIEW node asks for them.
+ *
+ * @param filters    conditions on {@code data.<field>}, all of which must match
+ * @param sortField  data field to sort by, or null for insertion order; ties break on id
+ * @param fields     data fields to return, or empty for the whole record
+ * @param cursor     {@link ModelRecordPage#nextCursor()} of the previous page, or null for the first
+ * @param limit      page size, capped by the implementation
+ */
+public record ModelRecordQuery(String modelId, String domainId, List<Filter> filters, String sortField,
+        boolean descending, List<String> fields, String cursor, int limit) {
+
+    /**
+     * Operators: EQUALS, NOT_EQUALS, CONTAINS (case-insensitive), GREATER_THAN, LESS_THAN,
+     * IS_EMPTY and IS_NOT_EMPTY; the last two ignore {@code value}.
+     */
+    public record Filter(String field, String operator, Object value) {
+    }
+
+    public ModelRecordQuery {
+        filters = filters != null ? List.copyOf(filters) : List.of();
+        fields = fields != null ? List.copyOf(fields) : List.of();
+    }
+}
@@ -17,4 +17,13 @@ public interface ModelRecordQueryPort {
     void delete(String recordId);
 
     List<ModelRecord> findByModel(String modelId, String domainId);
+
+    /**
+     * Reads one page of a model's records with filtering, sorting and projection done by the
+     * database. Throws {@link IllegalArgumentException} for a malformed cursor or field name.
+     */
+    ModelRecordPage findPage(ModelRecordQuery query);
+
+    /** Starts an empty batch of record mutations; nothing is written until it is flushed. */
+    ModelRecordBatch batch();
 }
@@ -1,18 +1,27 @@
 package com.adaptivebp.modules.formbuilder.service;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.regex.Pattern;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
 import com.adaptivebp.modules.formbuilder.model.DomainFieldType;
 import com.adaptivebp.modules.formbuilder.model.DomainModel;
 import com.adaptivebp.modules.formbuilder.model.DomainModelField;
 import com.adaptivebp.modules.formbuilder.model.ModelRecord;
+import com.adaptivebp.modules.formbuilder.port.ModelRecordBatch;
+import com.adaptivebp.modules.formbuilder.port.ModelRecordPage;
+import com.adaptivebp.modules.formbuilder.port.ModelRecordQuery;
 import com.adaptivebp.modules.formbuilder.port.ModelRecordQueryPort;
 import com.adaptivebp.modules.formbuilder.repository.DomainModelRepository;
 import com.adaptivebp.modules.formbuilder.repository.ModelRecordRepository;
@@ -20,8 +29,13 @@ import com.adaptivebp.modules.formbuilder.repository.ModelRecordRepository;
 @Service
 public class ModelRecordService implements ModelRecordQueryPort {
 
+    private static final int MAX_PAGE_SIZE = 200;
+    /** Data field keys usable in a query path: no dots or operators. */
+    private static final Pattern FIELD_KEY = Pattern.compile("[A-Za-z0-9_-]+");
+
     @Autowired private ModelRecordRepository recordRepository;
     @Autowired private DomainModelRepository modelRepository;
+    @Autowired private MongoTemplate mongoTemplate;
 
     // ── CRUD ─────────────────────────────────────────────────────────────────
 
@@ -107,6 +121,79 @@ public class ModelRecordService implements ModelRecordQueryPort {
         return recordRepository.findByModelIdAndDomainId(modelId, domainId);
     }
 
+    /**
+     * Keyset-paged on (data.sortField, _id), or _id alone without a sort field, so a page
+     * costs the same however deep it is. Only the requested data fields leave the database.
+     */
+    @Override
+    public ModelRecordPage findPage(ModelRecordQuery request) {
+        int size = Math.max(1, Math.min(request.limit(), MAX_PAGE_SIZE));
+        String sortField = request.sortField() != null && !request.sortField().isBlank()
+                ? dataPath(request.sortField()) : null;
+
+        List<Criteria> criteria = new ArrayList<>();
+        criteria.add(Criteria.where("modelId").is(request.modelId()).and("domainId").is(request.domainId()));
+        for (ModelRecordQuery.Filter filter : request.filters()) {
+            criteria.add(filterCriteria(filter));
+        }
+        RecordCursor after = RecordCursor.decode(request.cursor());
+        if (after != null) {
+            criteria.add(after.after(sortField, request.descending()));
+        }
+
+        Sort.Direction direction = request.descending() ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Query query = new Query(new Criteria().andOperator(criteria))
+                .with(sortField != null ? Sort.by(direction, sortField, "_id") : Sort.by(direction, "_id"))
+                .limit(size + 1);
+        if (!request.fields().isEmpty()) {
+            for (String field : request.fields()) {
+                query.fields().include(dataPath(field));
+            }
+            if (sortField != null) {
+                query.fields().include(sortField);
+            }
+        }
+
+        List<ModelRecord> rows = mongoTemplate.find(query, ModelRecord.class);
+        String nextCursor = null;
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            ModelRecord last = rows.get(size - 1);
+            Object lastValue = sortField != null && last.getData() != null ? last.getData().get(request.sortField()) : null;
+            nextCursor = new RecordCursor(lastValue, last.getId()).encode();
+        }
+        return new ModelRecordPage(rows, nextCursor);
+    }
+
+    private static Criteria filterCriteria(ModelRecordQuery.Filter filter) {
+        String path = dataPath(filter.field());
+        Object value = filter.value();
+        String operator = filter.operator() != null ? filter.operator() : "EQUALS";
+        return switch (operator) {
+            case "EQUALS" -> Criteria.where(path).is(value);
+            case "NOT_EQUALS" -> Criteria.where(path).ne(value);
+            case "CONTAINS" -> Criteria.where(path)
+                    .regex(Pattern.quote(value != null ? value.toString() : ""), "i");
+            case "GREATER_THAN" -> Criteria.where(path).gt(value);
+            case "LESS_THAN" -> Criteria.where(path).lt(value);
+            case "IS_EMPTY" -> Criteria.where(path).in(null, "");
+            case "IS_NOT_EMPTY" -> Criteria.where(path).nin(null, "");
+            default -> throw new IllegalArgumentException("Unsupported filter operator: " + operator);
+        };
+    }
+
+    private static String dataPath(String field) {
+        if (field == null || !FIELD_KEY.matcher(field).matches()) {
+            throw new IllegalArgumentException("Invalid record field: " + field);
+        }
+        return "data." + field;
+    }
+
+    @Override
+    public ModelRecordBatch batch() {
+        return new MongoModelRecordBatch(mongoTemplate, recordRepository);
+    }
+
     // ── Schema migration ──────────────────────────────────────────────────────
 
     /**
@@ -0,0 +1,203 @@
+package com.adaptivebp.modules.formbuilder.service;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.adaptivebp.modules.formbuilder.model.ModelRecord;
+import com.adaptivebp.modules.formbuilder.port.ModelRecordBatch;
+import com.adaptivebp.modules.formbuilder.repository.ModelRecordRepository;
+
+/**
+ * {@link ModelRecordBatch} that keeps the latest state of every record it touches and writes
+ * only that final state: a record created and updated in the same batch is inserted once, one
+ * created and deleted is never written. Existing records are read at most once, and their
+ * original state is kept so a failed or abandoned flush can be reverted. Every record a flush
+ * writes carries the flush time as {@code updatedAt}; reverting only touches records still
+ * carrying it, so writes made by others since the flush are left alone.
+ */
+class MongoModelRecordBatch implements ModelRecordBatch {
+
+    private static final Logger log = LoggerFactory.getLogger(MongoModelRecordBatch.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final ModelRecordRepository recordRepository;
+
+    /** Latest state of each touched record by id, null once deleted. */
+    private final Map<String, ModelRecord> pending = new LinkedHashMap<>();
+    /** State before the batch of touched records that already existed; records created here are absent. */
+    private final Map<String, ModelRecord> original = new HashMap<>();
+
+    MongoModelRecordBatch(MongoTemplate mongoTemplate, ModelRecordRepository recordRepository) {
+        this.mongoTemplate = mongoTemplate;
+        this.recordRepository = recordRepository;
+    }
+
+    @Override
+    public ModelRecord create(String modelId, String domainId, String appId,
+            String instanceId, String createdBy, Map<String, Object> data) {
+        ModelRecord record = new ModelRecord();
+        record.setId(new ObjectId().toHexString());
+        record.setModelId(modelId);
+        record.setDomainId(domainId);
+        record.setAppId(appId);
+        record.setInstanceId(instanceId);
+        record.setCreatedBy(createdBy);
+        record.setData(data != null ? new HashMap<>(data) : new HashMap<>());
+        record.setCreatedAt(Instant.now());
+        record.setUpdatedAt(Instant.now());
+        pending.put(record.getId(), record);
+        return record;
+    }
+
+    @Override
+    public ModelRecord update(String recordId, Map<String, Object> newData) {
+        ModelRecord record = current(recordId)
+                .orElseThrow(() -> new RuntimeException("Record not found: " + recordId));
+        if (newData != null) {
+            record.getData().putAll(newData);
+        }
+        record.setUpdatedAt(Instant.now());
+        return record;
+    }
+
+    @Override
+    public void delete(String recordId) {
+        if (current(recordId).isPresent()) {
+            pending.put(recordId, null);
+        }
+    }
+
+    @Override
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        // Mongo keeps milliseconds; revert matches on the stored value
+        Instant flushedAt = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ModelRecord.class);
+        int operations = 0;
+        for (Map.Entry<String, ModelRecord> entry : pending.entrySet()) {
+            boolean existed = original.containsKey(entry.getKey());
+            ModelRecord record = entry.getValue();
+            if (record != null) {
+                record.setUpdatedAt(flushedAt);
+            }
+            if (record == null) {
+                if (existed) {
+                    bulk.remove(byId(entry.getKey()));
+                    operations++;
+                }
+            } else if (existed) {
+                bulk.replaceOne(byId(entry.getKey()), record);
+                operations++;
+            } else {
+                bulk.insert(record);
+                operations++;
+            }
+        }
+        if (operations == 0) {
+            return;
+        }
+        try {
+            bulk.execute();
+        } catch (RuntimeException e) {
+            revert();
+            throw e;
+        }
+    }
+
+    @Override
+    public void rollback() {
+        revert();
+    }
+
+    /**
+     * Undoes the batch whether or not all of its writes were applied: records it inserted are
+     * removed, records it deleted are inserted again and records it replaced are put back as
+     * they were. Inserted and replaced records are only touched while they still carry this
+     * batch's flush time, so a write that never happened, or one since overwritten by another
+     * submission, is left as it is.
+     */
+    private void revert() {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ModelRecord.class);
+        int operations = 0;
+        for (Map.Entry<String, ModelRecord> entry : pending.entrySet()) {
+            String id = entry.getKey();
+            ModelRecord before = original.get(id);
+            ModelRecord flushed = entry.getValue();
+            if (before != null && flushed == null) {
+                bulk.insert(before);
+            } else if (before != null) {
+                bulk.replaceOne(flushedState(flushed), before);
+            } else if (flushed != null) {
+                bulk.remove(flushedState(flushed));
+            } else {
+                continue;
+            }
+            operations++;
+        }
+        if (operations == 0) {
+            return;
+        }
+        try {
+            bulk.execute();
+        } catch (BulkOperationException e) {
+            // Re-inserting a record whose delete never happened is a duplicate key, which is fine
+            boolean onlyDuplicates = e.getErrors().stream().allMatch(error -> error.getCode() == 11000);
+            if (!onlyDuplicates) {
+                log.error("Could not revert {} model record writes {}: {}", operations, pending.keySet(),
+                        e.getMessage(), e);
+            }
+        } catch (RuntimeException e) {
+            log.error("Could not revert {} model record writes {}: {}", operations, pending.keySet(),
+                    e.getMessage(), e);
+        }
+    }
+
+    private Optional<ModelRecord> current(String recordId) {
+        if (pending.containsKey(recordId)) {
+            return Optional.ofNullable(pending.get(recordId));
+        }
+        Optional<ModelRecord> loaded = recordRepository.findById(recordId);
+        loaded.ifPresent(record -> {
+            original.put(recordId, copyOf(record));
+            pending.put(recordId, record);
+        });
+        return loaded;
+    }
+
+    private static Query byId(String recordId) {
+        return new Query(Criteria.where("_id").is(recordId));
+    }
+
+    private static Query flushedState(ModelRecord record) {
+        return new Query(Criteria.where("_id").is(record.getId()).and("updatedAt").is(record.getUpdatedAt()));
+    }
+
+    private static ModelRecord copyOf(ModelRecord record) {
+        ModelRecord copy = new ModelRecord();
+        copy.setId(record.getId());
+        copy.setModelId(record.getModelId());
+        copy.setDomainId(record.getDomainId());
+        copy.setAppId(record.getAppId());
+        copy.setInstanceId(record.getInstanceId());
+        copy.setCreatedBy(record.getCreatedBy());
+        copy.setData(record.getData() != null ? new HashMap<>(record.getData()) : new HashMap<>());
+        copy.setCreatedAt(record.getCreatedAt());
+        copy.setUpdatedAt(record.getUpdatedAt());
+        return copy;
+    }
+}
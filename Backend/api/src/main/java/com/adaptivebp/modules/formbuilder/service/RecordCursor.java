@@ -0,0 +1,57 @@
+package com.adaptivebp.modules.formbuilder.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.bson.Document;
+import org.bson.json.JsonParseException;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+/**
+ * Opaque keyset cursor over model records: the sort value and id of the last row of a page,
+ * as URL-safe Base64 of extended JSON so numbers and dates round-trip with their BSON type.
+ */
+record RecordCursor(Object value, String id) {
+
+    String encode() {
+        String json = new Document("v", value).append("id", id).toJson();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static RecordCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            Document document = Document.parse(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+            if (!(document.get("id") instanceof String id)) {
+                throw new IllegalArgumentException("Malformed cursor: " + cursor);
+            }
+            return new RecordCursor(document.get("v"), id);
+        } catch (IllegalArgumentException | JsonParseException e) {
+            throw new IllegalArgumentException("Malformed cursor: " + cursor);
+        }
+    }
+
+    /**
+     * Rows after this cursor in (sortPath, _id) order. Null and missing values sort before
+     * everything else, so they come first ascending and last descending. Comparisons follow
+     * Mongo type bracketing: a sort field should hold one type across the model's records.
+     */
+    Criteria after(String sortPath, boolean descending) {
+        if (sortPath == null) {
+            return descending ? Criteria.where("_id").lt(id) : Criteria.where("_id").gt(id);
+        }
+        if (value == null) {
+            Criteria sameValue = Criteria.where(sortPath).is(null).and("_id");
+            return descending
+                    ? sameValue.lt(id)
+                    : new Criteria().orOperator(sameValue.gt(id), Criteria.where(sortPath).ne(null));
+        }
+        Criteria sameValue = Criteria.where(sortPath).is(value).and("_id");
+        return descending
+                ? new Criteria().orOperator(Criteria.where(sortPath).lt(value), sameValue.lt(id),
+                        Criteria.where(sortPath).is(null))
+                : new Criteria().orOperator(Criteria.where(sortPath).gt(value), sameValue.gt(id));
+    }
+}
@@ -35,6 +35,7 @@ import com.adaptivebp.modules.organisation.repository.DomainGroupRepository;
 import com.adaptivebp.modules.organisation.repository.OrganisationRepository;
 import com.adaptivebp.modules.organisation.service.PermissionService;
 import com.adaptivebp.shared.security.AdaptiveUserDetails;
+import com.adaptivebp.shared.security.PermissionSnapshotCache;
 
 import jakarta.validation.Valid;
 
@@ -52,6 +53,8 @@ public class DomainGroupController {
     private DomainUserLookupPort domainUserLookupPort;
     @Autowired
     private PermissionService permissionService;
+    @Autowired
+    private PermissionSnapshotCache permissionCache;
 
     @GetMapping
     public ResponseEntity<?> list(@PathVariable String slug) {
@@ -156,6 +159,7 @@ public class DomainGroupController {
         member.setUserId(userId);
         member.setAssignedBy(currentPrincipalId());
         domainGroupMemberRepository.save(member);
+        permissionCache.invalidate(domain.getId(), userId);
         return ResponseEntity.ok().build();
     }
 
@@ -191,6 +195,7 @@ public class DomainGroupController {
         }
         domainGroupMemberRepository.findByDomainGroupIdAndUserId(groupId, userId)
                 .ifPresent(domainGroupMemberRepository::delete);
+        permissionCache.invalidate(domain.getId(), userId);
         return ResponseEntity.ok().build();
     }
 
@@ -35,6 +35,7 @@ import com.adaptivebp.modules.organisation.repository.DomainGroupRepository;
 import com.adaptivebp.modules.organisation.repository.OrganisationRepository;
 import com.adaptivebp.modules.organisation.service.PermissionService;
 import com.adaptivebp.shared.security.AdaptiveUserDetails;
+import com.adaptivebp.shared.security.PermissionSnapshotCache;
 
 import jakarta.validation.Valid;
 
@@ -52,6 +53,8 @@ public class DomainWorkflowRoleController {
     private DomainUserLookupPort domainUserLookupPort;
     @Autowired
     private PermissionService permissionService;
+    @Autowired
+    private PermissionSnapshotCache permissionCache;
 
     @GetMapping
     public ResponseEntity<?> list(@PathVariable String slug) {
@@ -137,7 +140,10 @@ public class DomainWorkflowRoleController {
         }
 
         role.setName(normalizedName);
-        return ResponseEntity.ok(domainGroupRepository.save(role));
+        DomainGroup saved = domainGroupRepository.save(role);
+        // Role names are what edges match on
+        permissionCache.invalidate(domain.getId());
+        return ResponseEntity.ok(saved);
     }
 
     @DeleteMapping("/{roleId}")
@@ -157,6 +163,7 @@ public class DomainWorkflowRoleController {
             domainGroupMemberRepository.delete(member);
         }
         domainGroupRepository.delete(role);
+        permissionCache.invalidate(domain.getId());
         return ResponseEntity.noContent().build();
     }
 
@@ -190,6 +197,7 @@ public class DomainWorkflowRoleController {
         member.setUserId(userId);
         member.setAssignedBy(currentPrincipalId());
         domainGroupMemberRepository.save(member);
+        permissionCache.invalidate(domain.getId(), userId);
         return ResponseEntity.ok().build();
     }
 
@@ -208,6 +216,7 @@ public class DomainWorkflowRoleController {
 
         domainGroupMemberRepository.findByDomainGroupIdAndUserId(roleId, userId)
                 .ifPresent(domainGroupMemberRepository::delete);
+        permissionCache.invalidate(domain.getId(), userId);
         return ResponseEntity.ok().build();
     }
 
@@ -19,6 +19,7 @@ import com.adaptivebp.modules.organisation.model.enums.DomainGroupType;
 import com.adaptivebp.modules.organisation.permission.DomainPermission;
 import com.adaptivebp.modules.organisation.repository.DomainGroupMemberRepository;
 import com.adaptivebp.modules.organisation.repository.DomainGroupRepository;
+import com.adaptivebp.shared.security.PermissionSnapshotCache;
 
 @Service
 public class DomainProvisioningService {
@@ -32,6 +33,9 @@ public class DomainProvisioningService {
     @Autowired
     private DomainModelRepository domainModelRepository;
 
+    @Autowired
+    private PermissionSnapshotCache permissionCache;
+
     public void provisionDefaults(Organisation organisation, String ownerDomainUserId) {
         if (organisation == null || organisation.getId() == null) {
             return;
@@ -73,6 +77,7 @@ public class DomainProvisioningService {
             member.setUserId(userId);
             member.setAssignedBy(assignedBy);
             domainGroupMemberRepository.save(member);
+            permissionCache.invalidate(group.getDomainId(), userId);
         }
     }
 
@@ -1,5 +1,6 @@
 package com.adaptivebp.modules.organisation.service;
 
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Set;
@@ -18,6 +19,7 @@ import com.adaptivebp.modules.organisation.permission.DomainPermission;
 import com.adaptivebp.modules.organisation.repository.DomainGroupMemberRepository;
 import com.adaptivebp.modules.organisation.repository.DomainGroupRepository;
 import com.adaptivebp.shared.security.AdaptiveUserDetails;
+import com.adaptivebp.shared.security.PermissionSnapshotCache;
 import com.adaptivebp.shared.security.PrincipalType;
 
 /**
@@ -36,6 +38,9 @@ public class PermissionService {
     @Autowired
     private AppGroupQueryPort appGroupQueryPort;
 
+    @Autowired
+    private PermissionSnapshotCache permissionCache;
+
     public boolean isOwner() {
         AdaptiveUserDetails principal = currentPrincipal();
         return principal != null && principal.getPrincipalType() == PrincipalType.OWNER;
@@ -64,19 +69,8 @@ public class PermissionService {
                 return perms;
             }
             perms.add(DomainPermission.DOMAIN_USE_APP);
-            List<DomainGroupMember> memberships = domainGroupMemberRepository
-                    .findByDomainIdAndUserId(domainId, principal.getId());
-            if (memberships.isEmpty()) {
-                return perms;
-            }
-            Set<String> groupIds = memberships.stream().map(DomainGroupMember::getDomainGroupId).collect(Collectors.toSet());
-            if (groupIds.isEmpty()) {
-                return perms;
-            }
-            List<DomainGroup> groups = domainGroupRepository.findAllById(groupIds);
-            for (DomainGroup group : groups) {
-                perms.addAll(group.getPermissions());
-            }
+            perms.addAll(permissionCache.get("domain-permissions", domainId, principal.getId(),
+                    () -> Collections.unmodifiableSet(loadGroupPermissions(domainId, principal.getId()))));
         }
         return perms;
     }
@@ -115,6 +109,23 @@ public class PermissionService {
         return false;
     }
 
+    private Set<DomainPermission> loadGroupPermissions(String domainId, String userId) {
+        Set<DomainPermission> perms = EnumSet.noneOf(DomainPermission.class);
+        List<DomainGroupMember> memberships = domainGroupMemberRepository.findByDomainIdAndUserId(domainId, userId);
+        if (memberships.isEmpty()) {
+            return perms;
+        }
+        Set<String> groupIds = memberships.stream().map(DomainGroupMember::getDomainGroupId).collect(Collectors.toSet());
+        if (groupIds.isEmpty()) {
+            return perms;
+        }
+        List<DomainGroup> groups = domainGroupRepository.findAllById(groupIds);
+        for (DomainGroup group : groups) {
+            perms.addAll(group.getPermissions());
+        }
+        return perms;
+    }
+
     private AdaptiveUserDetails currentPrincipal() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication == null) {
@@ -14,6 +14,7 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
 import com.adaptivebp.modules.appmanagement.model.Application;
@@ -53,12 +54,18 @@ public class ProcessDefinitionController {
     @Autowired private ProcessValidationService validationService;
     @Autowired private ProcessTemplateRepository templateRepository;
 
-    /** GET /process — get this app's process definition (latest version) */
+    /** GET /process — get this app's process definition (latest version); 304 for a matching If-None-Match */
     @GetMapping
-    public ResponseEntity<?> getProcess(@PathVariable String slug, @PathVariable String appSlug) {
+    public ResponseEntity<?> getProcess(@PathVariable String slug, @PathVariable String appSlug,
+            WebRequest webRequest) {
         Context ctx = resolve(slug, appSlug);
         requireAppPermission(ctx.app().getId(), AppPermission.APP_VIEW);
 
+        String eTag = definitionService.getProcessETag(ctx.domain().getId(), ctx.app().getId());
+        if (eTag != null && webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+
         ProcessDefinition def = definitionService.getProcess(ctx.domain().getId(), ctx.app().getId(), appSlug);
         ValidationResult valid = validationService.validate(def);
         return ResponseEntity.ok(ProcessDefinitionResponse.of(def, valid.isValid()));
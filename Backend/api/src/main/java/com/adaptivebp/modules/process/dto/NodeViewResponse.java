@@ -17,6 +17,8 @@ public class NodeViewResponse {
     private Map<String, Object> prefilledData = new HashMap<>();
     /** For DATA_VIEW nodes — queried records */
     private List<Map<String, Object>> records;
+    /** For DATA_VIEW nodes — pass back as {@code cursor} for the next page of records; null on the last page */
+    private String recordsNextCursor;
     /** Available actions for this node (e.g. approve/reject for APPROVAL, next for FORM_PAGE) */
     private List<String> availableActions;
     /** Completion message for END nodes */
@@ -40,6 +42,9 @@ public class NodeViewResponse {
     public List<Map<String, Object>> getRecords() { return records; }
     public void setRecords(List<Map<String, Object>> records) { this.records = records; }
 
+    public String getRecordsNextCursor() { return recordsNextCursor; }
+    public void setRecordsNextCursor(String recordsNextCursor) { this.recordsNextCursor = recordsNextCursor; }
+
     public List<String> getAvailableActions() { return availableActions; }
     public void setAvailableActions(List<String> availableActions) { this.availableActions = availableActions; }
 
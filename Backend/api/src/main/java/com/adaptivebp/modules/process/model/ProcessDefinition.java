@@ -34,6 +34,8 @@ public class ProcessDefinition {
     private String createdBy;
     private Instant createdAt = Instant.now();
     private Instant updatedAt = Instant.now();
+    /** Bumped on every save, so it changes whenever the stored definition does; ETags derive from it. */
+    private long revision;
 
     public String getId() { return id; }
     public void setId(String id) { this.id = id; }
@@ -80,6 +82,9 @@ public class ProcessDefinition {
     public Instant getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
 
+    public long getRevision() { return revision; }
+    public void setRevision(long revision) { this.revision = revision; }
+
     // ── Helpers ──────────────────────────────────────────────────────────────
 
     public ProcessNode findNodeById(String nodeId) {
@@ -2,11 +2,16 @@ package com.adaptivebp.modules.process.model;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
 import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
@@ -24,6 +29,14 @@ import com.adaptivebp.modules.process.model.enums.InstanceStatus;
 })
 public class ProcessInstance {
 
+    /** Original layout: data and draftData keyed "nodeId__elementId". Documents without dataLayout use it. */
+    public static final int FLAT_DATA = 0;
+    /** data and draftData hold one sub-document per node: data.<nodeId>.<elementId>. */
+    public static final int NODE_DATA = 1;
+
+    /** Separates node id and element id in a field reference such as a CONDITION rule's field. */
+    public static final String REFERENCE_SEPARATOR = "__";
+
     @Id
     private String id;
 
@@ -37,8 +50,9 @@ public class ProcessInstance {
     private String currentNodeId;
     private String previousNodeId;
 
-    /** key = "nodeId.elementId", value = user input */
+    /** key = nodeId, value = that node's {elementId: user input} sub-document */
     private Map<String, Object> data = new HashMap<>();
+    private int dataLayout = FLAT_DATA;
 
     private List<CreatedRecord> createdRecordIds = new ArrayList<>();
     private Assignment assignedTo;
@@ -50,9 +64,20 @@ public class ProcessInstance {
     private Instant startedAt = Instant.now();
     private Instant completedAt;
 
-    /** Unsaved draft data for FORM_PAGE nodes (if allowSaveDraft=true) */
+    /** Unsaved draft data for FORM_PAGE nodes (if allowSaveDraft=true), laid out like data */
     private Map<String, Object> draftData = new HashMap<>();
 
+    // Change tracking for ProcessInstanceWriter — state as last read or written, and the node
+    // keys written since.
+    @Transient private boolean storedFlat;
+    @Transient private boolean persisted;
+    @Transient private InstanceStatus persistedStatus;
+    @Transient private String persistedNodeId;
+    @Transient private int persistedHistorySize;
+    @Transient private int persistedRecordCount;
+    @Transient private final Map<String, Set<String>> changedData = new LinkedHashMap<>();
+    @Transient private final Map<String, Set<String>> changedDrafts = new LinkedHashMap<>();
+
     public String getId() { return id; }
     public void setId(String id) { this.id = id; }
 
@@ -80,6 +105,9 @@ public class ProcessInstance {
     public Map<String, Object> getData() { return data; }
     public void setData(Map<String, Object> data) { this.data = data; }
 
+    public int getDataLayout() { return dataLayout; }
+    public void setDataLayout(int dataLayout) { this.dataLayout = dataLayout; }
+
     public List<CreatedRecord> getCreatedRecordIds() { return createdRecordIds; }
     public void setCreatedRecordIds(List<CreatedRecord> createdRecordIds) { this.createdRecordIds = createdRecordIds; }
 
@@ -106,4 +134,126 @@ public class ProcessInstance {
     public void appendHistory(HistoryEntry entry) {
         this.history.add(entry);
     }
+
+    /** One node's values in data; empty when the node has none. */
+    public Map<String, Object> nodeData(String nodeId) {
+        return subDocument(data, nodeId);
+    }
+
+    public void putNodeData(String nodeId, String key, Object value) {
+        put(data, changedData, nodeId, key, value);
+    }
+
+    /** One node's values in draftData; empty when the node has none. */
+    public Map<String, Object> nodeDraft(String nodeId) {
+        return subDocument(draftData, nodeId);
+    }
+
+    public void putNodeDraft(String nodeId, String key, Object value) {
+        put(draftData, changedDrafts, nodeId, key, value);
+    }
+
+    /**
+     * Resolves a field reference as written in definitions, {@code nodeId__elementId}, against
+     * data. The node id ends at the first separator, so {@code approve___action} is the
+     * {@code _action} value of node {@code approve}. Falls back to a top-level key.
+     */
+    public Object resolveData(String reference) {
+        if (reference == null) return null;
+        int separator = reference.indexOf(REFERENCE_SEPARATOR);
+        if (separator > 0 && data.get(reference.substring(0, separator)) instanceof Map<?, ?> node) {
+            return node.get(reference.substring(separator + REFERENCE_SEPARATOR.length()));
+        }
+        return data.get(reference);
+    }
+
+    /**
+     * Converts data and draftData read in the flat layout to per-node sub-documents, and
+     * remembers that the stored document still has to be rewritten whole.
+     */
+    public void upgradeDataLayout() {
+        if (dataLayout >= NODE_DATA) return;
+        data = nest(data);
+        draftData = nest(draftData);
+        dataLayout = NODE_DATA;
+        storedFlat = true;
+    }
+
+    /** Records the current state as the stored one; called after every read and write. */
+    public void markPersisted() {
+        persisted = true;
+        persistedStatus = status;
+        persistedNodeId = currentNodeId;
+        persistedHistorySize = history != null ? history.size() : 0;
+        persistedRecordCount = createdRecordIds != null ? createdRecordIds.size() : 0;
+        changedData.clear();
+        changedDrafts.clear();
+    }
+
+    public void markStoredLayoutCurrent() {
+        storedFlat = false;
+    }
+
+    /** True when the stored document still uses the flat layout. */
+    public boolean storedFlat() { return storedFlat; }
+    public boolean persisted() { return persisted; }
+    public InstanceStatus persistedStatus() { return persistedStatus; }
+    public String persistedNodeId() { return persistedNodeId; }
+
+    /** History entries appended since the last read or write. */
+    public List<HistoryEntry> newHistory() {
+        return history.subList(Math.min(persistedHistorySize, history.size()), history.size());
+    }
+
+    /** Created records added since the last read or write. */
+    public List<CreatedRecord> newCreatedRecords() {
+        return createdRecordIds.subList(Math.min(persistedRecordCount, createdRecordIds.size()),
+                createdRecordIds.size());
+    }
+
+    /** Keys written per node in data since the last read or write. */
+    public Map<String, Set<String>> changedData() { return Collections.unmodifiableMap(changedData); }
+
+    /** Keys written per node in draftData since the last read or write. */
+    public Map<String, Set<String>> changedDrafts() { return Collections.unmodifiableMap(changedDrafts); }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> subDocument(Map<String, Object> values, String nodeId) {
+        return values != null && values.get(nodeId) instanceof Map<?, ?> node
+                ? Collections.unmodifiableMap((Map<String, Object>) node)
+                : Map.of();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void put(Map<String, Object> values, Map<String, Set<String>> changes, String nodeId,
+            String key, Object value) {
+        Object node = values.get(nodeId);
+        if (!(node instanceof Map<?, ?>)) {
+            node = new HashMap<String, Object>();
+            values.put(nodeId, node);
+        }
+        ((Map<String, Object>) node).put(key, value);
+        changes.computeIfAbsent(nodeId, id -> new LinkedHashSet<>()).add(key);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> nest(Map<String, Object> flat) {
+        Map<String, Object> nested = new HashMap<>();
+        if (flat == null) return nested;
+        for (Map.Entry<String, Object> entry : flat.entrySet()) {
+            String key = entry.getKey();
+            int separator = key.indexOf(REFERENCE_SEPARATOR);
+            if (separator <= 0) {
+                nested.put(key, entry.getValue());
+                continue;
+            }
+            Object node = nested.get(key.substring(0, separator));
+            if (!(node instanceof Map<?, ?>)) {
+                node = new HashMap<String, Object>();
+                nested.put(key.substring(0, separator), node);
+            }
+            ((Map<String, Object>) node).put(key.substring(separator + REFERENCE_SEPARATOR.length()), entry.getValue());
+        }
+        return nested;
+    }
 }
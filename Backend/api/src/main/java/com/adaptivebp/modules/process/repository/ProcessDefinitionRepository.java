@@ -10,6 +10,13 @@ import com.adaptivebp.modules.process.model.enums.ProcessStatus;
 
 public interface ProcessDefinitionRepository extends MongoRepository<ProcessDefinition, String> {
 
+    /** Id and revision only, for answering conditional GETs without loading the definition. */
+    interface Revision {
+        String getId();
+
+        long getRevision();
+    }
+
     Optional<ProcessDefinition> findByDomainIdAndAppIdAndSlugAndStatus(
             String domainId, String appId, String slug, ProcessStatus status);
 
@@ -20,6 +27,8 @@ public interface ProcessDefinitionRepository extends MongoRepository<ProcessDefi
 
     Optional<ProcessDefinition> findTopByDomainIdAndAppIdOrderByVersionDesc(String domainId, String appId);
 
+    Optional<Revision> findTopRevisionByDomainIdAndAppIdOrderByVersionDesc(String domainId, String appId);
+
     Optional<ProcessDefinition> findTopByDomainIdAndAppIdAndSlugOrderByVersionDesc(
             String domainId, String appId, String slug);
 
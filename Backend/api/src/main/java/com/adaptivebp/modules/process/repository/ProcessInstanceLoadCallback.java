@@ -0,0 +1,23 @@
+package com.adaptivebp.modules.process.repository;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.core.mapping.event.AfterConvertCallback;
+import org.springframework.stereotype.Component;
+
+import com.adaptivebp.modules.process.model.ProcessInstance;
+
+/**
+ * Brings every ProcessInstance read from Mongo, through the repository or MongoTemplate, to the
+ * per-node data layout and starts its change tracking. Instances stored in the flat layout are
+ * rewritten whole by {@link ProcessInstanceWriter} on their next save.
+ */
+@Component
+public class ProcessInstanceLoadCallback implements AfterConvertCallback<ProcessInstance> {
+
+    @Override
+    public ProcessInstance onAfterConvert(ProcessInstance instance, Document document, String collection) {
+        instance.upgradeDataLayout();
+        instance.markPersisted();
+        return instance;
+    }
+}
@@ -0,0 +1,123 @@
+package com.adaptivebp.modules.process.repository;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.adaptivebp.modules.process.exception.InvalidNodeSubmissionException;
+import com.adaptivebp.modules.process.model.ProcessInstance;
+import com.adaptivebp.modules.process.model.enums.InstanceStatus;
+
+/**
+ * Saves process instances. A loaded instance is written as one targeted update: its scalar
+ * state, {@code $set} on only the node keys written since it was read, and {@code $push} of
+ * the new history entries and created records. New instances and instances still stored in
+ * the flat data layout are written whole. Node and field keys must be usable as field names:
+ * no dots, no leading {@code $}.
+ *
+ * <p>The update only applies while the stored instance is still at the node and status it was
+ * read with, so a concurrent submission fails instead of being overwritten.
+ */
+@Component
+public class ProcessInstanceWriter {
+
+    /** A key usable in an update path: no dots, not an operator. */
+    private static final Pattern PLAIN_KEY = Pattern.compile("[^.$][^.]*");
+
+    @Autowired
+    private ProcessInstanceRepository instanceRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    public ProcessInstance save(ProcessInstance instance) {
+        requirePlainKeys(instance.changedData());
+        requirePlainKeys(instance.changedDrafts());
+        if (instance.getId() == null || !instance.persisted() || instance.storedFlat()) {
+            ProcessInstance saved = instanceRepository.save(instance);
+            saved.markStoredLayoutCurrent();
+            saved.markPersisted();
+            return saved;
+        }
+
+        Query query = new Query(Criteria.where("_id").is(instance.getId())
+                .and("currentNodeId").is(instance.persistedNodeId())
+                .and("status").is(instance.persistedStatus()));
+        Update update = new Update()
+                .set("status", instance.getStatus())
+                .set("currentNodeId", instance.getCurrentNodeId())
+                .set("dataLayout", instance.getDataLayout());
+        if (instance.getPreviousNodeId() != null) {
+            update.set("previousNodeId", instance.getPreviousNodeId());
+        }
+        if (instance.getCompletedAt() != null) {
+            update.set("completedAt", instance.getCompletedAt());
+        }
+        setChangedKeys(update, "data", instance.changedData(), instance.getData());
+        setChangedKeys(update, "draftData", instance.changedDrafts(), instance.getDraftData());
+        if (!instance.newHistory().isEmpty()) {
+            update.push("history").each(instance.newHistory().toArray());
+        }
+        if (!instance.newCreatedRecords().isEmpty()) {
+            update.push("createdRecordIds").each(instance.newCreatedRecords().toArray());
+        }
+
+        if (mongoTemplate.updateFirst(query, update, ProcessInstance.class).getMatchedCount() == 0) {
+            throw new InvalidNodeSubmissionException("Instance '" + instance.getId()
+                    + "' was changed by another request; reload it and try again");
+        }
+        instance.markPersisted();
+        return instance;
+    }
+
+    /**
+     * Sets draft values of one node without reading the instance. Applies only while the stored
+     * instance is ACTIVE at {@code nodeId} in the per-node layout; returns false when it did not
+     * apply or the keys are not usable as field names, and the caller must take the slow path.
+     */
+    public boolean saveDraft(String instanceId, String nodeId, Map<String, Object> values) {
+        if (!PLAIN_KEY.matcher(nodeId).matches() || !allPlain(values.keySet())) {
+            return false;
+        }
+        Query query = new Query(Criteria.where("_id").is(instanceId)
+                .and("status").is(InstanceStatus.ACTIVE)
+                .and("currentNodeId").is(nodeId)
+                .and("dataLayout").is(ProcessInstance.NODE_DATA));
+        Update update = new Update();
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            update.set("draftData." + nodeId + "." + entry.getKey(), entry.getValue());
+        }
+        return mongoTemplate.updateFirst(query, update, ProcessInstance.class).getMatchedCount() > 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void setChangedKeys(Update update, String field, Map<String, Set<String>> changes,
+            Map<String, Object> values) {
+        for (Map.Entry<String, Set<String>> node : changes.entrySet()) {
+            Map<String, Object> nodeValues = (Map<String, Object>) values.get(node.getKey());
+            for (String key : node.getValue()) {
+                update.set(field + "." + node.getKey() + "." + key, nodeValues.get(key));
+            }
+        }
+    }
+
+    private static void requirePlainKeys(Map<String, Set<String>> changes) {
+        for (Map.Entry<String, Set<String>> node : changes.entrySet()) {
+            if (!PLAIN_KEY.matcher(node.getKey()).matches() || !allPlain(node.getValue())) {
+                throw new InvalidNodeSubmissionException("Node '" + node.getKey()
+                        + "' has a field name containing '.' or starting with '$'");
+            }
+        }
+    }
+
+    private static boolean allPlain(Set<String> keys) {
+        return keys.stream().allMatch(key -> PLAIN_KEY.matcher(key).matches());
+    }
+}
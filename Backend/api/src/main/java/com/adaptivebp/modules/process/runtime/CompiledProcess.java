@@ -0,0 +1,201 @@
+package com.adaptivebp.modules.process.runtime;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.adaptivebp.modules.process.model.ProcessDefinition;
+import com.adaptivebp.modules.process.model.ProcessEdge;
+import com.adaptivebp.modules.process.model.ProcessNode;
+import com.adaptivebp.modules.process.model.enums.NodeType;
+
+/**
+ * Immutable, pre-indexed form of a {@link ProcessDefinition} used by the process engine.
+ * Built once per definition id + version by {@link ProcessDefinitionCache}; node lookups and
+ * adjacency are hash lookups, CONDITION node rules are parsed once with their target
+ * edges already resolved, and FORM_PAGE element configs are compiled into
+ * {@link FormValidationPlan}s.
+ */
+public final class CompiledProcess {
+
+    private static final List<ProcessEdge> NO_EDGES = List.of();
+
+    /** One CONDITION rule: every condition must match for the rule to route to its edge. */
+    private record Rule(List<FieldCondition> conditions, ProcessEdge target) {
+    }
+
+    /** Parsed rules of a CONDITION node and the edge taken when none matches. */
+    private record Routing(List<Rule> rules, ProcessEdge fallback) {
+    }
+
+    private final ProcessDefinition definition;
+    private final ProcessNode startNode;
+    private final Map<String, ProcessNode> nodesById;
+    private final Map<String, List<ProcessEdge>> outgoingByNode;
+    private final Map<String, List<ProcessEdge>> incomingByNode;
+    private final Map<String, Routing> routingByNode;
+    private final Map<String, FormValidationPlan> formPlansByNode;
+
+    private CompiledProcess(ProcessDefinition definition) {
+        this.definition = definition;
+
+        List<ProcessNode> nodes = definition.getNodes() != null ? definition.getNodes() : List.of();
+        List<ProcessEdge> edges = definition.getEdges() != null ? definition.getEdges() : List.of();
+
+        Map<String, ProcessNode> nodes0 = new HashMap<>();
+        ProcessNode start = null;
+        for (ProcessNode node : nodes) {
+            if (start == null && node.getType() == NodeType.START) {
+                start = node;
+            }
+            if (node.getId() != null) {
+                nodes0.putIfAbsent(node.getId(), node);
+            }
+        }
+
+        Map<String, List<ProcessEdge>> outgoing0 = new LinkedHashMap<>();
+        Map<String, List<ProcessEdge>> incoming0 = new LinkedHashMap<>();
+        for (ProcessEdge edge : edges) {
+            if (edge.getFromNodeId() != null) {
+                outgoing0.computeIfAbsent(edge.getFromNodeId(), id -> new ArrayList<>()).add(edge);
+            }
+            if (edge.getToNodeId() != null) {
+                incoming0.computeIfAbsent(edge.getToNodeId(), id -> new ArrayList<>()).add(edge);
+            }
+        }
+        outgoing0.replaceAll((id, list) -> List.copyOf(list));
+        incoming0.replaceAll((id, list) -> List.copyOf(list));
+
+        Map<String, Routing> routing0 = new HashMap<>();
+        Map<String, FormValidationPlan> formPlans0 = new HashMap<>();
+        for (ProcessNode node : nodes0.values()) {
+            if (node.getType() == NodeType.CONDITION && node.getConfig() != null) {
+                routing0.put(node.getId(), compileRouting(node.getConfig(), outgoing0.getOrDefault(node.getId(), NO_EDGES)));
+            } else if (node.getType() == NodeType.FORM_PAGE) {
+                formPlans0.put(node.getId(), FormValidationPlan.compile(node.getConfig()));
+            }
+        }
+
+        this.startNode = start;
+        this.nodesById = Collections.unmodifiableMap(nodes0);
+        this.outgoingByNode = Collections.unmodifiableMap(outgoing0);
+        this.incomingByNode = Collections.unmodifiableMap(incoming0);
+        this.routingByNode = Collections.unmodifiableMap(routing0);
+        this.formPlansByNode = Collections.unmodifiableMap(formPlans0);
+    }
+
+    public static CompiledProcess compile(ProcessDefinition definition) {
+        return new CompiledProcess(definition);
+    }
+
+    public ProcessNode findStartNode() {
+        return startNode;
+    }
+
+    public ProcessNode findNodeById(String nodeId) {
+        return nodeId != null ? nodesById.get(nodeId) : null;
+    }
+
+    public List<ProcessEdge> outgoingEdges(String fromNodeId) {
+        return fromNodeId != null ? outgoingByNode.getOrDefault(fromNodeId, NO_EDGES) : NO_EDGES;
+    }
+
+    public List<ProcessEdge> incomingEdges(String toNodeId) {
+        return toNodeId != null ? incomingByNode.getOrDefault(toNodeId, NO_EDGES) : NO_EDGES;
+    }
+
+    /**
+     * The edge a CONDITION node routes to for the given instance data: the target of the first
+     * rule whose conditions all match, else the node's default edge. A rule or default naming an
+     * edge that is not outgoing from the node falls back to its first outgoing edge. Null when the
+     * node has no outgoing edges.
+     */
+    public ProcessEdge route(String conditionNodeId, Map<String, Object> data) {
+        return route(conditionNodeId, data::get);
+    }
+
+    /** Same as {@link #route(String, Map)}, with rule fields resolved by {@code lookup}. */
+    public ProcessEdge route(String conditionNodeId, Function<String, Object> lookup) {
+        List<ProcessEdge> outgoing = outgoingEdges(conditionNodeId);
+        Routing routing = routingByNode.get(conditionNodeId);
+        if (routing == null) {
+            return outgoing.isEmpty() ? null : outgoing.get(0);
+        }
+        for (Rule rule : routing.rules()) {
+            if (allMatch(rule.conditions(), lookup)) {
+                return rule.target();
+            }
+        }
+        return routing.fallback();
+    }
+
+    /** The validation plan of a FORM_PAGE node; an empty plan for any other node. */
+    public FormValidationPlan formValidation(String nodeId) {
+        FormValidationPlan plan = nodeId != null ? formPlansByNode.get(nodeId) : null;
+        return plan != null ? plan : FormValidationPlan.EMPTY;
+    }
+
+    public ProcessDefinition getDefinition() {
+        return definition;
+    }
+
+    public String getDefinitionId() {
+        return definition.getId();
+    }
+
+    public int getVersion() {
+        return definition.getVersion();
+    }
+
+    private static boolean allMatch(List<FieldCondition> conditions, Function<String, Object> lookup) {
+        for (FieldCondition condition : conditions) {
+            if (!condition.matches(lookup)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Routing compileRouting(Map<String, Object> config, List<ProcessEdge> outgoing) {
+        List<Rule> rules = new ArrayList<>();
+        Object rawRules = config.get("rules");
+        if (rawRules instanceof List<?> ruleList) {
+            for (Object rawRule : ruleList) {
+                if (!(rawRule instanceof Map<?, ?> rule)) {
+                    continue;
+                }
+                // Rules without a condition list never matched
+                if (!(rule.get("conditions") instanceof List<?> conditionList)) {
+                    continue;
+                }
+                List<FieldCondition> conditions = new ArrayList<>();
+                for (Object rawCondition : conditionList) {
+                    Map<String, Object> condition = (Map<String, Object>) rawCondition;
+                    conditions.add(FieldCondition.compile((String) condition.get("field"),
+                            (String) condition.get("operator"), condition.get("value")));
+                }
+                rules.add(new Rule(List.copyOf(conditions), resolveEdge(outgoing, (String) rule.get("targetEdgeId"))));
+            }
+        }
+        return new Routing(List.copyOf(rules), resolveEdge(outgoing, (String) config.get("defaultEdgeId")));
+    }
+
+    private static ProcessEdge resolveEdge(List<ProcessEdge> outgoing, String edgeId) {
+        if (outgoing.isEmpty()) {
+            return null;
+        }
+        if (edgeId != null) {
+            for (ProcessEdge edge : outgoing) {
+                if (edgeId.equals(edge.getId())) {
+                    return edge;
+                }
+            }
+        }
+        return outgoing.get(0);
+    }
+}
@@ -0,0 +1,50 @@
+package com.adaptivebp.modules.process.runtime;
+
+import java.util.function.Function;
+
+/**
+ * A parsed {field, operator, value} comparison, as used by CONDITION node rules and form
+ * element visibility rules. Values compare as strings, numbers only for the ordering operators.
+ */
+record FieldCondition(String field, String operator, String expected, double expectedNumber) {
+
+    static FieldCondition compile(String field, String operator, Object value) {
+        String expectedText = value == null ? "" : value.toString();
+        double expectedNumber;
+        try {
+            expectedNumber = Double.parseDouble(expectedText);
+        } catch (NumberFormatException e) {
+            expectedNumber = Double.NaN;
+        }
+        return new FieldCondition(field, operator != null ? operator : "", expectedText, expectedNumber);
+    }
+
+    /** {@code lookup} resolves the field to its current value. */
+    boolean matches(Function<String, Object> lookup) {
+        Object value = lookup.apply(field);
+        String actual = value == null ? "" : value.toString();
+        return switch (operator) {
+            case "EQUALS" -> actual.equals(expected);
+            case "NOT_EQUALS" -> !actual.equals(expected);
+            case "IS_EMPTY" -> actual.isBlank();
+            case "IS_NOT_EMPTY" -> !actual.isBlank();
+            case "CONTAINS" -> actual.contains(expected);
+            case "GREATER_THAN" -> compare(actual) > 0;
+            case "LESS_THAN" -> compare(actual) < 0;
+            default -> false;
+        };
+    }
+
+    /** Sign of actual - expected, or 0 when either side is not a number (so neither ordering matches). */
+    private int compare(String actual) {
+        if (Double.isNaN(expectedNumber)) {
+            return 0;
+        }
+        try {
+            double number = Double.parseDouble(actual);
+            return number > expectedNumber ? 1 : number < expectedNumber ? -1 : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package com.adaptivebp.modules.process.runtime;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A FORM_PAGE node's element config compiled for validating submissions: patterns are
+ * compiled, option lists turned into sets and visibility rules parsed once per definition
+ * version (see {@link CompiledProcess#formValidation}).
+ *
+ * <p>Patterns are user-authored, so each match runs under a budget of character reads; a
+ * pattern that backtracks past it fails the field instead of holding the request thread.
+ */
+public final class FormValidationPlan {
+
+    private static final Logger log = LoggerFactory.getLogger(FormValidationPlan.class);
+
+    public static final FormValidationPlan EMPTY = new FormValidationPlan(List.of());
+
+    public record FieldError(String elementId, String message) {}
+
+    private enum Kind { STRING, NUMBER, CHOICE, OTHER }
+
+    /**
+     * One element that has validation rules. {@code pattern} is null when absent or invalid,
+     * {@code invalidPattern} holds the source of one that did not compile.
+     */
+    private record Element(String id, Kind kind, FieldCondition showWhen, boolean required,
+            Integer minLength, Integer maxLength, Pattern pattern, String invalidPattern,
+            Number min, Number max, Set<String> options) {
+    }
+
+    private final List<Element> elements;
+
+    private FormValidationPlan(List<Element> elements) {
+        this.elements = elements;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static FormValidationPlan compile(Map<String, Object> nodeConfig) {
+        if (nodeConfig == null || !(nodeConfig.get("elements") instanceof List<?> rawElements)) {
+            return EMPTY;
+        }
+        List<Element> elements = new ArrayList<>();
+        for (Object rawElement : rawElements) {
+            if (!(rawElement instanceof Map<?, ?>)) {
+                continue;
+            }
+            Map<String, Object> element = (Map<String, Object>) rawElement;
+            String id = (String) element.get("id");
+            String type = (String) element.get("type");
+            if (id == null || "LABEL".equals(type) || "HIDDEN".equals(type)) continue;
+            if (!(element.get("validation") instanceof Map<?, ?> rawValidation)) continue;
+            elements.add(compileElement(id, type, element, (Map<String, Object>) rawValidation));
+        }
+        return elements.isEmpty() ? EMPTY : new FormValidationPlan(List.copyOf(elements));
+    }
+
+    /** Why {@code pattern} does not compile, or null if it does. */
+    public static String patternError(String pattern) {
+        try {
+            Pattern.compile(pattern);
+            return null;
+        } catch (PatternSyntaxException e) {
+            return e.getDescription();
+        }
+    }
+
+    /**
+     * Field-level errors for a submission. {@code regexStepBudget} caps the character reads of
+     * each pattern match; zero or less means unbounded.
+     */
+    public List<FieldError> validate(Map<String, Object> formData, long regexStepBudget) {
+        List<FieldError> errors = new ArrayList<>();
+        if (formData == null) return errors;
+
+        for (Element element : elements) {
+            String id = element.id();
+            // visibilityRule defines SHOW condition — if it fails, the element is hidden and not validated
+            if (element.showWhen() != null && !element.showWhen().matches(formData::get)) continue;
+
+            Object rawValue = formData.get(id);
+
+            // 1 — required check
+            if (element.required() && isEmpty(rawValue)) {
+                errors.add(new FieldError(id, "This field is required"));
+                continue; // Skip further checks if value is empty
+            }
+
+            if (isEmpty(rawValue)) continue; // Not required and empty — skip
+
+            String stringValue = rawValue.toString();
+
+            switch (element.kind()) {
+                case STRING -> {
+                    // 2 — minLength / maxLength
+                    if (element.minLength() != null && stringValue.length() < element.minLength()) {
+                        errors.add(new FieldError(id, "Minimum length is " + element.minLength()));
+                    }
+                    if (element.maxLength() != null && stringValue.length() > element.maxLength()) {
+                        errors.add(new FieldError(id, "Maximum length is " + element.maxLength()));
+                    }
+                    // 4 — pattern (regex)
+                    if (element.invalidPattern() != null) {
+                        errors.add(new FieldError(id, "The field's validation pattern is invalid"));
+                    } else if (element.pattern() != null) {
+                        checkPattern(element, stringValue, regexStepBudget, errors);
+                    }
+                }
+                case NUMBER -> {
+                    // 3 — min / max
+                    try {
+                        double numValue = Double.parseDouble(stringValue);
+                        if (element.min() != null && numValue < element.min().doubleValue()) {
+                            errors.add(new FieldError(id, "Minimum value is " + element.min()));
+                        }
+                        if (element.max() != null && numValue > element.max().doubleValue()) {
+                            errors.add(new FieldError(id, "Maximum value is " + element.max()));
+                        }
+                    } catch (NumberFormatException e) {
+                        errors.add(new FieldError(id, "Must be a valid number"));
+                    }
+                }
+                case CHOICE -> {
+                    // 6 — SELECT / RADIO / CHECKBOX must match defined options
+                    if (element.options() == null) break;
+                    if (rawValue instanceof Collection<?> multi) {
+                        for (Object v : multi) {
+                            if (!element.options().contains(v.toString())) {
+                                errors.add(new FieldError(id, "Invalid option: " + v));
+                            }
+                        }
+                    } else if (!element.options().contains(stringValue)) {
+                        errors.add(new FieldError(id, "Invalid option: " + stringValue));
+                    }
+                }
+                case OTHER -> { /* only the required check applies */ }
+            }
+        }
+
+        return errors;
+    }
+
+    // ── Private helpers ───────────────────────────────────────────────────────
+
+    @SuppressWarnings("unchecked")
+    private static Element compileElement(String id, String type, Map<String, Object> element,
+            Map<String, Object> validation) {
+        FieldCondition showWhen = null;
+        if (element.get("visibilityRule") instanceof Map<?, ?> rawRule) {
+            Map<String, Object> rule = (Map<String, Object>) rawRule;
+            String dependsOn = (String) rule.get("dependsOn");
+            String operator = (String) rule.get("operator");
+            if (dependsOn != null && operator != null) {
+                showWhen = FieldCondition.compile(dependsOn, operator, rule.get("value"));
+            }
+        }
+        boolean required = Boolean.TRUE.equals(validation.get("required"));
+
+        Kind kind = kindOf(type);
+        Integer minLength = null;
+        Integer maxLength = null;
+        Pattern pattern = null;
+        String invalidPattern = null;
+        Number min = null;
+        Number max = null;
+        Set<String> options = null;
+        switch (kind) {
+            case STRING -> {
+                minLength = toInt(validation.get("minLength"));
+                maxLength = toInt(validation.get("maxLength"));
+                String source = (String) validation.get("pattern");
+                if (source != null && !source.isBlank()) {
+                    try {
+                        pattern = Pattern.compile(source);
+                    } catch (PatternSyntaxException e) {
+                        invalidPattern = source;
+                    }
+                }
+            }
+            case NUMBER -> {
+                min = validation.get("min") instanceof Number n ? n : null;
+                max = validation.get("max") instanceof Number n ? n : null;
+            }
+            case CHOICE -> {
+                if (element.get("config") instanceof Map<?, ?> config
+                        && config.get("options") instanceof List<?> rawOptions && !rawOptions.isEmpty()) {
+                    options = new HashSet<>();
+                    for (Object rawOption : rawOptions) {
+                        if (rawOption instanceof Map<?, ?> option && option.get("value") != null) {
+                            options.add(option.get("value").toString());
+                        }
+                    }
+                    options = Set.copyOf(options);
+                }
+            }
+            case OTHER -> { }
+        }
+        return new Element(id, kind, showWhen, required, minLength, maxLength, pattern, invalidPattern,
+                min, max, options);
+    }
+
+    private static void checkPattern(Element element, String value, long budget, List<FieldError> errors) {
+        CharSequence input = budget > 0 ? new BudgetedInput(value, new long[] { budget }) : value;
+        try {
+            if (!element.pattern().matcher(input).matches()) {
+                errors.add(new FieldError(element.id(), "Value does not match the required pattern"));
+            }
+        } catch (BudgetExceeded e) {
+            log.warn("Pattern '{}' of element '{}' exceeded its budget of {} steps on a {}-character value",
+                    element.pattern().pattern(), element.id(), budget, value.length());
+            errors.add(new FieldError(element.id(), "Value could not be checked against the required pattern"));
+        }
+    }
+
+    private static Kind kindOf(String type) {
+        if ("TEXT_INPUT".equals(type) || "TEXT_AREA".equals(type) || "DATE_PICKER".equals(type)
+                || "DATETIME_PICKER".equals(type)) {
+            return Kind.STRING;
+        }
+        if ("NUMBER_INPUT".equals(type)) return Kind.NUMBER;
+        if ("SELECT".equals(type) || "RADIO".equals(type) || "CHECKBOX".equals(type)) return Kind.CHOICE;
+        return Kind.OTHER;
+    }
+
+    private static boolean isEmpty(Object value) {
+        if (value == null) return true;
+        if (value instanceof String s) return s.isBlank();
+        if (value instanceof Collection<?> c) return c.isEmpty();
+        return false;
+    }
+
+    private static Integer toInt(Object value) {
+        if (value == null) return null;
+        if (value instanceof Number n) return n.intValue();
+        try { return Integer.parseInt(value.toString()); }
+        catch (NumberFormatException e) { return null; }
+    }
+
+    /** Thrown from inside the regex engine to abandon a match; no stack trace, it is never logged. */
+    private static final class BudgetExceeded extends RuntimeException {
+        BudgetExceeded() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * Input whose every character read spends one step of a budget shared with its
+     * sub-sequences. Backtracking rereads characters, so the spend tracks the work done.
+     */
+    private static final class BudgetedInput implements CharSequence {
+
+        private final CharSequence text;
+        private final long[] remaining;
+
+        BudgetedInput(CharSequence text, long[] remaining) {
+            this.text = text;
+            this.remaining = remaining;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (--remaining[0] < 0) {
+                throw new BudgetExceeded();
+            }
+            return text.charAt(index);
+        }
+
+        @Override
+        public int length() {
+            return text.length();
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new BudgetedInput(text.subSequence(start, end), remaining);
+        }
+
+        @Override
+        public String toString() {
+            return text.toString();
+        }
+    }
+}
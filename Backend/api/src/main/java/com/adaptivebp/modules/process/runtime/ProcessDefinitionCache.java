@@ -0,0 +1,90 @@
+package com.adaptivebp.modules.process.runtime;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.adaptivebp.modules.process.exception.ProcessNotFoundException;
+import com.adaptivebp.modules.process.model.ProcessDefinition;
+import com.adaptivebp.modules.process.repository.ProcessDefinitionRepository;
+
+/**
+ * In-process LRU cache of {@link CompiledProcess}es keyed by definition id + version.
+ * ProcessDefinitionService invalidates entries whenever a definition is saved or deleted.
+ */
+@Component
+public class ProcessDefinitionCache {
+
+    private record Key(String definitionId, int version) {
+    }
+
+    @Autowired
+    private ProcessDefinitionRepository definitionRepository;
+
+    private final Map<Key, CompiledProcess> entries;
+
+    public ProcessDefinitionCache(@Value("${process.definition-cache.max-entries:256}") int maxEntries) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, CompiledProcess> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the compiled definition for an instance pinned to {@code version}.
+     * Falls back to loading by id when the pair is not cached yet.
+     */
+    public CompiledProcess get(String definitionId, int version) {
+        CompiledProcess cached = lookup(new Key(definitionId, version));
+        if (cached != null) {
+            return cached;
+        }
+        ProcessDefinition definition = definitionRepository.findById(definitionId)
+                .orElseThrow(() -> new ProcessNotFoundException("Process definition not found: " + definitionId));
+        return put(definition);
+    }
+
+    /** Returns the cached compilation of a definition the caller has already loaded, compiling it on a miss. */
+    public CompiledProcess get(ProcessDefinition definition) {
+        CompiledProcess cached = lookup(new Key(definition.getId(), definition.getVersion()));
+        return cached != null ? cached : put(definition);
+    }
+
+    /** Compiles and caches a definition that the caller has already loaded. */
+    public CompiledProcess put(ProcessDefinition definition) {
+        CompiledProcess compiled = CompiledProcess.compile(definition);
+        if (definition.getId() != null) {
+            synchronized (entries) {
+                entries.put(new Key(definition.getId(), definition.getVersion()), compiled);
+            }
+        }
+        return compiled;
+    }
+
+    /** Drops every cached version of the given definition. */
+    public void invalidate(String definitionId) {
+        if (definitionId == null) {
+            return;
+        }
+        synchronized (entries) {
+            entries.keySet().removeIf(key -> definitionId.equals(key.definitionId()));
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    private CompiledProcess lookup(Key key) {
+        synchronized (entries) {
+            return entries.get(key);
+        }
+    }
+}
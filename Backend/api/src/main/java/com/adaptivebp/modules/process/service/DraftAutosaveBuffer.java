@@ -0,0 +1,279 @@
+package com.adaptivebp.modules.process.service;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Coalesces form autosaves per instance. The first save of a node opens a window of
+ * {@code process.drafts.coalesce-ms}; saves arriving within it are merged into the same
+ * pending draft, which is then written once. A save for another node writes the pending one
+ * straight away. With the window at 0, or before the application is ready, saves are written
+ * in the caller's thread.
+ *
+ * <p>Expired and superseded drafts are written by {@code process.drafts.workers} threads behind
+ * a queue of {@code process.drafts.max-pending}; when the queue is full the submitting thread
+ * writes itself, and once {@code process.drafts.max-pending} drafts are waiting, new ones are
+ * written in the caller's thread. Writes of one instance run one at a time in the order their
+ * drafts left the buffer, so an older draft never lands after a newer one. Pending drafts live
+ * in this JVM only; {@link #pending} lets node views include them. Shutdown writes what is left
+ * before the Mongo client closes.
+ */
+@Component
+@DependsOn("mongoTemplate")
+public class DraftAutosaveBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(DraftAutosaveBuffer.class);
+
+    /** Writes one node's draft values; the engine's saveDraft. */
+    @FunctionalInterface
+    interface DraftWriter {
+        void write(String instanceId, String nodeId, Map<String, Object> values, String userId);
+    }
+
+    private static final class PendingDraft {
+        private final String nodeId;
+        private final String userId;
+        private final DraftWriter writer;
+        private final Map<String, Object> values = new LinkedHashMap<>();
+        private ScheduledFuture<?> flush;
+
+        private PendingDraft(String nodeId, String userId, DraftWriter writer) {
+            this.nodeId = nodeId;
+            this.userId = userId;
+            this.writer = writer;
+        }
+    }
+
+    /**
+     * One write of an instance, taken with {@link #pending} held so turns follow the order in
+     * which drafts leave the buffer, and run after releasing it. It starts once the instance's
+     * previous turn is done.
+     */
+    private static final class Turn {
+        private final CompletableFuture<Void> before;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        private Turn(CompletableFuture<Void> before) {
+            this.before = before;
+        }
+
+        /** Runs the write on {@code executor} when the previous turn is done, without waiting for it. */
+        private void handOff(Runnable write, Executor executor) {
+            Runnable submit = () -> executor.execute(() -> runNow(write));
+            if (before == null) {
+                submit.run();
+            } else {
+                before.whenComplete((ignored, ex) -> submit.run());
+            }
+        }
+
+        /** Waits for the previous turn, then runs the write in the calling thread. */
+        private void run(Runnable write) {
+            if (before != null) {
+                before.join();
+            }
+            runNow(write);
+        }
+
+        private void runNow(Runnable write) {
+            try {
+                write.run();
+            } finally {
+                done.complete(null);
+            }
+        }
+    }
+
+    @Value("${process.drafts.coalesce-ms:500}")
+    private long coalesceMillis;
+
+    @Value("${process.drafts.workers:4}")
+    private int workerCount;
+
+    @Value("${process.drafts.max-pending:10000}")
+    private int maxPending;
+
+    private final Map<String, PendingDraft> pending = new HashMap<>();
+    /** The last turn taken per instance, until it is done; guarded by {@link #pending}. */
+    private final Map<String, CompletableFuture<Void>> writing = new HashMap<>();
+    private ScheduledExecutorService scheduler;
+    private ExecutorService workers;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (coalesceMillis <= 0 || scheduler != null) {
+            return;
+        }
+        workers = new ThreadPoolExecutor(workerCount, workerCount, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, maxPending)), daemon("process-draft-writer"),
+                // Unlike CallerRunsPolicy this also runs writes handed off after shutdown, which a
+                // write chained behind a draining one can be
+                (task, pool) -> task.run());
+        scheduler = Executors.newSingleThreadScheduledExecutor(daemon("process-draft-autosave"));
+    }
+
+    /** Stops the window timer, lets queued writes finish and writes whatever is still pending. */
+    @PreDestroy
+    public void stop() {
+        ExecutorService draining;
+        synchronized (this) {
+            if (scheduler != null) {
+                scheduler.shutdownNow();
+                scheduler = null;
+            }
+            draining = workers;
+            workers = null;
+        }
+        if (draining != null) {
+            draining.shutdown();
+            try {
+                if (!draining.awaitTermination(10, TimeUnit.SECONDS)) {
+                    log.warn("Draft writers did not finish within 10 s; queued drafts are dropped");
+                    draining.shutdownNow();
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        Map<String, PendingDraft> remaining;
+        Map<String, Turn> turns = new LinkedHashMap<>();
+        synchronized (pending) {
+            remaining = new LinkedHashMap<>(pending);
+            pending.clear();
+            remaining.keySet().forEach(instanceId -> turns.put(instanceId, turn(instanceId)));
+        }
+        remaining.forEach((instanceId, draft) -> turns.get(instanceId).run(() -> write(instanceId, draft)));
+    }
+
+    /**
+     * Queues draft values of {@code nodeId}, or writes them now when coalescing is off or
+     * {@code process.drafts.max-pending} drafts are already waiting.
+     */
+    void add(String instanceId, String nodeId, Map<String, Object> values, String userId, DraftWriter writer) {
+        ScheduledExecutorService timer;
+        synchronized (this) {
+            timer = scheduler;
+        }
+        if (timer == null) {
+            writer.write(instanceId, nodeId, values, userId);
+            return;
+        }
+
+        PendingDraft superseded = null;
+        Turn supersededTurn = null;
+        Turn ownTurn = null;
+        synchronized (pending) {
+            PendingDraft draft = pending.get(instanceId);
+            if (draft != null && !draft.nodeId.equals(nodeId)) {
+                superseded = pending.remove(instanceId);
+                superseded.flush.cancel(false);
+                // Taken before the caller's own turn below, so it cannot land after it
+                supersededTurn = turn(instanceId);
+                draft = null;
+            }
+            if (draft == null && pending.size() >= maxPending) {
+                ownTurn = turn(instanceId);
+            } else {
+                if (draft == null) {
+                    draft = new PendingDraft(nodeId, userId, writer);
+                    pending.put(instanceId, draft);
+                    draft.flush = timer.schedule(() -> expire(instanceId), coalesceMillis, TimeUnit.MILLISECONDS);
+                }
+                draft.values.putAll(values);
+            }
+        }
+        if (superseded != null) {
+            PendingDraft written = superseded;
+            supersededTurn.handOff(() -> write(instanceId, written), executor());
+        }
+        if (ownTurn != null) {
+            // The caller pays for its own write instead of growing the buffer
+            ownTurn.run(() -> writer.write(instanceId, nodeId, values, userId));
+        }
+    }
+
+    /** Values accepted for the node's draft but not written yet; empty when there are none. */
+    Map<String, Object> pending(String instanceId, String nodeId) {
+        synchronized (pending) {
+            PendingDraft draft = pending.get(instanceId);
+            return draft != null && draft.nodeId.equals(nodeId) ? new HashMap<>(draft.values) : Map.of();
+        }
+    }
+
+    /** Hands an expired draft to the writers. Runs on the timer thread. */
+    private void expire(String instanceId) {
+        PendingDraft draft;
+        Turn turn = null;
+        synchronized (pending) {
+            draft = pending.remove(instanceId);
+            if (draft != null) {
+                turn = turn(instanceId);
+            }
+        }
+        if (draft != null) {
+            turn.handOff(() -> write(instanceId, draft), executor());
+        }
+    }
+
+    private synchronized Executor executor() {
+        return workers != null ? workers : Runnable::run;
+    }
+
+    /** Takes the instance's next turn. Call with {@link #pending} held. */
+    private Turn turn(String instanceId) {
+        CompletableFuture<Void> before = writing.get(instanceId);
+        Turn turn = new Turn(before);
+        writing.put(instanceId, turn.done);
+        turn.done.whenComplete((ignored, ex) -> {
+            synchronized (pending) {
+                writing.remove(instanceId, turn.done);
+            }
+        });
+        return turn;
+    }
+
+    /**
+     * Writes a coalesced draft. Its caller has already been answered, so failures are logged;
+     * the usual one is that the instance moved on to another node, which makes the draft moot.
+     */
+    private void write(String instanceId, PendingDraft draft) {
+        try {
+            draft.writer.write(instanceId, draft.nodeId, draft.values, draft.userId);
+        } catch (RuntimeException ex) {
+            log.warn("Dropped autosaved draft of node '{}' on instance {}: {}", draft.nodeId, instanceId,
+                    ex.getMessage());
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -21,6 +21,7 @@ import com.adaptivebp.modules.process.model.enums.InstanceStatus;
 import com.adaptivebp.modules.process.model.enums.ProcessStatus;
 import com.adaptivebp.modules.process.repository.ProcessDefinitionRepository;
 import com.adaptivebp.modules.process.repository.ProcessInstanceRepository;
+import com.adaptivebp.modules.process.runtime.ProcessDefinitionCache;
 
 /**
  * Each application has exactly one process definition.
@@ -32,6 +33,7 @@ public class ProcessDefinitionService {
     @Autowired private ProcessDefinitionRepository definitionRepository;
     @Autowired private ProcessInstanceRepository instanceRepository;
     @Autowired private ProcessValidationService validationService;
+    @Autowired private ProcessDefinitionCache definitionCache;
 
     // ── CRUD ─────────────────────────────────────────────────────────────────
 
@@ -73,7 +75,7 @@ public class ProcessDefinitionService {
         def.setCreatedAt(Instant.now());
         def.setUpdatedAt(Instant.now());
 
-        return definitionRepository.save(def);
+        return save(def);
     }
 
     /**
@@ -104,7 +106,7 @@ public class ProcessDefinitionService {
         }
         def.setUpdatedAt(Instant.now());
 
-        return definitionRepository.save(def);
+        return save(def);
     }
 
     /**
@@ -125,12 +127,12 @@ public class ProcessDefinitionService {
                 .forEach(old -> {
                     old.setStatus(ProcessStatus.ARCHIVED);
                     old.setUpdatedAt(Instant.now());
-                    definitionRepository.save(old);
+                    save(old);
                 });
 
         draft.setStatus(ProcessStatus.PUBLISHED);
         draft.setUpdatedAt(Instant.now());
-        return definitionRepository.save(draft);
+        return save(draft);
     }
 
     /**
@@ -148,7 +150,7 @@ public class ProcessDefinitionService {
 
         def.setStatus(ProcessStatus.ARCHIVED);
         def.setUpdatedAt(Instant.now());
-        return definitionRepository.save(def);
+        return save(def);
     }
 
     /**
@@ -162,10 +164,21 @@ public class ProcessDefinitionService {
                         "No process definition found for this application"));
     }
 
+    /**
+     * ETag of what {@link #getProcess} returns, from a lookup of the id and revision only;
+     * null when the app has no process.
+     */
+    public String getProcessETag(String domainId, String appId) {
+        return definitionRepository.findTopRevisionByDomainIdAndAppIdOrderByVersionDesc(domainId, appId)
+                .map(revision -> revision.getId() + "-" + revision.getRevision())
+                .orElse(null);
+    }
+
     /** Hard-deletes the DRAFT process definition. */
     public void deleteProcess(String domainId, String appId, String appSlug) {
         ProcessDefinition def = requireDraft(domainId, appId);
         definitionRepository.delete(def);
+        definitionCache.invalidate(def.getId());
     }
 
     /**
@@ -237,11 +250,18 @@ public class ProcessDefinitionService {
         }
         definition.setEdges(edges);
 
-        return definitionRepository.save(definition);
+        return save(definition);
     }
 
     // ── Internal helpers ──────────────────────────────────────────────────────
 
+    private ProcessDefinition save(ProcessDefinition definition) {
+        definition.setRevision(definition.getRevision() + 1);
+        ProcessDefinition saved = definitionRepository.save(definition);
+        definitionCache.invalidate(saved.getId());
+        return saved;
+    }
+
     private ProcessDefinition requireDraft(String domainId, String appId) {
         ProcessDefinition def = definitionRepository
                 .findTopByDomainIdAndAppIdOrderByVersionDesc(domainId, appId)
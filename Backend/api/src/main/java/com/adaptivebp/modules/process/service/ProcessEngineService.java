@@ -2,13 +2,19 @@ package com.adaptivebp.modules.process.service;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
 import com.adaptivebp.modules.process.dto.NodeViewResponse;
@@ -28,15 +34,23 @@ import com.adaptivebp.modules.process.model.enums.InstanceStatus;
 import com.adaptivebp.modules.process.model.enums.NodeType;
 import com.adaptivebp.modules.process.model.enums.ProcessStatus;
 import com.adaptivebp.modules.formbuilder.model.ModelRecord;
+import com.adaptivebp.modules.formbuilder.port.ModelRecordBatch;
+import com.adaptivebp.modules.formbuilder.port.ModelRecordPage;
+import com.adaptivebp.modules.formbuilder.port.ModelRecordQuery;
 import com.adaptivebp.modules.formbuilder.port.ModelRecordQueryPort;
 import com.adaptivebp.modules.process.repository.ProcessDefinitionRepository;
 import com.adaptivebp.modules.process.repository.ProcessInstanceRepository;
+import com.adaptivebp.modules.process.repository.ProcessInstanceWriter;
+import com.adaptivebp.modules.process.runtime.CompiledProcess;
+import com.adaptivebp.modules.process.runtime.FormValidationPlan;
+import com.adaptivebp.modules.process.runtime.ProcessDefinitionCache;
 
 @Service
 public class ProcessEngineService {
 
     private static final Logger log = LoggerFactory.getLogger(ProcessEngineService.class);
     private static final int MAX_AUTO_ADVANCE_HOPS = 50;
+    private static final int DEFAULT_DATA_VIEW_PAGE_SIZE = 50;
 
     @Autowired
     private ProcessDefinitionRepository definitionRepository;
@@ -44,6 +58,18 @@ public class ProcessEngineService {
     @Autowired
     private ProcessInstanceRepository instanceRepository;
 
+    @Autowired
+    private ProcessInstanceWriter instanceWriter;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private DraftAutosaveBuffer draftBuffer;
+
+    @Autowired
+    private ProcessDefinitionCache definitionCache;
+
     @Autowired
     private FormValidationService formValidationService;
 
@@ -63,8 +89,9 @@ public class ProcessEngineService {
                 .stream().findFirst()
                 .orElseThrow(() -> new ProcessNotFoundException(
                         "This application has no published workflow. Contact your administrator to publish the process first."));
+        CompiledProcess process = definitionCache.get(def);
 
-        ProcessNode startNode = def.findStartNode();
+        ProcessNode startNode = process.findStartNode();
         if (startNode == null) {
             throw new ProcessNotFoundException("Process definition has no START node");
         }
@@ -74,6 +101,7 @@ public class ProcessEngineService {
         instance.setProcessVersion(def.getVersion());
         instance.setDomainId(domainId);
         instance.setAppId(appId);
+        instance.setDataLayout(ProcessInstance.NODE_DATA);
         instance.setStatus(InstanceStatus.ACTIVE);
         instance.setCurrentNodeId(startNode.getId());
         instance.setStartedBy(userId);
@@ -82,10 +110,11 @@ public class ProcessEngineService {
         appendHistory(instance, startNode.getId(), "ENTERED", userId, null, null);
 
         // Auto-advance past START to the first interactive node
-        advanceToNext(instance, def, startNode.getId(), null, userId, 0);
+        ModelRecordBatch records = modelRecordQueryPort.batch();
+        advanceToNext(instance, process, startNode.getId(), null, userId, records);
 
-        ProcessInstance saved = instanceRepository.save(instance);
-        ProcessNode currentNode = def.findNodeById(saved.getCurrentNodeId());
+        ProcessInstance saved = persist(instance, records);
+        ProcessNode currentNode = process.findNodeById(saved.getCurrentNodeId());
         return ProcessInstanceResponse.of(saved, currentNode);
     }
 
@@ -95,7 +124,7 @@ public class ProcessEngineService {
     public ProcessInstanceResponse submitNode(String instanceId, String nodeId,
             Map<String, Object> formData, String action, String comment, String userId) {
         ProcessInstance instance = requireActiveInstance(instanceId);
-        ProcessDefinition def = loadDefinitionForInstance(instance);
+        CompiledProcess process = loadDefinitionForInstance(instance);
 
         // 1 — Verify frontend is in sync
         if (!nodeId.equals(instance.getCurrentNodeId())) {
@@ -103,7 +132,7 @@ public class ProcessEngineService {
                     "Node mismatch: expected '" + instance.getCurrentNodeId() + "' but got '" + nodeId + "'");
         }
 
-        ProcessNode node = def.findNodeById(nodeId);
+        ProcessNode node = process.findNodeById(nodeId);
         if (node == null) {
             throw new InvalidNodeSubmissionException("Node '" + nodeId + "' not found in definition");
         }
@@ -114,17 +143,17 @@ public class ProcessEngineService {
         // 3 — Handle by node type
         switch (node.getType()) {
             case FORM_PAGE -> {
-                List<FormValidationService.FieldError> fieldErrors =
-                        formValidationService.validate(node.getConfig(), formData != null ? formData : Map.of());
+                List<FormValidationPlan.FieldError> fieldErrors = formValidationService.validate(
+                        process.formValidation(nodeId), formData != null ? formData : Map.of());
                 if (!fieldErrors.isEmpty()) {
                     List<String> messages = fieldErrors.stream()
                             .map(e -> e.elementId() + ": " + e.message()).toList();
                     throw new InvalidNodeSubmissionException("Form validation failed: " + String.join("; ", messages));
                 }
-                // Merge into instance.data with "nodeId__elementId" key format (no dots — MongoDB restriction)
+                // Merge into the node's sub-document, instance.data.<nodeId>.<elementId>
                 if (formData != null) {
                     for (Map.Entry<String, Object> entry : formData.entrySet()) {
-                        instance.getData().put(nodeId + "__" + entry.getKey(), entry.getValue());
+                        instance.putNodeData(nodeId, entry.getKey(), entry.getValue());
                     }
                 }
                 appendHistory(instance, nodeId, "SUBMITTED", userId, formData, comment);
@@ -136,10 +165,10 @@ public class ProcessEngineService {
                 // Merge any approval form data
                 if (formData != null) {
                     for (Map.Entry<String, Object> entry : formData.entrySet()) {
-                        instance.getData().put(nodeId + "__" + entry.getKey(), entry.getValue());
+                        instance.putNodeData(nodeId, entry.getKey(), entry.getValue());
                     }
                 }
-                instance.getData().put(nodeId + "___action", action);
+                instance.putNodeData(nodeId, "_action", action);
                 appendHistory(instance, nodeId, action.toUpperCase(), userId, formData, comment);
             }
             case DATA_VIEW -> {
@@ -151,10 +180,11 @@ public class ProcessEngineService {
         }
 
         // 4 — Advance to the next node
-        advanceToNext(instance, def, nodeId, action, userId, 0);
+        ModelRecordBatch records = modelRecordQueryPort.batch();
+        advanceToNext(instance, process, nodeId, action, userId, records);
 
-        ProcessInstance saved = instanceRepository.save(instance);
-        ProcessNode currentNode = def.findNodeById(saved.getCurrentNodeId());
+        ProcessInstance saved = persist(instance, records);
+        ProcessNode currentNode = process.findNodeById(saved.getCurrentNodeId());
         return ProcessInstanceResponse.of(saved, currentNode);
     }
 
@@ -162,9 +192,17 @@ public class ProcessEngineService {
      * Returns what the current node should render for the user.
      */
     public NodeViewResponse getNodeView(String instanceId, String userId) {
-        ProcessInstance instance = requireActiveInstance(instanceId);
-        ProcessDefinition def = loadDefinitionForInstance(instance);
-        ProcessNode node = def.findNodeById(instance.getCurrentNodeId());
+        return getNodeView(instanceId, userId, null, 0);
+    }
+
+    /**
+     * Same as {@link #getNodeView(String, String)}; for DATA_VIEW nodes {@code cursor} and
+     * {@code limit} select the page of records (limit 0 uses the node's pageSize).
+     */
+    public NodeViewResponse getNodeView(String instanceId, String userId, String cursor, int limit) {
+        ProcessInstance instance = requireActiveInstanceHeader(instanceId);
+        CompiledProcess process = loadDefinitionForInstance(instance);
+        ProcessNode node = process.findNodeById(instance.getCurrentNodeId());
         if (node == null) {
             throw new ProcessNotFoundException("Current node not found in definition");
         }
@@ -178,25 +216,20 @@ public class ProcessEngineService {
         switch (node.getType()) {
             case FORM_PAGE -> {
                 // Return any draft or previously saved data for this node
-                Map<String, Object> prefilled = new HashMap<>();
-                String prefix = node.getId() + "__";
-                for (Map.Entry<String, Object> entry : instance.getData().entrySet()) {
-                    if (entry.getKey().startsWith(prefix)) {
-                        prefilled.put(entry.getKey().substring(prefix.length()), entry.getValue());
-                    }
-                }
-                // Overlay with draft data (draft takes precedence)
-                for (Map.Entry<String, Object> entry : instance.getDraftData().entrySet()) {
-                    if (entry.getKey().startsWith(prefix)) {
-                        prefilled.put(entry.getKey().substring(prefix.length()), entry.getValue());
-                    }
-                }
+                loadNodeData(instance, List.of(node.getId()), true);
+                Map<String, Object> prefilled = new HashMap<>(instance.nodeData(node.getId()));
+                // Overlay with draft data (draft takes precedence), including autosaves not written yet
+                prefilled.putAll(instance.nodeDraft(node.getId()));
+                prefilled.putAll(draftBuffer.pending(instanceId, node.getId()));
                 view.setPrefilledData(prefilled);
                 view.setAvailableActions(List.of("submit"));
             }
             case APPROVAL -> {
                 view.setAvailableActions(extractApprovalActions(node));
-                // Provide a summary of instance data for context
+                // Provide a summary of instance data for context — only contextNodeIds when configured
+                @SuppressWarnings("unchecked")
+                List<String> contextNodeIds = (List<String>) view.getConfig().get("contextNodeIds");
+                loadNodeData(instance, contextNodeIds, false);
                 view.setPrefilledData(new HashMap<>(instance.getData()));
             }
             case DATA_VIEW -> {
@@ -204,8 +237,9 @@ public class ProcessEngineService {
                 if (modelId != null && !modelId.isBlank()) {
                     @SuppressWarnings("unchecked")
                     List<String> displayFields = (List<String>) node.getConfig().get("displayFields");
-                    List<ModelRecord> records = modelRecordQueryPort.findByModel(modelId, instance.getDomainId());
-                    List<Map<String, Object>> recordData = records.stream()
+                    loadNodeData(instance, referencedNodes(node.getConfig().get("filters")), false);
+                    ModelRecordPage page = queryDataView(node.getConfig(), modelId, instance, userId, cursor, limit);
+                    List<Map<String, Object>> recordData = page.records().stream()
                             .map(r -> {
                                 Map<String, Object> row = new java.util.LinkedHashMap<>();
                                 row.put("_id", r.getId());
@@ -220,6 +254,7 @@ public class ProcessEngineService {
                             })
                             .toList();
                     view.setRecords(recordData);
+                    view.setRecordsNextCursor(page.nextCursor());
                 } else {
                     view.setRecords(List.of());
                 }
@@ -235,36 +270,87 @@ public class ProcessEngineService {
         return view;
     }
 
+    /**
+     * Builds the record query for a DATA_VIEW node from its config: displayFields (projection),
+     * sortField + sortDirection (ASC/DESC), pageSize, and filters of
+     * {field, operator, value, source} where source resolves value like a DATA_ACTION mapping.
+     */
+    @SuppressWarnings("unchecked")
+    private ModelRecordPage queryDataView(Map<String, Object> config, String modelId,
+            ProcessInstance instance, String userId, String cursor, int limit) {
+        List<ModelRecordQuery.Filter> filters = new ArrayList<>();
+        if (config.get("filters") instanceof List<?> rawFilters) {
+            for (Object rawFilter : rawFilters) {
+                Map<String, Object> filter = (Map<String, Object>) rawFilter;
+                Object value = filter.get("value");
+                if (value instanceof String text) {
+                    value = resolveFieldValue((String) filter.get("source"), text, instance, userId);
+                }
+                filters.add(new ModelRecordQuery.Filter((String) filter.get("field"),
+                        (String) filter.get("operator"), value));
+            }
+        }
+        int pageSize = limit > 0 ? limit
+                : config.get("pageSize") instanceof Number size ? size.intValue() : DEFAULT_DATA_VIEW_PAGE_SIZE;
+        ModelRecordQuery query = new ModelRecordQuery(modelId, instance.getDomainId(), filters,
+                (String) config.get("sortField"), "DESC".equalsIgnoreCase((String) config.get("sortDirection")),
+                (List<String>) config.get("displayFields"), cursor, pageSize);
+        try {
+            return modelRecordQueryPort.findPage(query);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidNodeSubmissionException("Invalid data view: " + e.getMessage());
+        }
+    }
+
     /**
      * Saves partial form data without advancing the process.
+     * A single conditional {@code $set} on the node's draft keys; the instance is only read when
+     * that does not apply, to report why or to rewrite an instance stored in the flat layout.
      */
-    public ProcessInstance saveDraft(String instanceId, String nodeId,
+    public void saveDraft(String instanceId, String nodeId,
             Map<String, Object> partialData, String userId) {
-        ProcessInstance instance = requireActiveInstance(instanceId);
+        Map<String, Object> values = partialData != null ? partialData : Map.of();
+        if (!values.isEmpty() && instanceWriter.saveDraft(instanceId, nodeId, values)) {
+            return;
+        }
+
+        ProcessInstance instance = requireActiveInstanceHeader(instanceId);
 
         if (!nodeId.equals(instance.getCurrentNodeId())) {
             throw new InvalidNodeSubmissionException(
                     "Node mismatch: cannot save draft for node '" + nodeId + "'");
         }
 
-        if (partialData != null) {
-            String prefix = nodeId + "__";
-            for (Map.Entry<String, Object> entry : partialData.entrySet()) {
-                instance.getDraftData().put(prefix + entry.getKey(), entry.getValue());
-            }
+        if (values.isEmpty()) {
+            return;
         }
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            instance.putNodeDraft(nodeId, entry.getKey(), entry.getValue());
+        }
+        instanceWriter.save(instance);
+    }
 
-        return instanceRepository.save(instance);
+    /**
+     * Autosave variant of {@link #saveDraft} for field-by-field saves from the form: rapid saves
+     * of the same node are coalesced into one write by {@link DraftAutosaveBuffer}. Returns
+     * before the write, so a stale node or a finished instance is not reported.
+     */
+    public void autosaveDraft(String instanceId, String nodeId,
+            Map<String, Object> partialData, String userId) {
+        if (partialData == null || partialData.isEmpty()) {
+            return;
+        }
+        draftBuffer.add(instanceId, nodeId, new HashMap<>(partialData), userId, this::saveDraft);
     }
 
     /**
      * Cancels an active instance.
      */
     public ProcessInstance cancelInstance(String instanceId, String userId) {
-        ProcessInstance instance = requireActiveInstance(instanceId);
+        ProcessInstance instance = requireActiveInstanceHeader(instanceId);
         instance.setStatus(InstanceStatus.CANCELLED);
         appendHistory(instance, instance.getCurrentNodeId(), "CANCELLED", userId, null, null);
-        return instanceRepository.save(instance);
+        return instanceWriter.save(instance);
     }
 
     public ProcessInstance getInstance(String instanceId) {
@@ -283,96 +369,118 @@ public class ProcessEngineService {
     // ── Core engine — private ─────────────────────────────────────────────────
 
     /**
-     * Recursively advances the instance through silent nodes
-     * (CONDITION, DATA_ACTION, NOTIFICATION) until it hits a node
-     * that requires human interaction or reaches END.
+     * Advances the instance through silent nodes (CONDITION, DATA_ACTION,
+     * NOTIFICATION) until it hits a node that requires human interaction or
+     * reaches END. Nothing is written here: DATA_ACTION record changes are
+     * staged in {@code records} and written by {@link #persist}.
      * Safety limit: MAX_AUTO_ADVANCE_HOPS to prevent infinite loops.
      */
-    private void advanceToNext(ProcessInstance instance, ProcessDefinition def,
-            String fromNodeId, String lastAction, String userId, int hopCount) {
-        if (hopCount >= MAX_AUTO_ADVANCE_HOPS) {
-            log.error("Max auto-advance hops reached for instance {}. Pausing.", instance.getId());
-            instance.setStatus(InstanceStatus.PAUSED);
-            return;
-        }
-
-        List<ProcessEdge> outgoing = def.outgoingEdges(fromNodeId);
-        if (outgoing.isEmpty()) {
-            // No outgoing edges — should only happen at END (already handled below)
-            return;
-        }
-
-        ProcessEdge chosenEdge = chooseEdge(outgoing, def, fromNodeId, instance, lastAction);
-        if (chosenEdge == null) {
-            log.warn("Could not resolve outgoing edge from node '{}'. Pausing instance {}.",
-                    fromNodeId, instance.getId());
-            instance.setStatus(InstanceStatus.PAUSED);
-            return;
-        }
+    private void advanceToNext(ProcessInstance instance, CompiledProcess process,
+            String fromNodeId, String lastAction, String userId, ModelRecordBatch records) {
+        String nodeId = fromNodeId;
+        String action = lastAction;
+        for (int hopCount = 0; ; hopCount++) {
+            if (hopCount >= MAX_AUTO_ADVANCE_HOPS) {
+                log.error("Max auto-advance hops reached for instance {}. Pausing.", instance.getId());
+                instance.setStatus(InstanceStatus.PAUSED);
+                return;
+            }
 
-        ProcessNode targetNode = def.findNodeById(chosenEdge.getToNodeId());
-        if (targetNode == null) {
-            log.error("Edge '{}' points to non-existent node '{}'. Pausing instance {}.",
-                    chosenEdge.getId(), chosenEdge.getToNodeId(), instance.getId());
-            instance.setStatus(InstanceStatus.PAUSED);
-            return;
-        }
+            List<ProcessEdge> outgoing = process.outgoingEdges(nodeId);
+            if (outgoing.isEmpty()) {
+                // No outgoing edges — should only happen at END (already handled below)
+                return;
+            }
 
-        instance.setPreviousNodeId(instance.getCurrentNodeId());
-        instance.setCurrentNodeId(targetNode.getId());
+            ProcessEdge chosenEdge = chooseEdge(outgoing, process, nodeId, instance, action);
+            if (chosenEdge == null) {
+                log.warn("Could not resolve outgoing edge from node '{}'. Pausing instance {}.",
+                        nodeId, instance.getId());
+                instance.setStatus(InstanceStatus.PAUSED);
+                return;
+            }
 
-        switch (targetNode.getType()) {
-            case CONDITION -> {
-                appendHistory(instance, targetNode.getId(), "AUTO_ROUTED", userId, null, null);
-                advanceToNext(instance, def, targetNode.getId(), null, userId, hopCount + 1);
+            ProcessNode targetNode = process.findNodeById(chosenEdge.getToNodeId());
+            if (targetNode == null) {
+                log.error("Edge '{}' points to non-existent node '{}'. Pausing instance {}.",
+                        chosenEdge.getId(), chosenEdge.getToNodeId(), instance.getId());
+                instance.setStatus(InstanceStatus.PAUSED);
+                return;
             }
-            case DATA_ACTION -> {
-                boolean success = executeDataAction(instance, targetNode, userId);
-                if (!success) {
-                    // Roll back to previous node on failure
-                    instance.setCurrentNodeId(instance.getPreviousNodeId());
+
+            instance.setPreviousNodeId(instance.getCurrentNodeId());
+            instance.setCurrentNodeId(targetNode.getId());
+
+            switch (targetNode.getType()) {
+                case CONDITION -> appendHistory(instance, targetNode.getId(), "AUTO_ROUTED", userId, null, null);
+                case DATA_ACTION -> {
+                    boolean success = executeDataAction(instance, targetNode, userId, records);
+                    if (!success) {
+                        // Roll back to previous node on failure
+                        instance.setCurrentNodeId(instance.getPreviousNodeId());
+                        instance.setStatus(InstanceStatus.PAUSED);
+                        return;
+                    }
+                }
+                case NOTIFICATION -> {
+                    // Phase 1: log only — wire up real notifications in Phase 2
+                    log.info("[NOTIFICATION] Instance {} would send notification via node '{}'",
+                            instance.getId(), targetNode.getId());
+                    appendHistory(instance, targetNode.getId(), "AUTO_ROUTED", userId, null, "Notification skipped (Phase 2)");
+                }
+                case END -> {
+                    instance.setStatus(InstanceStatus.COMPLETED);
+                    instance.setCompletedAt(Instant.now());
+                    appendHistory(instance, targetNode.getId(), "COMPLETED", userId, null, null);
+                    return;
+                }
+                case START -> {
+                    // Should never land back on START — treat as stuck
+                    log.error("advanceToNext landed on START node. Pausing instance {}.", instance.getId());
                     instance.setStatus(InstanceStatus.PAUSED);
                     return;
                 }
-                advanceToNext(instance, def, targetNode.getId(), null, userId, hopCount + 1);
-            }
-            case NOTIFICATION -> {
-                // Phase 1: log only — wire up real notifications in Phase 2
-                log.info("[NOTIFICATION] Instance {} would send notification via node '{}'",
-                        instance.getId(), targetNode.getId());
-                appendHistory(instance, targetNode.getId(), "AUTO_ROUTED", userId, null, "Notification skipped (Phase 2)");
-                advanceToNext(instance, def, targetNode.getId(), null, userId, hopCount + 1);
-            }
-            case END -> {
-                instance.setStatus(InstanceStatus.COMPLETED);
-                instance.setCompletedAt(Instant.now());
-                appendHistory(instance, targetNode.getId(), "COMPLETED", userId, null, null);
-            }
-            case START -> {
-                // Should never land back on START — treat as stuck
-                log.error("advanceToNext landed on START node. Pausing instance {}.", instance.getId());
-                instance.setStatus(InstanceStatus.PAUSED);
-            }
-            default -> {
-                // FORM_PAGE, APPROVAL, DATA_VIEW — stop here, needs user interaction
-                appendHistory(instance, targetNode.getId(), "ENTERED", userId, null, null);
+                default -> {
+                    // FORM_PAGE, APPROVAL, DATA_VIEW — stop here, needs user interaction
+                    appendHistory(instance, targetNode.getId(), "ENTERED", userId, null, null);
+                    return;
+                }
             }
+
+            nodeId = targetNode.getId();
+            action = null;
+        }
+    }
+
+    /**
+     * Writes the record changes staged while advancing, then the instance.
+     * If either write fails the record changes are reverted, so the instance
+     * and its records stay at their state before the submission. Records a
+     * concurrent submission has written since the flush keep its changes.
+     */
+    private ProcessInstance persist(ProcessInstance instance, ModelRecordBatch records) {
+        records.flush();
+        try {
+            return instanceWriter.save(instance);
+        } catch (RuntimeException e) {
+            log.error("Saving instance {} failed; reverting its DATA_ACTION record changes", instance.getId());
+            records.rollback();
+            throw e;
         }
     }
 
     /**
      * Selects the outgoing edge to follow based on node type and context.
      */
-    @SuppressWarnings("unchecked")
-    private ProcessEdge chooseEdge(List<ProcessEdge> outgoing, ProcessDefinition def,
+    private ProcessEdge chooseEdge(List<ProcessEdge> outgoing, CompiledProcess process,
             String fromNodeId, ProcessInstance instance, String lastAction) {
         if (outgoing.size() == 1) return outgoing.get(0);
 
-        ProcessNode fromNode = def.findNodeById(fromNodeId);
+        ProcessNode fromNode = process.findNodeById(fromNodeId);
         if (fromNode == null) return null;
 
         if (fromNode.getType() == NodeType.CONDITION) {
-            return evaluateConditionEdge(fromNode, outgoing, instance);
+            return process.route(fromNodeId, instance::resolveData);
         }
 
         if (fromNode.getType() == NodeType.APPROVAL && lastAction != null) {
@@ -387,74 +495,14 @@ public class ProcessEngineService {
         return outgoing.get(0);
     }
 
-    @SuppressWarnings("unchecked")
-    private ProcessEdge evaluateConditionEdge(ProcessNode conditionNode,
-            List<ProcessEdge> outgoing, ProcessInstance instance) {
-        Map<String, Object> config = conditionNode.getConfig();
-        if (config == null) return outgoing.get(0);
-
-        List<Map<String, Object>> rules = (List<Map<String, Object>>) config.get("rules");
-        String defaultEdgeId = (String) config.get("defaultEdgeId");
-
-        if (rules != null) {
-            for (Map<String, Object> rule : rules) {
-                List<Map<String, Object>> conditions = (List<Map<String, Object>>) rule.get("conditions");
-                if (conditions != null && allConditionsMatch(conditions, instance.getData())) {
-                    String targetEdgeId = (String) rule.get("targetEdgeId");
-                    return findEdgeById(outgoing, targetEdgeId);
-                }
-            }
-        }
-
-        // No rule matched — use default
-        return findEdgeById(outgoing, defaultEdgeId);
-    }
-
-    @SuppressWarnings("unchecked")
-    private boolean allConditionsMatch(List<Map<String, Object>> conditions, Map<String, Object> data) {
-        for (Map<String, Object> condition : conditions) {
-            String field = (String) condition.get("field");
-            String operator = (String) condition.get("operator");
-            Object expected = condition.get("value");
-            Object actual = data.get(field);
-            if (!evaluateOperator(actual, operator, expected)) return false;
-        }
-        return true;
-    }
-
-    private boolean evaluateOperator(Object actual, String operator, Object expected) {
-        String actualStr = actual == null ? "" : actual.toString();
-        String expectedStr = expected == null ? "" : expected.toString();
-        return switch (operator) {
-            case "EQUALS" -> actualStr.equals(expectedStr);
-            case "NOT_EQUALS" -> !actualStr.equals(expectedStr);
-            case "IS_EMPTY" -> actualStr.isBlank();
-            case "IS_NOT_EMPTY" -> !actualStr.isBlank();
-            case "CONTAINS" -> actualStr.contains(expectedStr);
-            case "GREATER_THAN" -> {
-                try { yield Double.parseDouble(actualStr) > Double.parseDouble(expectedStr); }
-                catch (NumberFormatException e) { yield false; }
-            }
-            case "LESS_THAN" -> {
-                try { yield Double.parseDouble(actualStr) < Double.parseDouble(expectedStr); }
-                catch (NumberFormatException e) { yield false; }
-            }
-            default -> false;
-        };
-    }
-
-    private ProcessEdge findEdgeById(List<ProcessEdge> edges, String edgeId) {
-        if (edgeId == null) return edges.isEmpty() ? null : edges.get(0);
-        return edges.stream().filter(e -> edgeId.equals(e.getId())).findFirst().orElse(edges.get(0));
-    }
-
     /**
      * Executes a DATA_ACTION node: reads config, resolves field mappings,
-     * performs CREATE/UPDATE/DELETE on the model's data collection.
+     * stages CREATE/UPDATE/DELETE on the model's data collection in {@code records}.
      * Returns true on success, false on failure.
      */
     @SuppressWarnings("unchecked")
-    private boolean executeDataAction(ProcessInstance instance, ProcessNode node, String userId) {
+    private boolean executeDataAction(ProcessInstance instance, ProcessNode node, String userId,
+            ModelRecordBatch records) {
         Map<String, Object> config = node.getConfig();
         if (config == null) {
             log.error("DATA_ACTION node '{}' has no config", node.getId());
@@ -489,7 +537,7 @@ public class ProcessEngineService {
         try {
             switch (operation.toUpperCase()) {
                 case "CREATE" -> {
-                    ModelRecord saved = modelRecordQueryPort.create(
+                    ModelRecord saved = records.create(
                             modelId, instance.getDomainId(), instance.getAppId(),
                             instance.getId(), userId, record);
                     CreatedRecord created = new CreatedRecord();
@@ -497,7 +545,7 @@ public class ProcessEngineService {
                     created.setRecordId(saved.getId());
                     created.setCreatedAt(Instant.now());
                     instance.getCreatedRecordIds().add(created);
-                    instance.getData().put(node.getId() + "___createdRecordId", saved.getId());
+                    instance.putNodeData(node.getId(), "_createdRecordId", saved.getId());
                     appendHistory(instance, node.getId(), "DATA_ACTION_EXECUTED", userId,
                             Map.of("operation", "CREATE", "modelId", modelId, "recordId", saved.getId()), null);
                 }
@@ -505,7 +553,7 @@ public class ProcessEngineService {
                     // Look up the recordId stored by a previous CREATE node
                     String recordId = resolveRecordId(config, instance);
                     if (recordId != null) {
-                        modelRecordQueryPort.update(recordId, record);
+                        records.update(recordId, record);
                     } else {
                         log.warn("DATA_ACTION UPDATE: no recordId resolved for node '{}'. Skipping.", node.getId());
                     }
@@ -515,7 +563,7 @@ public class ProcessEngineService {
                 case "DELETE" -> {
                     String recordId = resolveRecordId(config, instance);
                     if (recordId != null) {
-                        modelRecordQueryPort.delete(recordId);
+                        records.delete(recordId);
                     } else {
                         log.warn("DATA_ACTION DELETE: no recordId resolved for node '{}'. Skipping.", node.getId());
                     }
@@ -542,7 +590,7 @@ public class ProcessEngineService {
     private String resolveRecordId(Map<String, Object> config, ProcessInstance instance) {
         String ref = (String) config.get("recordIdRef");
         if (ref != null) {
-            Object val = instance.getData().get(ref);
+            Object val = instance.resolveData(ref);
             if (val != null) return val.toString();
         }
         // Fallback: last created record for this modelId
@@ -561,7 +609,7 @@ public class ProcessEngineService {
             ProcessInstance instance, String userId) {
         if (source == null) return value;
         return switch (source) {
-            case "FORM_FIELD" -> instance.getData().get(value);
+            case "FORM_FIELD" -> instance.resolveData(value);
             case "STATIC" -> value;
             case "CONTEXT" -> resolveContext(value, instance, userId);
             default -> value;
@@ -629,9 +677,71 @@ public class ProcessEngineService {
         return instance;
     }
 
-    private ProcessDefinition loadDefinitionForInstance(ProcessInstance instance) {
-        return definitionRepository.findById(instance.getProcessDefinitionId())
-                .orElseThrow(() -> new ProcessNotFoundException(
-                        "Definition not found for instance " + instance.getId()));
+    /**
+     * Loads an ACTIVE instance without data, draftData or history, for requests that read or
+     * write only part of it (see {@link #loadNodeData}). An instance still stored in the flat
+     * data layout is loaded whole instead, so it can be rewritten in the per-node layout.
+     */
+    private ProcessInstance requireActiveInstanceHeader(String instanceId) {
+        Query query = new Query(Criteria.where("_id").is(instanceId));
+        query.fields().exclude("data", "draftData", "history");
+        ProcessInstance instance = mongoTemplate.findOne(query, ProcessInstance.class);
+        if (instance == null) {
+            throw new ProcessNotFoundException("Instance not found: " + instanceId);
+        }
+        if (instance.getStatus() != InstanceStatus.ACTIVE) {
+            throw new ProcessAlreadyCompletedException(instanceId);
+        }
+        return instance.storedFlat() ? requireActiveInstance(instanceId) : instance;
+    }
+
+    /**
+     * Reads the sub-documents of the given nodes, and their drafts when {@code drafts}, into an
+     * instance loaded by {@link #requireActiveInstanceHeader}; null reads all of data.
+     */
+    private void loadNodeData(ProcessInstance instance, Collection<String> nodeIds, boolean drafts) {
+        if (instance.storedFlat() || (nodeIds != null && nodeIds.isEmpty())) {
+            // Flat instances were loaded whole
+            return;
+        }
+        Query query = new Query(Criteria.where("_id").is(instance.getId()));
+        query.fields().include("dataLayout");
+        if (nodeIds == null) {
+            query.fields().include("data");
+        } else {
+            for (String nodeId : nodeIds) {
+                query.fields().include("data." + nodeId);
+                if (drafts) {
+                    query.fields().include("draftData." + nodeId);
+                }
+            }
+        }
+        ProcessInstance loaded = mongoTemplate.findOne(query, ProcessInstance.class);
+        if (loaded != null) {
+            instance.setData(loaded.getData());
+            if (drafts) {
+                instance.setDraftData(loaded.getDraftData());
+            }
+        }
+    }
+
+    /** Node ids whose data a DATA_VIEW node's FORM_FIELD filters read. */
+    @SuppressWarnings("unchecked")
+    private Set<String> referencedNodes(Object filters) {
+        Set<String> nodeIds = new LinkedHashSet<>();
+        if (filters instanceof List<?> list) {
+            for (Object raw : list) {
+                Map<String, Object> filter = (Map<String, Object>) raw;
+                if ("FORM_FIELD".equals(filter.get("source")) && filter.get("value") instanceof String reference) {
+                    int separator = reference.indexOf(ProcessInstance.REFERENCE_SEPARATOR);
+                    nodeIds.add(separator > 0 ? reference.substring(0, separator) : reference);
+                }
+            }
+        }
+        return nodeIds;
+    }
+
+    private CompiledProcess loadDefinitionForInstance(ProcessInstance instance) {
+        return definitionCache.get(instance.getProcessDefinitionId(), instance.getProcessVersion());
     }
 }
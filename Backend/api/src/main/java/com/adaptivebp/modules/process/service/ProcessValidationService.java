@@ -16,6 +16,7 @@ import com.adaptivebp.modules.process.model.ProcessDefinition;
 import com.adaptivebp.modules.process.model.ProcessEdge;
 import com.adaptivebp.modules.process.model.ProcessNode;
 import com.adaptivebp.modules.process.model.enums.NodeType;
+import com.adaptivebp.modules.process.runtime.FormValidationPlan;
 
 @Service
 public class ProcessValidationService {
@@ -192,6 +193,14 @@ public class ProcessValidationService {
         List<Map<String, Object>> elements = (List<Map<String, Object>>) config.get("elements");
         if (elements == null) return;
         for (Map<String, Object> el : elements) {
+            if (el.get("validation") instanceof Map<?, ?> validation
+                    && validation.get("pattern") instanceof String pattern && !pattern.isBlank()) {
+                String patternError = FormValidationPlan.patternError(pattern);
+                if (patternError != null) {
+                    errors.add("FORM_PAGE node '" + n.getId() + "' element '" + el.get("id")
+                            + "' has an invalid pattern: " + patternError);
+                }
+            }
             Map<String, Object> binding = (Map<String, Object>) el.get("binding");
             if (binding != null) {
                 String modelId = (String) binding.get("modelId");
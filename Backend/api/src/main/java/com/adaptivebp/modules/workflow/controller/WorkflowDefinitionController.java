@@ -1,5 +1,6 @@
 package com.adaptivebp.modules.workflow.controller;
 
+import java.net.URI;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,6 +17,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
 import com.adaptivebp.modules.appmanagement.model.Application;
@@ -25,10 +27,14 @@ import com.adaptivebp.modules.organisation.model.Organisation;
 import com.adaptivebp.modules.organisation.port.OrganisationLookupPort;
 import com.adaptivebp.modules.organisation.service.PermissionService;
 import com.adaptivebp.modules.workflow.dto.request.CreateWorkflowRequest;
+import com.adaptivebp.modules.workflow.dto.request.MigrateInstancesRequest;
 import com.adaptivebp.modules.workflow.dto.request.UpdateWorkflowRequest;
+import com.adaptivebp.modules.workflow.dto.response.MigrationJobResponse;
 import com.adaptivebp.modules.workflow.dto.response.WorkflowDefinitionResponse;
 import com.adaptivebp.modules.workflow.model.WorkflowDefinition;
+import com.adaptivebp.modules.workflow.model.WorkflowMigrationJob;
 import com.adaptivebp.modules.workflow.service.WorkflowDefinitionService;
+import com.adaptivebp.modules.workflow.service.WorkflowMigrationService;
 import com.adaptivebp.modules.workflow.service.WorkflowValidationService;
 import com.adaptivebp.shared.security.AdaptiveUserDetails;
 
@@ -53,6 +59,9 @@ public class WorkflowDefinitionController {
     @Autowired
     private WorkflowValidationService validationService;
 
+    @Autowired
+    private WorkflowMigrationService migrationService;
+
     @PostMapping
     public ResponseEntity<WorkflowDefinitionResponse> createWorkflow(
             @PathVariable String slug,
@@ -73,9 +82,14 @@ public class WorkflowDefinitionController {
     @GetMapping
     public ResponseEntity<List<WorkflowDefinition>> listWorkflows(
             @PathVariable String slug,
-            @PathVariable String appSlug) {
+            @PathVariable String appSlug,
+            WebRequest webRequest) {
         Context ctx = resolve(slug, appSlug);
         requireViewPermission(ctx.app().getId());
+        String eTag = definitionService.listWorkflowsETag(ctx.domain().getId(), ctx.app().getId());
+        if (eTag != null && webRequest.checkNotModified(eTag)) {
+            return null;
+        }
         return ResponseEntity.ok(definitionService.listWorkflows(ctx.domain().getId(), ctx.app().getId()));
     }
 
@@ -84,9 +98,14 @@ public class WorkflowDefinitionController {
             @PathVariable String slug,
             @PathVariable String appSlug,
             @PathVariable String wfSlug,
-            @RequestParam(required = false) Integer version) {
+            @RequestParam(required = false) Integer version,
+            WebRequest webRequest) {
         Context ctx = resolve(slug, appSlug);
         requireViewPermission(ctx.app().getId());
+        String eTag = definitionService.getWorkflowETag(ctx.domain().getId(), ctx.app().getId(), wfSlug, version);
+        if (eTag != null && webRequest.checkNotModified(eTag)) {
+            return null;
+        }
 
         WorkflowDefinition workflow = definitionService.getWorkflow(
                 ctx.domain().getId(),
@@ -151,6 +170,45 @@ public class WorkflowDefinitionController {
         return ResponseEntity.ok(archived);
     }
 
+    /**
+     * Queues a migration of the ACTIVE instances of older versions to the published version.
+     * Answers 202 at once, with the job to poll at {@code /{wfSlug}/migrations/{jobId}}.
+     */
+    @PostMapping("/{wfSlug}/migrations")
+    public ResponseEntity<MigrationJobResponse> migrateInstances(
+            @PathVariable String slug,
+            @PathVariable String appSlug,
+            @PathVariable String wfSlug,
+            @RequestBody MigrateInstancesRequest request) {
+        Context ctx = resolve(slug, appSlug);
+        requireDefinitionManagePermission(ctx);
+
+        WorkflowMigrationJob job = migrationService.submit(
+                ctx.domain().getId(),
+                ctx.app().getId(),
+                wfSlug,
+                request,
+                currentUserId(),
+                currentUsername());
+
+        return ResponseEntity.accepted()
+                .location(URI.create("/adaptive/domains/" + slug + "/apps/" + appSlug + "/workflows/" + wfSlug
+                        + "/migrations/" + job.getId()))
+                .body(MigrationJobResponse.from(job));
+    }
+
+    @GetMapping("/{wfSlug}/migrations/{jobId}")
+    public ResponseEntity<MigrationJobResponse> getMigration(
+            @PathVariable String slug,
+            @PathVariable String appSlug,
+            @PathVariable String wfSlug,
+            @PathVariable String jobId) {
+        Context ctx = resolve(slug, appSlug);
+        requireDefinitionManagePermission(ctx);
+        return ResponseEntity.ok(MigrationJobResponse.from(
+                migrationService.status(ctx.domain().getId(), ctx.app().getId(), jobId)));
+    }
+
     private record Context(Organisation domain, Application app) {
     }
 
@@ -187,4 +245,12 @@ public class WorkflowDefinitionController {
         }
         return null;
     }
+
+    private String currentUsername() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.getPrincipal() instanceof AdaptiveUserDetails details) {
+            return details.getUsername();
+        }
+        return currentUserId();
+    }
 }
@@ -1,9 +1,11 @@
 package com.adaptivebp.modules.workflow.controller;
 
-import java.util.List;
+import java.io.InputStream;
+import java.net.URI;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -11,9 +13,13 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.adaptivebp.modules.appmanagement.model.Application;
 import com.adaptivebp.modules.appmanagement.permission.AppPermission;
@@ -22,15 +28,26 @@ import com.adaptivebp.modules.organisation.permission.DomainPermission;
 import com.adaptivebp.modules.organisation.model.Organisation;
 import com.adaptivebp.modules.organisation.port.OrganisationLookupPort;
 import com.adaptivebp.modules.organisation.service.PermissionService;
+import com.adaptivebp.modules.workflow.dto.request.BulkExecuteRequest;
 import com.adaptivebp.modules.workflow.dto.request.ExecuteEdgeRequest;
 import com.adaptivebp.modules.workflow.dto.request.StartWorkflowRequest;
+import com.adaptivebp.modules.workflow.dto.response.AutoActionStatsResponse;
+import com.adaptivebp.modules.workflow.dto.response.BulkExecuteResponse;
 import com.adaptivebp.modules.workflow.dto.response.ExecuteEdgeResponse;
 import com.adaptivebp.modules.workflow.dto.response.HistoryResponse;
+import com.adaptivebp.modules.workflow.dto.response.InstancePageResponse;
+import com.adaptivebp.modules.workflow.dto.response.StartJobResponse;
 import com.adaptivebp.modules.workflow.dto.response.StepViewResponse;
 import com.adaptivebp.modules.workflow.dto.response.TaskListResponse;
 import com.adaptivebp.modules.workflow.dto.response.WorkflowInstanceResponse;
+import com.adaptivebp.modules.workflow.dto.response.WorkflowStatsResponse;
 import com.adaptivebp.modules.workflow.model.WorkflowInstance;
+import com.adaptivebp.modules.workflow.model.WorkflowStartJob;
+import com.adaptivebp.modules.workflow.model.enums.InstanceStatus;
+import com.adaptivebp.modules.workflow.service.AutoActionOutboxService;
+import com.adaptivebp.modules.workflow.service.WorkflowBulkStartService;
 import com.adaptivebp.modules.workflow.service.WorkflowEngineService;
+import com.adaptivebp.modules.workflow.service.WorkflowStatsService;
 import com.adaptivebp.modules.workflow.service.WorkflowTaskService;
 import com.adaptivebp.shared.security.AdaptiveUserDetails;
 
@@ -55,6 +72,15 @@ public class WorkflowInstanceController {
     @Autowired
     private WorkflowTaskService taskService;
 
+    @Autowired
+    private AutoActionOutboxService actionOutbox;
+
+    @Autowired
+    private WorkflowBulkStartService bulkStartService;
+
+    @Autowired
+    private WorkflowStatsService statsService;
+
     @PostMapping("/workflows/{wfSlug}/start")
     public ResponseEntity<WorkflowInstanceResponse> startWorkflow(
             @PathVariable String slug,
@@ -75,59 +101,143 @@ public class WorkflowInstanceController {
         return ResponseEntity.ok(WorkflowInstanceResponse.from(instance));
     }
 
+    /**
+     * Queues one start per payload; the body is NDJSON or a JSON array of start payloads.
+     * Answers 202 at once, with the job to poll at {@code /workflow-start-jobs/{jobId}}.
+     */
+    @PostMapping(value = "/workflows/{wfSlug}/start-bulk",
+            consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+    public ResponseEntity<StartJobResponse> startWorkflowBulk(
+            @PathVariable String slug,
+            @PathVariable String appSlug,
+            @PathVariable String wfSlug,
+            InputStream body) {
+        Context ctx = resolve(slug, appSlug);
+        requireAppPermission(ctx.app().getId(), AppPermission.APP_START_WORKFLOW);
+
+        WorkflowStartJob job = bulkStartService.submit(
+                ctx.domain().getId(),
+                ctx.app().getId(),
+                wfSlug,
+                body,
+                currentUserId(),
+                currentUsername());
+
+        return ResponseEntity.accepted()
+                .location(URI.create("/adaptive/domains/" + slug + "/apps/" + appSlug + "/workflow-start-jobs/" + job.getId()))
+                .body(StartJobResponse.from(job));
+    }
+
+    @GetMapping("/workflow-start-jobs/{jobId}")
+    public ResponseEntity<StartJobResponse> getStartJob(
+            @PathVariable String slug,
+            @PathVariable String appSlug,
+            @PathVariable String jobId,
+            @RequestParam(defaultValue = "false") boolean failedOnly,
+            @RequestParam(required = false) Integer cursor,
+            @RequestParam(defaultValue = "100") int limit) {
+        Context ctx = resolve(slug, appSlug);
+        requireAppPermission(ctx.app().getId(), AppPermission.APP_START_WORKFLOW);
+        return ResponseEntity.ok(bulkStartService.status(
+                ctx.domain().getId(), ctx.app().getId(), jobId, failedOnly, cursor, limit));
+    }
+
     @GetMapping("/instances")
-    public ResponseEntity<List<WorkflowInstance>> listInstances(
+    public ResponseEntity<InstancePageResponse> listInstances(
             @PathVariable String slug,
-            @PathVariable String appSlug) {
+            @PathVariable String appSlug,
+            @RequestParam(required = false) InstanceStatus status,
+            @RequestParam(required = false) String stepId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
         Context ctx = resolve(slug, appSlug);
         requireAppPermission(ctx.app().getId(), AppPermission.APP_VIEW_ALL_INSTANCES);
-        return ResponseEntity.ok(engineService.listInstances(ctx.domain().getId(), ctx.app().getId()));
+        return ResponseEntity.ok(engineService.listInstances(
+                ctx.domain().getId(), ctx.app().getId(), null, status, stepId, cursor, limit));
     }
 
     @GetMapping("/instances/my-tasks")
     public ResponseEntity<TaskListResponse> getMyTasks(
             @PathVariable String slug,
-            @PathVariable String appSlug) {
+            @PathVariable String appSlug,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
         Context ctx = resolve(slug, appSlug);
         requireAuthenticated();
-        return ResponseEntity.ok(taskService.getMyTasks(currentUserId(), ctx.domain().getId(), ctx.app().getId()));
+        return ResponseEntity.ok(taskService.getMyTasks(
+                currentUserId(), ctx.domain().getId(), ctx.app().getId(), cursor, limit));
     }
 
     @GetMapping("/instances/my-started")
-    public ResponseEntity<List<WorkflowInstance>> getMyStartedInstances(
+    public ResponseEntity<InstancePageResponse> getMyStartedInstances(
             @PathVariable String slug,
-            @PathVariable String appSlug) {
+            @PathVariable String appSlug,
+            @RequestParam(required = false) InstanceStatus status,
+            @RequestParam(required = false) String stepId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        Context ctx = resolve(slug, appSlug);
+        requireAuthenticated();
+        return ResponseEntity.ok(engineService.listInstances(
+                ctx.domain().getId(), ctx.app().getId(), currentUserId(), status, stepId, cursor, limit));
+    }
+
+    /**
+     * Server-sent events for the caller's inbox and the instances they follow in this app, so
+     * clients refetch on change instead of polling. Send Last-Event-ID on reconnect to resume.
+     */
+    @GetMapping(value = "/instances/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(
+            @PathVariable String slug,
+            @PathVariable String appSlug,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
         Context ctx = resolve(slug, appSlug);
         requireAuthenticated();
-        return ResponseEntity.ok(engineService.listStartedBy(ctx.domain().getId(), ctx.app().getId(), currentUserId()));
+        boolean viewAll = permissionService.hasAppPermission(ctx.app().getId(), AppPermission.APP_VIEW_ALL_INSTANCES);
+        return engineService.streamEvents(ctx.domain().getId(), ctx.app().getId(), currentUserId(), viewAll,
+                lastEventId);
     }
 
+    /**
+     * Answers 304 to a matching If-None-Match after a projected lookup, before the instance is
+     * loaded. A 200 is tagged with the loaded instance, which may be newer than the stamp.
+     */
     @GetMapping("/instances/{instanceId}")
     public ResponseEntity<WorkflowInstance> getInstance(
             @PathVariable String slug,
             @PathVariable String appSlug,
-            @PathVariable String instanceId) {
+            @PathVariable String instanceId,
+            WebRequest webRequest) {
         Context ctx = resolve(slug, appSlug);
         requireAuthenticated();
-        WorkflowInstance instance = engineService.getInstance(instanceId);
+        WorkflowInstance stamp = engineService.getInstanceStamp(instanceId);
         // Allow access if user has APP_VIEW_ALL_INSTANCES (admin/supervisor)
         // OR if the user is the one who started this specific instance (submitter)
         String uid = currentUserId();
         boolean hasAllInstances = permissionService.hasAppPermission(ctx.app().getId(), AppPermission.APP_VIEW_ALL_INSTANCES);
-        boolean isSubmitter = uid != null && uid.equals(instance.getStartedBy());
+        boolean isSubmitter = uid != null && uid.equals(stamp.getStartedBy());
         if (!hasAllInstances && !isSubmitter) {
             return ResponseEntity.status(403).build();
         }
-        return ResponseEntity.ok(instance);
+        if (webRequest.checkNotModified(WorkflowEngineService.eTag(stamp))) {
+            return null;
+        }
+        WorkflowInstance instance = engineService.withStepRecords(engineService.getInstance(instanceId));
+        return ResponseEntity.ok().eTag(WorkflowEngineService.eTag(instance)).body(instance);
     }
 
+    /** The ETag covers the caller's permissions and roles too, since they decide the available edges. */
     @GetMapping("/instances/{instanceId}/view")
     public ResponseEntity<StepViewResponse> getStepView(
             @PathVariable String slug,
             @PathVariable String appSlug,
-            @PathVariable String instanceId) {
+            @PathVariable String instanceId,
+            WebRequest webRequest) {
         resolve(slug, appSlug);
         requireAuthenticated();
+        if (webRequest.checkNotModified(engineService.stepViewETag(instanceId, currentUserId()))) {
+            return null;
+        }
         return ResponseEntity.ok(engineService.getStepView(instanceId, currentUserId()));
     }
 
@@ -155,14 +265,70 @@ public class WorkflowInstanceController {
                 currentUsername()));
     }
 
+    @PostMapping("/instances/bulk-execute")
+    public ResponseEntity<BulkExecuteResponse> bulkExecuteEdges(
+            @PathVariable String slug,
+            @PathVariable String appSlug,
+            @Valid @RequestBody BulkExecuteRequest request) {
+        Context ctx = resolve(slug, appSlug);
+        // Same coarse gate as the single execute; edge-level rules are checked per item
+        if (!permissionService.hasAppPermission(ctx.app().getId(), AppPermission.APP_EXECUTE_WORKFLOW)
+                && !permissionService.hasDomainPermission(ctx.domain().getId(), DomainPermission.DOMAIN_USE_APP)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Insufficient permissions");
+        }
+
+        return ResponseEntity.ok(engineService.bulkExecuteEdges(
+                ctx.domain().getId(),
+                ctx.app().getId(),
+                request.getItems(),
+                currentUserId(),
+                currentUsername()));
+    }
+
     @GetMapping("/instances/{instanceId}/history")
     public ResponseEntity<HistoryResponse> getHistory(
             @PathVariable String slug,
             @PathVariable String appSlug,
-            @PathVariable String instanceId) {
+            @PathVariable String instanceId,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "50") int limit) {
         resolve(slug, appSlug);
         requireAuthenticated();
-        return ResponseEntity.ok(engineService.getHistory(instanceId));
+        return ResponseEntity.ok(engineService.getHistory(instanceId, cursor, limit));
+    }
+
+    @GetMapping("/workflow-actions/stats")
+    public ResponseEntity<AutoActionStatsResponse> getAutoActionStats(
+            @PathVariable String slug,
+            @PathVariable String appSlug) {
+        Context ctx = resolve(slug, appSlug);
+        requireAppPermission(ctx.app().getId(), AppPermission.APP_MANAGE_WORKFLOW);
+        return ResponseEntity.ok(actionOutbox.stats(ctx.domain().getId(), ctx.app().getId()));
+    }
+
+    /** Per-step occupancy and dwell time plus daily throughput, read from pre-aggregated counters. */
+    @GetMapping("/workflows/{wfSlug}/stats")
+    public ResponseEntity<WorkflowStatsResponse> getWorkflowStats(
+            @PathVariable String slug,
+            @PathVariable String appSlug,
+            @PathVariable String wfSlug,
+            @RequestParam(defaultValue = "30") int days) {
+        Context ctx = resolve(slug, appSlug);
+        requireAppPermission(ctx.app().getId(), AppPermission.APP_VIEW_ALL_INSTANCES);
+        return ResponseEntity.ok(statsService.stats(ctx.domain().getId(), ctx.app().getId(), wfSlug, days));
+    }
+
+    /** Recounts the workflow's counters from its instances and returns the corrected stats. */
+    @PostMapping("/workflows/{wfSlug}/stats/rebuild")
+    public ResponseEntity<WorkflowStatsResponse> rebuildWorkflowStats(
+            @PathVariable String slug,
+            @PathVariable String appSlug,
+            @PathVariable String wfSlug,
+            @RequestParam(defaultValue = "30") int days) {
+        Context ctx = resolve(slug, appSlug);
+        requireAppPermission(ctx.app().getId(), AppPermission.APP_MANAGE_WORKFLOW);
+        statsService.rebuild(ctx.domain().getId(), ctx.app().getId(), wfSlug);
+        return ResponseEntity.ok(statsService.stats(ctx.domain().getId(), ctx.app().getId(), wfSlug, days));
     }
 
     private record Context(Organisation domain, Application app) {
@@ -0,0 +1,67 @@
+package com.adaptivebp.modules.workflow.dto.request;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+public class BulkExecuteRequest {
+    @NotEmpty
+    @Size(max = 1000)
+    @Valid
+    private List<Item> items = new ArrayList<>();
+
+    public List<Item> getItems() {
+        return items;
+    }
+
+    public void setItems(List<Item> items) {
+        this.items = items != null ? items : new ArrayList<>();
+    }
+
+    public static class Item {
+        @NotBlank
+        private String instanceId;
+        @NotBlank
+        private String edgeId;
+        private Map<String, Object> formData = new HashMap<>();
+        private String comment;
+
+        public String getInstanceId() {
+            return instanceId;
+        }
+
+        public void setInstanceId(String instanceId) {
+            this.instanceId = instanceId;
+        }
+
+        public String getEdgeId() {
+            return edgeId;
+        }
+
+        public void setEdgeId(String edgeId) {
+            this.edgeId = edgeId;
+        }
+
+        public Map<String, Object> getFormData() {
+            return formData;
+        }
+
+        public void setFormData(Map<String, Object> formData) {
+            this.formData = formData != null ? formData : new HashMap<>();
+        }
+
+        public String getComment() {
+            return comment;
+        }
+
+        public void setComment(String comment) {
+            this.comment = comment;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.adaptivebp.modules.workflow.dto.request;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class MigrateInstancesRequest {
+    /** Old step id to step id in the published version; unmapped steps keep their id. */
+    private Map<String, String> stepMapping = new HashMap<>();
+    /** Versions to migrate from; empty means every version other than the published one. */
+    private List<Integer> sourceVersions = new ArrayList<>();
+    private boolean dryRun;
+
+    public Map<String, String> getStepMapping() {
+        return stepMapping;
+    }
+
+    public void setStepMapping(Map<String, String> stepMapping) {
+        this.stepMapping = stepMapping != null ? stepMapping : new HashMap<>();
+    }
+
+    public List<Integer> getSourceVersions() {
+        return sourceVersions;
+    }
+
+    public void setSourceVersions(List<Integer> sourceVersions) {
+        this.sourceVersions = sourceVersions != null ? sourceVersions : new ArrayList<>();
+    }
+
+    public boolean isDryRun() {
+        return dryRun;
+    }
+
+    public void setDryRun(boolean dryRun) {
+        this.dryRun = dryRun;
+    }
+}
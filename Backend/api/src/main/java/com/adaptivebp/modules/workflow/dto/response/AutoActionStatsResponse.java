@@ -0,0 +1,98 @@
+package com.adaptivebp.modules.workflow.dto.response;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.adaptivebp.modules.workflow.model.enums.AutoActionType;
+
+/** Auto-action outbox backlog, throughput and lag for one app, per action type. */
+public class AutoActionStatsResponse {
+    /** Length of the window that {@code completed} and {@code avgLagMillis} cover. */
+    private long windowSeconds;
+    private List<TypeStats> types = new ArrayList<>();
+
+    public long getWindowSeconds() {
+        return windowSeconds;
+    }
+
+    public void setWindowSeconds(long windowSeconds) {
+        this.windowSeconds = windowSeconds;
+    }
+
+    public List<TypeStats> getTypes() {
+        return types;
+    }
+
+    public void setTypes(List<TypeStats> types) {
+        this.types = types != null ? types : new ArrayList<>();
+    }
+
+    public static class TypeStats {
+        private AutoActionType type;
+        private long pending;
+        private long running;
+        private long failed;
+        /** Actions finished within the window. */
+        private long completed;
+        /** Mean time from transition to completion for actions finished within the window. */
+        private long avgLagMillis;
+        /** Age of the oldest action still waiting to run; 0 when nothing is waiting. */
+        private long oldestPendingMillis;
+
+        public AutoActionType getType() {
+            return type;
+        }
+
+        public void setType(AutoActionType type) {
+            this.type = type;
+        }
+
+        public long getPending() {
+            return pending;
+        }
+
+        public void setPending(long pending) {
+            this.pending = pending;
+        }
+
+        public long getRunning() {
+            return running;
+        }
+
+        public void setRunning(long running) {
+            this.running = running;
+        }
+
+        public long getFailed() {
+            return failed;
+        }
+
+        public void setFailed(long failed) {
+            this.failed = failed;
+        }
+
+        public long getCompleted() {
+            return completed;
+        }
+
+        public void setCompleted(long completed) {
+            this.completed = completed;
+        }
+
+        public long getAvgLagMillis() {
+            return avgLagMillis;
+        }
+
+        public void setAvgLagMillis(long avgLagMillis) {
+            this.avgLagMillis = avgLagMillis;
+        }
+
+        public long getOldestPendingMillis() {
+            return oldestPendingMillis;
+        }
+
+        public void setOldestPendingMillis(long oldestPendingMillis) {
+            this.oldestPendingMillis = oldestPendingMillis;
+        }
+    }
+}
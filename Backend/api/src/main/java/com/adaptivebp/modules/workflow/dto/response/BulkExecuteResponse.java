@@ -0,0 +1,88 @@
+package com.adaptivebp.modules.workflow.dto.response;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Per-item outcome of a bulk edge execution, in request order. */
+public class BulkExecuteResponse {
+    private int succeeded;
+    private int failed;
+    private List<ItemResult> results = new ArrayList<>();
+
+    public int getSucceeded() {
+        return succeeded;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public List<ItemResult> getResults() {
+        return results;
+    }
+
+    public void setResults(List<ItemResult> results) {
+        this.results = results != null ? results : new ArrayList<>();
+        this.succeeded = (int) this.results.stream().filter(ItemResult::isSuccess).count();
+        this.failed = this.results.size() - this.succeeded;
+    }
+
+    public static class ItemResult {
+        private String instanceId;
+        private String edgeId;
+        private boolean success;
+        /** Set when the item succeeded. */
+        private ExecuteEdgeResponse result;
+        /** Same codes as the single execute endpoint's error responses. */
+        private String error;
+        private String message;
+        private Object details;
+
+        public static ItemResult success(String instanceId, String edgeId, ExecuteEdgeResponse result) {
+            ItemResult item = new ItemResult();
+            item.instanceId = instanceId;
+            item.edgeId = edgeId;
+            item.success = true;
+            item.result = result;
+            return item;
+        }
+
+        public static ItemResult failure(String instanceId, String edgeId, String error, String message, Object details) {
+            ItemResult item = new ItemResult();
+            item.instanceId = instanceId;
+            item.edgeId = edgeId;
+            item.error = error;
+            item.message = message;
+            item.details = details;
+            return item;
+        }
+
+        public String getInstanceId() {
+            return instanceId;
+        }
+
+        public String getEdgeId() {
+            return edgeId;
+        }
+
+        public boolean isSuccess() {
+            return success;
+        }
+
+        public ExecuteEdgeResponse getResult() {
+            return result;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public Object getDetails() {
+            return details;
+        }
+    }
+}
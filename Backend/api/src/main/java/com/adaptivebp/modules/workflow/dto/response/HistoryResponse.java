@@ -7,6 +7,8 @@ import com.adaptivebp.modules.workflow.model.InstanceHistory;
 
 public class HistoryResponse {
     private List<InstanceHistory> history = new ArrayList<>();
+    /** Sequence to pass as {@code cursor} for the next page, or null when this is the last page. */
+    private Long nextCursor;
 
     public List<InstanceHistory> getHistory() {
         return history;
@@ -15,4 +17,12 @@ public class HistoryResponse {
     public void setHistory(List<InstanceHistory> history) {
         this.history = history != null ? history : new ArrayList<>();
     }
+
+    public Long getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(Long nextCursor) {
+        this.nextCursor = nextCursor;
+    }
 }
@@ -0,0 +1,36 @@
+package com.adaptivebp.modules.workflow.dto.response;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class InstancePageResponse {
+    private int count;
+    private List<InstanceSummaryResponse> instances = new ArrayList<>();
+    /** Pass back as {@code cursor} to fetch the next page; null on the last page. */
+    private String nextCursor;
+
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+
+    public List<InstanceSummaryResponse> getInstances() {
+        return instances;
+    }
+
+    public void setInstances(List<InstanceSummaryResponse> instances) {
+        this.instances = instances != null ? instances : new ArrayList<>();
+        this.count = this.instances.size();
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,122 @@
+package com.adaptivebp.modules.workflow.dto.response;
+
+import java.time.Instant;
+
+import com.adaptivebp.modules.workflow.model.WorkflowInstance;
+import com.adaptivebp.modules.workflow.model.enums.InstanceStatus;
+
+/**
+ * List-row view of a workflow instance: no history, step records or primary record.
+ */
+public class InstanceSummaryResponse {
+    private String id;
+    private String workflowDefinitionId;
+    private int workflowVersion;
+    private String domainId;
+    private String appId;
+    private InstanceStatus status;
+    private String currentStepId;
+    private String startedBy;
+    private Instant startedAt;
+    private Instant completedAt;
+
+    /** Fields to include when querying, so Mongo never ships the large parts of the document. */
+    public static final String[] FIELDS = {
+            "workflowDefinitionId", "workflowVersion", "domainId", "appId", "status",
+            "currentStepId", "startedBy", "startedAt", "completedAt" };
+
+    public static InstanceSummaryResponse from(WorkflowInstance instance) {
+        InstanceSummaryResponse response = new InstanceSummaryResponse();
+        response.setId(instance.getId());
+        response.setWorkflowDefinitionId(instance.getWorkflowDefinitionId());
+        response.setWorkflowVersion(instance.getWorkflowVersion());
+        response.setDomainId(instance.getDomainId());
+        response.setAppId(instance.getAppId());
+        response.setStatus(instance.getStatus());
+        response.setCurrentStepId(instance.getCurrentStepId());
+        response.setStartedBy(instance.getStartedBy());
+        response.setStartedAt(instance.getStartedAt());
+        response.setCompletedAt(instance.getCompletedAt());
+        return response;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getWorkflowDefinitionId() {
+        return workflowDefinitionId;
+    }
+
+    public void setWorkflowDefinitionId(String workflowDefinitionId) {
+        this.workflowDefinitionId = workflowDefinitionId;
+    }
+
+    public int getWorkflowVersion() {
+        return workflowVersion;
+    }
+
+    public void setWorkflowVersion(int workflowVersion) {
+        this.workflowVersion = workflowVersion;
+    }
+
+    public String getDomainId() {
+        return domainId;
+    }
+
+    public void setDomainId(String domainId) {
+        this.domainId = domainId;
+    }
+
+    public String getAppId() {
+        return appId;
+    }
+
+    public void setAppId(String appId) {
+        this.appId = appId;
+    }
+
+    public InstanceStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(InstanceStatus status) {
+        this.status = status;
+    }
+
+    public String getCurrentStepId() {
+        return currentStepId;
+    }
+
+    public void setCurrentStepId(String currentStepId) {
+        this.currentStepId = currentStepId;
+    }
+
+    public String getStartedBy() {
+        return startedBy;
+    }
+
+    public void setStartedBy(String startedBy) {
+        this.startedBy = startedBy;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(Instant startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Instant getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(Instant completedAt) {
+        this.completedAt = completedAt;
+    }
+}
@@ -0,0 +1,120 @@
+package com.adaptivebp.modules.workflow.dto.response;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import com.adaptivebp.modules.workflow.model.WorkflowMigrationJob;
+import com.adaptivebp.modules.workflow.model.enums.MigrationJobStatus;
+
+/** Progress of an instance migration job, with the instances it had to skip. */
+public class MigrationJobResponse {
+    private String jobId;
+    private String workflowSlug;
+    private int targetVersion;
+    private List<Integer> sourceVersions;
+    private Map<String, String> stepMapping;
+    private boolean dryRun;
+    private MigrationJobStatus status;
+    private long total;
+    private long processed;
+    private long migrated;
+    private long skipped;
+    private long conflicts;
+    /** Capped at {@link WorkflowMigrationJob#MAX_FAILURES}; {@code skipped} has the full count. */
+    private List<WorkflowMigrationJob.Failure> failures;
+    private Instant createdAt;
+    private Instant startedAt;
+    private Instant completedAt;
+    private String error;
+
+    public static MigrationJobResponse from(WorkflowMigrationJob job) {
+        MigrationJobResponse response = new MigrationJobResponse();
+        response.jobId = job.getId();
+        response.workflowSlug = job.getWorkflowSlug();
+        response.targetVersion = job.getTargetVersion();
+        response.sourceVersions = job.getSourceVersions();
+        response.stepMapping = job.getStepMapping();
+        response.dryRun = job.isDryRun();
+        response.status = job.getStatus();
+        response.total = job.getTotal();
+        response.processed = job.getProcessed();
+        response.migrated = job.getMigrated();
+        response.skipped = job.getSkipped();
+        response.conflicts = job.getConflicts();
+        response.failures = job.getFailures();
+        response.createdAt = job.getCreatedAt();
+        response.startedAt = job.getStartedAt();
+        response.completedAt = job.getCompletedAt();
+        response.error = job.getError();
+        return response;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public String getWorkflowSlug() {
+        return workflowSlug;
+    }
+
+    public int getTargetVersion() {
+        return targetVersion;
+    }
+
+    public List<Integer> getSourceVersions() {
+        return sourceVersions;
+    }
+
+    public Map<String, String> getStepMapping() {
+        return stepMapping;
+    }
+
+    public boolean isDryRun() {
+        return dryRun;
+    }
+
+    public MigrationJobStatus getStatus() {
+        return status;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public long getProcessed() {
+        return processed;
+    }
+
+    public long getMigrated() {
+        return migrated;
+    }
+
+    public long getSkipped() {
+        return skipped;
+    }
+
+    public long getConflicts() {
+        return conflicts;
+    }
+
+    public List<WorkflowMigrationJob.Failure> getFailures() {
+        return failures;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getCompletedAt() {
+        return completedAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
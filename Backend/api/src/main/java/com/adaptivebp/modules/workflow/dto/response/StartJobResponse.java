@@ -0,0 +1,149 @@
+package com.adaptivebp.modules.workflow.dto.response;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.adaptivebp.modules.workflow.model.WorkflowStartJob;
+import com.adaptivebp.modules.workflow.model.WorkflowStartJobRow;
+import com.adaptivebp.modules.workflow.model.enums.StartJobRowStatus;
+import com.adaptivebp.modules.workflow.model.enums.StartJobStatus;
+
+/** Progress of a bulk start job plus one page of its per-row results. */
+public class StartJobResponse {
+    private String jobId;
+    private String workflowSlug;
+    private StartJobStatus status;
+    private int total;
+    private int processed;
+    private int succeeded;
+    private int failed;
+    private Instant createdAt;
+    private Instant startedAt;
+    private Instant completedAt;
+    private String error;
+    private List<RowResult> rows = new ArrayList<>();
+    /** Pass as {@code cursor} to fetch the next page of rows; null on the last page. */
+    private Integer nextCursor;
+
+    public static StartJobResponse from(WorkflowStartJob job) {
+        StartJobResponse response = new StartJobResponse();
+        response.jobId = job.getId();
+        response.workflowSlug = job.getWorkflowSlug();
+        response.status = job.getStatus();
+        response.total = job.getTotal();
+        response.processed = job.getProcessed();
+        response.succeeded = job.getSucceeded();
+        response.failed = job.getFailed();
+        response.createdAt = job.getCreatedAt();
+        response.startedAt = job.getStartedAt();
+        response.completedAt = job.getCompletedAt();
+        response.error = job.getError();
+        return response;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public String getWorkflowSlug() {
+        return workflowSlug;
+    }
+
+    public StartJobStatus getStatus() {
+        return status;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public int getProcessed() {
+        return processed;
+    }
+
+    public int getSucceeded() {
+        return succeeded;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getCompletedAt() {
+        return completedAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public List<RowResult> getRows() {
+        return rows;
+    }
+
+    public void setRows(List<RowResult> rows) {
+        this.rows = rows != null ? rows : new ArrayList<>();
+    }
+
+    public Integer getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(Integer nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public static class RowResult {
+        private int row;
+        private StartJobRowStatus status;
+        /** Set once the row's instance has been started. */
+        private String instanceId;
+        private String error;
+        private String message;
+        private Object details;
+
+        public static RowResult from(WorkflowStartJobRow row) {
+            RowResult result = new RowResult();
+            result.row = row.getRow();
+            result.status = row.getStatus();
+            result.instanceId = row.getStatus() == StartJobRowStatus.STARTED ? row.getInstanceId() : null;
+            result.error = row.getError();
+            result.message = row.getMessage();
+            result.details = row.getDetails();
+            return result;
+        }
+
+        public int getRow() {
+            return row;
+        }
+
+        public StartJobRowStatus getStatus() {
+            return status;
+        }
+
+        public String getInstanceId() {
+            return instanceId;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public Object getDetails() {
+            return details;
+        }
+    }
+}
@@ -6,6 +6,8 @@ import java.util.List;
 public class TaskListResponse {
     private int count;
     private List<TaskResponse> tasks = new ArrayList<>();
+    /** Pass back as {@code cursor} to fetch the next page; null on the last page. */
+    private String nextCursor;
 
     public int getCount() {
         return count;
@@ -23,4 +25,12 @@ public class TaskListResponse {
         this.tasks = tasks != null ? tasks : new ArrayList<>();
         this.count = this.tasks.size();
     }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
 }
@@ -0,0 +1,54 @@
+package com.adaptivebp.modules.workflow.dto.response;
+
+/**
+ * Payload of a {@code workflow} server-sent event: an instance changed state. {@code inbox} tells
+ * the receiving user how their task list changed, so clients only refetch what moved.
+ */
+public class WorkflowEventResponse {
+    private String instanceId;
+    private Long version;
+    private String status;
+    private String currentStepId;
+    /** ADDED, REMOVED or UPDATED for the receiver's task list; null when it is unaffected. */
+    private String inbox;
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    public void setInstanceId(String instanceId) {
+        this.instanceId = instanceId;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getCurrentStepId() {
+        return currentStepId;
+    }
+
+    public void setCurrentStepId(String currentStepId) {
+        this.currentStepId = currentStepId;
+    }
+
+    public String getInbox() {
+        return inbox;
+    }
+
+    public void setInbox(String inbox) {
+        this.inbox = inbox;
+    }
+}
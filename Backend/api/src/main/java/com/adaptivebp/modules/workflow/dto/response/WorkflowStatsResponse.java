@@ -0,0 +1,135 @@
+package com.adaptivebp.modules.workflow.dto.response;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Step occupancy, dwell time and daily throughput for one workflow, across all its versions. */
+public class WorkflowStatsResponse {
+    private String workflowSlug;
+    private List<StepStats> steps = new ArrayList<>();
+    /** One entry per day in the requested range, oldest first; days without activity are zero. */
+    private List<DayStats> days = new ArrayList<>();
+
+    public String getWorkflowSlug() {
+        return workflowSlug;
+    }
+
+    public void setWorkflowSlug(String workflowSlug) {
+        this.workflowSlug = workflowSlug;
+    }
+
+    public List<StepStats> getSteps() {
+        return steps;
+    }
+
+    public void setSteps(List<StepStats> steps) {
+        this.steps = steps != null ? steps : new ArrayList<>();
+    }
+
+    public List<DayStats> getDays() {
+        return days;
+    }
+
+    public void setDays(List<DayStats> days) {
+        this.days = days != null ? days : new ArrayList<>();
+    }
+
+    public static class StepStats {
+        private String stepId;
+        /** Null for steps that only exist in older versions of the workflow. */
+        private String stepName;
+        /** Active instances currently at the step. */
+        private long active;
+        private long entered;
+        private long exited;
+        /** Mean time instances spent at the step before leaving it; 0 until one has left. */
+        private long avgDwellMillis;
+
+        public String getStepId() {
+            return stepId;
+        }
+
+        public void setStepId(String stepId) {
+            this.stepId = stepId;
+        }
+
+        public String getStepName() {
+            return stepName;
+        }
+
+        public void setStepName(String stepName) {
+            this.stepName = stepName;
+        }
+
+        public long getActive() {
+            return active;
+        }
+
+        public void setActive(long active) {
+            this.active = active;
+        }
+
+        public long getEntered() {
+            return entered;
+        }
+
+        public void setEntered(long entered) {
+            this.entered = entered;
+        }
+
+        public long getExited() {
+            return exited;
+        }
+
+        public void setExited(long exited) {
+            this.exited = exited;
+        }
+
+        public long getAvgDwellMillis() {
+            return avgDwellMillis;
+        }
+
+        public void setAvgDwellMillis(long avgDwellMillis) {
+            this.avgDwellMillis = avgDwellMillis;
+        }
+    }
+
+    public static class DayStats {
+        private String day;
+        private long started;
+        private long completed;
+        private long cancelled;
+
+        public String getDay() {
+            return day;
+        }
+
+        public void setDay(String day) {
+            this.day = day;
+        }
+
+        public long getStarted() {
+            return started;
+        }
+
+        public void setStarted(long started) {
+            this.started = started;
+        }
+
+        public long getCompleted() {
+            return completed;
+        }
+
+        public void setCompleted(long completed) {
+            this.completed = completed;
+        }
+
+        public long getCancelled() {
+            return cancelled;
+        }
+
+        public void setCancelled(long cancelled) {
+            this.cancelled = cancelled;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.adaptivebp.modules.workflow.exception;
+
+import com.adaptivebp.modules.workflow.model.WorkflowInstance;
+
+/**
+ * Raised when an edge execution lost the race against another transition on the same instance.
+ * Carries the instance as it is now stored so the client can refresh without another round-trip.
+ */
+public class WorkflowConflictException extends RuntimeException {
+    private final WorkflowInstance current;
+    private final boolean retryable;
+
+    public WorkflowConflictException(String message, WorkflowInstance current, boolean retryable) {
+        super(message);
+        this.current = current;
+        this.retryable = retryable;
+    }
+
+    public WorkflowInstance getCurrent() {
+        return current;
+    }
+
+    public boolean isRetryable() {
+        return retryable;
+    }
+}
@@ -4,11 +4,14 @@ import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import com.adaptivebp.modules.workflow.model.WorkflowInstance;
+
 @RestControllerAdvice(basePackages = "com.adaptivebp.modules.workflow")
 public class WorkflowExceptionHandler {
 
@@ -42,11 +45,36 @@ public class WorkflowExceptionHandler {
         return error(HttpStatus.CONFLICT, "WORKFLOW_ALREADY_COMPLETED", ex.getMessage(), null);
     }
 
+    @ExceptionHandler(WorkflowConflictException.class)
+    public ResponseEntity<Map<String, Object>> handleConflict(WorkflowConflictException ex) {
+        WorkflowInstance current = ex.getCurrent();
+        Map<String, Object> details = null;
+        if (current != null) {
+            details = new HashMap<>();
+            details.put("instanceId", current.getId());
+            details.put("version", current.getVersion());
+            details.put("status", current.getStatus());
+            details.put("currentStepId", current.getCurrentStepId());
+            details.put("primaryRecord", current.getPrimaryRecord());
+        }
+        return error(HttpStatus.CONFLICT, "CONCURRENT_MODIFICATION", ex.getMessage(), details);
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String, Object>> handleOptimisticLock(OptimisticLockingFailureException ex) {
+        return error(HttpStatus.CONFLICT, "CONCURRENT_MODIFICATION", "Workflow instance was modified concurrently", null);
+    }
+
     @ExceptionHandler(InvalidFormDataException.class)
     public ResponseEntity<Map<String, Object>> handleInvalidFormData(InvalidFormDataException ex) {
         return error(HttpStatus.BAD_REQUEST, "INVALID_FORM_DATA", ex.getMessage(), ex.getFieldErrors());
     }
 
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidCursor(InvalidCursorException ex) {
+        return error(HttpStatus.BAD_REQUEST, "INVALID_CURSOR", ex.getMessage(), null);
+    }
+
     @ExceptionHandler(ModelNotFoundException.class)
     public ResponseEntity<Map<String, Object>> handleMissingModel(ModelNotFoundException ex) {
         return error(HttpStatus.NOT_FOUND, "MODEL_NOT_FOUND", ex.getMessage(), null);
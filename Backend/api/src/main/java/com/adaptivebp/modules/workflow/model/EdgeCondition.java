@@ -1,11 +1,22 @@
 package com.adaptivebp.modules.workflow.model;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import com.adaptivebp.modules.workflow.model.enums.ConditionLogic;
 import com.adaptivebp.modules.workflow.model.enums.ConditionOperator;
 
+/**
+ * Either a leaf comparison (field / operator / value) or, when {@code conditions} is
+ * non-empty, a group whose children are combined with {@code logic} (AND by default).
+ * The top-level list on an edge is an implicit AND group.
+ */
 public class EdgeCondition {
     private String field;
     private ConditionOperator operator;
     private Object value;
+    private ConditionLogic logic;
+    private List<EdgeCondition> conditions = new ArrayList<>();
 
     public String getField() {
         return field;
@@ -30,4 +41,20 @@ public class EdgeCondition {
     public void setValue(Object value) {
         this.value = value;
     }
+
+    public ConditionLogic getLogic() {
+        return logic;
+    }
+
+    public void setLogic(ConditionLogic logic) {
+        this.logic = logic;
+    }
+
+    public List<EdgeCondition> getConditions() {
+        return conditions;
+    }
+
+    public void setConditions(List<EdgeCondition> conditions) {
+        this.conditions = conditions != null ? conditions : new ArrayList<>();
+    }
 }
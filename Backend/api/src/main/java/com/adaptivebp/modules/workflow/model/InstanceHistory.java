@@ -2,9 +2,12 @@ package com.adaptivebp.modules.workflow.model;
 
 import java.time.Instant;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class InstanceHistory {
+    /** Position in the instance's audit trail, starting at 0. Used as the history paging cursor. */
+    private long sequence;
     private String stepId;
     private String edgeId;
     private String edgeName;
@@ -14,6 +17,19 @@ public class InstanceHistory {
     private String comment;
     private String recordId;
     private Map<String, Object> formData = new HashMap<>();
+    /**
+     * Submitted keys left out of formData because the record already held the same value.
+     * Null on entries that carry the full submission.
+     */
+    private List<String> unchangedKeys;
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
 
     public String getStepId() {
         return stepId;
@@ -86,4 +102,12 @@ public class InstanceHistory {
     public void setFormData(Map<String, Object> formData) {
         this.formData = formData != null ? formData : new HashMap<>();
     }
+
+    public List<String> getUnchangedKeys() {
+        return unchangedKeys;
+    }
+
+    public void setUnchangedKeys(List<String> unchangedKeys) {
+        this.unchangedKeys = unchangedKeys;
+    }
 }
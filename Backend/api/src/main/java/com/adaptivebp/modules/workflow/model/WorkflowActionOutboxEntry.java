@@ -0,0 +1,179 @@
+package com.adaptivebp.modules.workflow.model;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import com.adaptivebp.modules.workflow.model.enums.AutoActionStatus;
+import com.adaptivebp.modules.workflow.model.enums.AutoActionType;
+
+/**
+ * One auto-action to run for an executed edge. Staged on the instance in the same write as the
+ * transition, then relayed here and executed by AutoActionOutboxService's workers.
+ * The id ({@code instanceId:version:index}) doubles as the idempotency key.
+ */
+@Document(collection = "workflow_action_outbox")
+@CompoundIndexes({
+        // Claim query: due PENDING entries and RUNNING entries whose lease ran out
+        @CompoundIndex(name = "status_next_attempt_idx", def = "{'status':1,'nextAttemptAt':1}"),
+        @CompoundIndex(name = "domain_app_status_idx", def = "{'domainId':1,'appId':1,'status':1}")
+})
+public class WorkflowActionOutboxEntry {
+
+    @Id
+    private String id;
+    private String instanceId;
+    /** Instance version written by the transition that produced this action. */
+    private long instanceVersion;
+    private String domainId;
+    private String appId;
+    private String stepId;
+    private String edgeId;
+    private AutoActionType type;
+    /** The action's config with field mappings already resolved against the primary record. */
+    private Map<String, Object> config = new HashMap<>();
+    private String performedBy;
+    private AutoActionStatus status = AutoActionStatus.PENDING;
+    private int attempts;
+    private Instant createdAt;
+    /** When a PENDING entry is due, or when a RUNNING entry's lease expires. */
+    private Instant nextAttemptAt;
+    /** Only set on DONE entries, which expire a week later; FAILED entries are kept. */
+    @Indexed(name = "completed_ttl_idx", expireAfter = "7d")
+    private Instant completedAt;
+    private String lastError;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    public void setInstanceId(String instanceId) {
+        this.instanceId = instanceId;
+    }
+
+    public long getInstanceVersion() {
+        return instanceVersion;
+    }
+
+    public void setInstanceVersion(long instanceVersion) {
+        this.instanceVersion = instanceVersion;
+    }
+
+    public String getDomainId() {
+        return domainId;
+    }
+
+    public void setDomainId(String domainId) {
+        this.domainId = domainId;
+    }
+
+    public String getAppId() {
+        return appId;
+    }
+
+    public void setAppId(String appId) {
+        this.appId = appId;
+    }
+
+    public String getStepId() {
+        return stepId;
+    }
+
+    public void setStepId(String stepId) {
+        this.stepId = stepId;
+    }
+
+    public String getEdgeId() {
+        return edgeId;
+    }
+
+    public void setEdgeId(String edgeId) {
+        this.edgeId = edgeId;
+    }
+
+    public AutoActionType getType() {
+        return type;
+    }
+
+    public void setType(AutoActionType type) {
+        this.type = type;
+    }
+
+    public Map<String, Object> getConfig() {
+        return config;
+    }
+
+    public void setConfig(Map<String, Object> config) {
+        this.config = config != null ? config : new HashMap<>();
+    }
+
+    public String getPerformedBy() {
+        return performedBy;
+    }
+
+    public void setPerformedBy(String performedBy) {
+        this.performedBy = performedBy;
+    }
+
+    public AutoActionStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(AutoActionStatus status) {
+        this.status = status;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(Instant nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public Instant getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(Instant completedAt) {
+        this.completedAt = completedAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+}
@@ -0,0 +1,92 @@
+package com.adaptivebp.modules.workflow.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Instances started and finished on one UTC day for one definition version. The id is
+ * {@code workflowDefinitionId:day}.
+ */
+@Document(collection = "workflow_daily_stats")
+@CompoundIndexes({
+        @CompoundIndex(name = "domain_app_definition_day_idx", def = "{'domainId':1,'appId':1,'workflowDefinitionId':1,'day':1}")
+})
+public class WorkflowDailyStats {
+
+    @Id
+    private String id;
+    private String domainId;
+    private String appId;
+    private String workflowDefinitionId;
+    /** ISO date, e.g. 2024-05-31. */
+    private String day;
+    private long started;
+    private long completed;
+    private long cancelled;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getDomainId() {
+        return domainId;
+    }
+
+    public void setDomainId(String domainId) {
+        this.domainId = domainId;
+    }
+
+    public String getAppId() {
+        return appId;
+    }
+
+    public void setAppId(String appId) {
+        this.appId = appId;
+    }
+
+    public String getWorkflowDefinitionId() {
+        return workflowDefinitionId;
+    }
+
+    public void setWorkflowDefinitionId(String workflowDefinitionId) {
+        this.workflowDefinitionId = workflowDefinitionId;
+    }
+
+    public String getDay() {
+        return day;
+    }
+
+    public void setDay(String day) {
+        this.day = day;
+    }
+
+    public long getStarted() {
+        return started;
+    }
+
+    public void setStarted(long started) {
+        this.started = started;
+    }
+
+    public long getCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(long completed) {
+        this.completed = completed;
+    }
+
+    public long getCancelled() {
+        return cancelled;
+    }
+
+    public void setCancelled(long cancelled) {
+        this.cancelled = cancelled;
+    }
+}
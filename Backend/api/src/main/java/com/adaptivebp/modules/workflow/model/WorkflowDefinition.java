@@ -34,6 +34,8 @@ public class WorkflowDefinition {
     private String createdBy;
     private Instant createdAt = Instant.now();
     private Instant updatedAt = Instant.now();
+    /** Bumped on every save, unlike {@link #version} which only moves on publish; ETags derive from it. */
+    private long revision;
 
     public Optional<WorkflowStep> findStartStep() {
         return steps.stream().filter(WorkflowStep::isStart).findFirst();
@@ -153,4 +155,12 @@ public class WorkflowDefinition {
     public void setUpdatedAt(Instant updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public long getRevision() {
+        return revision;
+    }
+
+    public void setRevision(long revision) {
+        this.revision = revision;
+    }
 }
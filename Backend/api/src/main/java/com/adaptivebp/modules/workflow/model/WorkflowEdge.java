@@ -16,6 +16,16 @@ public class WorkflowEdge {
     private List<AutoAction> autoActions = new ArrayList<>();
     /** When this edge is executed, set primaryRecord.status to this value. */
     private String statusLabel;
+    /**
+     * Safe to re-apply when another user modified the instance concurrently without moving it
+     * off this step; the engine then retries instead of returning a conflict.
+     */
+    private boolean idempotent;
+    /**
+     * SLA timer: when set, the engine executes this edge on its own once the instance has
+     * waited this many minutes on the step, e.g. an "Escalate" edge after 2880 (48h).
+     */
+    private Long timeoutMinutes;
 
     public String getId() {
         return id;
@@ -104,4 +114,20 @@ public class WorkflowEdge {
     public void setStatusLabel(String statusLabel) {
         this.statusLabel = statusLabel;
     }
+
+    public boolean isIdempotent() {
+        return idempotent;
+    }
+
+    public void setIdempotent(boolean idempotent) {
+        this.idempotent = idempotent;
+    }
+
+    public Long getTimeoutMinutes() {
+        return timeoutMinutes;
+    }
+
+    public void setTimeoutMinutes(Long timeoutMinutes) {
+        this.timeoutMinutes = timeoutMinutes;
+    }
 }
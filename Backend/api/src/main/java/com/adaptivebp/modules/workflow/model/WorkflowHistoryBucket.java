@@ -0,0 +1,86 @@
+package com.adaptivebp.modules.workflow.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * A fixed-size slice of one instance's audit trail. Entry {@code n} of an instance lives in
+ * bucket {@code n / bucketSize}; buckets are only ever appended to.
+ */
+@Document(collection = "workflow_history_buckets")
+@CompoundIndexes({
+        @CompoundIndex(name = "instance_bucket_idx", def = "{'instanceId':1,'bucket':1}", unique = true),
+        @CompoundIndex(name = "domain_app_idx", def = "{'domainId':1,'appId':1}")
+})
+public class WorkflowHistoryBucket {
+
+    @Id
+    private String id;
+    private String instanceId;
+    private String domainId;
+    private String appId;
+    private long bucket;
+    private int count;
+    private List<InstanceHistory> entries = new ArrayList<>();
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    public void setInstanceId(String instanceId) {
+        this.instanceId = instanceId;
+    }
+
+    public String getDomainId() {
+        return domainId;
+    }
+
+    public void setDomainId(String domainId) {
+        this.domainId = domainId;
+    }
+
+    public String getAppId() {
+        return appId;
+    }
+
+    public void setAppId(String appId) {
+        this.appId = appId;
+    }
+
+    public long getBucket() {
+        return bucket;
+    }
+
+    public void setBucket(long bucket) {
+        this.bucket = bucket;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+
+    public List<InstanceHistory> getEntries() {
+        return entries;
+    }
+
+    public void setEntries(List<InstanceHistory> entries) {
+        this.entries = entries != null ? entries : new ArrayList<>();
+    }
+}
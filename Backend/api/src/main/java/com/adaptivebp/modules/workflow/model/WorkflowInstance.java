@@ -7,6 +7,7 @@ import java.util.List;
 import java.util.Map;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
@@ -15,29 +16,95 @@ import com.adaptivebp.modules.workflow.model.enums.InstanceStatus;
 
 @Document(collection = "workflow_instances")
 @CompoundIndexes({
-        @CompoundIndex(name = "domain_app_status_idx", def = "{'domainId':1,'appId':1,'status':1}"),
         @CompoundIndex(name = "workflow_definition_idx", def = "{'workflowDefinitionId':1}"),
+        // Version migration walks the ACTIVE instances of a definition in _id order
+        @CompoundIndex(name = "definition_status_id_idx", def = "{'workflowDefinitionId':1,'status':1,'_id':1}"),
         @CompoundIndex(name = "started_by_status_idx", def = "{'startedBy':1,'status':1}"),
-        @CompoundIndex(name = "current_step_status_idx", def = "{'currentStepId':1,'status':1}")
+        @CompoundIndex(name = "current_step_status_idx", def = "{'currentStepId':1,'status':1}"),
+        // Keyset listing: newest first, optionally narrowed by submitter, status or step
+        @CompoundIndex(name = "domain_app_started_idx", def = "{'domainId':1,'appId':1,'startedAt':-1,'_id':-1}"),
+        @CompoundIndex(name = "domain_app_started_by_idx", def = "{'domainId':1,'appId':1,'startedBy':1,'startedAt':-1,'_id':-1}"),
+        @CompoundIndex(name = "domain_app_status_started_idx", def = "{'domainId':1,'appId':1,'status':1,'startedAt':-1,'_id':-1}"),
+        @CompoundIndex(name = "domain_app_step_started_idx", def = "{'domainId':1,'appId':1,'currentStepId':1,'startedAt':-1,'_id':-1}"),
+        // Relay sweep for auto-actions left behind by a crash; only instances with pending actions are indexed
+        @CompoundIndex(name = "pending_actions_idx", def = "{'pendingActions.createdAt':1}", sparse = true),
+        // Relay sweep for history entries whose bucket append was never confirmed
+        @CompoundIndex(name = "pending_history_idx", def = "{'pendingHistory.performedAt':1}", sparse = true)
 })
 public class WorkflowInstance {
 
+    /** {@link #storageFormat} of instances that no longer persist stepRecords. */
+    public static final int FORMAT_COMPACT = 1;
+
     @Id
     private String id;
+    /**
+     * Bumped on every transition. Edge execution only commits when both this and
+     * currentStepId still match what it read, so concurrent approvers cannot overwrite each other.
+     */
+    @Version
+    private Long version;
+    /**
+     * Bumped by every write to the instance, including those that leave {@link #version} alone
+     * such as auto-action field updates; with the version it forms the instance's ETag.
+     */
+    private long revision;
+    /**
+     * Ids of the last few transitions, newest last. A bulk write cannot report which of its
+     * updates matched, so bulk execution reads these back to tell which of its commits landed.
+     */
+    private List<String> recentTransitionIds = new ArrayList<>();
     private String workflowDefinitionId;
     private int workflowVersion;
     private String domainId;
     private String appId;
     private InstanceStatus status = InstanceStatus.ACTIVE;
     private String currentStepId;
+    /** When the instance entered currentStepId; the start of its dwell time there. Null on older instances. */
+    private Instant stepEnteredAt;
+    /**
+     * Data submitted at each step. Only stored by instances in the original format; compact
+     * instances rebuild it from their history when the full view is requested.
+     */
     private Map<String, Object> stepRecords = new HashMap<>();
+    /** Steps that have received a non-empty submission, which is all transitions need of stepRecords. */
+    private List<String> submittedStepIds = new ArrayList<>();
+    /**
+     * primaryRecord keys whose value may differ from the value the history last submitted for
+     * them: keys written by UPDATE_FIELD auto-actions and keys submitted where they are not
+     * editable. Compact history always stores these in full. Only ever grows.
+     */
+    private List<String> divergedKeys = new ArrayList<>();
+    /**
+     * 0 for the original layout, {@link #FORMAT_COMPACT} once stepRecords is derived and new
+     * history entries only carry what changed.
+     */
+    private int storageFormat;
     /**
      * The single accumulated record for this workflow instance.
      * Each step appends its editable-field values here.
      * Edge statusLabels set the "status" key.
      */
     private Map<String, Object> primaryRecord = new HashMap<>();
+    /**
+     * Legacy embedded audit trail. New entries go to workflow_history_buckets; anything still
+     * here is copied there on the instance's next transition and removed once the copy landed.
+     */
     private List<InstanceHistory> history = new ArrayList<>();
+    /** Number of entries in the instance's history, staged or in buckets; the next entry's sequence. */
+    private long historyCount;
+    /**
+     * History entries written atomically with the transition that produced them and not yet
+     * confirmed in workflow_history_buckets.
+     */
+    private List<InstanceHistory> pendingHistory = new ArrayList<>();
+    /** The last few history entries, kept bounded for the step view and task list. */
+    private List<InstanceHistory> recentHistory = new ArrayList<>();
+    /**
+     * Auto-actions written atomically with the transition that produced them and not yet
+     * relayed to workflow_action_outbox.
+     */
+    private List<WorkflowActionOutboxEntry> pendingActions = new ArrayList<>();
     private String startedBy;
     private Instant startedAt = Instant.now();
     private Instant completedAt;
@@ -50,6 +117,30 @@ public class WorkflowInstance {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public long getRevision() {
+        return revision;
+    }
+
+    public void setRevision(long revision) {
+        this.revision = revision;
+    }
+
+    public List<String> getRecentTransitionIds() {
+        return recentTransitionIds;
+    }
+
+    public void setRecentTransitionIds(List<String> recentTransitionIds) {
+        this.recentTransitionIds = recentTransitionIds != null ? recentTransitionIds : new ArrayList<>();
+    }
+
     public String getWorkflowDefinitionId() {
         return workflowDefinitionId;
     }
@@ -98,6 +189,14 @@ public class WorkflowInstance {
         this.currentStepId = currentStepId;
     }
 
+    public Instant getStepEnteredAt() {
+        return stepEnteredAt;
+    }
+
+    public void setStepEnteredAt(Instant stepEnteredAt) {
+        this.stepEnteredAt = stepEnteredAt;
+    }
+
     public Map<String, Object> getStepRecords() {
         return stepRecords;
     }
@@ -106,6 +205,30 @@ public class WorkflowInstance {
         this.stepRecords = stepRecords != null ? stepRecords : new HashMap<>();
     }
 
+    public List<String> getSubmittedStepIds() {
+        return submittedStepIds;
+    }
+
+    public void setSubmittedStepIds(List<String> submittedStepIds) {
+        this.submittedStepIds = submittedStepIds != null ? submittedStepIds : new ArrayList<>();
+    }
+
+    public List<String> getDivergedKeys() {
+        return divergedKeys;
+    }
+
+    public void setDivergedKeys(List<String> divergedKeys) {
+        this.divergedKeys = divergedKeys != null ? divergedKeys : new ArrayList<>();
+    }
+
+    public int getStorageFormat() {
+        return storageFormat;
+    }
+
+    public void setStorageFormat(int storageFormat) {
+        this.storageFormat = storageFormat;
+    }
+
     public Map<String, Object> getPrimaryRecord() {
         if (primaryRecord == null) primaryRecord = new HashMap<>();
         return primaryRecord;
@@ -123,6 +246,38 @@ public class WorkflowInstance {
         this.history = history != null ? history : new ArrayList<>();
     }
 
+    public long getHistoryCount() {
+        return historyCount;
+    }
+
+    public void setHistoryCount(long historyCount) {
+        this.historyCount = historyCount;
+    }
+
+    public List<InstanceHistory> getPendingHistory() {
+        return pendingHistory;
+    }
+
+    public void setPendingHistory(List<InstanceHistory> pendingHistory) {
+        this.pendingHistory = pendingHistory != null ? pendingHistory : new ArrayList<>();
+    }
+
+    public List<InstanceHistory> getRecentHistory() {
+        return recentHistory;
+    }
+
+    public void setRecentHistory(List<InstanceHistory> recentHistory) {
+        this.recentHistory = recentHistory != null ? recentHistory : new ArrayList<>();
+    }
+
+    public List<WorkflowActionOutboxEntry> getPendingActions() {
+        return pendingActions;
+    }
+
+    public void setPendingActions(List<WorkflowActionOutboxEntry> pendingActions) {
+        this.pendingActions = pendingActions != null ? pendingActions : new ArrayList<>();
+    }
+
     public String getStartedBy() {
         return startedBy;
     }
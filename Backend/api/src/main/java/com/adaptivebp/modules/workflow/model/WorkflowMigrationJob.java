@@ -0,0 +1,308 @@
+package com.adaptivebp.modules.workflow.model;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import com.adaptivebp.modules.workflow.model.enums.MigrationJobStatus;
+
+/**
+ * Moves the ACTIVE instances of older versions of a workflow onto its published version.
+ * WorkflowMigrationService walks the instances in _id order and {@code lastInstanceId} is the
+ * resume point, so a job whose node died carries on where it stopped.
+ */
+@Document(collection = "workflow_migration_jobs")
+@CompoundIndexes({
+        // Claim query: QUEUED jobs and RUNNING jobs whose lease ran out
+        @CompoundIndex(name = "status_lease_idx", def = "{'status':1,'leaseUntil':1}")
+})
+public class WorkflowMigrationJob {
+
+    /** At most this many skipped instances are kept on the job. */
+    public static final int MAX_FAILURES = 100;
+
+    @Id
+    private String id;
+    private String domainId;
+    private String appId;
+    private String workflowSlug;
+    private String targetDefinitionId;
+    private int targetVersion;
+    /** Only instances pinned to these versions are migrated; empty means every older version. */
+    private List<Integer> sourceVersions = new ArrayList<>();
+    /** Old step id to new step id; steps left out keep their id, which must exist in the target. */
+    private Map<String, String> stepMapping = new HashMap<>();
+    /** Only counts what would be migrated and skipped, without changing any instance. */
+    private boolean dryRun;
+    private MigrationJobStatus status = MigrationJobStatus.QUEUED;
+    /** ACTIVE instances in scope when the job was submitted. */
+    private long total;
+    private long processed;
+    private long migrated;
+    /** Instances without a step in the target version. */
+    private long skipped;
+    /** Instances that moved on while their batch was being written; a rerun picks them up. */
+    private long conflicts;
+    /** The first {@link #MAX_FAILURES} skipped instances. */
+    private List<Failure> failures = new ArrayList<>();
+    private String lastInstanceId;
+    private String createdBy;
+    private String createdByName;
+    /** Finished jobs expire a week after submission. */
+    @Indexed(name = "created_ttl_idx", expireAfter = "7d")
+    private Instant createdAt;
+    private Instant startedAt;
+    private Instant completedAt;
+    /** When the node running a RUNNING job must have renewed its claim by. */
+    private Instant leaseUntil;
+    /** Changes on every claim, so a node that lost its lease stops writing progress. */
+    private String claimToken;
+    private String error;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getDomainId() {
+        return domainId;
+    }
+
+    public void setDomainId(String domainId) {
+        this.domainId = domainId;
+    }
+
+    public String getAppId() {
+        return appId;
+    }
+
+    public void setAppId(String appId) {
+        this.appId = appId;
+    }
+
+    public String getWorkflowSlug() {
+        return workflowSlug;
+    }
+
+    public void setWorkflowSlug(String workflowSlug) {
+        this.workflowSlug = workflowSlug;
+    }
+
+    public String getTargetDefinitionId() {
+        return targetDefinitionId;
+    }
+
+    public void setTargetDefinitionId(String targetDefinitionId) {
+        this.targetDefinitionId = targetDefinitionId;
+    }
+
+    public int getTargetVersion() {
+        return targetVersion;
+    }
+
+    public void setTargetVersion(int targetVersion) {
+        this.targetVersion = targetVersion;
+    }
+
+    public List<Integer> getSourceVersions() {
+        return sourceVersions;
+    }
+
+    public void setSourceVersions(List<Integer> sourceVersions) {
+        this.sourceVersions = sourceVersions != null ? sourceVersions : new ArrayList<>();
+    }
+
+    public Map<String, String> getStepMapping() {
+        return stepMapping;
+    }
+
+    public void setStepMapping(Map<String, String> stepMapping) {
+        this.stepMapping = stepMapping != null ? stepMapping : new HashMap<>();
+    }
+
+    public boolean isDryRun() {
+        return dryRun;
+    }
+
+    public void setDryRun(boolean dryRun) {
+        this.dryRun = dryRun;
+    }
+
+    public MigrationJobStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(MigrationJobStatus status) {
+        this.status = status;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public long getProcessed() {
+        return processed;
+    }
+
+    public void setProcessed(long processed) {
+        this.processed = processed;
+    }
+
+    public long getMigrated() {
+        return migrated;
+    }
+
+    public void setMigrated(long migrated) {
+        this.migrated = migrated;
+    }
+
+    public long getSkipped() {
+        return skipped;
+    }
+
+    public void setSkipped(long skipped) {
+        this.skipped = skipped;
+    }
+
+    public long getConflicts() {
+        return conflicts;
+    }
+
+    public void setConflicts(long conflicts) {
+        this.conflicts = conflicts;
+    }
+
+    public List<Failure> getFailures() {
+        return failures;
+    }
+
+    public void setFailures(List<Failure> failures) {
+        this.failures = failures != null ? failures : new ArrayList<>();
+    }
+
+    public String getLastInstanceId() {
+        return lastInstanceId;
+    }
+
+    public void setLastInstanceId(String lastInstanceId) {
+        this.lastInstanceId = lastInstanceId;
+    }
+
+    public String getCreatedBy() {
+        return createdBy;
+    }
+
+    public void setCreatedBy(String createdBy) {
+        this.createdBy = createdBy;
+    }
+
+    public String getCreatedByName() {
+        return createdByName;
+    }
+
+    public void setCreatedByName(String createdByName) {
+        this.createdByName = createdByName;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(Instant startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Instant getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(Instant completedAt) {
+        this.completedAt = completedAt;
+    }
+
+    public Instant getLeaseUntil() {
+        return leaseUntil;
+    }
+
+    public void setLeaseUntil(Instant leaseUntil) {
+        this.leaseUntil = leaseUntil;
+    }
+
+    public String getClaimToken() {
+        return claimToken;
+    }
+
+    public void setClaimToken(String claimToken) {
+        this.claimToken = claimToken;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public static class Failure {
+        private String instanceId;
+        private String stepId;
+        private String reason;
+
+        public Failure() {
+        }
+
+        public Failure(String instanceId, String stepId, String reason) {
+            this.instanceId = instanceId;
+            this.stepId = stepId;
+            this.reason = reason;
+        }
+
+        public String getInstanceId() {
+            return instanceId;
+        }
+
+        public void setInstanceId(String instanceId) {
+            this.instanceId = instanceId;
+        }
+
+        public String getStepId() {
+            return stepId;
+        }
+
+        public void setStepId(String stepId) {
+            this.stepId = stepId;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        public void setReason(String reason) {
+            this.reason = reason;
+        }
+    }
+}
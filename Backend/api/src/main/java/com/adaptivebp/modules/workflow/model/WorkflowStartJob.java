@@ -0,0 +1,191 @@
+package com.adaptivebp.modules.workflow.model;
+
+import java.time.Instant;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import com.adaptivebp.modules.workflow.model.enums.StartJobStatus;
+
+/**
+ * A bulk workflow start. The uploaded payloads are kept as {@link WorkflowStartJobRow}s and
+ * started in batches by WorkflowBulkStartService; this document only carries progress counters.
+ */
+@Document(collection = "workflow_start_jobs")
+@CompoundIndexes({
+        // Claim query: QUEUED jobs and RUNNING jobs whose lease ran out
+        @CompoundIndex(name = "status_lease_idx", def = "{'status':1,'leaseUntil':1}")
+})
+public class WorkflowStartJob {
+
+    @Id
+    private String id;
+    private String domainId;
+    private String appId;
+    private String workflowDefinitionId;
+    private String workflowSlug;
+    private StartJobStatus status = StartJobStatus.RECEIVING;
+    private int total;
+    private int processed;
+    private int succeeded;
+    private int failed;
+    private String createdBy;
+    private String createdByName;
+    /** Jobs and their rows expire a week after upload. */
+    @Indexed(name = "created_ttl_idx", expireAfter = "7d")
+    private Instant createdAt;
+    private Instant startedAt;
+    private Instant completedAt;
+    /** When the node running a RUNNING job must have renewed its claim by. */
+    private Instant leaseUntil;
+    /** Changes on every claim, so a node that lost its lease stops writing progress. */
+    private String claimToken;
+    private String error;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getDomainId() {
+        return domainId;
+    }
+
+    public void setDomainId(String domainId) {
+        this.domainId = domainId;
+    }
+
+    public String getAppId() {
+        return appId;
+    }
+
+    public void setAppId(String appId) {
+        this.appId = appId;
+    }
+
+    public String getWorkflowDefinitionId() {
+        return workflowDefinitionId;
+    }
+
+    public void setWorkflowDefinitionId(String workflowDefinitionId) {
+        this.workflowDefinitionId = workflowDefinitionId;
+    }
+
+    public String getWorkflowSlug() {
+        return workflowSlug;
+    }
+
+    public void setWorkflowSlug(String workflowSlug) {
+        this.workflowSlug = workflowSlug;
+    }
+
+    public StartJobStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(StartJobStatus status) {
+        this.status = status;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public int getProcessed() {
+        return processed;
+    }
+
+    public void setProcessed(int processed) {
+        this.processed = processed;
+    }
+
+    public int getSucceeded() {
+        return succeeded;
+    }
+
+    public void setSucceeded(int succeeded) {
+        this.succeeded = succeeded;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public String getCreatedBy() {
+        return createdBy;
+    }
+
+    public void setCreatedBy(String createdBy) {
+        this.createdBy = createdBy;
+    }
+
+    public String getCreatedByName() {
+        return createdByName;
+    }
+
+    public void setCreatedByName(String createdByName) {
+        this.createdByName = createdByName;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(Instant startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Instant getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(Instant completedAt) {
+        this.completedAt = completedAt;
+    }
+
+    public Instant getLeaseUntil() {
+        return leaseUntil;
+    }
+
+    public void setLeaseUntil(Instant leaseUntil) {
+        this.leaseUntil = leaseUntil;
+    }
+
+    public String getClaimToken() {
+        return claimToken;
+    }
+
+    public void setClaimToken(String claimToken) {
+        this.claimToken = claimToken;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
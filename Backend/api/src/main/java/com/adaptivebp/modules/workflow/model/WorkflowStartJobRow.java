@@ -0,0 +1,118 @@
+package com.adaptivebp.modules.workflow.model;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import com.adaptivebp.modules.workflow.model.enums.StartJobRowStatus;
+
+/** One payload of a bulk start job and, once processed, its outcome. */
+@Document(collection = "workflow_start_job_rows")
+@CompoundIndexes({
+        @CompoundIndex(name = "job_row_idx", def = "{'jobId':1,'row':1}", unique = true),
+        @CompoundIndex(name = "job_status_row_idx", def = "{'jobId':1,'status':1,'row':1}")
+})
+public class WorkflowStartJobRow {
+
+    @Id
+    private String id;
+    private String jobId;
+    /** Zero-based position in the upload. */
+    private int row;
+    /** Chosen at upload time, so a batch that is retried starts the same instances. */
+    private String instanceId;
+    private Map<String, Object> formData = new HashMap<>();
+    private StartJobRowStatus status = StartJobRowStatus.PENDING;
+    /** Same codes as the single start endpoint's error responses. */
+    private String error;
+    private String message;
+    private Object details;
+    @Indexed(name = "created_ttl_idx", expireAfter = "7d")
+    private Instant createdAt;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    public void setRow(int row) {
+        this.row = row;
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    public void setInstanceId(String instanceId) {
+        this.instanceId = instanceId;
+    }
+
+    public Map<String, Object> getFormData() {
+        return formData;
+    }
+
+    public void setFormData(Map<String, Object> formData) {
+        this.formData = formData;
+    }
+
+    public StartJobRowStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(StartJobRowStatus status) {
+        this.status = status;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public Object getDetails() {
+        return details;
+    }
+
+    public void setDetails(Object details) {
+        this.details = details;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,111 @@
+package com.adaptivebp.modules.workflow.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Running counters for one step of one definition version, kept up to date with $inc as
+ * instances move. The id is {@code workflowDefinitionId:stepId}.
+ */
+@Document(collection = "workflow_step_stats")
+@CompoundIndexes({
+        @CompoundIndex(name = "domain_app_definition_idx", def = "{'domainId':1,'appId':1,'workflowDefinitionId':1}")
+})
+public class WorkflowStepStats {
+
+    @Id
+    private String id;
+    private String domainId;
+    private String appId;
+    private String workflowDefinitionId;
+    private String stepId;
+    /** Active instances currently at the step. */
+    private long active;
+    private long entered;
+    private long exited;
+    /** Total time spent at the step by instances that left it, over {@code dwellSamples} exits. */
+    private long dwellMillis;
+    private long dwellSamples;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getDomainId() {
+        return domainId;
+    }
+
+    public void setDomainId(String domainId) {
+        this.domainId = domainId;
+    }
+
+    public String getAppId() {
+        return appId;
+    }
+
+    public void setAppId(String appId) {
+        this.appId = appId;
+    }
+
+    public String getWorkflowDefinitionId() {
+        return workflowDefinitionId;
+    }
+
+    public void setWorkflowDefinitionId(String workflowDefinitionId) {
+        this.workflowDefinitionId = workflowDefinitionId;
+    }
+
+    public String getStepId() {
+        return stepId;
+    }
+
+    public void setStepId(String stepId) {
+        this.stepId = stepId;
+    }
+
+    public long getActive() {
+        return active;
+    }
+
+    public void setActive(long active) {
+        this.active = active;
+    }
+
+    public long getEntered() {
+        return entered;
+    }
+
+    public void setEntered(long entered) {
+        this.entered = entered;
+    }
+
+    public long getExited() {
+        return exited;
+    }
+
+    public void setExited(long exited) {
+        this.exited = exited;
+    }
+
+    public long getDwellMillis() {
+        return dwellMillis;
+    }
+
+    public void setDwellMillis(long dwellMillis) {
+        this.dwellMillis = dwellMillis;
+    }
+
+    public long getDwellSamples() {
+        return dwellSamples;
+    }
+
+    public void setDwellSamples(long dwellSamples) {
+        this.dwellSamples = dwellSamples;
+    }
+}
@@ -0,0 +1,163 @@
+package com.adaptivebp.modules.workflow.model;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Materialized inbox row: one per (ACTIVE instance, assignee) that can act on the instance's
+ * current step. {@code assignee} is {@code role:<name>}, {@code user:<id>} or {@code *} for
+ * edges without permission rules. Rebuilt by WorkflowTaskInboxService on every transition.
+ */
+@Document(collection = "workflow_task_inbox")
+@CompoundIndexes({
+        @CompoundIndex(name = "inbox_lookup_idx", def = "{'domainId':1,'appId':1,'assignee':1,'waitingSince':1,'instanceId':1}"),
+        @CompoundIndex(name = "instance_version_idx", def = "{'instanceId':1,'instanceVersion':1}")
+})
+public class WorkflowTaskEntry {
+
+    @Id
+    private String id;
+    private String instanceId;
+    private long instanceVersion;
+    private String domainId;
+    private String appId;
+    private String assignee;
+    private String workflowDefinitionId;
+    private String workflowName;
+    private String stepId;
+    private String stepName;
+    private String startedBy;
+    private Instant startedAt;
+    private Instant waitingSince;
+    /** Edges this assignee may execute whose conditions passed when the entry was written. */
+    private List<Map<String, Object>> edges = new ArrayList<>();
+    private Map<String, Object> summary = new HashMap<>();
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    public void setInstanceId(String instanceId) {
+        this.instanceId = instanceId;
+    }
+
+    public long getInstanceVersion() {
+        return instanceVersion;
+    }
+
+    public void setInstanceVersion(long instanceVersion) {
+        this.instanceVersion = instanceVersion;
+    }
+
+    public String getDomainId() {
+        return domainId;
+    }
+
+    public void setDomainId(String domainId) {
+        this.domainId = domainId;
+    }
+
+    public String getAppId() {
+        return appId;
+    }
+
+    public void setAppId(String appId) {
+        this.appId = appId;
+    }
+
+    public String getAssignee() {
+        return assignee;
+    }
+
+    public void setAssignee(String assignee) {
+        this.assignee = assignee;
+    }
+
+    public String getWorkflowDefinitionId() {
+        return workflowDefinitionId;
+    }
+
+    public void setWorkflowDefinitionId(String workflowDefinitionId) {
+        this.workflowDefinitionId = workflowDefinitionId;
+    }
+
+    public String getWorkflowName() {
+        return workflowName;
+    }
+
+    public void setWorkflowName(String workflowName) {
+        this.workflowName = workflowName;
+    }
+
+    public String getStepId() {
+        return stepId;
+    }
+
+    public void setStepId(String stepId) {
+        this.stepId = stepId;
+    }
+
+    public String getStepName() {
+        return stepName;
+    }
+
+    public void setStepName(String stepName) {
+        this.stepName = stepName;
+    }
+
+    public String getStartedBy() {
+        return startedBy;
+    }
+
+    public void setStartedBy(String startedBy) {
+        this.startedBy = startedBy;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(Instant startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Instant getWaitingSince() {
+        return waitingSince;
+    }
+
+    public void setWaitingSince(Instant waitingSince) {
+        this.waitingSince = waitingSince;
+    }
+
+    public List<Map<String, Object>> getEdges() {
+        return edges;
+    }
+
+    public void setEdges(List<Map<String, Object>> edges) {
+        this.edges = edges != null ? edges : new ArrayList<>();
+    }
+
+    public Map<String, Object> getSummary() {
+        return summary;
+    }
+
+    public void setSummary(Map<String, Object> summary) {
+        this.summary = summary != null ? summary : new HashMap<>();
+    }
+}
@@ -0,0 +1,52 @@
+package com.adaptivebp.modules.workflow.model;
+
+import java.time.Instant;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Marks an app whose task inbox has been backfilled from its ACTIVE instances.
+ * The id is {@code domainId:appId}.
+ */
+@Document(collection = "workflow_task_inbox_state")
+public class WorkflowTaskInboxState {
+
+    @Id
+    private String id;
+    private String domainId;
+    private String appId;
+    private Instant builtAt;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getDomainId() {
+        return domainId;
+    }
+
+    public void setDomainId(String domainId) {
+        this.domainId = domainId;
+    }
+
+    public String getAppId() {
+        return appId;
+    }
+
+    public void setAppId(String appId) {
+        this.appId = appId;
+    }
+
+    public Instant getBuiltAt() {
+        return builtAt;
+    }
+
+    public void setBuiltAt(Instant builtAt) {
+        this.builtAt = builtAt;
+    }
+}
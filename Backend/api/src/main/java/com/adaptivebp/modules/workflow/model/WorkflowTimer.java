@@ -0,0 +1,118 @@
+package com.adaptivebp.modules.workflow.model;
+
+import java.time.Instant;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * A pending SLA timeout: fire {@code edgeId} if the instance is still at {@code instanceVersion}
+ * when {@code dueAt} passes. Written when an instance enters a step with timed edges and removed
+ * once it moves on, so the collection only ever holds timers that can still fire.
+ * The id ({@code instanceId:version:edgeId}) makes scheduling idempotent.
+ */
+@Document(collection = "workflow_timers")
+@CompoundIndexes({
+        // Claim query; claimed timers are pushed forward by the lease, so this is the only scan
+        @CompoundIndex(name = "due_at_idx", def = "{'dueAt':1}"),
+        @CompoundIndex(name = "instance_version_idx", def = "{'instanceId':1,'instanceVersion':1}"),
+        @CompoundIndex(name = "domain_app_idx", def = "{'domainId':1,'appId':1}")
+})
+public class WorkflowTimer {
+
+    @Id
+    private String id;
+    private String instanceId;
+    /** Instance version on entering the step; any later transition makes the timer stale. */
+    private long instanceVersion;
+    private String domainId;
+    private String appId;
+    private String stepId;
+    private String edgeId;
+    /** When the timer is due, or when a claimed timer's lease runs out. */
+    private Instant dueAt;
+    private int attempts;
+    private Instant createdAt;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    public void setInstanceId(String instanceId) {
+        this.instanceId = instanceId;
+    }
+
+    public long getInstanceVersion() {
+        return instanceVersion;
+    }
+
+    public void setInstanceVersion(long instanceVersion) {
+        this.instanceVersion = instanceVersion;
+    }
+
+    public String getDomainId() {
+        return domainId;
+    }
+
+    public void setDomainId(String domainId) {
+        this.domainId = domainId;
+    }
+
+    public String getAppId() {
+        return appId;
+    }
+
+    public void setAppId(String appId) {
+        this.appId = appId;
+    }
+
+    public String getStepId() {
+        return stepId;
+    }
+
+    public void setStepId(String stepId) {
+        this.stepId = stepId;
+    }
+
+    public String getEdgeId() {
+        return edgeId;
+    }
+
+    public void setEdgeId(String edgeId) {
+        this.edgeId = edgeId;
+    }
+
+    public Instant getDueAt() {
+        return dueAt;
+    }
+
+    public void setDueAt(Instant dueAt) {
+        this.dueAt = dueAt;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,6 @@
+package com.adaptivebp.modules.workflow.model.enums;
+
+public enum ConditionLogic {
+    AND,
+    OR
+}
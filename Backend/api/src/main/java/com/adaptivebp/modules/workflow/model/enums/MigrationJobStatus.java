@@ -0,0 +1,8 @@
+package com.adaptivebp.modules.workflow.model.enums;
+
+public enum MigrationJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,7 @@
+package com.adaptivebp.modules.workflow.model.enums;
+
+public enum StartJobRowStatus {
+    PENDING,
+    STARTED,
+    FAILED
+}
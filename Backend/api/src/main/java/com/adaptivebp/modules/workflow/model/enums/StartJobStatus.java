@@ -0,0 +1,9 @@
+package com.adaptivebp.modules.workflow.model.enums;
+
+public enum StartJobStatus {
+    RECEIVING,
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -9,16 +9,34 @@ import com.adaptivebp.modules.workflow.model.WorkflowDefinition;
 import com.adaptivebp.modules.workflow.model.enums.WorkflowStatus;
 
 public interface WorkflowDefinitionRepository extends MongoRepository<WorkflowDefinition, String> {
+
+    /** Id and revision only, for answering conditional GETs without loading the definition. */
+    interface Revision {
+        String getId();
+
+        long getRevision();
+    }
+
     Optional<WorkflowDefinition> findByDomainIdAndAppIdAndSlugAndStatus(
             String domainId, String appId, String slug, WorkflowStatus status);
 
     List<WorkflowDefinition> findByDomainIdAndAppId(String domainId, String appId);
 
+    List<WorkflowDefinition> findByDomainIdAndAppIdAndSlug(String domainId, String appId, String slug);
+
     Optional<WorkflowDefinition> findTopByDomainIdAndAppIdAndSlugOrderByVersionDesc(
             String domainId, String appId, String slug);
 
     Optional<WorkflowDefinition> findTopByDomainIdAndAppIdOrderByVersionDesc(String domainId, String appId);
 
+    Optional<Revision> findTopRevisionByDomainIdAndAppIdAndSlugOrderByVersionDesc(
+            String domainId, String appId, String slug);
+
+    Optional<Revision> findRevisionByDomainIdAndAppIdAndSlugAndVersion(
+            String domainId, String appId, String slug, int version);
+
+    Optional<Revision> findTopRevisionByDomainIdAndAppIdOrderByVersionDesc(String domainId, String appId);
+
     boolean existsByDomainIdAndAppIdAndSlug(String domainId, String appId, String slug);
 
     void deleteByDomainIdAndAppId(String domainId, String appId);
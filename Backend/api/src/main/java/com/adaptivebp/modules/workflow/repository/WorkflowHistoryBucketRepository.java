@@ -0,0 +1,9 @@
+package com.adaptivebp.modules.workflow.repository;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import com.adaptivebp.modules.workflow.model.WorkflowHistoryBucket;
+
+public interface WorkflowHistoryBucketRepository extends MongoRepository<WorkflowHistoryBucket, String> {
+    void deleteByDomainIdAndAppId(String domainId, String appId);
+}
@@ -10,10 +10,6 @@ import com.adaptivebp.modules.workflow.model.enums.InstanceStatus;
 public interface WorkflowInstanceRepository extends MongoRepository<WorkflowInstance, String> {
     List<WorkflowInstance> findByDomainIdAndAppIdAndStatus(String domainId, String appId, InstanceStatus status);
 
-    List<WorkflowInstance> findByDomainIdAndAppId(String domainId, String appId);
-
-    List<WorkflowInstance> findByDomainIdAndAppIdAndStartedBy(String domainId, String appId, String startedBy);
-
     List<WorkflowInstance> findByStartedByAndStatus(String userId, InstanceStatus status);
 
     long countByWorkflowDefinitionIdAndStatus(String definitionId, InstanceStatus status);
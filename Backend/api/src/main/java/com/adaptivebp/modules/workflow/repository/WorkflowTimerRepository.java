@@ -0,0 +1,9 @@
+package com.adaptivebp.modules.workflow.repository;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import com.adaptivebp.modules.workflow.model.WorkflowTimer;
+
+public interface WorkflowTimerRepository extends MongoRepository<WorkflowTimer, String> {
+    void deleteByDomainIdAndAppId(String domainId, String appId);
+}
@@ -0,0 +1,234 @@
+package com.adaptivebp.modules.workflow.runtime;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.adaptivebp.modules.formbuilder.model.DomainModelField;
+import com.adaptivebp.modules.workflow.model.WorkflowDefinition;
+import com.adaptivebp.modules.workflow.model.WorkflowEdge;
+import com.adaptivebp.modules.workflow.model.WorkflowStep;
+import com.adaptivebp.modules.workflow.model.enums.WorkflowStatus;
+
+/**
+ * Immutable, pre-indexed form of a {@link WorkflowDefinition} used by the engine hot path.
+ * Built once per definition id + version by {@link WorkflowDefinitionCache}; every lookup
+ * that used to be a linear scan over steps, edges or fields is a hash lookup here.
+ */
+public final class CompiledWorkflow {
+
+    private final String definitionId;
+    private final int version;
+    private final long revision;
+    private final String domainId;
+    private final String appId;
+    private final String name;
+    private final WorkflowStatus status;
+    private final WorkflowStep startStep;
+    private final Map<String, WorkflowStep> stepsById;
+    /** Step-level edges by step id, then edge id. Checked before global edges. */
+    private final Map<String, Map<String, WorkflowEdge>> stepEdgesById;
+    private final Map<String, WorkflowEdge> globalEdgesById;
+    /** Step edges followed by global edges, in definition order. */
+    private final Map<String, List<WorkflowEdge>> candidateEdgesByStep;
+    /** Candidate edges that carry an SLA timeout, per step. */
+    private final Map<String, List<WorkflowEdge>> timedEdgesByStep;
+    /** First field definition for each key across all steps. */
+    private final Map<String, DomainModelField> fieldsByKey;
+    private final Map<String, Set<String>> editableKeysByStep;
+    /** Editable fields of the step followed by its resolvable read-only fields. */
+    private final Map<String, List<DomainModelField>> visibleFieldsByStep;
+    /** Compiled conditions per edge instance (edge ids are only unique within a step). */
+    private final Map<WorkflowEdge, ConditionPredicate> conditionsByEdge;
+
+    private CompiledWorkflow(WorkflowDefinition definition) {
+        this.definitionId = definition.getId();
+        this.version = definition.getVersion();
+        this.revision = definition.getRevision();
+        this.domainId = definition.getDomainId();
+        this.appId = definition.getAppId();
+        this.name = definition.getName();
+        this.status = definition.getStatus();
+
+        List<WorkflowStep> steps = definition.getSteps() != null ? definition.getSteps() : List.of();
+        List<WorkflowEdge> globalEdges = definition.getGlobalEdges() != null ? definition.getGlobalEdges() : List.of();
+
+        Map<String, WorkflowStep> steps0 = new HashMap<>();
+        Map<String, DomainModelField> fields0 = new HashMap<>();
+        WorkflowStep start = null;
+        for (WorkflowStep step : steps) {
+            if (start == null && step.isStart()) {
+                start = step;
+            }
+            if (step.getId() != null) {
+                steps0.putIfAbsent(step.getId(), step);
+            }
+            for (DomainModelField field : fieldsOf(step)) {
+                if (field.getKey() != null) {
+                    fields0.putIfAbsent(field.getKey(), field);
+                }
+            }
+        }
+
+        Map<WorkflowEdge, ConditionPredicate> conditions0 = new IdentityHashMap<>();
+        Map<String, WorkflowEdge> global0 = new LinkedHashMap<>();
+        for (WorkflowEdge edge : globalEdges) {
+            if (edge.getId() != null) {
+                global0.putIfAbsent(edge.getId(), edge);
+            }
+            conditions0.put(edge, ConditionCompiler.compile(edge.getConditions()));
+        }
+
+        Map<String, Map<String, WorkflowEdge>> stepEdges0 = new HashMap<>();
+        Map<String, List<WorkflowEdge>> candidates0 = new HashMap<>();
+        Map<String, List<WorkflowEdge>> timed0 = new HashMap<>();
+        Map<String, Set<String>> editable0 = new HashMap<>();
+        Map<String, List<DomainModelField>> visible0 = new HashMap<>();
+        for (WorkflowStep step : steps0.values()) {
+            Map<String, WorkflowEdge> byId = new LinkedHashMap<>();
+            for (WorkflowEdge edge : step.getEdges()) {
+                if (edge.getId() != null) {
+                    byId.putIfAbsent(edge.getId(), edge);
+                }
+                conditions0.put(edge, ConditionCompiler.compile(edge.getConditions()));
+            }
+            stepEdges0.put(step.getId(), Collections.unmodifiableMap(byId));
+
+            List<WorkflowEdge> candidates = new ArrayList<>(step.getEdges());
+            candidates.addAll(globalEdges);
+            candidates0.put(step.getId(), List.copyOf(candidates));
+            List<WorkflowEdge> timed = candidates.stream()
+                    .filter(edge -> edge.getTimeoutMinutes() != null && edge.getTimeoutMinutes() > 0)
+                    .toList();
+            if (!timed.isEmpty()) {
+                timed0.put(step.getId(), timed);
+            }
+
+            Set<String> editable = new LinkedHashSet<>();
+            List<DomainModelField> visible = new ArrayList<>();
+            for (DomainModelField field : fieldsOf(step)) {
+                editable.add(field.getKey());
+                visible.add(field);
+            }
+            List<String> readonlyKeys = step.getReadonlyFieldKeys() != null ? step.getReadonlyFieldKeys() : List.of();
+            for (String key : readonlyKeys) {
+                if (!editable.contains(key)) {
+                    DomainModelField field = fields0.get(key);
+                    if (field != null) visible.add(field);
+                }
+            }
+            editable0.put(step.getId(), Collections.unmodifiableSet(editable));
+            visible0.put(step.getId(), Collections.unmodifiableList(visible));
+        }
+
+        this.startStep = start;
+        this.stepsById = Collections.unmodifiableMap(steps0);
+        this.fieldsByKey = Collections.unmodifiableMap(fields0);
+        this.globalEdgesById = Collections.unmodifiableMap(global0);
+        this.stepEdgesById = Collections.unmodifiableMap(stepEdges0);
+        this.candidateEdgesByStep = Collections.unmodifiableMap(candidates0);
+        this.timedEdgesByStep = Collections.unmodifiableMap(timed0);
+        this.editableKeysByStep = Collections.unmodifiableMap(editable0);
+        this.visibleFieldsByStep = Collections.unmodifiableMap(visible0);
+        this.conditionsByEdge = conditions0;
+    }
+
+    public static CompiledWorkflow compile(WorkflowDefinition definition) {
+        return new CompiledWorkflow(definition);
+    }
+
+    public WorkflowStep findStartStep() {
+        return startStep;
+    }
+
+    public WorkflowStep findStepById(String stepId) {
+        return stepId != null ? stepsById.get(stepId) : null;
+    }
+
+    /** Resolves an edge the way the engine always has: the step's own edges first, then global edges. */
+    public WorkflowEdge findEdge(String stepId, String edgeId) {
+        if (edgeId == null) {
+            return null;
+        }
+        Map<String, WorkflowEdge> stepEdges = stepId != null ? stepEdgesById.get(stepId) : null;
+        WorkflowEdge edge = stepEdges != null ? stepEdges.get(edgeId) : null;
+        return edge != null ? edge : globalEdgesById.get(edgeId);
+    }
+
+    public List<WorkflowEdge> candidateEdges(String stepId) {
+        List<WorkflowEdge> edges = stepId != null ? candidateEdgesByStep.get(stepId) : null;
+        return edges != null ? edges : List.copyOf(globalEdgesById.values());
+    }
+
+    /** Whether any step has a timed edge; when not, instances of this version never have timers. */
+    public boolean hasTimedEdges() {
+        return !timedEdgesByStep.isEmpty();
+    }
+
+    /** Edges of the step that fire on their own after a timeout; empty for most steps. */
+    public List<WorkflowEdge> timedEdges(String stepId) {
+        List<WorkflowEdge> edges = stepId != null ? timedEdgesByStep.get(stepId) : null;
+        return edges != null ? edges : List.of();
+    }
+
+    /** Evaluates the edge's compiled conditions against the given record data. */
+    public boolean conditionsPass(WorkflowEdge edge, Map<String, Object> data) {
+        ConditionPredicate predicate = conditionsByEdge.get(edge);
+        if (predicate == null) {
+            predicate = ConditionCompiler.compile(edge.getConditions());
+        }
+        return predicate.test(data);
+    }
+
+    public DomainModelField findField(String fieldKey) {
+        return fieldKey != null ? fieldsByKey.get(fieldKey) : null;
+    }
+
+    public Set<String> editableFieldKeys(String stepId) {
+        Set<String> keys = stepId != null ? editableKeysByStep.get(stepId) : null;
+        return keys != null ? keys : Set.of();
+    }
+
+    public List<DomainModelField> visibleFields(String stepId) {
+        List<DomainModelField> fields = stepId != null ? visibleFieldsByStep.get(stepId) : null;
+        return fields != null ? fields : List.of();
+    }
+
+    public String getDefinitionId() {
+        return definitionId;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public long getRevision() {
+        return revision;
+    }
+
+    public String getDomainId() {
+        return domainId;
+    }
+
+    public String getAppId() {
+        return appId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public WorkflowStatus getStatus() {
+        return status;
+    }
+
+    private static List<DomainModelField> fieldsOf(WorkflowStep step) {
+        return step.getFields() != null ? step.getFields() : List.of();
+    }
+}
@@ -0,0 +1,178 @@
+package com.adaptivebp.modules.workflow.runtime;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.adaptivebp.modules.workflow.model.EdgeCondition;
+import com.adaptivebp.modules.workflow.model.enums.ConditionLogic;
+import com.adaptivebp.modules.workflow.model.enums.ConditionOperator;
+
+/**
+ * Turns {@link EdgeCondition} trees into {@link ConditionPredicate}s once per definition version.
+ * Operators are bound and numeric constants are parsed at compile time, so evaluation is a
+ * map lookup plus a comparison. Numeric operators fail when either side is not a number.
+ */
+public final class ConditionCompiler {
+
+    private ConditionCompiler() {
+    }
+
+    /** Compiles an edge's condition list; the list itself is an implicit AND group. */
+    public static ConditionPredicate compile(List<EdgeCondition> conditions) {
+        return group(ConditionLogic.AND, conditions);
+    }
+
+    static ConditionPredicate compile(EdgeCondition condition) {
+        if (condition == null) {
+            return ConditionPredicate.ALWAYS;
+        }
+        if (condition.getConditions() != null && !condition.getConditions().isEmpty()) {
+            return group(condition.getLogic() != null ? condition.getLogic() : ConditionLogic.AND,
+                    condition.getConditions());
+        }
+        return leaf(condition.getField(), condition.getOperator(), condition.getValue());
+    }
+
+    private static ConditionPredicate group(ConditionLogic logic, List<EdgeCondition> conditions) {
+        if (conditions == null || conditions.isEmpty()) {
+            return ConditionPredicate.ALWAYS;
+        }
+        List<ConditionPredicate> compiled = new ArrayList<>(conditions.size());
+        for (EdgeCondition condition : conditions) {
+            compiled.add(compile(condition));
+        }
+        if (compiled.size() == 1) {
+            return compiled.get(0);
+        }
+        ConditionPredicate[] parts = compiled.toArray(new ConditionPredicate[0]);
+        if (logic == ConditionLogic.OR) {
+            return data -> {
+                for (ConditionPredicate part : parts) {
+                    if (part.test(data)) return true;
+                }
+                return false;
+            };
+        }
+        return data -> {
+            for (ConditionPredicate part : parts) {
+                if (!part.test(data)) return false;
+            }
+            return true;
+        };
+    }
+
+    private static ConditionPredicate leaf(String field, ConditionOperator operator, Object expected) {
+        if (operator == null) {
+            return ConditionPredicate.NEVER;
+        }
+        return switch (operator) {
+            case EQUALS -> data -> Objects.equals(valueOf(data, field), expected);
+            case NOT_EQUALS -> data -> !Objects.equals(valueOf(data, field), expected);
+            case IS_EMPTY -> data -> isEmpty(valueOf(data, field));
+            case IS_NOT_EMPTY -> data -> !isEmpty(valueOf(data, field));
+            case CONTAINS -> data -> contains(valueOf(data, field), expected);
+            case GREATER_THAN -> numeric(field, expected, (a, b) -> a > b);
+            case LESS_THAN -> numeric(field, expected, (a, b) -> a < b);
+            case GREATER_EQUAL -> numeric(field, expected, (a, b) -> a >= b);
+            case LESS_EQUAL -> numeric(field, expected, (a, b) -> a <= b);
+        };
+    }
+
+    private interface DoubleComparison {
+        boolean test(double actual, double expected);
+    }
+
+    private static ConditionPredicate numeric(String field, Object expected, DoubleComparison comparison) {
+        double bound = toDouble(expected);
+        if (Double.isNaN(bound)) {
+            return ConditionPredicate.NEVER;
+        }
+        return data -> {
+            double actual = toDouble(valueOf(data, field));
+            return !Double.isNaN(actual) && comparison.test(actual, bound);
+        };
+    }
+
+    private static Object valueOf(Map<String, Object> data, String field) {
+        return field != null && data != null ? data.get(field) : null;
+    }
+
+    /** Returns NaN for anything that is not a number or a numeric string, without throwing. */
+    static double toDouble(Object value) {
+        if (value instanceof Number number) {
+            return number.doubleValue();
+        }
+        if (value instanceof CharSequence text) {
+            return parseDecimal(text.toString());
+        }
+        return Double.NaN;
+    }
+
+    private static double parseDecimal(String raw) {
+        String text = raw.trim();
+        int length = text.length();
+        int i = 0;
+        if (i < length && (text.charAt(i) == '+' || text.charAt(i) == '-')) i++;
+        boolean digits = false;
+        while (i < length && isAsciiDigit(text.charAt(i))) {
+            i++;
+            digits = true;
+        }
+        if (i < length && text.charAt(i) == '.') {
+            i++;
+            while (i < length && isAsciiDigit(text.charAt(i))) {
+                i++;
+                digits = true;
+            }
+        }
+        if (!digits) {
+            return Double.NaN;
+        }
+        if (i < length && (text.charAt(i) == 'e' || text.charAt(i) == 'E')) {
+            i++;
+            if (i < length && (text.charAt(i) == '+' || text.charAt(i) == '-')) i++;
+            boolean exponent = false;
+            while (i < length && isAsciiDigit(text.charAt(i))) {
+                i++;
+                exponent = true;
+            }
+            if (!exponent) {
+                return Double.NaN;
+            }
+        }
+        return i == length ? Double.parseDouble(text) : Double.NaN;
+    }
+
+    private static boolean isAsciiDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean contains(Object container, Object item) {
+        if (container == null) {
+            return false;
+        }
+        if (container instanceof String string) {
+            return item != null && string.contains(String.valueOf(item));
+        }
+        if (container instanceof Collection<?> collection) {
+            return collection.contains(item);
+        }
+        return false;
+    }
+
+    private static boolean isEmpty(Object value) {
+        if (value == null) {
+            return true;
+        }
+        if (value instanceof String string) {
+            return string.trim().isEmpty();
+        }
+        if (value instanceof Collection<?> collection) {
+            return collection.isEmpty();
+        }
+        return false;
+    }
+}
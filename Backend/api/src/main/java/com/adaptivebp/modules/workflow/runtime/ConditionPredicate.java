@@ -0,0 +1,16 @@
+package com.adaptivebp.modules.workflow.runtime;
+
+import java.util.Map;
+
+/**
+ * A compiled edge condition tree, evaluated against the instance's record data.
+ */
+@FunctionalInterface
+public interface ConditionPredicate {
+
+    ConditionPredicate ALWAYS = data -> true;
+
+    ConditionPredicate NEVER = data -> false;
+
+    boolean test(Map<String, Object> data);
+}
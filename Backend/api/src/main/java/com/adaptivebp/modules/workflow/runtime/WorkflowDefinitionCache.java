@@ -0,0 +1,174 @@
+package com.adaptivebp.modules.workflow.runtime;
+
+import java.time.Clock;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.adaptivebp.modules.workflow.exception.WorkflowNotFoundException;
+import com.adaptivebp.modules.workflow.model.WorkflowDefinition;
+import com.adaptivebp.modules.workflow.repository.WorkflowDefinitionRepository;
+import com.adaptivebp.shared.security.PermissionInvalidationBroadcaster;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * In-process LRU cache of {@link CompiledWorkflow}s keyed by definition id + version.
+ * WorkflowDefinitionService invalidates entries whenever a definition is updated,
+ * published, archived or deleted, here and on every other node through
+ * {@link PermissionInvalidationBroadcaster}; the TTL bounds staleness if a broadcast is missed.
+ */
+@Component
+public class WorkflowDefinitionCache {
+
+    static final String TOPIC = "workflow-definition";
+
+    private record Key(String definitionId, int version) {
+    }
+
+    private record Entry(CompiledWorkflow compiled, long expiresAt) {
+    }
+
+    @Autowired
+    private WorkflowDefinitionRepository definitionRepository;
+
+    @Autowired
+    private PermissionInvalidationBroadcaster broadcaster;
+
+    private final Map<Key, Entry> entries;
+    private final long ttlMillis;
+    private Clock clock = Clock.systemUTC();
+    /** Bumped on every invalidation so a load that raced with it is not cached. */
+    private long generation;
+
+    public WorkflowDefinitionCache(
+            @Value("${workflow.definition-cache.max-entries:256}") int maxEntries,
+            @Value("${workflow.definition-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.ttlMillis = ttlSeconds * 1000;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    @PostConstruct
+    void subscribe() {
+        broadcaster.subscribe(TOPIC, this::evict);
+    }
+
+    /**
+     * Returns the compiled definition for an instance pinned to {@code version}.
+     * Falls back to loading by id when the pair is not cached yet. The loaded definition is
+     * cached under the requested version as well, so instances pinned to a version that has
+     * since been republished in place keep hitting the cache.
+     */
+    public CompiledWorkflow get(String definitionId, int version) {
+        Key key = new Key(definitionId, version);
+        long loadedAt;
+        synchronized (entries) {
+            CompiledWorkflow cached = lookup(key);
+            if (cached != null) {
+                return cached;
+            }
+            loadedAt = generation;
+        }
+        WorkflowDefinition definition = definitionRepository.findById(definitionId)
+                .orElseThrow(() -> new WorkflowNotFoundException("Workflow definition not found: " + definitionId));
+        return put(definition, key, loadedAt);
+    }
+
+    /** Like {@link #get(String, int)} but returns null instead of throwing when the definition is gone. */
+    public CompiledWorkflow getOrNull(String definitionId, int version) {
+        Key key = new Key(definitionId, version);
+        long loadedAt;
+        synchronized (entries) {
+            CompiledWorkflow cached = lookup(key);
+            if (cached != null) {
+                return cached;
+            }
+            loadedAt = generation;
+        }
+        WorkflowDefinition definition = definitionRepository.findById(definitionId).orElse(null);
+        return definition != null ? put(definition, key, loadedAt) : null;
+    }
+
+    /** Loads the current state of a definition from the database and caches it. */
+    public CompiledWorkflow load(String definitionId) {
+        long loadedAt;
+        synchronized (entries) {
+            loadedAt = generation;
+        }
+        WorkflowDefinition definition = definitionRepository.findById(definitionId)
+                .orElseThrow(() -> new WorkflowNotFoundException("Workflow definition not found: " + definitionId));
+        return put(definition, null, loadedAt);
+    }
+
+    /** Compiles and caches a definition that the caller has already loaded. */
+    public CompiledWorkflow put(WorkflowDefinition definition) {
+        long loadedAt;
+        synchronized (entries) {
+            loadedAt = generation;
+        }
+        return put(definition, null, loadedAt);
+    }
+
+    /** Drops every cached version of the given definition, on this node and the others. */
+    public void invalidate(String definitionId) {
+        if (definitionId == null) {
+            return;
+        }
+        evict(definitionId);
+        broadcaster.broadcast(TOPIC, definitionId);
+    }
+
+    /** Local-only eviction, used when applying an invalidation received from another node; null drops everything. */
+    void evict(String definitionId) {
+        synchronized (entries) {
+            generation++;
+            if (definitionId == null) {
+                entries.clear();
+            } else {
+                entries.keySet().removeIf(key -> definitionId.equals(key.definitionId()));
+            }
+        }
+    }
+
+    public void clear() {
+        evict(null);
+    }
+
+    /** Caches the compiled definition unless an invalidation ran since {@code loadedAt} was read. */
+    private CompiledWorkflow put(WorkflowDefinition definition, Key requested, long loadedAt) {
+        CompiledWorkflow compiled = CompiledWorkflow.compile(definition);
+        if (definition.getId() != null) {
+            synchronized (entries) {
+                if (generation == loadedAt) {
+                    Entry entry = new Entry(compiled, clock.millis() + ttlMillis);
+                    entries.put(new Key(definition.getId(), definition.getVersion()), entry);
+                    if (requested != null) {
+                        entries.put(requested, entry);
+                    }
+                }
+            }
+        }
+        return compiled;
+    }
+
+    /** Call with {@code entries} held. */
+    private CompiledWorkflow lookup(Key key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (ttlMillis > 0 && entry.expiresAt() <= clock.millis()) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.compiled();
+    }
+}
@@ -0,0 +1,116 @@
+package com.adaptivebp.modules.workflow.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.adaptivebp.modules.workflow.model.WorkflowActionOutboxEntry;
+import com.adaptivebp.modules.workflow.model.WorkflowInstance;
+import com.adaptivebp.modules.workflow.runtime.CompiledWorkflow;
+import com.adaptivebp.modules.workflow.runtime.WorkflowDefinitionCache;
+
+/**
+ * Runs a single relayed auto-action. Every action must be safe to run more than once with the
+ * same entry: field updates are plain sets, records are created under an id chosen at staging
+ * time, and notifications carry the entry id as their idempotency key.
+ *
+ * <p>Config shapes:
+ * <ul>
+ *   <li>UPDATE_FIELD: {@code field}, {@code value} — sets primaryRecord.field on the instance,
+ *       then rewrites its inbox rows and publishes an event like a transition does</li>
+ *   <li>CREATE_RECORD: {@code modelId}, {@code data}, optional {@code fieldMapping}
+ *       (target key to primary record key, resolved at staging time)</li>
+ *   <li>SEND_NOTIFICATION: {@code recipients}, {@code subject}, {@code message}</li>
+ * </ul>
+ * Invalid config throws IllegalArgumentException, which the outbox does not retry.
+ */
+@Component
+public class AutoActionExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(AutoActionExecutor.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ModelRecordService modelRecordService;
+
+    @Autowired
+    private WorkflowTaskInboxService inboxService;
+
+    @Autowired
+    private WorkflowEventService eventService;
+
+    @Autowired
+    private WorkflowDefinitionCache definitionCache;
+
+    public void execute(WorkflowActionOutboxEntry entry) {
+        switch (entry.getType()) {
+            case UPDATE_FIELD -> updateField(entry);
+            case CREATE_RECORD -> createRecord(entry);
+            case SEND_NOTIFICATION -> sendNotification(entry);
+            default -> throw new IllegalArgumentException("Unsupported auto-action type: " + entry.getType());
+        }
+    }
+
+    private void updateField(WorkflowActionOutboxEntry entry) {
+        Object field = entry.getConfig().get("field");
+        if (!(field instanceof String key) || key.isBlank() || key.contains(".") || key.startsWith("$")) {
+            throw new IllegalArgumentException("UPDATE_FIELD needs a plain 'field' key");
+        }
+        // Path-level set: commutes with concurrent transitions, so the instance version is left alone.
+        // History never sees the value, so compact history must stop treating the key as replayable.
+        Query query = new Query(Criteria.where("_id").is(entry.getInstanceId()));
+        query.fields().exclude("history", "stepRecords");
+        WorkflowInstance previous = mongoTemplate.findAndModify(query,
+                new Update().set("primaryRecord." + key, entry.getConfig().get("value"))
+                        .addToSet("divergedKeys", key)
+                        .inc("revision", 1),
+                WorkflowInstance.class);
+        if (previous == null) {
+            return;
+        }
+
+        // Edge conditions read the record, so the inbox and any open task lists may have to change.
+        // Failures here throw, and the outbox retries the whole action; the set above is idempotent.
+        CompiledWorkflow definition = definitionCache.getOrNull(
+                previous.getWorkflowDefinitionId(), previous.getWorkflowVersion());
+        WorkflowInstance instance = mongoTemplate.findOne(query, WorkflowInstance.class);
+        if (definition == null || instance == null) {
+            return;
+        }
+        inboxService.replace(instance, definition);
+        eventService.publish(List.of(new WorkflowEventService.Change(instance,
+                inboxService.assignees(previous, definition), inboxService.assignees(instance, definition))));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void createRecord(WorkflowActionOutboxEntry entry) {
+        Map<String, Object> config = entry.getConfig();
+        if (!(config.get("modelId") instanceof String modelId)) {
+            throw new IllegalArgumentException("CREATE_RECORD needs a 'modelId'");
+        }
+        if (!modelRecordService.isAccessibleToApp(modelId, entry.getAppId())) {
+            throw new IllegalArgumentException("Model " + modelId + " is not available to this app");
+        }
+        Map<String, Object> data = config.get("data") instanceof Map<?, ?> map
+                ? new HashMap<>((Map<String, Object>) map)
+                : new HashMap<>();
+        modelRecordService.createRecord(modelId, data, entry.getPerformedBy(), (String) config.get("recordId"));
+    }
+
+    private void sendNotification(WorkflowActionOutboxEntry entry) {
+        // No delivery channel is wired up yet; the entry id is the key a real sender must dedupe on
+        log.info("Notification {} for instance {}: to={} subject={}", entry.getId(), entry.getInstanceId(),
+                entry.getConfig().get("recipients"), entry.getConfig().get("subject"));
+    }
+}
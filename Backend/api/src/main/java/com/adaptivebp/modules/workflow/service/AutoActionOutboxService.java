@@ -0,0 +1,407 @@
+package com.adaptivebp.modules.workflow.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.adaptivebp.modules.workflow.dto.response.AutoActionStatsResponse;
+import com.adaptivebp.modules.workflow.exception.InvalidFormDataException;
+import com.adaptivebp.modules.workflow.exception.ModelNotFoundException;
+import com.adaptivebp.modules.workflow.model.AutoAction;
+import com.adaptivebp.modules.workflow.model.WorkflowActionOutboxEntry;
+import com.adaptivebp.modules.workflow.model.WorkflowEdge;
+import com.adaptivebp.modules.workflow.model.WorkflowInstance;
+import com.adaptivebp.modules.workflow.model.enums.AutoActionStatus;
+import com.adaptivebp.modules.workflow.model.enums.AutoActionType;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Transactional outbox for edge auto-actions.
+ * <ol>
+ *   <li>{@link #stage} pushes the edge's actions onto the instance's pendingActions in the same
+ *       conditional update as the transition, so they exist if and only if the transition does.</li>
+ *   <li>The engine copies them to workflow_action_outbox right after the commit and releases
+ *       them from the instance in the same follow-up write that confirms its history; a
+ *       periodic sweep relays anything a crashed node left behind.</li>
+ *   <li>A bounded worker pool claims due entries with a lease, runs them through
+ *       {@link AutoActionExecutor} and retries failures with exponential backoff.</li>
+ * </ol>
+ */
+@Service
+public class AutoActionOutboxService {
+
+    private static final Logger log = LoggerFactory.getLogger(AutoActionOutboxService.class);
+
+    private static final Duration STATS_WINDOW = Duration.ofHours(1);
+    private static final int SWEEP_BATCH = 100;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private AutoActionExecutor executor;
+
+    @Value("${workflow.actions.enabled:true}")
+    private boolean enabled;
+
+    @Value("${workflow.actions.workers:4}")
+    private int workerCount;
+
+    @Value("${workflow.actions.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${workflow.actions.backoff-ms:1000}")
+    private long backoffMillis;
+
+    @Value("${workflow.actions.max-backoff-ms:300000}")
+    private long maxBackoffMillis;
+
+    @Value("${workflow.actions.lease-ms:60000}")
+    private long leaseMillis;
+
+    @Value("${workflow.actions.poll-ms:1000}")
+    private long pollMillis;
+
+    @Value("${workflow.actions.sweep-ms:30000}")
+    private long sweepMillis;
+
+    private ScheduledExecutorService scheduler;
+    private ExecutorService workers;
+    private Semaphore freeWorkers;
+
+    /**
+     * Adds the edge's auto-actions to {@code update} as pending entries of the instance version
+     * the transition will write. CREATE_RECORD ids and field mappings are fixed here, so every
+     * later attempt does exactly the same thing.
+     */
+    public List<WorkflowActionOutboxEntry> stage(WorkflowInstance instance, WorkflowEdge edge, String stepId,
+            long nextVersion, String userId, Update update) {
+        List<WorkflowActionOutboxEntry> entries = new ArrayList<>();
+        Instant now = Instant.now();
+        List<AutoAction> actions = edge.getAutoActions();
+        for (int i = 0; i < actions.size(); i++) {
+            AutoAction action = actions.get(i);
+            if (action.getType() == null) {
+                continue;
+            }
+            WorkflowActionOutboxEntry entry = new WorkflowActionOutboxEntry();
+            entry.setId(instance.getId() + ":" + nextVersion + ":" + i);
+            entry.setInstanceId(instance.getId());
+            entry.setInstanceVersion(nextVersion);
+            entry.setDomainId(instance.getDomainId());
+            entry.setAppId(instance.getAppId());
+            entry.setStepId(stepId);
+            entry.setEdgeId(edge.getId());
+            entry.setType(action.getType());
+            entry.setConfig(resolveConfig(action, instance.getPrimaryRecord()));
+            entry.setPerformedBy(userId);
+            entry.setCreatedAt(now);
+            entry.setNextAttemptAt(now);
+            entries.add(entry);
+        }
+        if (!entries.isEmpty()) {
+            update.push("pendingActions").each(entries.toArray());
+        }
+        return entries;
+    }
+
+    /** Wakes the poller for entries that were just copied into the outbox, without blocking the caller. */
+    public void dispatch() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.execute(this::pollQuietly);
+    }
+
+    /**
+     * Copies entries into the outbox and then drops them from the instance. Safe to repeat:
+     * duplicate ids are ignored and only versions up to the relayed one are pulled.
+     */
+    void relay(String instanceId, List<WorkflowActionOutboxEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        copy(entries);
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(instanceId)),
+                release(new Update(), entries).inc("revision", 1),
+                WorkflowInstance.class);
+    }
+
+    /**
+     * The first half of a relay for many instances: one unordered insert into the outbox,
+     * ignoring entries an earlier relay already copied. The caller then applies {@link #release}
+     * to each instance, typically folded into a write it makes anyway.
+     */
+    public void copy(List<WorkflowActionOutboxEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, WorkflowActionOutboxEntry.class)
+                    .insert(entries)
+                    .execute();
+        } catch (BulkOperationException ex) {
+            boolean onlyDuplicates = ex.getErrors().stream().allMatch(error -> error.getCode() == 11000);
+            if (!onlyDuplicates) {
+                throw ex;
+            }
+        }
+    }
+
+    /** Adds to {@code update} the removal of copied entries from the instance's pendingActions. */
+    public Update release(Update update, List<WorkflowActionOutboxEntry> entries) {
+        long relayedVersion = entries.stream().mapToLong(WorkflowActionOutboxEntry::getInstanceVersion).max().orElse(0);
+        return update.pull("pendingActions", new Document("instanceVersion", new Document("$lte", relayedVersion)));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || scheduler != null) {
+            return;
+        }
+        workers = Executors.newFixedThreadPool(workerCount, daemon("workflow-action-worker"));
+        freeWorkers = new Semaphore(workerCount);
+        scheduler = Executors.newSingleThreadScheduledExecutor(daemon("workflow-action-poller"));
+        scheduler.scheduleWithFixedDelay(this::pollQuietly, pollMillis, pollMillis, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::sweepQuietly, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            workers.shutdown();
+        }
+    }
+
+    /** Claims due entries while workers are free. Runs on the poller thread. */
+    void poll() {
+        while (freeWorkers.tryAcquire()) {
+            WorkflowActionOutboxEntry entry;
+            try {
+                entry = claim();
+            } catch (RuntimeException ex) {
+                freeWorkers.release();
+                throw ex;
+            }
+            if (entry == null) {
+                freeWorkers.release();
+                return;
+            }
+            workers.execute(() -> {
+                try {
+                    process(entry);
+                } finally {
+                    freeWorkers.release();
+                }
+            });
+        }
+    }
+
+    /**
+     * Takes the next due entry: a PENDING entry whose backoff has passed, or a RUNNING entry
+     * whose worker died and let the lease expire.
+     */
+    WorkflowActionOutboxEntry claim() {
+        Instant now = Instant.now();
+        Query query = new Query(Criteria.where("status").in(AutoActionStatus.PENDING, AutoActionStatus.RUNNING)
+                .and("nextAttemptAt").lte(now))
+                .with(Sort.by(Sort.Direction.ASC, "nextAttemptAt"));
+        Update update = new Update()
+                .set("status", AutoActionStatus.RUNNING)
+                .set("nextAttemptAt", now.plusMillis(leaseMillis))
+                .inc("attempts", 1);
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true),
+                WorkflowActionOutboxEntry.class);
+    }
+
+    void process(WorkflowActionOutboxEntry entry) {
+        if (entry.getAttempts() > maxAttempts) {
+            finish(entry, AutoActionStatus.FAILED, null, "Gave up after " + maxAttempts + " attempts");
+            return;
+        }
+        try {
+            executor.execute(entry);
+            finish(entry, AutoActionStatus.DONE, null, null);
+            log.debug("Auto-action {} ({}) done after {} ms", entry.getId(), entry.getType(),
+                    Duration.between(entry.getCreatedAt(), Instant.now()).toMillis());
+        } catch (IllegalArgumentException | InvalidFormDataException | ModelNotFoundException ex) {
+            log.warn("Auto-action {} ({}) failed permanently: {}", entry.getId(), entry.getType(), ex.getMessage());
+            finish(entry, AutoActionStatus.FAILED, null, ex.getMessage());
+        } catch (RuntimeException ex) {
+            if (entry.getAttempts() >= maxAttempts) {
+                log.warn("Auto-action {} ({}) failed after {} attempts", entry.getId(), entry.getType(),
+                        entry.getAttempts(), ex);
+                finish(entry, AutoActionStatus.FAILED, null, ex.getMessage());
+            } else {
+                Instant retryAt = Instant.now().plusMillis(backoff(entry.getAttempts()));
+                log.debug("Auto-action {} ({}) attempt {} failed, retrying at {}", entry.getId(), entry.getType(),
+                        entry.getAttempts(), retryAt, ex);
+                finish(entry, AutoActionStatus.PENDING, retryAt, ex.getMessage());
+            }
+        }
+    }
+
+    /** Exponential backoff after the given number of attempts, capped at max-backoff-ms. */
+    long backoff(int attempts) {
+        int shift = Math.min(Math.max(attempts - 1, 0), 30);
+        return Math.min(backoffMillis << shift, maxBackoffMillis);
+    }
+
+    /** Records the outcome, unless the lease was lost and another worker has claimed the entry since. */
+    private void finish(WorkflowActionOutboxEntry entry, AutoActionStatus status, Instant nextAttemptAt, String error) {
+        Query query = new Query(Criteria.where("_id").is(entry.getId())
+                .and("status").is(AutoActionStatus.RUNNING)
+                .and("attempts").is(entry.getAttempts()));
+        Update update = new Update().set("status", status).set("lastError", error);
+        if (status == AutoActionStatus.DONE) {
+            update.set("completedAt", Instant.now()).unset("nextAttemptAt");
+        } else if (nextAttemptAt != null) {
+            update.set("nextAttemptAt", nextAttemptAt);
+        } else {
+            update.unset("nextAttemptAt");
+        }
+        mongoTemplate.updateFirst(query, update, WorkflowActionOutboxEntry.class);
+    }
+
+    /** Relays entries still sitting on instances, e.g. after a node died between commit and relay. */
+    void sweep() {
+        Instant cutoff = Instant.now().minusMillis(sweepMillis);
+        Query query = new Query(Criteria.where("pendingActions.createdAt").lt(cutoff)).limit(SWEEP_BATCH);
+        query.fields().include("pendingActions");
+        for (WorkflowInstance instance : mongoTemplate.find(query, WorkflowInstance.class)) {
+            relay(instance.getId(), instance.getPendingActions());
+        }
+    }
+
+    public AutoActionStatsResponse stats(String domainId, String appId) {
+        Map<AutoActionType, AutoActionStatsResponse.TypeStats> byType = new EnumMap<>(AutoActionType.class);
+        Instant now = Instant.now();
+
+        Aggregation backlog = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("domainId").is(domainId).and("appId").is(appId)
+                        .and("status").in(AutoActionStatus.PENDING, AutoActionStatus.RUNNING, AutoActionStatus.FAILED)),
+                Aggregation.group("type", "status").count().as("count").min("createdAt").as("oldest"));
+        for (Document row : mongoTemplate.aggregate(backlog, WorkflowActionOutboxEntry.class, Document.class)) {
+            Document id = row.get("_id", Document.class);
+            AutoActionStatsResponse.TypeStats stats = statsFor(byType, id.getString("type"));
+            long count = ((Number) row.get("count")).longValue();
+            switch (AutoActionStatus.valueOf(id.getString("status"))) {
+                case PENDING -> {
+                    stats.setPending(count);
+                    Date oldest = row.getDate("oldest");
+                    if (oldest != null) {
+                        stats.setOldestPendingMillis(Math.max(0, now.toEpochMilli() - oldest.getTime()));
+                    }
+                }
+                case RUNNING -> stats.setRunning(count);
+                case FAILED -> stats.setFailed(count);
+                default -> {
+                }
+            }
+        }
+
+        Aggregation throughput = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("domainId").is(domainId).and("appId").is(appId)
+                        .and("status").is(AutoActionStatus.DONE)
+                        .and("completedAt").gte(now.minus(STATS_WINDOW))),
+                Aggregation.project("type")
+                        .and(ArithmeticOperators.Subtract.valueOf("completedAt").subtract("createdAt")).as("lag"),
+                Aggregation.group("type").count().as("count").avg("lag").as("avgLag"));
+        for (Document row : mongoTemplate.aggregate(throughput, WorkflowActionOutboxEntry.class, Document.class)) {
+            AutoActionStatsResponse.TypeStats stats = statsFor(byType, row.getString("_id"));
+            stats.setCompleted(((Number) row.get("count")).longValue());
+            Object avgLag = row.get("avgLag");
+            stats.setAvgLagMillis(avgLag instanceof Number n ? n.longValue() : 0);
+        }
+
+        AutoActionStatsResponse response = new AutoActionStatsResponse();
+        response.setWindowSeconds(STATS_WINDOW.toSeconds());
+        response.setTypes(new ArrayList<>(byType.values()));
+        return response;
+    }
+
+    private AutoActionStatsResponse.TypeStats statsFor(Map<AutoActionType, AutoActionStatsResponse.TypeStats> byType,
+            String type) {
+        return byType.computeIfAbsent(AutoActionType.valueOf(type), t -> {
+            AutoActionStatsResponse.TypeStats stats = new AutoActionStatsResponse.TypeStats();
+            stats.setType(t);
+            return stats;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> resolveConfig(AutoAction action, Map<String, Object> primaryRecord) {
+        Map<String, Object> config = new HashMap<>(action.getConfig());
+        if (action.getType() == AutoActionType.CREATE_RECORD) {
+            Map<String, Object> data = config.get("data") instanceof Map<?, ?> map
+                    ? new HashMap<>((Map<String, Object>) map)
+                    : new HashMap<>();
+            if (config.get("fieldMapping") instanceof Map<?, ?> mapping) {
+                mapping.forEach((target, source) -> data.put(String.valueOf(target), primaryRecord.get(String.valueOf(source))));
+            }
+            config.put("data", data);
+            config.remove("fieldMapping");
+            config.put("recordId", new ObjectId().toHexString());
+        }
+        return config;
+    }
+
+    private void pollQuietly() {
+        try {
+            poll();
+        } catch (RuntimeException ex) {
+            log.debug("Auto-action poll failed", ex);
+        }
+    }
+
+    private void sweepQuietly() {
+        try {
+            sweep();
+        } catch (RuntimeException ex) {
+            log.debug("Auto-action sweep failed", ex);
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
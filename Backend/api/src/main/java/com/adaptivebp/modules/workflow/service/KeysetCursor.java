@@ -0,0 +1,36 @@
+package com.adaptivebp.modules.workflow.service;
+
+import java.time.Instant;
+
+import com.adaptivebp.modules.workflow.exception.InvalidCursorException;
+
+/**
+ * Opaque keyset cursor: the sort timestamp and id of the last row of a page,
+ * encoded as {@code <epochMillis>_<id>}. Mongo stores millisecond precision, so nothing is lost.
+ */
+record KeysetCursor(Instant at, String id) {
+
+    static KeysetCursor of(Instant at, String id) {
+        return new KeysetCursor(at != null ? at : Instant.EPOCH, id);
+    }
+
+    String encode() {
+        return at.toEpochMilli() + "_" + id;
+    }
+
+    static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        int separator = cursor.indexOf('_');
+        if (separator <= 0 || separator == cursor.length() - 1) {
+            throw new InvalidCursorException("Malformed cursor: " + cursor);
+        }
+        try {
+            return new KeysetCursor(Instant.ofEpochMilli(Long.parseLong(cursor.substring(0, separator))),
+                    cursor.substring(separator + 1));
+        } catch (NumberFormatException ex) {
+            throw new InvalidCursorException("Malformed cursor: " + cursor);
+        }
+    }
+}
@@ -14,6 +14,7 @@ import java.util.Objects;
 import org.bson.Document;
 import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
@@ -46,6 +47,14 @@ public class ModelRecordService {
     }
 
     public String createRecord(String modelId, Map<String, Object> data, String createdBy) {
+        return createRecord(modelId, data, createdBy, null);
+    }
+
+    /**
+     * Creates a record with a caller-chosen id, so a retried create is a no-op: when a record
+     * with {@code recordId} already exists its id is returned without writing anything.
+     */
+    public String createRecord(String modelId, Map<String, Object> data, String createdBy, String recordId) {
         DomainModel model = getModel(modelId);
         Map<String, Object> payload = data != null ? new HashMap<>(data) : new HashMap<>();
 
@@ -59,7 +68,16 @@ public class ModelRecordService {
         payload.put("_updatedAt", Instant.now());
 
         Document doc = new Document(payload);
-        mongoTemplate.insert(doc, getCollectionName(model));
+        if (recordId != null) {
+            doc.put("_id", parseMongoId(recordId));
+            try {
+                mongoTemplate.insert(doc, getCollectionName(model));
+            } catch (DuplicateKeyException ex) {
+                return recordId;
+            }
+        } else {
+            mongoTemplate.insert(doc, getCollectionName(model));
+        }
         Object id = doc.get("_id");
         if (id instanceof ObjectId objectId) {
             return objectId.toHexString();
@@ -0,0 +1,382 @@
+package com.adaptivebp.modules.workflow.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.adaptivebp.modules.workflow.dto.request.StartWorkflowRequest;
+import com.adaptivebp.modules.workflow.dto.response.StartJobResponse;
+import com.adaptivebp.modules.workflow.exception.InvalidFormDataException;
+import com.adaptivebp.modules.workflow.exception.WorkflowNotFoundException;
+import com.adaptivebp.modules.workflow.model.WorkflowDefinition;
+import com.adaptivebp.modules.workflow.model.WorkflowStartJob;
+import com.adaptivebp.modules.workflow.model.WorkflowStartJobRow;
+import com.adaptivebp.modules.workflow.model.enums.StartJobRowStatus;
+import com.adaptivebp.modules.workflow.model.enums.StartJobStatus;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Asynchronous bulk workflow starts for integrations that feed in thousands of records.
+ *
+ * <ol>
+ *   <li>{@link #submit} streams the upload (NDJSON or a JSON array of start payloads) into
+ *       workflow_start_job_rows in insertMany batches and queues the job.</li>
+ *   <li>Jobs are claimed with a lease, so each runs on one node and a job whose node died is
+ *       picked up again once the lease runs out.</li>
+ *   <li>A claimed job starts its pending rows batch by batch through
+ *       {@link WorkflowEngineService#startWorkflows}, which resolves the definition once and
+ *       inserts each batch with one insertMany; the row outcomes follow in one bulk write.</li>
+ * </ol>
+ */
+@Service
+public class WorkflowBulkStartService {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkflowBulkStartService.class);
+
+    private static final int UPLOAD_BATCH = 1000;
+    private static final int MAX_PAGE_SIZE = 500;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private WorkflowEngineService engineService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${workflow.bulk-start.enabled:true}")
+    private boolean enabled;
+
+    @Value("${workflow.bulk-start.max-rows:50000}")
+    private int maxRows;
+
+    @Value("${workflow.bulk-start.batch-size:500}")
+    private int batchSize;
+
+    @Value("${workflow.bulk-start.workers:2}")
+    private int workerCount;
+
+    @Value("${workflow.bulk-start.lease-ms:120000}")
+    private long leaseMillis;
+
+    @Value("${workflow.bulk-start.poll-ms:5000}")
+    private long pollMillis;
+
+    private ScheduledExecutorService scheduler;
+    private ExecutorService workers;
+    private Semaphore freeWorkers;
+
+    /**
+     * Stores the upload as a queued job. The published definition is resolved up front so an
+     * unknown slug fails the request instead of the job; malformed input or more than
+     * max-rows payloads rejects the whole upload.
+     */
+    public WorkflowStartJob submit(String domainId, String appId, String workflowSlug, InputStream body,
+            String userId, String performedByName) {
+        WorkflowDefinition definition = engineService.findPublishedBySlug(domainId, appId, workflowSlug);
+
+        WorkflowStartJob job = new WorkflowStartJob();
+        job.setId(new ObjectId().toHexString());
+        job.setDomainId(domainId);
+        job.setAppId(appId);
+        job.setWorkflowDefinitionId(definition.getId());
+        job.setWorkflowSlug(workflowSlug);
+        job.setCreatedBy(userId);
+        job.setCreatedByName(performedByName);
+        job.setCreatedAt(Instant.now());
+        mongoTemplate.insert(job);
+
+        int total;
+        try {
+            total = storeRows(job, body);
+        } catch (RuntimeException ex) {
+            discard(job.getId());
+            throw ex;
+        }
+        if (total == 0) {
+            discard(job.getId());
+            throw new IllegalArgumentException("No start payloads in request body");
+        }
+
+        job.setTotal(total);
+        job.setStatus(StartJobStatus.QUEUED);
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(job.getId())),
+                new Update().set("total", total).set("status", StartJobStatus.QUEUED), WorkflowStartJob.class);
+        nudge();
+        return job;
+    }
+
+    /** The job with one page of rows, optionally only failed ones, after row {@code cursor}. */
+    public StartJobResponse status(String domainId, String appId, String jobId, boolean failedOnly,
+            Integer cursor, int limit) {
+        WorkflowStartJob job = mongoTemplate.findById(jobId, WorkflowStartJob.class);
+        if (job == null || !domainId.equals(job.getDomainId()) || !appId.equals(job.getAppId())) {
+            throw new WorkflowNotFoundException("Start job not found: " + jobId);
+        }
+
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        Criteria criteria = Criteria.where("jobId").is(jobId);
+        if (failedOnly) {
+            criteria = criteria.and("status").is(StartJobRowStatus.FAILED);
+        }
+        if (cursor != null) {
+            criteria = criteria.and("row").gt(cursor);
+        }
+        Query query = new Query(criteria).with(Sort.by(Sort.Direction.ASC, "row")).limit(size + 1);
+        query.fields().exclude("formData");
+        List<WorkflowStartJobRow> rows = mongoTemplate.find(query, WorkflowStartJobRow.class);
+
+        StartJobResponse response = StartJobResponse.from(job);
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            response.setNextCursor(rows.get(size - 1).getRow());
+        }
+        response.setRows(rows.stream().map(StartJobResponse.RowResult::from).toList());
+        return response;
+    }
+
+    private int storeRows(WorkflowStartJob job, InputStream body) {
+        List<WorkflowStartJobRow> batch = new ArrayList<>();
+        int row = 0;
+        // readValues walks NDJSON line by line and unwraps a top-level JSON array element by element
+        try (MappingIterator<StartWorkflowRequest> payloads =
+                objectMapper.readerFor(StartWorkflowRequest.class).readValues(body)) {
+            while (payloads.hasNextValue()) {
+                StartWorkflowRequest payload = payloads.nextValue();
+                if (row >= maxRows) {
+                    throw new IllegalArgumentException("A bulk start accepts at most " + maxRows + " payloads");
+                }
+                WorkflowStartJobRow entry = new WorkflowStartJobRow();
+                entry.setJobId(job.getId());
+                entry.setRow(row++);
+                entry.setInstanceId(new ObjectId().toHexString());
+                entry.setFormData(payload != null ? payload.getFormData() : Map.of());
+                entry.setCreatedAt(job.getCreatedAt());
+                batch.add(entry);
+                if (batch.size() == UPLOAD_BATCH) {
+                    mongoTemplate.insert(batch, WorkflowStartJobRow.class);
+                    batch = new ArrayList<>();
+                }
+            }
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("Malformed start payload at row " + row + ": " + ex.getOriginalMessage());
+        } catch (IOException ex) {
+            throw new IllegalArgumentException("Could not read request body: " + ex.getMessage());
+        }
+        if (!batch.isEmpty()) {
+            mongoTemplate.insert(batch, WorkflowStartJobRow.class);
+        }
+        return row;
+    }
+
+    private void discard(String jobId) {
+        mongoTemplate.remove(new Query(Criteria.where("jobId").is(jobId)), WorkflowStartJobRow.class);
+        mongoTemplate.remove(new Query(Criteria.where("_id").is(jobId)), WorkflowStartJob.class);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || scheduler != null) {
+            return;
+        }
+        workers = Executors.newFixedThreadPool(workerCount, daemon("workflow-bulk-start-worker"));
+        freeWorkers = new Semaphore(workerCount);
+        scheduler = Executors.newSingleThreadScheduledExecutor(daemon("workflow-bulk-start-poller"));
+        scheduler.scheduleWithFixedDelay(this::pollQuietly, pollMillis, pollMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            workers.shutdown();
+        }
+    }
+
+    /** Polls right away instead of at the next tick, e.g. after a job was queued. */
+    private void nudge() {
+        if (scheduler != null) {
+            scheduler.execute(this::pollQuietly);
+        }
+    }
+
+    private void pollQuietly() {
+        try {
+            poll();
+        } catch (RuntimeException ex) {
+            log.warn("Polling bulk start jobs failed", ex);
+        }
+    }
+
+    /** Claims runnable jobs while workers are free. Runs on the poller thread. */
+    void poll() {
+        while (freeWorkers.tryAcquire()) {
+            WorkflowStartJob job;
+            try {
+                job = claim();
+            } catch (RuntimeException ex) {
+                freeWorkers.release();
+                throw ex;
+            }
+            if (job == null) {
+                freeWorkers.release();
+                return;
+            }
+            workers.execute(() -> {
+                try {
+                    run(job);
+                } catch (RuntimeException ex) {
+                    log.warn("Bulk start job {} stopped; it resumes once its lease expires", job.getId(), ex);
+                } finally {
+                    freeWorkers.release();
+                }
+            });
+        }
+    }
+
+    /** Takes the oldest QUEUED job, or a RUNNING job whose node stopped renewing its lease. */
+    WorkflowStartJob claim() {
+        Instant now = Instant.now();
+        Query query = new Query(new Criteria().orOperator(
+                Criteria.where("status").is(StartJobStatus.QUEUED),
+                Criteria.where("status").is(StartJobStatus.RUNNING).and("leaseUntil").lte(now)))
+                .with(Sort.by(Sort.Direction.ASC, "createdAt"));
+        Update update = new Update()
+                .set("status", StartJobStatus.RUNNING)
+                .set("leaseUntil", now.plusMillis(leaseMillis))
+                .set("claimToken", UUID.randomUUID().toString())
+                .min("startedAt", now);
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true),
+                WorkflowStartJob.class);
+    }
+
+    /** Starts the job's pending rows batch by batch until none are left or the lease is lost. */
+    void run(WorkflowStartJob job) {
+        WorkflowDefinition definition = mongoTemplate.findById(job.getWorkflowDefinitionId(), WorkflowDefinition.class);
+        if (definition == null) {
+            finish(job, StartJobStatus.FAILED, "Workflow definition no longer exists");
+            return;
+        }
+        while (true) {
+            Query pending = new Query(Criteria.where("jobId").is(job.getId()).and("status").is(StartJobRowStatus.PENDING))
+                    .with(Sort.by(Sort.Direction.ASC, "row"))
+                    .limit(batchSize);
+            List<WorkflowStartJobRow> rows = mongoTemplate.find(pending, WorkflowStartJobRow.class);
+            if (rows.isEmpty()) {
+                finish(job, StartJobStatus.COMPLETED, null);
+                return;
+            }
+
+            List<RuntimeException> errors;
+            try {
+                errors = engineService.startWorkflows(definition,
+                        rows.stream().map(WorkflowStartJobRow::getInstanceId).toList(),
+                        rows.stream().map(WorkflowStartJobRow::getFormData).toList(),
+                        job.getCreatedBy(), job.getCreatedByName());
+            } catch (IllegalStateException | WorkflowNotFoundException ex) {
+                // The definition itself can no longer start instances, e.g. it was unpublished
+                finish(job, StartJobStatus.FAILED, ex.getMessage());
+                return;
+            }
+            if (!record(job, rows, errors)) {
+                log.info("Bulk start job {} was claimed by another node", job.getId());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Writes row outcomes, then bumps the counters and renews the lease. The counters are only
+     * for progress display; {@link #finish} recounts them from the rows.
+     *
+     * @return false when the lease was lost to another node
+     */
+    private boolean record(WorkflowStartJob job, List<WorkflowStartJobRow> rows, List<RuntimeException> errors) {
+        Query owned = new Query(Criteria.where("_id").is(job.getId()).and("claimToken").is(job.getClaimToken()));
+        Update progress = new Update().set("leaseUntil", Instant.now().plusMillis(leaseMillis));
+        int failed = 0;
+        BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, WorkflowStartJobRow.class);
+        for (int i = 0; i < rows.size(); i++) {
+            RuntimeException error = errors.get(i);
+            Update outcome = new Update().unset("formData");
+            if (error == null) {
+                outcome.set("status", StartJobRowStatus.STARTED);
+            } else {
+                failed++;
+                String code = WorkflowEngineService.errorCode(error);
+                outcome.set("status", StartJobRowStatus.FAILED)
+                        .set("error", code != null ? code : "START_FAILED")
+                        .set("message", error.getMessage());
+                if (error instanceof InvalidFormDataException invalid) {
+                    outcome.set("details", invalid.getFieldErrors());
+                }
+            }
+            ops.updateOne(new Query(Criteria.where("_id").is(rows.get(i).getId())), outcome);
+        }
+        progress.inc("processed", rows.size()).inc("succeeded", rows.size() - failed).inc("failed", failed);
+
+        ops.execute();
+        return mongoTemplate.updateFirst(owned, progress, WorkflowStartJob.class).getMatchedCount() > 0;
+    }
+
+    private void finish(WorkflowStartJob job, StartJobStatus status, String error) {
+        Query owned = new Query(Criteria.where("_id").is(job.getId()).and("claimToken").is(job.getClaimToken()));
+        long succeeded = countRows(job, StartJobRowStatus.STARTED);
+        long failed = countRows(job, StartJobRowStatus.FAILED);
+        mongoTemplate.updateFirst(owned, new Update()
+                .set("processed", succeeded + failed)
+                .set("succeeded", succeeded)
+                .set("failed", failed)
+                .set("status", status)
+                .set("completedAt", Instant.now())
+                .set("error", error)
+                .unset("leaseUntil"), WorkflowStartJob.class);
+        log.info("Bulk start job {} {}", job.getId(), status);
+    }
+
+    private long countRows(WorkflowStartJob job, StartJobRowStatus status) {
+        return mongoTemplate.count(new Query(Criteria.where("jobId").is(job.getId()).and("status").is(status)),
+                WorkflowStartJobRow.class);
+    }
+
+    private static ThreadFactory daemon(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
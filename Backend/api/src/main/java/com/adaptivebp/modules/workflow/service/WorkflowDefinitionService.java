@@ -19,6 +19,7 @@ import com.adaptivebp.modules.workflow.model.enums.InstanceStatus;
 import com.adaptivebp.modules.workflow.model.enums.WorkflowStatus;
 import com.adaptivebp.modules.workflow.repository.WorkflowDefinitionRepository;
 import com.adaptivebp.modules.workflow.repository.WorkflowInstanceRepository;
+import com.adaptivebp.modules.workflow.runtime.WorkflowDefinitionCache;
 
 @Service
 public class WorkflowDefinitionService {
@@ -32,6 +33,9 @@ public class WorkflowDefinitionService {
     @Autowired
     private WorkflowValidationService validationService;
 
+    @Autowired
+    private WorkflowDefinitionCache definitionCache;
+
     public WorkflowDefinition createWorkflow(String domainId, String appId, CreateWorkflowRequest request, String createdBy) {
         Optional<WorkflowDefinition> existing = definitionRepository.findTopByDomainIdAndAppIdOrderByVersionDesc(domainId, appId);
         if (existing.isPresent()) {
@@ -58,7 +62,7 @@ public class WorkflowDefinitionService {
         definition.setCreatedAt(Instant.now());
         definition.setUpdatedAt(Instant.now());
 
-        return definitionRepository.save(definition);
+        return save(definition);
     }
 
     public WorkflowDefinition updateWorkflow(String domainId,
@@ -84,7 +88,9 @@ public class WorkflowDefinitionService {
         }
 
         definition.setUpdatedAt(Instant.now());
-        return definitionRepository.save(definition);
+        WorkflowDefinition saved = save(definition);
+        definitionCache.invalidate(saved.getId());
+        return saved;
     }
 
     public WorkflowDefinition publishWorkflow(String domainId, String appId, String workflowSlug) {
@@ -107,7 +113,8 @@ public class WorkflowDefinitionService {
                 .forEach(existingPublished -> {
                     existingPublished.setStatus(WorkflowStatus.ARCHIVED);
                     existingPublished.setUpdatedAt(Instant.now());
-                    definitionRepository.save(existingPublished);
+                    save(existingPublished);
+                    definitionCache.invalidate(existingPublished.getId());
                 });
 
         int maxVersion = sameSlug.stream().map(WorkflowDefinition::getVersion).max(Comparator.naturalOrder()).orElse(0);
@@ -117,7 +124,9 @@ public class WorkflowDefinitionService {
         draft.setStatus(WorkflowStatus.PUBLISHED);
         draft.setUpdatedAt(Instant.now());
 
-        return definitionRepository.save(draft);
+        WorkflowDefinition saved = save(draft);
+        definitionCache.invalidate(saved.getId());
+        return saved;
     }
 
     public WorkflowDefinition archiveWorkflow(String domainId, String appId, String workflowSlug) {
@@ -134,7 +143,9 @@ public class WorkflowDefinitionService {
 
         published.setStatus(WorkflowStatus.ARCHIVED);
         published.setUpdatedAt(Instant.now());
-        return definitionRepository.save(published);
+        WorkflowDefinition saved = save(published);
+        definitionCache.invalidate(saved.getId());
+        return saved;
     }
 
     public WorkflowDefinition getWorkflow(String domainId, String appId, String workflowSlug, Integer version) {
@@ -149,6 +160,30 @@ public class WorkflowDefinitionService {
                         "Workflow not found for slug " + workflowSlug + " and version " + version));
     }
 
+    /**
+     * ETag of what {@link #getWorkflow} returns, from a lookup of the id and revision only;
+     * null when there is no such definition.
+     */
+    public String getWorkflowETag(String domainId, String appId, String workflowSlug, Integer version) {
+        Optional<WorkflowDefinitionRepository.Revision> revision = version == null
+                ? definitionRepository.findTopRevisionByDomainIdAndAppIdAndSlugOrderByVersionDesc(
+                        domainId, appId, workflowSlug)
+                : definitionRepository.findRevisionByDomainIdAndAppIdAndSlugAndVersion(
+                        domainId, appId, workflowSlug, version);
+        return revision.map(WorkflowDefinitionService::eTag).orElse(null);
+    }
+
+    /** ETag of what {@link #listWorkflows} returns; null when the app has no workflow. */
+    public String listWorkflowsETag(String domainId, String appId) {
+        return definitionRepository.findTopRevisionByDomainIdAndAppIdOrderByVersionDesc(domainId, appId)
+                .map(WorkflowDefinitionService::eTag)
+                .orElse(null);
+    }
+
+    private static String eTag(WorkflowDefinitionRepository.Revision revision) {
+        return revision.getId() + "-" + revision.getRevision();
+    }
+
     public List<WorkflowDefinition> listWorkflows(String domainId, String appId) {
         Optional<WorkflowDefinition> latest = definitionRepository.findTopByDomainIdAndAppIdOrderByVersionDesc(domainId, appId);
         if (latest.isEmpty()) {
@@ -163,6 +198,7 @@ public class WorkflowDefinitionService {
             throw new IllegalStateException("Only DRAFT workflows can be deleted");
         }
         definitionRepository.delete(definition);
+        definitionCache.invalidate(definition.getId());
     }
 
     public WorkflowDefinition getPublishedWorkflow(String domainId, String appId, String workflowSlug) {
@@ -171,6 +207,11 @@ public class WorkflowDefinitionService {
                 .orElseThrow(() -> new WorkflowNotFoundException("Published workflow not found: " + workflowSlug));
     }
 
+    private WorkflowDefinition save(WorkflowDefinition definition) {
+        definition.setRevision(definition.getRevision() + 1);
+        return definitionRepository.save(definition);
+    }
+
     private WorkflowDefinition requireLatestBySlug(String domainId, String appId, String workflowSlug) {
         return definitionRepository.findTopByDomainIdAndAppIdAndSlugOrderByVersionDesc(
                         domainId, appId, workflowSlug)
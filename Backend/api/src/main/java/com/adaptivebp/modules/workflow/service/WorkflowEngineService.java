@@ -1,29 +1,43 @@
 package com.adaptivebp.modules.workflow.service;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import com.adaptivebp.modules.appmanagement.model.AppGroup;
-import com.adaptivebp.modules.appmanagement.model.AppGroupMember;
 import com.adaptivebp.modules.appmanagement.permission.AppPermission;
-import com.adaptivebp.modules.appmanagement.repository.AppGroupMemberRepository;
-import com.adaptivebp.modules.appmanagement.repository.AppGroupRepository;
+import com.adaptivebp.modules.appmanagement.port.AppGroupQueryPort;
 import com.adaptivebp.modules.organisation.model.DomainGroup;
 import com.adaptivebp.modules.organisation.model.DomainGroupMember;
 import com.adaptivebp.modules.organisation.model.enums.DomainGroupType;
@@ -31,35 +45,45 @@ import com.adaptivebp.modules.organisation.repository.DomainGroupMemberRepositor
 import com.adaptivebp.modules.organisation.repository.DomainGroupRepository;
 import com.adaptivebp.modules.formbuilder.model.DomainFieldType;
 import com.adaptivebp.modules.formbuilder.model.DomainModelField;
+import com.adaptivebp.modules.workflow.dto.request.BulkExecuteRequest;
+import com.adaptivebp.modules.workflow.dto.response.BulkExecuteResponse;
 import com.adaptivebp.modules.workflow.dto.response.ExecuteEdgeResponse;
 import com.adaptivebp.modules.workflow.dto.response.HistoryResponse;
+import com.adaptivebp.modules.workflow.dto.response.InstancePageResponse;
+import com.adaptivebp.modules.workflow.dto.response.InstanceSummaryResponse;
 import com.adaptivebp.modules.workflow.dto.response.StepViewResponse;
 import com.adaptivebp.modules.workflow.dto.response.TaskListResponse;
-import com.adaptivebp.modules.workflow.dto.response.TaskResponse;
 import com.adaptivebp.modules.workflow.exception.ConditionNotMetException;
 import com.adaptivebp.modules.workflow.exception.EdgeNotFoundException;
 import com.adaptivebp.modules.workflow.exception.InsufficientEdgePermissionException;
 import com.adaptivebp.modules.workflow.exception.InvalidFormDataException;
 import com.adaptivebp.modules.workflow.exception.WorkflowAlreadyCompletedException;
+import com.adaptivebp.modules.workflow.exception.WorkflowConflictException;
 import com.adaptivebp.modules.workflow.exception.WorkflowNotFoundException;
-import com.adaptivebp.modules.workflow.model.AutoAction;
-import com.adaptivebp.modules.workflow.model.EdgeCondition;
 import com.adaptivebp.modules.workflow.model.InstanceHistory;
+import com.adaptivebp.modules.workflow.model.WorkflowActionOutboxEntry;
 import com.adaptivebp.modules.workflow.model.WorkflowDefinition;
 import com.adaptivebp.modules.workflow.model.WorkflowEdge;
 import com.adaptivebp.modules.workflow.model.WorkflowInstance;
 import com.adaptivebp.modules.workflow.model.WorkflowStep;
-import com.adaptivebp.modules.workflow.model.enums.ConditionOperator;
 import com.adaptivebp.modules.workflow.model.enums.InstanceStatus;
 import com.adaptivebp.modules.workflow.model.enums.WorkflowStatus;
 import com.adaptivebp.modules.workflow.repository.WorkflowDefinitionRepository;
 import com.adaptivebp.modules.workflow.repository.WorkflowInstanceRepository;
+import com.adaptivebp.modules.workflow.runtime.CompiledWorkflow;
+import com.adaptivebp.modules.workflow.runtime.WorkflowDefinitionCache;
+import com.adaptivebp.shared.security.PermissionSnapshotCache;
 
 @Service
 public class WorkflowEngineService {
 
     private static final Logger log = LoggerFactory.getLogger(WorkflowEngineService.class);
 
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int RECENT_TRANSITION_IDS = 10;
+    /** performedBy of transitions the engine makes on its own, e.g. SLA timeouts. */
+    static final String SYSTEM_USER = "system";
+
     @Autowired
     private WorkflowInstanceRepository instanceRepository;
 
@@ -67,10 +91,10 @@ public class WorkflowEngineService {
     private WorkflowDefinitionRepository definitionRepository;
 
     @Autowired
-    private AppGroupMemberRepository appGroupMemberRepository;
+    private WorkflowDefinitionCache definitionCache;
 
     @Autowired
-    private AppGroupRepository appGroupRepository;
+    private AppGroupQueryPort appGroupQueryPort;
 
     @Autowired
     private DomainGroupMemberRepository domainGroupMemberRepository;
@@ -78,6 +102,38 @@ public class WorkflowEngineService {
     @Autowired
     private DomainGroupRepository domainGroupRepository;
 
+    @Autowired
+    private PermissionSnapshotCache permissionCache;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private WorkflowHistoryService historyService;
+
+    @Autowired
+    private WorkflowTaskInboxService inboxService;
+
+    @Autowired
+    private AutoActionOutboxService actionOutbox;
+
+    @Autowired
+    private WorkflowTimerService timerService;
+
+    @Autowired
+    private WorkflowStatsService statsService;
+
+    @Autowired
+    private WorkflowEventService eventService;
+
+    /** How many times an idempotent edge is re-applied after losing a concurrent transition. */
+    @Value("${workflow.execute.conflict-retries:2}")
+    private int conflictRetries;
+
+    /** Whether new instances use the compact format (no stored stepRecords, history keeps only changes). */
+    @Value("${workflow.storage.compact-form-data:false}")
+    private boolean compactFormData;
+
     public WorkflowInstance startWorkflowBySlug(
             String domainId,
             String appId,
@@ -85,11 +141,13 @@ public class WorkflowEngineService {
             Map<String, Object> formData,
             String userId,
             String performedByName) {
-        WorkflowDefinition definition = definitionRepository
+        return startWorkflow(findPublishedBySlug(domainId, appId, workflowSlug), formData, userId, performedByName);
+    }
+
+    public WorkflowDefinition findPublishedBySlug(String domainId, String appId, String workflowSlug) {
+        return definitionRepository
                 .findByDomainIdAndAppIdAndSlugAndStatus(domainId, appId, workflowSlug, WorkflowStatus.PUBLISHED)
                 .orElseThrow(() -> new WorkflowNotFoundException("Published workflow not found: " + workflowSlug));
-
-        return startWorkflow(definition.getId(), formData, userId, performedByName);
     }
 
     public WorkflowInstance startWorkflow(
@@ -100,13 +158,101 @@ public class WorkflowEngineService {
         WorkflowDefinition definition = definitionRepository.findById(definitionId)
                 .orElseThrow(() -> new WorkflowNotFoundException("Workflow definition not found: " + definitionId));
 
+        return startWorkflow(definition, formData, userId, performedByName);
+    }
+
+    private WorkflowInstance startWorkflow(
+            WorkflowDefinition definition,
+            Map<String, Object> formData,
+            String userId,
+            String performedByName) {
+        CompiledWorkflow workflow = compiledForStart(definition);
+        WorkflowInstance instance = newInstance(definition, workflow.findStartStep(), formData, userId);
+        List<InstanceHistory> pendingHistory = stageStart(instance, userId, performedByName);
+
+        WorkflowInstance saved = instanceRepository.save(instance);
+        afterCommit(Map.of(saved, pendingHistory), Map.of(saved, workflow),
+                () -> List.of(WorkflowStatsService.Move.started(saved)),
+                () -> List.of(new WorkflowEventService.Change(saved, Set.of(), inboxService.assignees(saved, workflow))),
+                Map.of());
+        return saved;
+    }
+
+    /**
+     * Starts one instance per payload under the given ids. The definition is compiled and the
+     * start step resolved once; valid instances go to Mongo in a single unordered insertMany,
+     * followed by one batched history append and inbox refresh. Ids that already exist count as
+     * started, so a batch that is retried after a crash does not create duplicates.
+     *
+     * @return per payload, the exception that rejected it, or null when it was started
+     */
+    public List<RuntimeException> startWorkflows(
+            WorkflowDefinition definition,
+            List<String> instanceIds,
+            List<Map<String, Object>> payloads,
+            String userId,
+            String performedByName) {
+        CompiledWorkflow workflow = compiledForStart(definition);
+        WorkflowStep startStep = workflow.findStartStep();
+
+        RuntimeException[] errors = new RuntimeException[payloads.size()];
+        Map<WorkflowInstance, List<InstanceHistory>> staged = new LinkedHashMap<>();
+        for (int i = 0; i < payloads.size(); i++) {
+            try {
+                WorkflowInstance instance = newInstance(definition, startStep, payloads.get(i), userId);
+                instance.setId(instanceIds.get(i));
+                instance.setVersion(0L);
+                staged.put(instance, stageStart(instance, userId, performedByName));
+            } catch (RuntimeException ex) {
+                errors[i] = ex;
+            }
+        }
+        if (staged.isEmpty()) {
+            return Arrays.asList(errors);
+        }
+
+        List<WorkflowInstance> instances = new ArrayList<>(staged.keySet());
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, WorkflowInstance.class)
+                    .insert(instances)
+                    .execute();
+        } catch (BulkOperationException ex) {
+            if (!ex.getErrors().stream().allMatch(error -> error.getCode() == 11000)) {
+                throw ex;
+            }
+            // Inserted by an earlier attempt, which also wrote their history and inbox rows
+            ex.getErrors().forEach(error -> staged.remove(instances.get(error.getIndex())));
+        }
+
+        Map<WorkflowInstance, CompiledWorkflow> definitions = new LinkedHashMap<>();
+        staged.keySet().forEach(instance -> definitions.put(instance, workflow));
+        afterCommit(staged, definitions,
+                () -> staged.keySet().stream().map(WorkflowStatsService.Move::started).toList(),
+                () -> staged.keySet().stream()
+                        .map(instance -> new WorkflowEventService.Change(
+                                instance, Set.of(), inboxService.assignees(instance, workflow)))
+                        .toList(),
+                Map.of());
+        return Arrays.asList(errors);
+    }
+
+    private CompiledWorkflow compiledForStart(WorkflowDefinition definition) {
         if (definition.getStatus() != WorkflowStatus.PUBLISHED) {
             throw new IllegalStateException("Workflow is not published");
         }
 
-        WorkflowStep startStep = definition.findStartStep()
-                .orElseThrow(() -> new WorkflowNotFoundException("Workflow has no start step"));
+        CompiledWorkflow workflow = definitionCache.get(definition.getId(), definition.getVersion());
+        if (workflow.findStartStep() == null) {
+            throw new WorkflowNotFoundException("Workflow has no start step");
+        }
+        return workflow;
+    }
 
+    private WorkflowInstance newInstance(
+            WorkflowDefinition definition,
+            WorkflowStep startStep,
+            Map<String, Object> formData,
+            String userId) {
         Map<String, Object> payload = formData != null ? new HashMap<>(formData) : new HashMap<>();
         if (!payload.isEmpty()) {
             Map<String, String> fieldErrors = validateStepData(startStep, payload, true);
@@ -124,25 +270,38 @@ public class WorkflowEngineService {
         instance.setCurrentStepId(startStep.getId());
         instance.setStartedBy(userId);
         instance.setStartedAt(Instant.now());
+        instance.setStepEnteredAt(instance.getStartedAt());
+        if (compactFormData) {
+            instance.setStorageFormat(WorkflowInstance.FORMAT_COMPACT);
+        }
 
         // Seed the primary record with any start-step form data
         if (!payload.isEmpty()) {
             instance.getPrimaryRecord().putAll(payload);
-            putStepRecord(instance, startStep.getId(), new HashMap<>(payload));
+            if (isCompact(instance)) {
+                instance.getSubmittedStepIds().add(startStep.getId());
+            } else {
+                putStepRecord(instance, startStep.getId(), new HashMap<>(payload));
+            }
         }
+        return instance;
+    }
 
+    private List<InstanceHistory> stageStart(WorkflowInstance instance, String userId, String performedByName) {
         InstanceHistory history = new InstanceHistory();
-        history.setStepId(startStep.getId());
+        history.setStepId(instance.getCurrentStepId());
         history.setEdgeId(null);
         history.setEdgeName("Started");
         history.setPerformedBy(userId);
         history.setPerformedByName(performedByName);
         history.setPerformedAt(Instant.now());
         history.setRecordId(null);
-        history.setFormData(new HashMap<>(payload));
-        instance.getHistory().add(history);
-
-        return instanceRepository.save(instance);
+        history.setFormData(new HashMap<>(instance.getPrimaryRecord()));
+        if (isCompact(instance)) {
+            // Nothing precedes the start entry, so all of it is a change
+            history.setUnchangedKeys(new ArrayList<>());
+        }
+        return historyService.stage(instance, history, null);
     }
 
     public ExecuteEdgeResponse executeEdge(
@@ -152,15 +311,391 @@ public class WorkflowEngineService {
             String comment,
             String userId,
             String performedByName) {
+        int attempt = 0;
+        while (true) {
+            try {
+                return attemptExecuteEdge(instanceId, edgeId, formData, comment, userId, performedByName);
+            } catch (WorkflowConflictException ex) {
+                if (!ex.isRetryable() || attempt++ >= conflictRetries) {
+                    throw ex;
+                }
+                log.debug("Retrying idempotent edge '{}' on instance {} after conflict (attempt {})",
+                        edgeId, instanceId, attempt);
+            }
+        }
+    }
+
+    /**
+     * Executes many edges for one user in a single round trip. Permissions are resolved once,
+     * each definition version is compiled once, checks run in parallel and every transition that
+     * passes is written with one unordered bulkWrite. Items succeed or fail independently and
+     * results come back in request order; conflicts are reported, never retried.
+     */
+    public BulkExecuteResponse bulkExecuteEdges(
+            String domainId,
+            String appId,
+            List<BulkExecuteRequest.Item> items,
+            String userId,
+            String performedByName) {
+        Set<AppPermission> userPermissions = loadUserPermissions(appId, userId);
+        Set<String> userRoles = loadUserRoles(domainId, userId);
+
+        int size = items.size();
+        BulkExecuteResponse.ItemResult[] results = new BulkExecuteResponse.ItemResult[size];
+        WorkflowInstance[] instances = new WorkflowInstance[size];
+        CompiledWorkflow[] definitions = new CompiledWorkflow[size];
+
+        Map<String, WorkflowInstance> loaded = new HashMap<>();
+        instanceRepository.findAllById(items.stream().map(BulkExecuteRequest.Item::getInstanceId).distinct().toList())
+                .forEach(instance -> loaded.put(instance.getId(), instance));
+        Map<String, CompiledWorkflow> definitionsByVersion = new HashMap<>();
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < size; i++) {
+            BulkExecuteRequest.Item item = items.get(i);
+            WorkflowInstance instance = loaded.get(item.getInstanceId());
+            if (!seen.add(item.getInstanceId())) {
+                results[i] = BulkExecuteResponse.ItemResult.failure(item.getInstanceId(), item.getEdgeId(),
+                        "DUPLICATE_INSTANCE", "Instance appears more than once in the batch", null);
+            } else if (instance == null || !Objects.equals(instance.getDomainId(), domainId)
+                    || !Objects.equals(instance.getAppId(), appId)) {
+                results[i] = failure(item, new WorkflowNotFoundException(
+                        "Workflow instance not found: " + item.getInstanceId()));
+            } else {
+                try {
+                    definitions[i] = definitionsByVersion.computeIfAbsent(
+                            instance.getWorkflowDefinitionId() + ":" + instance.getWorkflowVersion(),
+                            key -> definitionCache.get(instance.getWorkflowDefinitionId(), instance.getWorkflowVersion()));
+                    instances[i] = instance;
+                } catch (RuntimeException ex) {
+                    results[i] = failure(item, ex);
+                }
+            }
+        }
+
+        PreparedTransition[] prepared = new PreparedTransition[size];
+        IntStream.range(0, size).parallel().filter(i -> instances[i] != null).forEach(i -> {
+            BulkExecuteRequest.Item item = items.get(i);
+            try {
+                prepared[i] = prepareTransition(instances[i], definitions[i], item.getEdgeId(), item.getFormData(),
+                        item.getComment(), userId, performedByName, userPermissions, userRoles);
+            } catch (RuntimeException ex) {
+                results[i] = failure(item, ex);
+            }
+        });
+
+        List<PreparedTransition> batch = Arrays.stream(prepared).filter(Objects::nonNull).toList();
+        Set<String> committed = commitTransitions(batch);
+
+        List<PreparedTransition> landed = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            PreparedTransition transition = prepared[i];
+            if (transition == null) {
+                continue;
+            }
+            BulkExecuteRequest.Item item = items.get(i);
+            if (committed.contains(transition.instance().getId())) {
+                landed.add(transition);
+                results[i] = BulkExecuteResponse.ItemResult.success(
+                        item.getInstanceId(), item.getEdgeId(), transition.response());
+            } else {
+                results[i] = failure(item, conflict(null, false));
+            }
+        }
+
+        afterCommit(landed, () -> landed.stream().map(PreparedTransition::move).toList());
+
+        BulkExecuteResponse response = new BulkExecuteResponse();
+        response.setResults(Arrays.asList(results));
+        return response;
+    }
+
+    private ExecuteEdgeResponse attemptExecuteEdge(
+            String instanceId,
+            String edgeId,
+            Map<String, Object> formData,
+            String comment,
+            String userId,
+            String performedByName) {
         WorkflowInstance instance = instanceRepository.findById(instanceId)
                 .orElseThrow(() -> new WorkflowNotFoundException("Workflow instance not found: " + instanceId));
+        requireActive(instance);
 
-        if (instance.getStatus() != InstanceStatus.ACTIVE) {
-            throw new WorkflowAlreadyCompletedException("Workflow instance is not ACTIVE");
+        CompiledWorkflow definition = definitionCache.get(
+                instance.getWorkflowDefinitionId(), instance.getWorkflowVersion());
+        Set<AppPermission> userPermissions = loadUserPermissions(instance.getAppId(), userId);
+        Set<String> userRoles = loadUserRoles(instance.getDomainId(), userId);
+
+        PreparedTransition transition = prepareTransition(instance, definition, edgeId, formData, comment,
+                userId, performedByName, userPermissions, userRoles);
+        commitTransition(transition);
+        afterCommit(transition);
+        return transition.response();
+    }
+
+    /**
+     * Executes a timed edge on behalf of the SLA timer scheduler. User permission gates do not
+     * apply; the edge's conditions and required fields still do.
+     *
+     * @return false when the instance is no longer at the version the timer was scheduled for
+     */
+    public boolean executeTimedEdge(String instanceId, long expectedVersion, String edgeId) {
+        WorkflowInstance instance = instanceRepository.findById(instanceId).orElse(null);
+        if (instance == null || instance.getStatus() != InstanceStatus.ACTIVE
+                || !Objects.equals(instance.getVersion(), expectedVersion)) {
+            return false;
+        }
+        CompiledWorkflow definition = definitionCache.get(
+                instance.getWorkflowDefinitionId(), instance.getWorkflowVersion());
+        PreparedTransition transition = prepareTransition(instance, definition, edgeId, Map.of(),
+                "Executed automatically after the step's time limit", SYSTEM_USER, "SLA timer", null, null);
+        commitTransition(transition);
+        afterCommit(transition);
+        return true;
+    }
+
+    /**
+     * Moves ACTIVE instances onto another version of their workflow, each to the step given for
+     * it, with one unordered bulkWrite. Like a transition, each update pins the instance's step and
+     * version, so an instance that moved on since it was read is left alone and not returned.
+     *
+     * @return ids of the instances that were migrated
+     */
+    public Set<String> migrateInstances(
+            List<WorkflowInstance> instances,
+            Map<String, String> targetStepByInstance,
+            CompiledWorkflow target,
+            String userId,
+            String performedByName) {
+        Map<String, CompiledWorkflow> sources = new HashMap<>();
+        Map<String, List<WorkflowStatsService.Move>> moves = new HashMap<>();
+        List<PreparedTransition> batch = new ArrayList<>();
+        for (WorkflowInstance instance : instances) {
+            String targetStepId = targetStepByInstance.get(instance.getId());
+            if (target.findStepById(targetStepId) == null) {
+                throw new IllegalArgumentException("Step not found in version " + target.getVersion() + ": " + targetStepId);
+            }
+            String expectedStepId = instance.getCurrentStepId();
+            Long expectedVersion = instance.getVersion();
+            String sourceDefinitionId = instance.getWorkflowDefinitionId();
+            int sourceVersion = instance.getWorkflowVersion();
+            CompiledWorkflow source = sources.computeIfAbsent(sourceDefinitionId + ":" + sourceVersion,
+                    key -> definitionCache.getOrNull(sourceDefinitionId, sourceVersion));
+            Set<String> previousAssignees = source != null ? inboxService.assignees(instance, source) : Set.of();
+
+            Update update = new Update();
+            instance.setWorkflowDefinitionId(target.getDefinitionId());
+            instance.setWorkflowVersion(target.getVersion());
+            update.set("workflowDefinitionId", target.getDefinitionId());
+            update.set("workflowVersion", target.getVersion());
+            if (!targetStepId.equals(expectedStepId)) {
+                instance.setCurrentStepId(targetStepId);
+                instance.setStepEnteredAt(Instant.now());
+                update.set("currentStepId", targetStepId);
+                update.set("stepEnteredAt", instance.getStepEnteredAt());
+            }
+            moves.put(instance.getId(), migrationMoves(instance, sourceDefinitionId, expectedStepId));
+
+            InstanceHistory history = new InstanceHistory();
+            history.setStepId(expectedStepId);
+            history.setEdgeId(null);
+            history.setEdgeName("Migrated to version " + target.getVersion());
+            history.setPerformedBy(userId);
+            history.setPerformedByName(performedByName);
+            history.setPerformedAt(Instant.now());
+            history.setComment(targetStepId.equals(expectedStepId)
+                    ? null
+                    : "Moved from step '" + expectedStepId + "' to '" + targetStepId + "'");
+            history.setFormData(new HashMap<>());
+            if (isCompact(instance)) {
+                history.setUnchangedKeys(new ArrayList<>());
+            }
+            List<InstanceHistory> pendingHistory = historyService.stage(instance, history, update);
+
+            String transitionId = stampTransition(instance, expectedVersion, update);
+            batch.add(new PreparedTransition(instance, target, expectedStepId, expectedVersion, false, transitionId,
+                    update, pendingHistory, List.of(), null, previousAssignees, null));
+        }
+
+        Set<String> committed = commitTransitions(batch);
+        List<PreparedTransition> landed = batch.stream()
+                .filter(transition -> committed.contains(transition.instance().getId()))
+                .toList();
+        afterCommit(landed, () -> landed.stream()
+                .flatMap(transition -> moves.get(transition.instance().getId()).stream())
+                .toList());
+        return committed;
+    }
+
+    /**
+     * Counter moves for a migrated instance: a plain step move within the same definition
+     * document, otherwise leaving the old definition and entering the new one.
+     */
+    private static List<WorkflowStatsService.Move> migrationMoves(WorkflowInstance instance,
+            String sourceDefinitionId, String sourceStepId) {
+        if (sourceDefinitionId.equals(instance.getWorkflowDefinitionId())) {
+            return sourceStepId.equals(instance.getCurrentStepId())
+                    ? List.of()
+                    : List.of(new WorkflowStatsService.Move(instance.getDomainId(), instance.getAppId(),
+                            sourceDefinitionId, sourceStepId, instance.getCurrentStepId(), null, null, false));
+        }
+        return List.of(
+                new WorkflowStatsService.Move(instance.getDomainId(), instance.getAppId(),
+                        sourceDefinitionId, sourceStepId, null, null, null, false),
+                new WorkflowStatsService.Move(instance.getDomainId(), instance.getAppId(),
+                        instance.getWorkflowDefinitionId(), null, instance.getCurrentStepId(), null, null, false));
+    }
+
+    private void afterCommit(PreparedTransition transition) {
+        afterCommit(List.of(transition), () -> List.of(transition.move()));
+    }
+
+    private void afterCommit(List<PreparedTransition> landed, Supplier<List<WorkflowStatsService.Move>> moves) {
+        if (landed.isEmpty()) {
+            return;
+        }
+        afterCommit(
+                landed.stream().collect(Collectors.toMap(PreparedTransition::instance,
+                        PreparedTransition::pendingHistory, (a, b) -> a, LinkedHashMap::new)),
+                landed.stream().collect(Collectors.toMap(PreparedTransition::instance,
+                        PreparedTransition::definition, (a, b) -> a, LinkedHashMap::new)),
+                moves,
+                () -> landed.stream().map(this::change).toList(),
+                landed.stream().collect(Collectors.toMap(PreparedTransition::instance,
+                        PreparedTransition::pendingActions, (a, b) -> a, LinkedHashMap::new)));
+    }
+
+    /**
+     * Everything that follows a committed write. The transition already stands, so each step is
+     * guarded on its own: a failure is logged and neither skips the steps after it nor fails the
+     * request. The history entries stay pending on the instances unless their append, the inbox
+     * refresh and the timer scheduling all went through, which is what
+     * {@link WorkflowRepairScheduler} looks for. Confirming the history and releasing the relayed
+     * auto-actions share one follow-up write per instance, sent as a single bulk write.
+     */
+    private void afterCommit(
+            Map<WorkflowInstance, List<InstanceHistory>> history,
+            Map<WorkflowInstance, CompiledWorkflow> definitions,
+            Supplier<List<WorkflowStatsService.Move>> moves,
+            Supplier<List<WorkflowEventService.Change>> changes,
+            Map<WorkflowInstance, List<WorkflowActionOutboxEntry>> actions) {
+        // One merged $inc per stats document for the whole batch, applied once and never replayed
+        guard("stats update", () -> statsService.record(moves.get()));
+        boolean settled = guard("history append", () -> historyService.appendAll(history));
+        settled &= guard("inbox refresh", () -> inboxService.refreshAll(definitions));
+        settled &= guard("timer scheduling", () -> timerService.scheduleAll(definitions));
+
+        Map<WorkflowInstance, Update> followUps = new LinkedHashMap<>();
+        if (settled) {
+            history.forEach((instance, entries) -> {
+                Update confirmation = historyService.confirmation(instance, entries);
+                if (confirmation != null) {
+                    followUps.put(instance, confirmation);
+                }
+            });
+        }
+        List<WorkflowActionOutboxEntry> relayed = actions.values().stream().flatMap(List::stream).toList();
+        boolean copied = !relayed.isEmpty() && guard("auto-action relay", () -> actionOutbox.copy(relayed));
+        if (copied) {
+            actions.forEach((instance, entries) -> {
+                if (!entries.isEmpty()) {
+                    actionOutbox.release(followUps.computeIfAbsent(instance, key -> new Update()), entries);
+                }
+            });
+        }
+        guard("follow-up write", () -> writeFollowUps(followUps));
+        guard("event publish", () -> eventService.publish(changes.get()));
+        if (copied) {
+            guard("auto-action dispatch", actionOutbox::dispatch);
+        }
+    }
+
+    /** One bulk write with a single revision bump per instance, mirrored on the instances in memory. */
+    private void writeFollowUps(Map<WorkflowInstance, Update> followUps) {
+        if (followUps.isEmpty()) {
+            return;
         }
+        BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, WorkflowInstance.class);
+        followUps.forEach((instance, update) ->
+                ops.updateOne(new Query(Criteria.where("_id").is(instance.getId())), update.inc("revision", 1)));
+        ops.execute();
+        followUps.keySet().forEach(instance -> instance.setRevision(instance.getRevision() + 1));
+    }
+
+    private boolean guard(String step, Runnable work) {
+        try {
+            work.run();
+            return true;
+        } catch (RuntimeException ex) {
+            log.warn("Post-commit {} failed; the transition stands", step, ex);
+            return false;
+        }
+    }
+
+    /**
+     * Redoes the history append, inbox refresh and timer scheduling of instances whose history
+     * entries were never confirmed, then confirms them. All three are safe to repeat, so this may
+     * race the request that committed the transition. Called by {@link WorkflowRepairScheduler}.
+     */
+    void repair(List<WorkflowInstance> instances) {
+        Map<WorkflowInstance, List<InstanceHistory>> history = new LinkedHashMap<>();
+        Map<WorkflowInstance, CompiledWorkflow> definitions = new LinkedHashMap<>();
+        for (WorkflowInstance instance : instances) {
+            history.put(instance, historyService.unconfirmed(instance));
+            CompiledWorkflow definition = definitionCache.getOrNull(
+                    instance.getWorkflowDefinitionId(), instance.getWorkflowVersion());
+            if (definition != null) {
+                definitions.put(instance, definition);
+            }
+        }
+        historyService.appendAll(history);
+        inboxService.refreshAll(definitions);
+        timerService.scheduleAll(definitions);
+        historyService.confirmAll(history);
+    }
+
+    private WorkflowEventService.Change change(PreparedTransition transition) {
+        return new WorkflowEventService.Change(transition.instance(), transition.previousAssignees(),
+                inboxService.assignees(transition.instance(), transition.definition()));
+    }
+
+    /** An edge execution that has passed every check and only needs its update applied. */
+    private record PreparedTransition(
+            WorkflowInstance instance,
+            CompiledWorkflow definition,
+            String expectedStepId,
+            Long expectedVersion,
+            boolean idempotent,
+            String transitionId,
+            Update update,
+            List<InstanceHistory> pendingHistory,
+            List<WorkflowActionOutboxEntry> pendingActions,
+            WorkflowStatsService.Move move,
+            Set<String> previousAssignees,
+            ExecuteEdgeResponse response) {
+    }
+
+    /**
+     * Checks permissions, conditions and form data, then applies the transition to the instance
+     * in memory and records the matching delta update. Touches no shared state, so bulk execution
+     * prepares many instances in parallel. Null {@code userPermissions} marks a system
+     * transition, which skips the user permission gates.
+     */
+    private PreparedTransition prepareTransition(
+            WorkflowInstance instance,
+            CompiledWorkflow definition,
+            String edgeId,
+            Map<String, Object> formData,
+            String comment,
+            String userId,
+            String performedByName,
+            Set<AppPermission> userPermissions,
+            Set<String> userRoles) {
+        requireActive(instance);
 
-        WorkflowDefinition definition = definitionRepository.findById(instance.getWorkflowDefinitionId())
-                .orElseThrow(() -> new WorkflowNotFoundException("Workflow definition not found"));
+        String expectedStepId = instance.getCurrentStepId();
+        Long expectedVersion = instance.getVersion();
+        // Taken before the instance is changed in memory, for the event that tells inboxes what moved
+        Set<String> previousAssignees = inboxService.assignees(instance, definition);
 
         WorkflowStep currentStep = definition.findStepById(instance.getCurrentStepId());
         if (currentStep == null) {
@@ -169,19 +704,19 @@ public class WorkflowEngineService {
 
         WorkflowEdge edge = resolveEdge(definition, currentStep, edgeId);
 
-        Set<AppPermission> userPermissions = loadUserPermissions(instance.getAppId(), userId);
-        Set<String> userRoles = loadUserRoles(instance.getDomainId(), userId);
-        boolean isSubmitter = userId != null && userId.equals(instance.getStartedBy());
+        if (userPermissions != null) {
+            boolean isSubmitter = userId != null && userId.equals(instance.getStartedBy());
 
-        // Coarse gate: user must have app execute permission, OR workflow roles, OR be the submitter
-        if (!canExecuteWorkflow(userPermissions) && userRoles.isEmpty() && !isSubmitter) {
-            throw new InsufficientEdgePermissionException("You do not have permission to execute workflow actions");
-        }
+            // Coarse gate: user must have app execute permission, OR workflow roles, OR be the submitter
+            if (!canExecuteWorkflow(userPermissions) && userRoles.isEmpty() && !isSubmitter) {
+                throw new InsufficientEdgePermissionException("You do not have permission to execute workflow actions");
+            }
 
-        // Fine-grained gate: check the specific edge's role/submitter/userId rules
-        if (!hasEdgePermission(edge, userRoles, userId, instance.getStartedBy())) {
-            throw new InsufficientEdgePermissionException(
-                    "You do not have permission to execute '" + edge.getName() + "'");
+            // Fine-grained gate: check the specific edge's role/submitter/userId rules
+            if (!hasEdgePermission(edge, userRoles, userId, instance.getStartedBy())) {
+                throw new InsufficientEdgePermissionException(
+                        "You do not have permission to execute '" + edge.getName() + "'");
+            }
         }
 
         Map<String, Object> payload = formData != null ? new HashMap<>(formData) : new HashMap<>();
@@ -190,55 +725,106 @@ public class WorkflowEngineService {
         Map<String, Object> mergedForConditions = new HashMap<>(instance.getPrimaryRecord());
         mergedForConditions.putAll(payload);
 
-        if (!conditionsPass(edge.getConditions(), definition, instance, currentStep, mergedForConditions)) {
+        if (!definition.conditionsPass(edge, mergedForConditions)) {
             throw new ConditionNotMetException("Conditions for edge '" + edge.getName() + "' are not met");
         }
 
         // Validate required fields on the step (only editable fields of this step)
-        Map<String, Object> existingRecordData = getStepRecordMap(instance, currentStep.getId());
-        boolean requireStepRequiredFields = existingRecordData == null || existingRecordData.isEmpty();
+        boolean compact = isCompact(instance);
+        Map<String, Object> existingRecordData = compact ? null : getStepRecordMap(instance, currentStep.getId());
+        boolean requireStepRequiredFields = compact
+                ? !instance.getSubmittedStepIds().contains(currentStep.getId())
+                : existingRecordData == null || existingRecordData.isEmpty();
         Map<String, String> fieldErrors = validateStepData(currentStep, payload, requireStepRequiredFields);
         validateEdgeRequiredFields(edge, mergedForConditions, fieldErrors);
         if (!fieldErrors.isEmpty()) {
             throw new InvalidFormDataException("Invalid form data", fieldErrors);
         }
 
-        // Merge submitted data into per-step record (for history/audit purposes)
-        Map<String, Object> recordData = existingRecordData != null ? new HashMap<>(existingRecordData) : new HashMap<>();
-        recordData.putAll(payload);
-        putStepRecord(instance, currentStep.getId(), recordData);
-
-        // Write ONLY the editable fields of this step into the primary record
-        Set<String> editableKeys = new HashSet<>();
-        if (currentStep.getFields() != null) {
-            for (com.adaptivebp.modules.formbuilder.model.DomainModelField f : currentStep.getFields()) {
-                editableKeys.add(f.getKey());
+        // Only what this edge changes goes to Mongo; history and untouched keys are never rewritten
+        Update update = new Update();
+
+        // Compact instances keep per-step data in history only, minus what the record already holds
+        Map<String, Object> historyData = payload;
+        List<String> unchangedKeys = null;
+        if (compact) {
+            historyData = new HashMap<>();
+            unchangedKeys = new ArrayList<>();
+            Set<String> editableKeys = definition.editableFieldKeys(currentStep.getId());
+            List<String> diverging = new ArrayList<>();
+            for (Map.Entry<String, Object> entry : payload.entrySet()) {
+                if (isUnchanged(instance, editableKeys, entry.getKey(), entry.getValue())) {
+                    unchangedKeys.add(entry.getKey());
+                } else {
+                    historyData.put(entry.getKey(), entry.getValue());
+                }
+                // History now holds a value the record does not take
+                if (!editableKeys.isEmpty() && !editableKeys.contains(entry.getKey())
+                        && !instance.getDivergedKeys().contains(entry.getKey())) {
+                    diverging.add(entry.getKey());
+                }
+            }
+            if (!diverging.isEmpty()) {
+                instance.getDivergedKeys().addAll(diverging);
+                update.addToSet("divergedKeys").each(diverging.toArray());
+            }
+            if (!payload.isEmpty() && !instance.getSubmittedStepIds().contains(currentStep.getId())) {
+                instance.getSubmittedStepIds().add(currentStep.getId());
+                update.addToSet("submittedStepIds", currentStep.getId());
+            }
+        } else if (!payload.isEmpty() || existingRecordData == null) {
+            // Merge submitted data into per-step record (for history/audit purposes)
+            Map<String, Object> recordData = existingRecordData != null ? new HashMap<>(existingRecordData) : new HashMap<>();
+            recordData.putAll(payload);
+            putStepRecord(instance, currentStep.getId(), recordData);
+            if (isPathSafe(currentStep.getId())) {
+                update.set("stepRecords." + currentStep.getId(), recordData);
+            } else {
+                update.set("stepRecords", instance.getStepRecords());
             }
         }
+
+        // Write ONLY the editable fields of this step into the primary record
+        Set<String> editableKeys = definition.editableFieldKeys(currentStep.getId());
+        Map<String, Object> changedKeys = new HashMap<>();
         for (Map.Entry<String, Object> entry : payload.entrySet()) {
             if (editableKeys.isEmpty() || editableKeys.contains(entry.getKey())) {
-                instance.getPrimaryRecord().put(entry.getKey(), entry.getValue());
+                changedKeys.put(entry.getKey(), entry.getValue());
             }
         }
 
         // Apply statusLabel — edge execution sets the record's current status
         if (edge.getStatusLabel() != null && !edge.getStatusLabel().isBlank()) {
-            instance.getPrimaryRecord().put("status", edge.getStatusLabel());
+            changedKeys.put("status", edge.getStatusLabel());
         }
+        applyPrimaryRecordChanges(instance, update, changedKeys);
 
+        Instant now = Instant.now();
+        Long dwellMillis = instance.getStepEnteredAt() != null
+                ? Math.max(0, now.toEpochMilli() - instance.getStepEnteredAt().toEpochMilli())
+                : null;
         if (edge.isTerminal()) {
             if ("cancel".equalsIgnoreCase(edge.getName())) {
                 instance.setStatus(InstanceStatus.CANCELLED);
             } else {
                 instance.setStatus(InstanceStatus.COMPLETED);
             }
-            instance.setCompletedAt(Instant.now());
+            instance.setCompletedAt(now);
+            update.set("status", instance.getStatus());
+            update.set("completedAt", instance.getCompletedAt());
         } else {
             if (edge.getTargetStepId() == null) {
                 throw new IllegalStateException("Non-terminal edge must have targetStepId");
             }
             instance.setCurrentStepId(edge.getTargetStepId());
+            instance.setStepEnteredAt(now);
+            update.set("currentStepId", instance.getCurrentStepId());
+            update.set("stepEnteredAt", now);
         }
+        WorkflowStatsService.Move move = new WorkflowStatsService.Move(instance.getDomainId(), instance.getAppId(),
+                instance.getWorkflowDefinitionId(), currentStep.getId(),
+                edge.isTerminal() ? null : instance.getCurrentStepId(), dwellMillis,
+                edge.isTerminal() ? instance.getStatus() : null, false);
 
         InstanceHistory history = new InstanceHistory();
         history.setStepId(currentStep.getId());
@@ -249,14 +835,15 @@ public class WorkflowEngineService {
         history.setPerformedAt(Instant.now());
         history.setComment(comment);
         history.setRecordId(null);
-        history.setFormData(new HashMap<>(payload));
-        instance.getHistory().add(history);
+        history.setFormData(new HashMap<>(historyData));
+        history.setUnchangedKeys(unchangedKeys);
+        List<InstanceHistory> pendingHistory = historyService.stage(instance, history, update);
 
-        for (AutoAction autoAction : edge.getAutoActions()) {
-            log.info("Auto-action '{}' skipped in Phase 1", autoAction.getType());
-        }
+        // Auto-actions are committed with the transition and run asynchronously afterwards
+        List<WorkflowActionOutboxEntry> pendingActions = actionOutbox.stage(
+                instance, edge, currentStep.getId(), nextVersion(expectedVersion), userId, update);
 
-        instanceRepository.save(instance);
+        String transitionId = stampTransition(instance, expectedVersion, update);
 
         ExecuteEdgeResponse response = new ExecuteEdgeResponse();
         response.setInstanceId(instance.getId());
@@ -267,14 +854,187 @@ public class WorkflowEngineService {
         WorkflowStep nextStep = definition.findStepById(instance.getCurrentStepId());
         response.setNextStepName(nextStep != null ? nextStep.getName() : null);
 
-        return response;
+        return new PreparedTransition(instance, definition, expectedStepId, expectedVersion, edge.isIdempotent(),
+                transitionId, update, pendingHistory, pendingActions, move,
+                previousAssignees, response);
+    }
+
+    /**
+     * Bumps the version and revision and records a new transition id, in memory and in the
+     * update, so a bulk write can tell afterwards which of its updates landed.
+     */
+    private static String stampTransition(WorkflowInstance instance, Long expectedVersion, Update update) {
+        String transitionId = UUID.randomUUID().toString();
+        List<String> transitionIds = new ArrayList<>(instance.getRecentTransitionIds());
+        transitionIds.add(transitionId);
+        instance.setRecentTransitionIds(new ArrayList<>(transitionIds.subList(
+                Math.max(0, transitionIds.size() - RECENT_TRANSITION_IDS), transitionIds.size())));
+        instance.setVersion(nextVersion(expectedVersion));
+        instance.setRevision(instance.getRevision() + 1);
+        update.set("version", instance.getVersion());
+        update.inc("revision", 1);
+        update.push("recentTransitionIds").slice(-RECENT_TRANSITION_IDS).each(transitionId);
+        return transitionId;
+    }
+
+    private static boolean isCompact(WorkflowInstance instance) {
+        return instance.getStorageFormat() == WorkflowInstance.FORMAT_COMPACT;
+    }
+
+    /**
+     * Whether a submitted value can be left out of the history entry: the record already holds it,
+     * the key is one this step writes to the record, and the record's value is the one history
+     * last submitted for the key, so replaying history restores it. The status key is always kept
+     * because edge labels write it outside of submissions, and so are the instance's diverged keys.
+     */
+    private static boolean isUnchanged(WorkflowInstance instance, Set<String> editableKeys, String key, Object value) {
+        if ("status".equals(key) || (!editableKeys.isEmpty() && !editableKeys.contains(key))
+                || instance.getDivergedKeys().contains(key)) {
+            return false;
+        }
+        Map<String, Object> record = instance.getPrimaryRecord();
+        return record.containsKey(key) && Objects.equals(record.get(key), value);
+    }
+
+    private void requireActive(WorkflowInstance instance) {
+        if (instance.getStatus() != InstanceStatus.ACTIVE) {
+            throw new WorkflowAlreadyCompletedException("Workflow instance is not ACTIVE");
+        }
+    }
+
+    /**
+     * Applies the transition's delta only if nobody else moved the instance since it was read:
+     * the filter pins both the step and the version, so the check and the write are one updateOne.
+     */
+    private void commitTransition(PreparedTransition transition) {
+        if (mongoTemplate.updateFirst(transitionQuery(transition), transition.update(), WorkflowInstance.class)
+                .getMatchedCount() == 0) {
+            WorkflowInstance current = instanceRepository.findById(transition.instance().getId()).orElse(null);
+            boolean retryable = transition.idempotent()
+                    && current != null
+                    && current.getStatus() == InstanceStatus.ACTIVE
+                    && Objects.equals(current.getCurrentStepId(), transition.expectedStepId());
+            throw conflict(current, retryable);
+        }
+    }
+
+    /**
+     * Writes all transitions with one unordered bulkWrite and returns the ids of the instances
+     * whose update landed. The bulk result only counts matches, so when some updates missed the
+     * instances are read back and matched on the transition ids they now carry.
+     */
+    private Set<String> commitTransitions(List<PreparedTransition> batch) {
+        if (batch.isEmpty()) {
+            return Set.of();
+        }
+        BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, WorkflowInstance.class);
+        for (PreparedTransition transition : batch) {
+            ops.updateOne(transitionQuery(transition), transition.update());
+        }
+        long matched;
+        try {
+            matched = ops.execute().getMatchedCount();
+        } catch (BulkOperationException ex) {
+            log.warn("Bulk edge execution had {} failed writes out of {}", ex.getErrors().size(), batch.size());
+            matched = -1;
+        }
+
+        Set<String> ids = new HashSet<>();
+        for (PreparedTransition transition : batch) {
+            ids.add(transition.instance().getId());
+        }
+        if (matched == batch.size()) {
+            return ids;
+        }
+
+        Query query = new Query(Criteria.where("_id").in(ids));
+        query.fields().include("recentTransitionIds");
+        Map<String, List<String>> stored = new HashMap<>();
+        for (WorkflowInstance instance : mongoTemplate.find(query, WorkflowInstance.class)) {
+            stored.put(instance.getId(), instance.getRecentTransitionIds());
+        }
+        Set<String> committed = new HashSet<>();
+        for (PreparedTransition transition : batch) {
+            String id = transition.instance().getId();
+            if (stored.getOrDefault(id, List.of()).contains(transition.transitionId())) {
+                committed.add(id);
+            }
+        }
+        return committed;
+    }
+
+    /**
+     * Maps a per-item failure to the same error code the single execute endpoint would return.
+     * Anything else is logged and reported as INTERNAL_ERROR for that item alone, so one bad
+     * item cannot abort the parallel prepare or fail the items around it.
+     */
+    private BulkExecuteResponse.ItemResult failure(BulkExecuteRequest.Item item, RuntimeException ex) {
+        String error = errorCode(ex);
+        if (error == null) {
+            log.error("Bulk execution of edge {} on instance {} failed unexpectedly", item.getEdgeId(),
+                    item.getInstanceId(), ex);
+            return BulkExecuteResponse.ItemResult.failure(item.getInstanceId(), item.getEdgeId(), "INTERNAL_ERROR",
+                    "An unexpected error occurred", null);
+        }
+        Object details = ex instanceof InvalidFormDataException invalid ? invalid.getFieldErrors() : null;
+        return BulkExecuteResponse.ItemResult.failure(item.getInstanceId(), item.getEdgeId(), error, ex.getMessage(), details);
+    }
+
+    /**
+     * The error code WorkflowExceptionHandler answers with for an exception, for bulk operations
+     * that report failures per item; null for exceptions that are not a per-item outcome.
+     */
+    static String errorCode(RuntimeException ex) {
+        if (ex instanceof WorkflowNotFoundException) {
+            return "WORKFLOW_NOT_FOUND";
+        } else if (ex instanceof EdgeNotFoundException) {
+            return "EDGE_NOT_FOUND";
+        } else if (ex instanceof InsufficientEdgePermissionException) {
+            return "INSUFFICIENT_EDGE_PERMISSION";
+        } else if (ex instanceof ConditionNotMetException) {
+            return "CONDITION_NOT_MET";
+        } else if (ex instanceof WorkflowAlreadyCompletedException) {
+            return "WORKFLOW_ALREADY_COMPLETED";
+        } else if (ex instanceof WorkflowConflictException) {
+            return "CONCURRENT_MODIFICATION";
+        } else if (ex instanceof InvalidFormDataException) {
+            return "INVALID_FORM_DATA";
+        } else if (ex instanceof IllegalStateException) {
+            return "INVALID_STATE";
+        }
+        return null;
+    }
+
+    /**
+     * Pins step and version, plus the storage format so a transition read before a migration
+     * cannot write the old layout onto a migrated instance.
+     */
+    private Query transitionQuery(PreparedTransition transition) {
+        Criteria criteria = Criteria.where("_id").is(transition.instance().getId())
+                .and("currentStepId").is(transition.expectedStepId())
+                .and("version").is(transition.expectedVersion());
+        if (isCompact(transition.instance())) {
+            criteria.and("storageFormat").is(WorkflowInstance.FORMAT_COMPACT);
+        } else {
+            criteria.and("storageFormat").ne(WorkflowInstance.FORMAT_COMPACT);
+        }
+        return new Query(criteria);
+    }
+
+    private WorkflowConflictException conflict(WorkflowInstance current, boolean retryable) {
+        return new WorkflowConflictException(
+                "Workflow instance was modified by another user, reload and try again", current, retryable);
+    }
+
+    private static long nextVersion(Long version) {
+        return version != null ? version + 1 : 0L;
     }
 
     public StepViewResponse getStepView(String instanceId, String userId) {
         WorkflowInstance instance = instanceRepository.findById(instanceId)
                 .orElseThrow(() -> new WorkflowNotFoundException("Workflow instance not found: " + instanceId));
-        WorkflowDefinition definition = definitionRepository.findById(instance.getWorkflowDefinitionId())
-                .orElseThrow(() -> new WorkflowNotFoundException("Workflow definition not found"));
+        CompiledWorkflow definition = definitionCache.get(
+                instance.getWorkflowDefinitionId(), instance.getWorkflowVersion());
         WorkflowStep step = definition.findStepById(instance.getCurrentStepId());
         if (step == null) {
             throw new WorkflowNotFoundException("Current step not found in workflow definition");
@@ -284,24 +1044,11 @@ public class WorkflowEngineService {
         response.setInstanceId(instanceId);
         response.setStepId(step.getId());
         response.setStepName(step.getName());
-        response.setHistory(instance.getHistory());
+        response.setHistory(new ArrayList<>(historyService.recent(instance)));
 
-        // Build visible fields: editable (this step's own fields) + readonly (from prior steps)
-        List<com.adaptivebp.modules.formbuilder.model.DomainModelField> allVisible = new ArrayList<>(
-                step.getFields() != null ? step.getFields() : List.of());
+        // Visible fields: editable (this step's own fields) + readonly (from prior steps)
         List<String> roKeys = step.getReadonlyFieldKeys() != null ? step.getReadonlyFieldKeys() : List.of();
-        Set<String> editableKeys = new HashSet<>();
-        for (com.adaptivebp.modules.formbuilder.model.DomainModelField f : allVisible) {
-            editableKeys.add(f.getKey());
-        }
-        for (String roKey : roKeys) {
-            if (!editableKeys.contains(roKey)) {
-                com.adaptivebp.modules.formbuilder.model.DomainModelField field =
-                        findFieldInDefinition(definition, roKey);
-                if (field != null) allVisible.add(field);
-            }
-        }
-        response.setModelFields(allVisible);
+        response.setModelFields(new ArrayList<>(definition.visibleFields(step.getId())));
 
         // Pre-fill all fields from the accumulated primary record
         response.setCurrentData(new HashMap<>(instance.getPrimaryRecord()));
@@ -323,13 +1070,12 @@ public class WorkflowEngineService {
 
         List<WorkflowEdge> permittedEdges = collectPermittedEdges(definition, step, roles, userId, instance.getStartedBy());
         List<StepViewResponse.EdgeView> edgeViews = new ArrayList<>();
-        Map<String, Object> primaryForConditions = new HashMap<>(instance.getPrimaryRecord());
 
         for (WorkflowEdge edge : permittedEdges) {
             StepViewResponse.EdgeView edgeView = new StepViewResponse.EdgeView();
             edgeView.setId(edge.getId());
             edgeView.setName(edge.getName());
-            if (!conditionsPass(edge.getConditions(), definition, instance, step, primaryForConditions)) {
+            if (!definition.conditionsPass(edge, instance.getPrimaryRecord())) {
                 edgeView.setDisabled(true);
                 edgeView.setDisabledReason("Condition not met");
             }
@@ -340,25 +1086,45 @@ public class WorkflowEngineService {
         return response;
     }
 
-    /** Searches all steps in the definition for a field with the given key. */
-    private com.adaptivebp.modules.formbuilder.model.DomainModelField findFieldInDefinition(
-            WorkflowDefinition definition, String fieldKey) {
-        for (WorkflowStep s : definition.getSteps()) {
-            if (s.getFields() == null) continue;
-            for (com.adaptivebp.modules.formbuilder.model.DomainModelField f : s.getFields()) {
-                if (fieldKey.equals(f.getKey())) return f;
-            }
-        }
-        return null;
-    }
-
 
-    public List<WorkflowInstance> listInstances(String domainId, String appId) {
-        return instanceRepository.findByDomainIdAndAppId(domainId, appId);
-    }
+    /**
+     * Lists instance summaries newest first, keyset-paged on (startedAt, _id).
+     * {@code startedBy}, {@code status} and {@code stepId} are optional filters.
+     */
+    public InstancePageResponse listInstances(String domainId, String appId, String startedBy,
+            InstanceStatus status, String stepId, String cursor, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        Criteria criteria = Criteria.where("domainId").is(domainId).and("appId").is(appId);
+        if (startedBy != null) {
+            criteria = criteria.and("startedBy").is(startedBy);
+        }
+        if (status != null) {
+            criteria = criteria.and("status").is(status);
+        }
+        if (stepId != null && !stepId.isBlank()) {
+            criteria = criteria.and("currentStepId").is(stepId);
+        }
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        if (after != null) {
+            criteria = criteria.orOperator(
+                    Criteria.where("startedAt").lt(after.at()),
+                    Criteria.where("startedAt").is(after.at()).and("_id").lt(after.id()));
+        }
 
-    public List<WorkflowInstance> listStartedBy(String domainId, String appId, String userId) {
-        return instanceRepository.findByDomainIdAndAppIdAndStartedBy(domainId, appId, userId);
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "startedAt", "_id"))
+                .limit(size + 1);
+        query.fields().include(InstanceSummaryResponse.FIELDS);
+        List<WorkflowInstance> rows = mongoTemplate.find(query, WorkflowInstance.class);
+
+        InstancePageResponse response = new InstancePageResponse();
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            WorkflowInstance last = rows.get(size - 1);
+            response.setNextCursor(KeysetCursor.of(last.getStartedAt(), last.getId()).encode());
+        }
+        response.setInstances(rows.stream().map(InstanceSummaryResponse::from).toList());
+        return response;
     }
 
     public WorkflowInstance getInstance(String instanceId) {
@@ -366,101 +1132,66 @@ public class WorkflowEngineService {
                 .orElseThrow(() -> new WorkflowNotFoundException("Workflow instance not found: " + instanceId));
     }
 
-    public HistoryResponse getHistory(String instanceId) {
-        WorkflowInstance instance = getInstance(instanceId);
-        HistoryResponse response = new HistoryResponse();
-        response.setHistory(instance.getHistory());
-        return response;
+    /** Fills in stepRecords for the full view; compact instances rebuild it from their history. */
+    public WorkflowInstance withStepRecords(WorkflowInstance instance) {
+        if (isCompact(instance)) {
+            instance.setStepRecords(historyService.stepRecords(instance));
+        }
+        return instance;
     }
 
-    public TaskListResponse getMyTasks(String userId, String domainId, String appId) {
-        Set<String> userRoles = loadUserRoles(domainId, userId);
-
-        // Only bail out early if the user has absolutely no pathway to any edge:
-        // no app execute permission AND no workflow roles. Even then, they could
-        // be the startedBy of an instance with onlySubmitter edges, so we proceed
-        // to the instance loop and let collectPermittedEdges do the filtering.
-        // The loop is the authoritative gate — no duplicate coarse-guard needed.
-
-        List<WorkflowInstance> instances = instanceRepository
-                .findByDomainIdAndAppIdAndStatus(domainId, appId, InstanceStatus.ACTIVE);
-
-        Map<String, WorkflowDefinition> definitionCache = new HashMap<>();
-        List<TaskResponse> tasks = new ArrayList<>();
-
-        for (WorkflowInstance instance : instances) {
-            WorkflowDefinition definition = definitionCache.computeIfAbsent(
-                    instance.getWorkflowDefinitionId(),
-                    this::loadWorkflowDefinitionOrNull);
-            if (definition == null) {
-                continue;
-            }
-
-            WorkflowStep currentStep = definition.findStepById(instance.getCurrentStepId());
-            if (currentStep == null) {
-                continue;
-            }
-
-            List<WorkflowEdge> permitted = collectPermittedEdges(
-                    definition,
-                    currentStep,
-                    userRoles,
-                    userId,
-                    instance.getStartedBy());
-
-            if (permitted.isEmpty()) {
-                continue;
-            }
+    /**
+     * The instance with only the fields that access checks and ETags need, so a conditional GET
+     * whose copy is current is answered without reading form data or history.
+     */
+    public WorkflowInstance getInstanceStamp(String instanceId) {
+        Query query = new Query(Criteria.where("_id").is(instanceId));
+        query.fields().include("domainId", "appId", "workflowDefinitionId", "workflowVersion", "currentStepId",
+                "startedBy", "version", "revision");
+        WorkflowInstance instance = mongoTemplate.findOne(query, WorkflowInstance.class);
+        if (instance == null) {
+            throw new WorkflowNotFoundException("Workflow instance not found: " + instanceId);
+        }
+        return instance;
+    }
 
-            TaskResponse task = new TaskResponse();
-            task.setInstanceId(instance.getId());
-            task.setWorkflowDefinitionId(instance.getWorkflowDefinitionId());
-            task.setWorkflowName(definition.getName());
-            task.setCurrentStepId(instance.getCurrentStepId());
-            task.setCurrentStepName(currentStep.getName());
-            task.setStartedAt(instance.getStartedAt());
-            task.setWaitingSince(lastPerformedAt(instance));
-
-            Map<String, Object> startedBy = new HashMap<>();
-            startedBy.put("id", instance.getStartedBy());
-            startedBy.put("name", instance.getStartedBy());
-            task.setStartedBy(startedBy);
-
-            List<Map<String, Object>> edges = new ArrayList<>();
-            for (WorkflowEdge edge : permitted) {
-                if (conditionsPass(edge.getConditions(), definition, instance, currentStep, instance.getPrimaryRecord())) {
-                    Map<String, Object> edgeMap = new HashMap<>();
-                    edgeMap.put("id", edge.getId());
-                    edgeMap.put("name", edge.getName());
-                    edges.add(edgeMap);
-                }
-            }
+    /** ETag of the full instance; changes with every write to it. */
+    public static String eTag(WorkflowInstance instance) {
+        return instance.getVersion() + "-" + instance.getRevision();
+    }
 
-            if (edges.isEmpty()) {
-                continue;
-            }
+    /**
+     * ETag of {@link #getStepView}: the view depends on the instance, the definition it is pinned
+     * to and what the caller may do at the step, so all of them go into the tag.
+     */
+    public String stepViewETag(String instanceId, String userId) {
+        WorkflowInstance instance = getInstanceStamp(instanceId);
+        CompiledWorkflow definition = definitionCache.get(
+                instance.getWorkflowDefinitionId(), instance.getWorkflowVersion());
+        String permissions = loadUserPermissions(instance.getAppId(), userId).stream()
+                .map(Enum::name)
+                .sorted()
+                .collect(Collectors.joining(","));
+        String roles = loadUserRoles(instance.getDomainId(), userId).stream()
+                .sorted()
+                .collect(Collectors.joining(","));
+        String state = String.join("|", eTag(instance), definition.getDefinitionId(),
+                String.valueOf(definition.getVersion()), String.valueOf(definition.getRevision()),
+                String.valueOf(userId), permissions, roles);
+        return DigestUtils.md5DigestAsHex(state.getBytes(StandardCharsets.UTF_8));
+    }
 
-            task.setAvailableEdges(edges);
-            task.setSummary(extractSummaryFromRecord(instance));
-            tasks.add(task);
-        }
+    /** Opens the caller's event stream for the app; see {@link WorkflowEventService}. */
+    public SseEmitter streamEvents(String domainId, String appId, String userId, boolean viewAll, String lastEventId) {
+        return eventService.subscribe(domainId, appId, userId, loadUserRoles(domainId, userId), viewAll, lastEventId);
+    }
 
-        tasks.sort((a, b) -> {
-            if (a.getStartedAt() == null && b.getStartedAt() == null) {
-                return 0;
-            }
-            if (a.getStartedAt() == null) {
-                return 1;
-            }
-            if (b.getStartedAt() == null) {
-                return -1;
-            }
-            return a.getStartedAt().compareTo(b.getStartedAt());
-        });
+    public HistoryResponse getHistory(String instanceId, Long cursor, int limit) {
+        return historyService.page(getInstance(instanceId), cursor, limit);
+    }
 
-        TaskListResponse response = new TaskListResponse();
-        response.setTasks(tasks);
-        return response;
+    public TaskListResponse getMyTasks(String userId, String domainId, String appId, String cursor, int limit) {
+        return inboxService.findTasks(domainId, appId, userId, loadUserRoles(domainId, userId), cursor, limit);
     }
 
     private void validateEdgeRequiredFields(WorkflowEdge edge,
@@ -474,46 +1205,8 @@ public class WorkflowEngineService {
         }
     }
 
-    private Map<String, Object> extractSummaryFromRecord(WorkflowInstance instance) {
-        Map<String, Object> record = instance.getPrimaryRecord();
-        if (record == null || record.isEmpty()) {
-            return new HashMap<>();
-        }
-        Map<String, Object> summary = new HashMap<>();
-        int count = 0;
-        for (Map.Entry<String, Object> entry : record.entrySet()) {
-            if (!entry.getKey().startsWith("_")) {
-                summary.put(entry.getKey(), entry.getValue());
-                if (++count >= 6) break;
-            }
-        }
-        return summary;
-    }
-
-    private Instant lastPerformedAt(WorkflowInstance instance) {
-        if (instance.getHistory() == null || instance.getHistory().isEmpty()) {
-            return instance.getStartedAt();
-        }
-        return instance.getHistory().get(instance.getHistory().size() - 1).getPerformedAt();
-    }
-
-    private WorkflowDefinition loadWorkflowDefinitionOrNull(String definitionId) {
-        return definitionRepository.findById(definitionId).orElse(null);
-    }
-
-    private WorkflowEdge resolveEdge(WorkflowDefinition definition, WorkflowStep currentStep, String edgeId) {
-        WorkflowEdge edge = currentStep.getEdges().stream()
-                .filter(e -> edgeId.equals(e.getId()))
-                .findFirst()
-                .orElse(null);
-
-        if (edge == null) {
-            edge = definition.getGlobalEdges().stream()
-                    .filter(e -> edgeId.equals(e.getId()))
-                    .findFirst()
-                    .orElse(null);
-        }
-
+    private WorkflowEdge resolveEdge(CompiledWorkflow definition, WorkflowStep currentStep, String edgeId) {
+        WorkflowEdge edge = definition.findEdge(currentStep.getId(), edgeId);
         if (edge == null) {
             throw new EdgeNotFoundException("Edge not found: " + edgeId);
         }
@@ -541,6 +1234,10 @@ public class WorkflowEngineService {
     }
 
     private Set<String> loadUserRoles(String domainId, String userId) {
+        return permissionCache.get("workflow-roles", domainId, userId, () -> queryUserRoles(domainId, userId));
+    }
+
+    private Set<String> queryUserRoles(String domainId, String userId) {
         List<DomainGroupMember> memberships = domainGroupMemberRepository.findByDomainIdAndUserId(domainId, userId);
         if (memberships.isEmpty()) {
             return Set.of();
@@ -558,31 +1255,11 @@ public class WorkflowEngineService {
                 roleNames.add(group.getName().toLowerCase(Locale.ROOT));
             }
         }
-        return roleNames;
+        return Set.copyOf(roleNames);
     }
 
     private Set<AppPermission> loadUserPermissions(String appId, String userId) {
-        List<AppGroup> groups = loadUserAppGroups(appId, userId);
-        Set<AppPermission> permissions = new HashSet<>();
-        for (AppGroup group : groups) {
-            if (group.getPermissions() != null) {
-                permissions.addAll(group.getPermissions());
-            }
-        }
-        return permissions;
-    }
-
-    private List<AppGroup> loadUserAppGroups(String appId, String userId) {
-        List<AppGroupMember> memberships = appGroupMemberRepository.findByAppIdAndUserId(appId, userId);
-        if (memberships.isEmpty()) {
-            return List.of();
-        }
-
-        Set<String> groupIds = new HashSet<>();
-        for (AppGroupMember member : memberships) {
-            groupIds.add(member.getGroupId());
-        }
-        return appGroupRepository.findAllById(groupIds);
+        return appGroupQueryPort.getAppPermissions(appId, userId);
     }
 
     private boolean canExecuteWorkflow(Set<AppPermission> permissions) {
@@ -602,17 +1279,13 @@ public class WorkflowEngineService {
         return false;
     }
 
-    private List<WorkflowEdge> collectPermittedEdges(WorkflowDefinition definition,
+    List<WorkflowEdge> collectPermittedEdges(CompiledWorkflow definition,
             WorkflowStep step,
             Set<String> roleNames,
             String userId,
             String startedBy) {
-        List<WorkflowEdge> allEdges = new ArrayList<>();
-        allEdges.addAll(step.getEdges());
-        allEdges.addAll(definition.getGlobalEdges());
-
         List<WorkflowEdge> filtered = new ArrayList<>();
-        for (WorkflowEdge edge : allEdges) {
+        for (WorkflowEdge edge : definition.candidateEdges(step.getId())) {
             if (hasEdgePermission(edge, roleNames, userId, startedBy)) {
                 filtered.add(edge);
             }
@@ -622,78 +1295,7 @@ public class WorkflowEngineService {
 
 
 
-    private boolean conditionsPass(
-            List<EdgeCondition> conditions,
-            WorkflowDefinition definition,
-            WorkflowInstance instance,
-            WorkflowStep currentStep,
-            Map<String, Object> currentData) {
-        if (conditions == null || conditions.isEmpty()) {
-            return true;
-        }
-
-        for (EdgeCondition condition : conditions) {
-            Object actualValue = resolveConditionValue(condition.getField(), definition, instance, currentStep, currentData);
-            if (!evaluateCondition(actualValue, condition.getOperator(), condition.getValue())) {
-                return false;
-            }
-        }
-        return true;
-    }
-
-    private Object resolveConditionValue(
-            String field,
-            WorkflowDefinition definition,
-            WorkflowInstance instance,
-            WorkflowStep currentStep,
-            Map<String, Object> currentData) {
-        if (field == null) return null;
-        // Primary lookup: currentData (which is primaryRecord merged with payload)
-        if (currentData != null && currentData.containsKey(field)) {
-            return currentData.get(field);
-        }
-        // Fallback: look in primaryRecord directly
-        return instance.getPrimaryRecord().get(field);
-    }
-
-    private boolean evaluateCondition(Object actual, ConditionOperator operator, Object expected) {
-        return switch (operator) {
-            case EQUALS -> Objects.equals(actual, expected);
-            case NOT_EQUALS -> !Objects.equals(actual, expected);
-            case IS_EMPTY -> isEmpty(actual);
-            case IS_NOT_EMPTY -> !isEmpty(actual);
-            case CONTAINS -> contains(actual, expected);
-            case GREATER_THAN -> compareAsNumber(actual, expected) > 0;
-            case LESS_THAN -> compareAsNumber(actual, expected) < 0;
-            case GREATER_EQUAL -> compareAsNumber(actual, expected) >= 0;
-            case LESS_EQUAL -> compareAsNumber(actual, expected) <= 0;
-        };
-    }
-
-    private int compareAsNumber(Object left, Object right) {
-        Double l = toDouble(left);
-        Double r = toDouble(right);
-        if (l == null || r == null) {
-            return Integer.MIN_VALUE;
-        }
-        return Double.compare(l, r);
-    }
-
-    private Double toDouble(Object value) {
-        if (value == null) {
-            return null;
-        }
-        if (value instanceof Number number) {
-            return number.doubleValue();
-        }
-        try {
-            return Double.parseDouble(String.valueOf(value));
-        } catch (NumberFormatException ex) {
-            return null;
-        }
-    }
-
-    private Map<String, String> validateStepData(
+    Map<String, String> validateStepData(
             WorkflowStep step,
             Map<String, Object> data,
             boolean requireRequiredFields) {
@@ -733,19 +1335,6 @@ public class WorkflowEngineService {
         };
     }
 
-    private boolean contains(Object container, Object item) {
-        if (container == null) {
-            return false;
-        }
-        if (container instanceof String string) {
-            return item != null && string.contains(String.valueOf(item));
-        }
-        if (container instanceof Collection<?> collection) {
-            return collection.contains(item);
-        }
-        return false;
-    }
-
     private Map<String, Object> getStepRecordMap(WorkflowInstance instance, String stepId) {
         if (instance == null || stepId == null) {
             return null;
@@ -770,6 +1359,33 @@ public class WorkflowEngineService {
         instance.getStepRecords().put(stepId, data != null ? data : new HashMap<>());
     }
 
+    /** Applies changes to the primary record in memory and adds a $set for each key whose value actually changed. */
+    private void applyPrimaryRecordChanges(WorkflowInstance instance, Update update, Map<String, Object> changes) {
+        Map<String, Object> record = instance.getPrimaryRecord();
+        Map<String, Object> delta = new HashMap<>();
+        boolean allPathSafe = true;
+        for (Map.Entry<String, Object> entry : changes.entrySet()) {
+            if (record.containsKey(entry.getKey()) && Objects.equals(record.get(entry.getKey()), entry.getValue())) {
+                continue;
+            }
+            record.put(entry.getKey(), entry.getValue());
+            delta.put(entry.getKey(), entry.getValue());
+            allPathSafe &= isPathSafe(entry.getKey());
+        }
+        if (!allPathSafe) {
+            // Keys that cannot be addressed as a dotted path fall back to rewriting the record
+            update.set("primaryRecord", record);
+            return;
+        }
+        for (Map.Entry<String, Object> entry : delta.entrySet()) {
+            update.set("primaryRecord." + entry.getKey(), entry.getValue());
+        }
+    }
+
+    private boolean isPathSafe(String key) {
+        return key != null && !key.isEmpty() && key.indexOf('.') < 0 && !key.startsWith("$");
+    }
+
     private boolean isEmpty(Object value) {
         if (value == null) {
             return true;
@@ -0,0 +1,527 @@
+package com.adaptivebp.modules.workflow.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.adaptivebp.modules.workflow.dto.response.WorkflowEventResponse;
+import com.adaptivebp.modules.workflow.model.WorkflowInstance;
+import com.mongodb.CursorType;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Pushes instance changes to connected clients as server-sent events, one stream per (domain,
+ * app, user), so task lists and step views are refetched only when something they show moved.
+ * Events go through a capped collection that every node tails: this bridges the nodes and gives
+ * all of them the same order. Each node keeps the last buffer-size events, so a client that
+ * reconnects with Last-Event-ID, to any node, is replayed what it missed; if its event has aged
+ * out it gets a {@code reset} event and reloads. With the bridge disabled, events are only
+ * delivered on the node that produced them.
+ *
+ * <p>Nothing is written to a client while the buffer is locked: delivery only queues the event
+ * on each stream, and a small sender pool drains the queues. A stream whose queue fills up,
+ * because its client reads slower than events arrive, is completed; the client reconnects with
+ * its Last-Event-ID and is replayed or reset like any other.
+ */
+@Service
+public class WorkflowEventService {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkflowEventService.class);
+
+    static final String COLLECTION = "workflow_events";
+    static final String EVENT_NAME = "workflow";
+    static final String RESET_EVENT_NAME = "reset";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${workflow.events.bridge-enabled:true}")
+    private boolean bridgeEnabled;
+
+    /** Events kept for replay; also the size of the capped collection, so a re-tail only repeats buffered events. */
+    @Value("${workflow.events.buffer-size:1000}")
+    private int bufferSize;
+
+    @Value("${workflow.events.heartbeat-ms:15000}")
+    private long heartbeatMillis;
+
+    @Value("${workflow.events.timeout-ms:1800000}")
+    private long timeoutMillis;
+
+    @Value("${workflow.events.retry-ms:5000}")
+    private long retryMillis;
+
+    /** Events a stream may have waiting before it is dropped as too slow. */
+    @Value("${workflow.events.queue-size:100}")
+    private int queueSize;
+
+    @Value("${workflow.events.sender-threads:4}")
+    private int senderThreads;
+
+    /** Queued after the last event of a dropped stream; the sender completes the emitter on it. */
+    private static final SseEmitter.SseEventBuilder CLOSE = SseEmitter.event();
+
+    /** An instance after a committed start or transition, with its inbox assignees before and after. */
+    public record Change(WorkflowInstance instance, Set<String> previousAssignees, Set<String> assignees) {
+    }
+
+    private record Event(
+            String id,
+            String scope,
+            String instanceId,
+            Long version,
+            String status,
+            String currentStepId,
+            String startedBy,
+            List<String> previousAssignees,
+            List<String> assignees) {
+    }
+
+    /**
+     * One open stream; the assignee keys are resolved when it connects. Events wait in the queue
+     * until a sender takes them; {@code draining} keeps that to one sender at a time, in order.
+     */
+    private record Subscriber(String scope, String userId, Set<String> assigneeKeys, boolean viewAll,
+            SseEmitter emitter, BlockingQueue<SseEmitter.SseEventBuilder> queue, AtomicBoolean draining) {
+
+        /** What this user sees of the event, or null when it does not concern them. */
+        WorkflowEventResponse view(Event event) {
+            boolean before = matches(event.previousAssignees());
+            boolean after = matches(event.assignees());
+            if (!before && !after && !viewAll && (userId == null || !userId.equals(event.startedBy()))) {
+                return null;
+            }
+            WorkflowEventResponse response = new WorkflowEventResponse();
+            response.setInstanceId(event.instanceId());
+            response.setVersion(event.version());
+            response.setStatus(event.status());
+            response.setCurrentStepId(event.currentStepId());
+            if (after) {
+                response.setInbox(before ? "UPDATED" : "ADDED");
+            } else if (before) {
+                response.setInbox("REMOVED");
+            }
+            return response;
+        }
+
+        private boolean matches(List<String> assignees) {
+            for (String assignee : assignees) {
+                if (assigneeKeys.contains(assignee)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Guards the buffer, the subscriber sets and what goes into the queues, so replay and live
+     * delivery never interleave. Only queue operations happen under it, never a send.
+     */
+    private final Object lock = new Object();
+    private final Map<String, Event> buffer = new LinkedHashMap<>();
+    private final Map<String, Set<Subscriber>> subscribers = new HashMap<>();
+
+    private volatile boolean running;
+    private volatile boolean collectionReady;
+    private Thread listener;
+    private ScheduledExecutorService heartbeat;
+    private ExecutorService sender;
+
+    @PostConstruct
+    public synchronized void init() {
+        AtomicInteger count = new AtomicInteger();
+        sender = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "workflow-event-sender-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "workflow-event-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeat.scheduleWithFixedDelay(this::sendHeartbeats, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+        if (bridgeEnabled) {
+            listener = new Thread(this::listen, "workflow-event-listener");
+            listener.setDaemon(true);
+            listener.start();
+        }
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+        }
+        if (heartbeat != null) {
+            heartbeat.shutdownNow();
+        }
+        if (sender != null) {
+            sender.shutdownNow();
+        }
+        List<Subscriber> open = new ArrayList<>();
+        synchronized (lock) {
+            subscribers.values().forEach(open::addAll);
+            subscribers.clear();
+        }
+        open.forEach(subscriber -> subscriber.emitter().complete());
+    }
+
+    /**
+     * Publishes the changes with one insertMany. A failure is logged and not thrown: the
+     * transitions have committed, and clients still see them on their next fetch. With the
+     * bridge disabled the events are queued here directly, which never waits on a client.
+     */
+    public void publish(Collection<Change> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        List<Document> documents = new ArrayList<>();
+        for (Change change : changes) {
+            documents.add(toDocument(change));
+        }
+        if (!bridgeEnabled) {
+            documents.forEach(document -> deliver(document.append("_id", new ObjectId())));
+            return;
+        }
+        try {
+            collection().insertMany(documents);
+        } catch (RuntimeException ex) {
+            log.warn("Could not publish {} workflow events", documents.size(), ex);
+        }
+    }
+
+    /**
+     * Opens a stream for the user. With {@code lastEventId}, buffered events after it are sent
+     * first. Roles are taken as they are now; role changes apply when the client reconnects.
+     */
+    public SseEmitter subscribe(String domainId, String appId, String userId, Set<String> roles, boolean viewAll,
+            String lastEventId) {
+        Set<String> assigneeKeys = new HashSet<>();
+        assigneeKeys.add(WorkflowTaskInboxService.ANYONE);
+        if (userId != null) {
+            assigneeKeys.add("user:" + userId);
+        }
+        for (String role : roles) {
+            assigneeKeys.add("role:" + role.toLowerCase(Locale.ROOT));
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(scope(domainId, appId), userId, assigneeKeys, viewAll, emitter,
+                new ArrayBlockingQueue<>(queueSize), new AtomicBoolean());
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(ex -> unsubscribe(subscriber));
+
+        synchronized (lock) {
+            if (lastEventId != null && !lastEventId.isBlank()) {
+                replay(subscriber, lastEventId);
+            }
+            subscribers.computeIfAbsent(subscriber.scope(), key -> new HashSet<>()).add(subscriber);
+        }
+        schedule(subscriber);
+        return emitter;
+    }
+
+    /** Queues what the subscriber missed, or a reset when that is unknown or more than its queue holds. */
+    private void replay(Subscriber subscriber, String lastEventId) {
+        boolean after = false;
+        if (buffer.containsKey(lastEventId)) {
+            for (Event event : buffer.values()) {
+                if (after && event.scope().equals(subscriber.scope()) && !enqueue(subscriber, event)) {
+                    after = false;
+                    break;
+                }
+                after = after || event.id().equals(lastEventId);
+            }
+        }
+        if (!after) {
+            subscriber.queue().clear();
+            subscriber.queue().offer(SseEmitter.event().name(RESET_EVENT_NAME).data("{}", MediaType.APPLICATION_JSON));
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        synchronized (lock) {
+            Set<Subscriber> set = subscribers.get(subscriber.scope());
+            if (set != null) {
+                set.remove(subscriber);
+                if (set.isEmpty()) {
+                    subscribers.remove(subscriber.scope());
+                }
+            }
+        }
+    }
+
+    /**
+     * Buffers an event and queues it on the streams of its app; events already seen are skipped.
+     * Streams with a full queue are dropped.
+     */
+    void deliver(Document document) {
+        Event event = fromDocument(document);
+        if (event == null) {
+            return;
+        }
+        List<Subscriber> queued = new ArrayList<>();
+        synchronized (lock) {
+            if (buffer.containsKey(event.id())) {
+                return;
+            }
+            buffer.put(event.id(), event);
+            if (buffer.size() > bufferSize) {
+                buffer.remove(buffer.keySet().iterator().next());
+            }
+            Set<Subscriber> set = subscribers.get(event.scope());
+            if (set == null) {
+                return;
+            }
+            for (Iterator<Subscriber> it = set.iterator(); it.hasNext();) {
+                Subscriber subscriber = it.next();
+                if (subscriber.view(event) == null) {
+                    continue;
+                }
+                if (!enqueue(subscriber, event)) {
+                    it.remove();
+                    close(subscriber);
+                }
+                queued.add(subscriber);
+            }
+            if (set.isEmpty()) {
+                subscribers.remove(event.scope());
+            }
+        }
+        queued.forEach(this::schedule);
+    }
+
+    /** Queues what the subscriber sees of the event, if anything; false when its queue is full. */
+    private boolean enqueue(Subscriber subscriber, Event event) {
+        WorkflowEventResponse payload = subscriber.view(event);
+        if (payload == null) {
+            return true;
+        }
+        return subscriber.queue().offer(SseEmitter.event().id(event.id()).name(EVENT_NAME)
+                .data(payload, MediaType.APPLICATION_JSON));
+    }
+
+    /** Replaces what the subscriber still has queued with the close marker. Called under the lock. */
+    private void close(Subscriber subscriber) {
+        subscriber.queue().clear();
+        subscriber.queue().offer(CLOSE);
+        log.debug("Dropping workflow event stream of {} in {}: client is not keeping up",
+                subscriber.userId(), subscriber.scope());
+    }
+
+    /** Hands the subscriber to a sender unless one already has it. */
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.queue().isEmpty() || !subscriber.draining().compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            sender.execute(() -> drain(subscriber));
+        } catch (RuntimeException ex) {
+            // Shutting down; stop() completes the emitter
+            subscriber.draining().set(false);
+        }
+    }
+
+    /**
+     * Sends the subscriber's queued events in order. Runs without the lock, so a client that
+     * reads slowly holds up only its own stream.
+     */
+    private void drain(Subscriber subscriber) {
+        try {
+            SseEmitter.SseEventBuilder event;
+            while ((event = subscriber.queue().poll()) != null) {
+                if (event == CLOSE) {
+                    subscriber.emitter().complete();
+                    return;
+                }
+                if (!send(subscriber, event)) {
+                    subscriber.queue().clear();
+                    unsubscribe(subscriber);
+                    return;
+                }
+            }
+        } finally {
+            subscriber.draining().set(false);
+        }
+        // An event queued after the last poll but before draining was released
+        schedule(subscriber);
+    }
+
+    private boolean send(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        try {
+            subscriber.emitter().send(event);
+            return true;
+        } catch (IOException | IllegalStateException ex) {
+            // Client went away; the container completes the emitter
+            return false;
+        }
+    }
+
+    private void sendHeartbeats() {
+        List<Subscriber> queued = new ArrayList<>();
+        synchronized (lock) {
+            for (Set<Subscriber> set : subscribers.values()) {
+                for (Iterator<Subscriber> it = set.iterator(); it.hasNext();) {
+                    Subscriber subscriber = it.next();
+                    if (!subscriber.queue().offer(SseEmitter.event().comment("heartbeat"))) {
+                        it.remove();
+                        close(subscriber);
+                    }
+                    queued.add(subscriber);
+                }
+            }
+            subscribers.values().removeIf(Set::isEmpty);
+        }
+        queued.forEach(this::schedule);
+    }
+
+    private void listen() {
+        while (running) {
+            try {
+                tail();
+            } catch (RuntimeException ex) {
+                if (running) {
+                    log.debug("Workflow event tail interrupted, retrying in {} ms", retryMillis, ex);
+                }
+            }
+            try {
+                Thread.sleep(retryMillis);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Follows the capped collection until the cursor dies. A new tail starts from the oldest
+     * event, so events missed while the tail was down are delivered and buffered ones skipped.
+     */
+    private void tail() {
+        try (MongoCursor<Document> cursor = collection().find()
+                .cursorType(CursorType.TailableAwait)
+                .maxAwaitTime(1, TimeUnit.SECONDS)
+                .iterator()) {
+            while (running) {
+                Document document = cursor.tryNext();
+                if (document == null) {
+                    if (cursor.getServerCursor() == null) {
+                        return;
+                    }
+                    continue;
+                }
+                deliver(document);
+            }
+        }
+    }
+
+    private Document toDocument(Change change) {
+        WorkflowInstance instance = change.instance();
+        return new Document("scope", scope(instance.getDomainId(), instance.getAppId()))
+                .append("instanceId", instance.getId())
+                .append("version", instance.getVersion())
+                .append("status", instance.getStatus() != null ? instance.getStatus().name() : null)
+                .append("currentStepId", instance.getCurrentStepId())
+                .append("startedBy", instance.getStartedBy())
+                .append("previousAssignees", new ArrayList<>(change.previousAssignees()))
+                .append("assignees", new ArrayList<>(change.assignees()))
+                .append("at", new Date());
+    }
+
+    /** Null for the marker written when the collection is created. */
+    private Event fromDocument(Document document) {
+        if (document.getString("instanceId") == null) {
+            return null;
+        }
+        Object version = document.get("version");
+        return new Event(
+                document.getObjectId("_id").toHexString(),
+                document.getString("scope"),
+                document.getString("instanceId"),
+                version instanceof Number number ? number.longValue() : null,
+                document.getString("status"),
+                document.getString("currentStepId"),
+                document.getString("startedBy"),
+                document.getList("previousAssignees", String.class, List.of()),
+                document.getList("assignees", String.class, List.of()));
+    }
+
+    private static String scope(String domainId, String appId) {
+        return domainId + ":" + appId;
+    }
+
+    private MongoCollection<Document> collection() {
+        if (!collectionReady) {
+            synchronized (this) {
+                if (!collectionReady) {
+                    createIfMissing();
+                    collectionReady = true;
+                }
+            }
+        }
+        return mongoTemplate.getCollection(COLLECTION);
+    }
+
+    private void createIfMissing() {
+        if (mongoTemplate.collectionExists(COLLECTION)) {
+            return;
+        }
+        try {
+            mongoTemplate.createCollection(COLLECTION, CollectionOptions.empty()
+                    .capped().size(bufferSize * 1024L).maxDocuments(bufferSize));
+            // A tailable cursor on an empty capped collection dies immediately
+            mongoTemplate.getCollection(COLLECTION).insertOne(new Document("at", new Date()));
+        } catch (RuntimeException ex) {
+            if (!mongoTemplate.collectionExists(COLLECTION)) {
+                throw ex;
+            }
+            // Another node created it first
+        }
+    }
+}
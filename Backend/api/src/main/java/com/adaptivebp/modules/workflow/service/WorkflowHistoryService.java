@@ -0,0 +1,328 @@
+package com.adaptivebp.modules.workflow.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.bson.Document;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.Pair;
+import org.springframework.stereotype.Service;
+
+import com.adaptivebp.modules.workflow.dto.response.HistoryResponse;
+import com.adaptivebp.modules.workflow.model.InstanceHistory;
+import com.adaptivebp.modules.workflow.model.WorkflowHistoryBucket;
+import com.adaptivebp.modules.workflow.model.WorkflowInstance;
+import com.mongodb.bulk.BulkWriteError;
+
+/**
+ * Append-only, bucketed storage for workflow instance history. The instance document only
+ * keeps a counter and the last few entries; the full trail lives in workflow_history_buckets.
+ * New entries are committed with the transition as the instance's pendingHistory, appended to
+ * their bucket afterwards and then confirmed; {@link WorkflowRepairScheduler} appends whatever a
+ * failed or crashed request left pending. Reads merge pending entries in, so they never lag.
+ */
+@Service
+public class WorkflowHistoryService {
+
+    private static final int MAX_PAGE_SIZE = 200;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${workflow.history.bucket-size:50}")
+    private int bucketSize;
+
+    @Value("${workflow.history.recent-entries:5}")
+    private int recentEntries;
+
+    /**
+     * Numbers the new entry and adds it to the instance's pendingHistory, counter and recent
+     * entries in memory. When {@code update} is given (an existing instance), the same changes
+     * are added to it, so the entry is committed with the transition. Legacy embedded history
+     * is left in place until {@link #confirm} has seen it land in the buckets.
+     *
+     * @return the entries to {@link #append} once the instance write has succeeded
+     */
+    public List<InstanceHistory> stage(WorkflowInstance instance, InstanceHistory entry, Update update) {
+        List<InstanceHistory> legacy = instance.getHistory();
+        for (int i = 0; i < legacy.size(); i++) {
+            legacy.get(i).setSequence(i);
+        }
+        entry.setSequence(Math.max(instance.getHistoryCount(), legacy.size()));
+
+        // A legacy trail has not been counted yet the first time the instance moves after the upgrade
+        boolean foldLegacy = instance.getHistoryCount() == 0 && !legacy.isEmpty();
+        List<InstanceHistory> recent = new ArrayList<>(foldLegacy ? legacy : instance.getRecentHistory());
+        recent.add(entry);
+        if (recent.size() > recentEntries) {
+            recent = new ArrayList<>(recent.subList(recent.size() - recentEntries, recent.size()));
+        }
+        instance.setHistoryCount(entry.getSequence() + 1);
+        instance.setRecentHistory(recent);
+        instance.getPendingHistory().add(entry);
+
+        if (update != null) {
+            update.set("historyCount", instance.getHistoryCount());
+            update.push("pendingHistory", entry);
+            if (foldLegacy) {
+                update.set("recentHistory", recent);
+            } else {
+                update.push("recentHistory").slice(-recentEntries).each(entry);
+            }
+        }
+        return unconfirmed(instance);
+    }
+
+    /** Entries committed on the instance that may not be in the buckets yet: legacy history and pendingHistory. */
+    public List<InstanceHistory> unconfirmed(WorkflowInstance instance) {
+        List<InstanceHistory> legacy = instance.getHistory();
+        List<InstanceHistory> entries = new ArrayList<>(legacy.size() + instance.getPendingHistory().size());
+        for (int i = 0; i < legacy.size(); i++) {
+            legacy.get(i).setSequence(i);
+            entries.add(legacy.get(i));
+        }
+        entries.addAll(instance.getPendingHistory());
+        return entries;
+    }
+
+    /** Appends staged entries to their buckets, creating buckets on first use. */
+    public void append(WorkflowInstance instance, List<InstanceHistory> entries) {
+        appendAll(Map.of(instance, entries));
+    }
+
+    /**
+     * Same as {@link #append} for many instances, with all bucket upserts sent as one bulk write.
+     * Safe to repeat: each upsert only matches a bucket that does not hold the entry's sequence
+     * yet, so an entry that already landed is never pushed twice.
+     */
+    public void appendAll(Map<WorkflowInstance, List<InstanceHistory>> entriesByInstance) {
+        List<Pair<Query, Update>> upserts = new ArrayList<>();
+        for (Map.Entry<WorkflowInstance, List<InstanceHistory>> staged : entriesByInstance.entrySet()) {
+            WorkflowInstance instance = staged.getKey();
+            for (InstanceHistory entry : staged.getValue()) {
+                upserts.add(Pair.of(entryQuery(instance, entry), entryUpdate(instance, entry)));
+            }
+        }
+        // A duplicate key is either a bucket created concurrently or a bucket that already holds
+        // the entry; once the bucket exists a second attempt tells them apart
+        List<Pair<Query, Update>> duplicates = upsert(upserts);
+        if (!duplicates.isEmpty()) {
+            upsert(duplicates);
+        }
+    }
+
+    /** Runs the upserts and returns those rejected with a duplicate key. */
+    private List<Pair<Query, Update>> upsert(List<Pair<Query, Update>> upserts) {
+        if (upserts.isEmpty()) {
+            return List.of();
+        }
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, WorkflowHistoryBucket.class)
+                    .upsert(upserts)
+                    .execute();
+            return List.of();
+        } catch (BulkOperationException ex) {
+            List<Pair<Query, Update>> duplicates = new ArrayList<>();
+            for (BulkWriteError error : ex.getErrors()) {
+                if (error.getCode() != 11000) {
+                    throw ex;
+                }
+                duplicates.add(upserts.get(error.getIndex()));
+            }
+            return duplicates;
+        }
+    }
+
+    private Query entryQuery(WorkflowInstance instance, InstanceHistory entry) {
+        return new Query(Criteria.where("instanceId").is(instance.getId())
+                .and("bucket").is(entry.getSequence() / bucketSize)
+                .and("entries.sequence").ne(entry.getSequence()));
+    }
+
+    private Update entryUpdate(WorkflowInstance instance, InstanceHistory entry) {
+        return new Update()
+                .setOnInsert("domainId", instance.getDomainId())
+                .setOnInsert("appId", instance.getAppId())
+                .inc("count", 1)
+                .push("entries", entry);
+    }
+
+    /**
+     * Drops appended entries from the instance: pendingHistory up to the last appended sequence
+     * and, once it has been copied, the legacy embedded trail. Entries staged by later
+     * transitions stay pending.
+     */
+    public void confirm(WorkflowInstance instance, List<InstanceHistory> entries) {
+        confirmAll(Map.of(instance, entries));
+    }
+
+    /** Same as {@link #confirm} for many instances, as one bulk write. */
+    public void confirmAll(Map<WorkflowInstance, List<InstanceHistory>> entriesByInstance) {
+        BulkOperations ops = null;
+        for (Map.Entry<WorkflowInstance, List<InstanceHistory>> appended : entriesByInstance.entrySet()) {
+            Update update = confirmation(appended.getKey(), appended.getValue());
+            if (update == null) {
+                continue;
+            }
+            if (ops == null) {
+                ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, WorkflowInstance.class);
+            }
+            ops.updateOne(new Query(Criteria.where("_id").is(appended.getKey().getId())), update.inc("revision", 1));
+        }
+        if (ops != null) {
+            ops.execute();
+        }
+    }
+
+    /**
+     * The update {@link #confirm} would apply, without the revision bump, for callers that fold
+     * it into another write to the instance. Null when there is nothing to confirm.
+     */
+    public Update confirmation(WorkflowInstance instance, List<InstanceHistory> entries) {
+        long last = entries.stream().mapToLong(InstanceHistory::getSequence).max().orElse(-1);
+        if (last < 0) {
+            return null;
+        }
+        Update update = new Update()
+                .pull("pendingHistory", new Document("sequence", new Document("$lte", last)));
+        if (!instance.getHistory().isEmpty() && last >= instance.getHistory().size() - 1) {
+            update.unset("history");
+            instance.setHistory(new ArrayList<>());
+        }
+        instance.getPendingHistory().removeIf(entry -> entry.getSequence() <= last);
+        return update;
+    }
+
+    /** The last few entries, for views that only need recent activity. */
+    public List<InstanceHistory> recent(WorkflowInstance instance) {
+        if (instance.getHistoryCount() == 0 && !instance.getHistory().isEmpty()) {
+            List<InstanceHistory> legacy = instance.getHistory();
+            return legacy.subList(Math.max(0, legacy.size() - recentEntries), legacy.size());
+        }
+        return instance.getRecentHistory();
+    }
+
+    /**
+     * Rebuilds per-step submissions by replaying the whole trail. Keys an entry left out as
+     * unchanged take the value the trail last submitted for them, which is the value the
+     * record held when the entry was written. Entries past the instance's historyCount belong
+     * to transitions after it was read and are left out, so the records match its ETag.
+     */
+    public Map<String, Object> stepRecords(WorkflowInstance instance) {
+        return stepRecords(instance, new HashMap<>());
+    }
+
+    /**
+     * Same as {@link #stepRecords(WorkflowInstance)}, also filling {@code submitted} with the
+     * value the trail last submitted for each key.
+     */
+    public Map<String, Object> stepRecords(WorkflowInstance instance, Map<String, Object> submitted) {
+        List<InstanceHistory> entries = new ArrayList<>();
+        if (instance.getHistoryCount() > 0) {
+            Query query = new Query(Criteria.where("instanceId").is(instance.getId()))
+                    .with(Sort.by(Sort.Direction.ASC, "bucket"));
+            for (WorkflowHistoryBucket bucket : mongoTemplate.find(query, WorkflowHistoryBucket.class)) {
+                for (InstanceHistory entry : bucket.getEntries()) {
+                    if (entry.getSequence() < instance.getHistoryCount()) {
+                        entries.add(entry);
+                    }
+                }
+            }
+        }
+        entries = withUnconfirmed(instance, entries, 0);
+
+        Map<String, Object> records = new LinkedHashMap<>();
+        for (InstanceHistory entry : entries) {
+            Map<String, Object> data = new HashMap<>(entry.getFormData());
+            if (entry.getUnchangedKeys() != null) {
+                for (String key : entry.getUnchangedKeys()) {
+                    data.put(key, submitted.get(key));
+                }
+            }
+            submitted.putAll(data);
+            // A start without form data never had a step record
+            if (entry.getStepId() == null || (entry.getEdgeId() == null && data.isEmpty())) {
+                continue;
+            }
+            @SuppressWarnings("unchecked")
+            Map<String, Object> record = (Map<String, Object>) records.computeIfAbsent(entry.getStepId(),
+                    step -> new HashMap<String, Object>());
+            record.putAll(data);
+        }
+        return records;
+    }
+
+    /**
+     * Returns up to {@code limit} entries in order, starting at sequence {@code cursor}
+     * (or the beginning when null).
+     */
+    public HistoryResponse page(WorkflowInstance instance, Long cursor, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        long from = cursor != null ? Math.max(0, cursor) : 0;
+
+        List<InstanceHistory> entries = new ArrayList<>();
+        if (instance.getHistoryCount() > 0) {
+            long nextBucket = from / bucketSize;
+            int batch = size / bucketSize + 2;
+            while (entries.size() <= size) {
+                Query query = new Query(Criteria.where("instanceId").is(instance.getId())
+                        .and("bucket").gte(nextBucket))
+                        .with(Sort.by(Sort.Direction.ASC, "bucket"))
+                        .limit(batch);
+                List<WorkflowHistoryBucket> buckets = mongoTemplate.find(query, WorkflowHistoryBucket.class);
+                for (WorkflowHistoryBucket bucket : buckets) {
+                    for (InstanceHistory entry : bucket.getEntries()) {
+                        if (entry.getSequence() >= from) {
+                            entries.add(entry);
+                        }
+                    }
+                    nextBucket = bucket.getBucket() + 1;
+                }
+                if (buckets.size() < batch) {
+                    break;
+                }
+            }
+        }
+        entries = withUnconfirmed(instance, entries, from);
+
+        HistoryResponse response = new HistoryResponse();
+        if (entries.size() > size) {
+            response.setNextCursor(entries.get(size).getSequence());
+            entries = new ArrayList<>(entries.subList(0, size));
+        }
+        response.setHistory(entries);
+        return response;
+    }
+
+    /**
+     * Adds the instance's unconfirmed entries from {@code from} on to entries read from the
+     * buckets, without duplicates and in sequence order. Concurrent appends can land out of
+     * order inside a bucket, and an entry can be in a bucket and still pending on the instance.
+     */
+    private List<InstanceHistory> withUnconfirmed(WorkflowInstance instance, List<InstanceHistory> fromBuckets,
+            long from) {
+        Map<Long, InstanceHistory> bySequence = new TreeMap<>();
+        for (InstanceHistory entry : fromBuckets) {
+            bySequence.put(entry.getSequence(), entry);
+        }
+        for (InstanceHistory entry : unconfirmed(instance)) {
+            if (entry.getSequence() >= from) {
+                bySequence.putIfAbsent(entry.getSequence(), entry);
+            }
+        }
+        return new ArrayList<>(bySequence.values());
+    }
+}
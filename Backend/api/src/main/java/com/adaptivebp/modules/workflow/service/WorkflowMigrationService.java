@@ -0,0 +1,323 @@
+package com.adaptivebp.modules.workflow.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.adaptivebp.modules.workflow.dto.request.MigrateInstancesRequest;
+import com.adaptivebp.modules.workflow.exception.WorkflowNotFoundException;
+import com.adaptivebp.modules.workflow.model.WorkflowDefinition;
+import com.adaptivebp.modules.workflow.model.WorkflowInstance;
+import com.adaptivebp.modules.workflow.model.WorkflowMigrationJob;
+import com.adaptivebp.modules.workflow.model.WorkflowStep;
+import com.adaptivebp.modules.workflow.model.enums.InstanceStatus;
+import com.adaptivebp.modules.workflow.model.enums.MigrationJobStatus;
+import com.adaptivebp.modules.workflow.repository.WorkflowDefinitionRepository;
+import com.adaptivebp.modules.workflow.runtime.CompiledWorkflow;
+import com.adaptivebp.modules.workflow.runtime.WorkflowDefinitionCache;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Moves in-flight instances of older workflow versions onto the published version.
+ *
+ * <ol>
+ *   <li>{@link #submit} checks the step mapping against the published version and queues a job.</li>
+ *   <li>Jobs are claimed with a lease, so each runs on one node and a job whose node died is
+ *       picked up again once the lease runs out.</li>
+ *   <li>A claimed job walks the ACTIVE instances of the source versions in _id order, batch by
+ *       batch: it resolves each instance's target step, writes the batch through
+ *       {@link WorkflowEngineService#migrateInstances} as one bulkWrite, then saves the last _id
+ *       with the counters and pauses before the next batch so live traffic keeps its share of the
+ *       database. The saved _id is where a reclaimed job resumes.</li>
+ * </ol>
+ *
+ * A dry run walks the same instances and fills the same counters without writing to them.
+ */
+@Service
+public class WorkflowMigrationService {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkflowMigrationService.class);
+
+    static final String NO_STEP_MAPPING = "NO_STEP_MAPPING";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private WorkflowEngineService engineService;
+
+    @Autowired
+    private WorkflowDefinitionRepository definitionRepository;
+
+    @Autowired
+    private WorkflowDefinitionCache definitionCache;
+
+    @Value("${workflow.migration.enabled:true}")
+    private boolean enabled;
+
+    @Value("${workflow.migration.batch-size:200}")
+    private int batchSize;
+
+    @Value("${workflow.migration.pause-ms:200}")
+    private long pauseMillis;
+
+    @Value("${workflow.migration.lease-ms:120000}")
+    private long leaseMillis;
+
+    @Value("${workflow.migration.poll-ms:5000}")
+    private long pollMillis;
+
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Queues a migration of the workflow's older versions to its published version. Every
+     * mapped step must exist in the published version; the mapping may name steps no instance
+     * is at, so one mapping can serve several source versions.
+     */
+    public WorkflowMigrationJob submit(String domainId, String appId, String workflowSlug,
+            MigrateInstancesRequest request, String userId, String performedByName) {
+        WorkflowDefinition target = engineService.findPublishedBySlug(domainId, appId, workflowSlug);
+        CompiledWorkflow compiled = definitionCache.get(target.getId(), target.getVersion());
+        for (Map.Entry<String, String> mapping : request.getStepMapping().entrySet()) {
+            if (mapping.getKey() == null || mapping.getKey().isBlank()) {
+                throw new IllegalArgumentException("Step mapping has a blank source step id");
+            }
+            if (compiled.findStepById(mapping.getValue()) == null) {
+                throw new IllegalArgumentException("Step '" + mapping.getValue() + "' mapped from '"
+                        + mapping.getKey() + "' does not exist in version " + target.getVersion());
+            }
+        }
+        if (request.getSourceVersions().contains(target.getVersion())) {
+            throw new IllegalArgumentException("Version " + target.getVersion() + " is the published version");
+        }
+
+        WorkflowMigrationJob job = new WorkflowMigrationJob();
+        job.setId(new ObjectId().toHexString());
+        job.setDomainId(domainId);
+        job.setAppId(appId);
+        job.setWorkflowSlug(workflowSlug);
+        job.setTargetDefinitionId(target.getId());
+        job.setTargetVersion(target.getVersion());
+        job.setSourceVersions(new ArrayList<>(new HashSet<>(request.getSourceVersions())));
+        job.setStepMapping(new HashMap<>(request.getStepMapping()));
+        job.setDryRun(request.isDryRun());
+        job.setCreatedBy(userId);
+        job.setCreatedByName(performedByName);
+        job.setCreatedAt(Instant.now());
+        job.setTotal(mongoTemplate.count(new Query(scope(job, definitionIds(job))), WorkflowInstance.class));
+        mongoTemplate.insert(job);
+        nudge();
+        return job;
+    }
+
+    public WorkflowMigrationJob status(String domainId, String appId, String jobId) {
+        WorkflowMigrationJob job = mongoTemplate.findById(jobId, WorkflowMigrationJob.class);
+        if (job == null || !domainId.equals(job.getDomainId()) || !appId.equals(job.getAppId())) {
+            throw new WorkflowNotFoundException("Migration job not found: " + jobId);
+        }
+        return job;
+    }
+
+    /** Every definition document of the workflow; older versions may live in their own. */
+    private List<String> definitionIds(WorkflowMigrationJob job) {
+        return definitionRepository.findByDomainIdAndAppIdAndSlug(job.getDomainId(), job.getAppId(), job.getWorkflowSlug())
+                .stream()
+                .map(WorkflowDefinition::getId)
+                .toList();
+    }
+
+    /** The job's instances: ACTIVE and pinned to a source version. */
+    private Criteria scope(WorkflowMigrationJob job, List<String> definitionIds) {
+        Criteria criteria = Criteria.where("workflowDefinitionId").in(definitionIds)
+                .and("status").is(InstanceStatus.ACTIVE);
+        if (job.getSourceVersions().isEmpty()) {
+            criteria.and("workflowVersion").ne(job.getTargetVersion());
+        } else {
+            criteria.and("workflowVersion").in(job.getSourceVersions());
+        }
+        return criteria;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || scheduler != null) {
+            return;
+        }
+        // One job at a time per node: migrations are throttled background work, not a queue to drain
+        scheduler = Executors.newSingleThreadScheduledExecutor(daemon("workflow-migration"));
+        scheduler.scheduleWithFixedDelay(this::pollQuietly, pollMillis, pollMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /** Polls right away instead of at the next tick, e.g. after a job was queued. */
+    private void nudge() {
+        if (scheduler != null) {
+            scheduler.execute(this::pollQuietly);
+        }
+    }
+
+    private void pollQuietly() {
+        try {
+            WorkflowMigrationJob job;
+            while ((job = claim()) != null) {
+                run(job);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException ex) {
+            log.warn("Running workflow migration jobs failed; the job resumes once its lease expires", ex);
+        }
+    }
+
+    /** Takes the oldest QUEUED job, or a RUNNING job whose node stopped renewing its lease. */
+    WorkflowMigrationJob claim() {
+        Instant now = Instant.now();
+        Query query = new Query(new Criteria().orOperator(
+                Criteria.where("status").is(MigrationJobStatus.QUEUED),
+                Criteria.where("status").is(MigrationJobStatus.RUNNING).and("leaseUntil").lte(now)))
+                .with(Sort.by(Sort.Direction.ASC, "createdAt"));
+        Update update = new Update()
+                .set("status", MigrationJobStatus.RUNNING)
+                .set("leaseUntil", now.plusMillis(leaseMillis))
+                .set("claimToken", UUID.randomUUID().toString())
+                .min("startedAt", now);
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true),
+                WorkflowMigrationJob.class);
+    }
+
+    /** Migrates the job's instances batch by batch from its cursor until none are left or the lease is lost. */
+    void run(WorkflowMigrationJob job) throws InterruptedException {
+        WorkflowDefinition target = mongoTemplate.findById(job.getTargetDefinitionId(), WorkflowDefinition.class);
+        if (target == null || target.getVersion() != job.getTargetVersion()) {
+            finish(job, MigrationJobStatus.FAILED, "Version " + job.getTargetVersion() + " is no longer current");
+            return;
+        }
+        CompiledWorkflow compiled = definitionCache.get(target.getId(), target.getVersion());
+        List<String> definitionIds = definitionIds(job);
+        String cursor = job.getLastInstanceId();
+        while (true) {
+            Criteria criteria = scope(job, definitionIds);
+            if (cursor != null) {
+                criteria.and("_id").gt(cursor);
+            }
+            Query query = new Query(criteria).with(Sort.by(Sort.Direction.ASC, "_id")).limit(batchSize);
+            List<WorkflowInstance> instances = mongoTemplate.find(query, WorkflowInstance.class);
+            if (instances.isEmpty()) {
+                finish(job, MigrationJobStatus.COMPLETED, null);
+                return;
+            }
+            cursor = instances.get(instances.size() - 1).getId();
+
+            Batch batch = plan(job, compiled, instances);
+            long conflicts = 0;
+            if (!job.isDryRun() && !batch.targetSteps().isEmpty()) {
+                List<WorkflowInstance> migrating = instances.stream()
+                        .filter(instance -> batch.targetSteps().containsKey(instance.getId()))
+                        .toList();
+                Set<String> migrated = engineService.migrateInstances(migrating, batch.targetSteps(), compiled,
+                        job.getCreatedBy(), job.getCreatedByName());
+                conflicts = migrating.size() - migrated.size();
+            }
+            if (!record(job, instances.size(), batch, conflicts, cursor)) {
+                log.info("Workflow migration job {} was claimed by another node", job.getId());
+                return;
+            }
+            if (pauseMillis > 0) {
+                Thread.sleep(pauseMillis);
+            }
+        }
+    }
+
+    /** Target steps for the instances that can be migrated, and why the others cannot. */
+    record Batch(Map<String, String> targetSteps, List<WorkflowMigrationJob.Failure> failures) {
+    }
+
+    /**
+     * Maps each instance's step: an explicit mapping wins, otherwise the step keeps its id if the
+     * target version still has it.
+     */
+    static Batch plan(WorkflowMigrationJob job, CompiledWorkflow target, List<WorkflowInstance> instances) {
+        Map<String, String> targetSteps = new HashMap<>();
+        List<WorkflowMigrationJob.Failure> failures = new ArrayList<>();
+        for (WorkflowInstance instance : instances) {
+            String stepId = instance.getCurrentStepId();
+            String targetStepId = job.getStepMapping().getOrDefault(stepId, stepId);
+            WorkflowStep step = targetStepId != null ? target.findStepById(targetStepId) : null;
+            if (step == null) {
+                failures.add(new WorkflowMigrationJob.Failure(instance.getId(), stepId, NO_STEP_MAPPING));
+            } else {
+                targetSteps.put(instance.getId(), targetStepId);
+            }
+        }
+        return new Batch(targetSteps, failures);
+    }
+
+    /**
+     * Saves the batch's counters and the cursor, and renews the lease.
+     *
+     * @return false when the lease was lost to another node
+     */
+    private boolean record(WorkflowMigrationJob job, int processed, Batch batch, long conflicts, String cursor) {
+        Query owned = new Query(Criteria.where("_id").is(job.getId()).and("claimToken").is(job.getClaimToken()));
+        Update progress = new Update()
+                .set("leaseUntil", Instant.now().plusMillis(leaseMillis))
+                .set("lastInstanceId", cursor)
+                .inc("processed", processed)
+                .inc("migrated", batch.targetSteps().size() - conflicts)
+                .inc("skipped", batch.failures().size())
+                .inc("conflicts", conflicts);
+        if (!batch.failures().isEmpty()) {
+            progress.push("failures").slice(WorkflowMigrationJob.MAX_FAILURES).each(batch.failures().toArray());
+        }
+        return mongoTemplate.updateFirst(owned, progress, WorkflowMigrationJob.class).getMatchedCount() > 0;
+    }
+
+    private void finish(WorkflowMigrationJob job, MigrationJobStatus status, String error) {
+        Query owned = new Query(Criteria.where("_id").is(job.getId()).and("claimToken").is(job.getClaimToken()));
+        mongoTemplate.updateFirst(owned, new Update()
+                .set("status", status)
+                .set("completedAt", Instant.now())
+                .set("error", error)
+                .unset("leaseUntil"), WorkflowMigrationJob.class);
+        log.info("Workflow migration job {} {}", job.getId(), status);
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
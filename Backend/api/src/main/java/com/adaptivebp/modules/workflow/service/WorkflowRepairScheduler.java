@@ -0,0 +1,95 @@
+package com.adaptivebp.modules.workflow.service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import com.adaptivebp.modules.workflow.model.WorkflowInstance;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Finishes the work a transition leaves for after its commit when the request that committed
+ * it failed or died first. A transition's history entry stays in the instance's pendingHistory
+ * until its bucket append, inbox refresh and SLA timers have all gone through; instances still
+ * holding one after a sweep interval have them redone by {@link WorkflowEngineService#repair},
+ * which is safe to repeat, so a sweep racing the original request does no harm.
+ */
+@Component
+public class WorkflowRepairScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkflowRepairScheduler.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private WorkflowEngineService engineService;
+
+    @Value("${workflow.repair.enabled:true}")
+    private boolean enabled;
+
+    @Value("${workflow.repair.sweep-ms:30000}")
+    private long sweepMillis;
+
+    @Value("${workflow.repair.batch-size:100}")
+    private int batchSize;
+
+    private ScheduledExecutorService scheduler;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "workflow-repair-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::sweepQuietly, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private void sweepQuietly() {
+        try {
+            sweep();
+        } catch (RuntimeException ex) {
+            log.warn("Workflow repair sweep failed", ex);
+        }
+    }
+
+    /** Repairs up to batch-size instances. Returns how many were found. */
+    int sweep() {
+        Instant cutoff = Instant.now().minusMillis(sweepMillis);
+        Query query = new Query(Criteria.where("pendingHistory.performedAt").lt(cutoff))
+                .with(Sort.by(Sort.Direction.ASC, "pendingHistory.performedAt"))
+                .limit(batchSize);
+        List<WorkflowInstance> instances = mongoTemplate.find(query, WorkflowInstance.class);
+        if (!instances.isEmpty()) {
+            engineService.repair(instances);
+            log.info("Repaired post-commit writes of {} workflow instances", instances.size());
+        }
+        return instances.size();
+    }
+}
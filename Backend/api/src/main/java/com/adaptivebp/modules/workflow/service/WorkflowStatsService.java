@@ -0,0 +1,311 @@
+package com.adaptivebp.modules.workflow.service;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.DateOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.adaptivebp.modules.workflow.dto.response.WorkflowStatsResponse;
+import com.adaptivebp.modules.workflow.exception.WorkflowNotFoundException;
+import com.adaptivebp.modules.workflow.model.WorkflowDailyStats;
+import com.adaptivebp.modules.workflow.model.WorkflowDefinition;
+import com.adaptivebp.modules.workflow.model.WorkflowInstance;
+import com.adaptivebp.modules.workflow.model.WorkflowStep;
+import com.adaptivebp.modules.workflow.model.WorkflowStepStats;
+import com.adaptivebp.modules.workflow.model.enums.InstanceStatus;
+import com.adaptivebp.modules.workflow.repository.WorkflowDefinitionRepository;
+
+/**
+ * Pre-aggregated workflow analytics. The engine reports every start and transition once it has
+ * committed, and the counters move with $inc in workflow_step_stats and workflow_daily_stats,
+ * so reading a workflow's stats costs one small query per collection regardless of how many
+ * instances it has. {@link #rebuild} recounts from workflow_instances with aggregation pipelines
+ * if the counters ever drift, e.g. after a crash between an instance write and its $inc.
+ */
+@Service
+public class WorkflowStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkflowStatsService.class);
+
+    private static final int MAX_DAYS = 366;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private WorkflowDefinitionRepository definitionRepository;
+
+    /**
+     * An instance entering, leaving or finishing a step of one definition version.
+     * {@code fromStepId} is null when it enters the version, {@code toStepId} is null when it
+     * leaves it, with {@code finalStatus} when it finished. {@code start} marks a new instance.
+     */
+    record Move(
+            String domainId,
+            String appId,
+            String definitionId,
+            String fromStepId,
+            String toStepId,
+            Long dwellMillis,
+            InstanceStatus finalStatus,
+            boolean start) {
+
+        static Move started(WorkflowInstance instance) {
+            return new Move(instance.getDomainId(), instance.getAppId(), instance.getWorkflowDefinitionId(),
+                    null, instance.getCurrentStepId(), null, null, true);
+        }
+    }
+
+    /** Counter increments for one stats document, merged across a batch. */
+    private record Increments(Move move, String key, Map<String, Long> counters) {
+
+        void add(String counter, long amount) {
+            counters.merge(counter, amount, Long::sum);
+        }
+    }
+
+    /**
+     * Applies the moves to the counters in one unordered bulk write; moves that touch the same
+     * step or day are merged into a single $inc first. Failures are logged, not thrown, since the
+     * transitions themselves have already committed.
+     */
+    public void record(Collection<Move> moves) {
+        if (moves.isEmpty()) {
+            return;
+        }
+        String today = LocalDate.now(ZoneOffset.UTC).toString();
+        Map<String, Increments> steps = new LinkedHashMap<>();
+        Map<String, Increments> days = new LinkedHashMap<>();
+        for (Move move : moves) {
+            if (move.fromStepId() != null) {
+                Increments from = increments(steps, move, move.fromStepId());
+                from.add("active", -1);
+                from.add("exited", 1);
+                if (move.dwellMillis() != null) {
+                    from.add("dwellMillis", move.dwellMillis());
+                    from.add("dwellSamples", 1);
+                }
+            }
+            if (move.start()) {
+                increments(days, move, today).add("started", 1);
+            }
+            if (move.toStepId() != null) {
+                Increments to = increments(steps, move, move.toStepId());
+                to.add("active", 1);
+                to.add("entered", 1);
+            }
+            if (move.finalStatus() == InstanceStatus.COMPLETED) {
+                increments(days, move, today).add("completed", 1);
+            } else if (move.finalStatus() == InstanceStatus.CANCELLED) {
+                increments(days, move, today).add("cancelled", 1);
+            }
+        }
+
+        try {
+            upsert(WorkflowStepStats.class, steps.values(), "stepId");
+            upsert(WorkflowDailyStats.class, days.values(), "day");
+        } catch (RuntimeException ex) {
+            log.warn("Updating workflow stats failed for {} moves; rebuild the stats to correct them",
+                    moves.size(), ex);
+        }
+    }
+
+    private Increments increments(Map<String, Increments> byId, Move move, String key) {
+        return byId.computeIfAbsent(move.definitionId() + ":" + key,
+                id -> new Increments(move, key, new LinkedHashMap<>()));
+    }
+
+    private void upsert(Class<?> type, Collection<Increments> documents, String keyField) {
+        if (documents.isEmpty()) {
+            return;
+        }
+        BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, type);
+        for (Increments increments : documents) {
+            Move move = increments.move();
+            Update update = new Update()
+                    .setOnInsert("domainId", move.domainId())
+                    .setOnInsert("appId", move.appId())
+                    .setOnInsert("workflowDefinitionId", move.definitionId())
+                    .setOnInsert(keyField, increments.key());
+            increments.counters().forEach(update::inc);
+            ops.upsert(new Query(Criteria.where("_id").is(move.definitionId() + ":" + increments.key())), update);
+        }
+        ops.execute();
+    }
+
+    /**
+     * Counters for every step of the workflow, summed over its versions and ordered like the
+     * latest version's steps, plus daily throughput for the last {@code days} UTC days.
+     */
+    public WorkflowStatsResponse stats(String domainId, String appId, String workflowSlug, int days) {
+        List<WorkflowDefinition> versions = versions(domainId, appId, workflowSlug);
+        List<String> definitionIds = versions.stream().map(WorkflowDefinition::getId).toList();
+        WorkflowDefinition latest = versions.stream()
+                .max(Comparator.comparingInt(WorkflowDefinition::getVersion))
+                .orElseThrow();
+
+        Map<String, WorkflowStatsResponse.StepStats> steps = new LinkedHashMap<>();
+        for (WorkflowStep step : latest.orderedSteps()) {
+            stepStats(steps, step.getId()).setStepName(step.getName());
+        }
+        Map<String, long[]> dwell = new HashMap<>();
+        for (WorkflowStepStats counters : mongoTemplate.find(
+                new Query(scope(domainId, appId, definitionIds)), WorkflowStepStats.class)) {
+            WorkflowStatsResponse.StepStats step = stepStats(steps, counters.getStepId());
+            step.setActive(step.getActive() + counters.getActive());
+            step.setEntered(step.getEntered() + counters.getEntered());
+            step.setExited(step.getExited() + counters.getExited());
+            long[] total = dwell.computeIfAbsent(counters.getStepId(), id -> new long[2]);
+            total[0] += counters.getDwellMillis();
+            total[1] += counters.getDwellSamples();
+        }
+        dwell.forEach((stepId, total) -> {
+            if (total[1] > 0) {
+                steps.get(stepId).setAvgDwellMillis(total[0] / total[1]);
+            }
+        });
+
+        int range = Math.max(1, Math.min(days, MAX_DAYS));
+        LocalDate first = LocalDate.now(ZoneOffset.UTC).minusDays(range - 1L);
+        Map<String, WorkflowStatsResponse.DayStats> byDay = new LinkedHashMap<>();
+        for (int i = 0; i < range; i++) {
+            WorkflowStatsResponse.DayStats day = new WorkflowStatsResponse.DayStats();
+            day.setDay(first.plusDays(i).toString());
+            byDay.put(day.getDay(), day);
+        }
+        for (WorkflowDailyStats counters : mongoTemplate.find(
+                new Query(scope(domainId, appId, definitionIds).and("day").gte(first.toString())),
+                WorkflowDailyStats.class)) {
+            WorkflowStatsResponse.DayStats day = byDay.get(counters.getDay());
+            if (day != null) {
+                day.setStarted(day.getStarted() + counters.getStarted());
+                day.setCompleted(day.getCompleted() + counters.getCompleted());
+                day.setCancelled(day.getCancelled() + counters.getCancelled());
+            }
+        }
+
+        WorkflowStatsResponse response = new WorkflowStatsResponse();
+        response.setWorkflowSlug(workflowSlug);
+        response.setSteps(new ArrayList<>(steps.values()));
+        response.setDays(new ArrayList<>(byDay.values()));
+        return response;
+    }
+
+    private WorkflowStatsResponse.StepStats stepStats(Map<String, WorkflowStatsResponse.StepStats> steps,
+            String stepId) {
+        return steps.computeIfAbsent(stepId, id -> {
+            WorkflowStatsResponse.StepStats step = new WorkflowStatsResponse.StepStats();
+            step.setStepId(id);
+            return step;
+        });
+    }
+
+    /**
+     * Recounts active instances per step and daily starts and completions from
+     * workflow_instances. Entered, exited and dwell counters need the full history and are left
+     * as they are. Transitions that land while the rebuild runs may be off by their own $inc.
+     */
+    public void rebuild(String domainId, String appId, String workflowSlug) {
+        List<String> definitionIds = versions(domainId, appId, workflowSlug).stream()
+                .map(WorkflowDefinition::getId)
+                .toList();
+
+        Aggregation active = Aggregation.newAggregation(
+                Aggregation.match(scope(domainId, appId, definitionIds).and("status").is(InstanceStatus.ACTIVE)),
+                Aggregation.group("workflowDefinitionId", "currentStepId").count().as("count"));
+        Map<String, Long> activeByStep = new LinkedHashMap<>();
+        for (Document row : mongoTemplate.aggregate(active, WorkflowInstance.class, Document.class)) {
+            Document id = row.get("_id", Document.class);
+            activeByStep.put(id.getString("workflowDefinitionId") + ":" + id.getString("currentStepId"),
+                    ((Number) row.get("count")).longValue());
+        }
+        mongoTemplate.updateMulti(new Query(scope(domainId, appId, definitionIds)), new Update().set("active", 0L),
+                WorkflowStepStats.class);
+        reset(WorkflowStepStats.class, domainId, appId, "stepId", Map.of("active", activeByStep));
+
+        Map<String, Map<String, Long>> daily = new LinkedHashMap<>();
+        daily.put("started", countByDay(scope(domainId, appId, definitionIds), "startedAt"));
+        daily.put("completed", countByDay(scope(domainId, appId, definitionIds)
+                .and("status").is(InstanceStatus.COMPLETED), "completedAt"));
+        daily.put("cancelled", countByDay(scope(domainId, appId, definitionIds)
+                .and("status").is(InstanceStatus.CANCELLED), "completedAt"));
+        mongoTemplate.updateMulti(new Query(scope(domainId, appId, definitionIds)),
+                new Update().set("started", 0L).set("completed", 0L).set("cancelled", 0L), WorkflowDailyStats.class);
+        reset(WorkflowDailyStats.class, domainId, appId, "day", daily);
+    }
+
+    /** Instances matching {@code criteria} grouped by definition and UTC day of {@code dateField}. */
+    private Map<String, Long> countByDay(Criteria criteria, String dateField) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(criteria.and(dateField).ne(null)),
+                Aggregation.project("workflowDefinitionId")
+                        .and(DateOperators.DateToString.dateOf(dateField).toString("%Y-%m-%d")).as("day"),
+                Aggregation.group("workflowDefinitionId", "day").count().as("count"));
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Document row : mongoTemplate.aggregate(aggregation, WorkflowInstance.class, Document.class)) {
+            Document id = row.get("_id", Document.class);
+            counts.put(id.getString("workflowDefinitionId") + ":" + id.getString("day"),
+                    ((Number) row.get("count")).longValue());
+        }
+        return counts;
+    }
+
+    /** Sets each counter to its recounted value, keyed by {@code definitionId:key}. */
+    private void reset(Class<?> type, String domainId, String appId, String keyField,
+            Map<String, Map<String, Long>> countsByField) {
+        Map<String, Update> updates = new LinkedHashMap<>();
+        countsByField.forEach((field, counts) -> counts.forEach((id, count) -> {
+            int separator = id.indexOf(':');
+            updates.computeIfAbsent(id, key -> new Update()
+                    .setOnInsert("domainId", domainId)
+                    .setOnInsert("appId", appId)
+                    .setOnInsert("workflowDefinitionId", id.substring(0, separator))
+                    .setOnInsert(keyField, id.substring(separator + 1)))
+                    .set(field, count);
+        }));
+        if (updates.isEmpty()) {
+            return;
+        }
+        BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, type);
+        updates.forEach((id, update) -> ops.upsert(new Query(Criteria.where("_id").is(id)), update));
+        ops.execute();
+    }
+
+    public void deleteApp(String domainId, String appId) {
+        Query query = new Query(Criteria.where("domainId").is(domainId).and("appId").is(appId));
+        mongoTemplate.remove(query, WorkflowStepStats.class);
+        mongoTemplate.remove(query, WorkflowDailyStats.class);
+    }
+
+    private List<WorkflowDefinition> versions(String domainId, String appId, String workflowSlug) {
+        List<WorkflowDefinition> versions = definitionRepository.findByDomainIdAndAppIdAndSlug(
+                domainId, appId, workflowSlug);
+        if (versions.isEmpty()) {
+            throw new WorkflowNotFoundException("Workflow not found: " + workflowSlug);
+        }
+        return versions;
+    }
+
+    private Criteria scope(String domainId, String appId, List<String> definitionIds) {
+        return Criteria.where("domainId").is(domainId).and("appId").is(appId)
+                .and("workflowDefinitionId").in(definitionIds);
+    }
+}
@@ -0,0 +1,161 @@
+package com.adaptivebp.modules.workflow.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.adaptivebp.modules.workflow.model.WorkflowInstance;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Moves instances written in the original layout to the compact format by dropping their stored
+ * stepRecords. An instance is only migrated when its history rebuilds exactly the stepRecords it
+ * holds, so the full view never changes; anything else stays as it is. Runs once per startup in
+ * the background, in _id order, and picks up where it left off on the next start.
+ */
+@Service
+public class WorkflowStorageMigrationService {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkflowStorageMigrationService.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private WorkflowHistoryService historyService;
+
+    @Value("${workflow.storage.migrate.enabled:true}")
+    private boolean enabled;
+
+    /** Migration only runs where new instances are compact too. */
+    @Value("${workflow.storage.compact-form-data:false}")
+    private boolean compactFormData;
+
+    @Value("${workflow.storage.migrate.batch-size:200}")
+    private int batchSize;
+
+    private ExecutorService executor;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || !compactFormData || executor != null) {
+            return;
+        }
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "workflow-storage-migration");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.submit(this::migrateAllQuietly);
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private void migrateAllQuietly() {
+        try {
+            String afterId = null;
+            int migrated = 0;
+            List<WorkflowInstance> batch;
+            do {
+                batch = nextBatch(afterId);
+                for (WorkflowInstance instance : batch) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        return;
+                    }
+                    if (migrate(instance)) {
+                        migrated++;
+                    }
+                    afterId = instance.getId();
+                }
+            } while (batch.size() == batchSize);
+            if (migrated > 0) {
+                log.info("Migrated {} workflow instances to the compact storage format", migrated);
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Workflow storage migration stopped, it resumes on the next start", ex);
+        }
+    }
+
+    /**
+     * Instances still in the original layout. Those with embedded legacy history or entries
+     * still pending on the instance are left until they have been appended to the buckets.
+     */
+    List<WorkflowInstance> nextBatch(String afterId) {
+        Criteria criteria = Criteria.where("storageFormat").ne(WorkflowInstance.FORMAT_COMPACT)
+                .and("history.0").exists(false)
+                .and("pendingHistory.0").exists(false);
+        if (afterId != null) {
+            criteria.and("_id").gt(afterId);
+        }
+        Query query = new Query(criteria).with(Sort.by(Sort.Direction.ASC, "_id")).limit(batchSize);
+        query.fields().include("_id", "version", "storageFormat", "stepRecords", "historyCount",
+                "primaryRecord");
+        return mongoTemplate.find(query, WorkflowInstance.class);
+    }
+
+    /**
+     * Migrates one instance unless its history disagrees with its stepRecords or it changed
+     * since it was read; either way a later run looks at it again.
+     */
+    boolean migrate(WorkflowInstance instance) {
+        Map<String, Object> submitted = new HashMap<>();
+        Map<String, Object> derived = historyService.stepRecords(instance, submitted);
+        if (!derived.equals(instance.getStepRecords())) {
+            log.debug("Instance {} keeps its stepRecords, history does not rebuild them", instance.getId());
+            return false;
+        }
+
+        List<String> submittedStepIds = new ArrayList<>();
+        for (Map.Entry<String, Object> record : instance.getStepRecords().entrySet()) {
+            if (record.getValue() instanceof Map<?, ?> data && !data.isEmpty()) {
+                submittedStepIds.add(record.getKey());
+            }
+        }
+        // Record values history cannot replay, e.g. from UPDATE_FIELD auto-actions, must never be
+        // left out of compact history entries
+        List<String> divergedKeys = new ArrayList<>();
+        for (Map.Entry<String, Object> field : instance.getPrimaryRecord().entrySet()) {
+            if (!submitted.containsKey(field.getKey())
+                    || !Objects.equals(submitted.get(field.getKey()), field.getValue())) {
+                divergedKeys.add(field.getKey());
+            }
+        }
+        // The version is left alone so pending SLA timers and inbox rows stay valid; transitions
+        // pin the storage format instead
+        Query query = new Query(Criteria.where("_id").is(instance.getId())
+                .and("version").is(instance.getVersion())
+                .and("storageFormat").ne(WorkflowInstance.FORMAT_COMPACT));
+        Update update = new Update()
+                .set("storageFormat", WorkflowInstance.FORMAT_COMPACT)
+                .set("submittedStepIds", submittedStepIds)
+                .unset("stepRecords")
+                .inc("revision", 1);
+        if (!divergedKeys.isEmpty()) {
+            update.addToSet("divergedKeys").each(divergedKeys.toArray());
+        }
+        return mongoTemplate.updateFirst(query, update, WorkflowInstance.class).getModifiedCount() > 0;
+    }
+}
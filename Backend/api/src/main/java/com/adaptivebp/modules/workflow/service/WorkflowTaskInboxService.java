@@ -0,0 +1,446 @@
+package com.adaptivebp.modules.workflow.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import com.adaptivebp.modules.workflow.dto.response.TaskListResponse;
+import com.adaptivebp.modules.workflow.dto.response.TaskResponse;
+import com.adaptivebp.modules.workflow.model.InstanceHistory;
+import com.adaptivebp.modules.workflow.model.WorkflowEdge;
+import com.adaptivebp.modules.workflow.model.WorkflowInstance;
+import com.adaptivebp.modules.workflow.model.WorkflowStep;
+import com.adaptivebp.modules.workflow.model.WorkflowTaskEntry;
+import com.adaptivebp.modules.workflow.model.WorkflowTaskInboxState;
+import com.adaptivebp.modules.workflow.model.enums.InstanceStatus;
+import com.adaptivebp.modules.workflow.runtime.CompiledWorkflow;
+import com.adaptivebp.modules.workflow.runtime.WorkflowDefinitionCache;
+
+/**
+ * Maintains the materialized task inbox and answers my-tasks from it with an indexed,
+ * keyset-paged query instead of scanning every ACTIVE instance of the app.
+ */
+@Service
+public class WorkflowTaskInboxService {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkflowTaskInboxService.class);
+
+    static final String ANYONE = "*";
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int REBUILD_BATCH = 100;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private WorkflowDefinitionCache definitionCache;
+
+    @Autowired
+    private WorkflowHistoryService historyService;
+
+    /** Apps whose inbox is known to be backfilled, so the marker is only read once per node. */
+    private final Set<String> builtApps = ConcurrentHashMap.newKeySet();
+
+    /** One lock per app, so backfilling one app's inbox does not hold up queries of the others. */
+    private final Map<String, Object> buildLocks = new ConcurrentHashMap<>();
+
+    /**
+     * Replaces the instance's inbox rows with rows for its current state. Safe against
+     * out-of-order refreshes: rows are tagged with the instance version, older rows are
+     * removed, and rows that lost the race to a newer transition remove themselves. Safe to
+     * repeat: a row's id is its instance, version and assignee, so a second refresh of the
+     * same version writes nothing new.
+     */
+    public void refresh(WorkflowInstance instance, CompiledWorkflow definition) {
+        long version = instance.getVersion() != null ? instance.getVersion() : 0L;
+        List<WorkflowTaskEntry> entries = buildEntries(instance, definition, version);
+        if (!entries.isEmpty()) {
+            insert(entries);
+        }
+        mongoTemplate.remove(new Query(Criteria.where("instanceId").is(instance.getId())
+                .and("instanceVersion").lt(version)), WorkflowTaskEntry.class);
+
+        if (!entries.isEmpty()) {
+            Query current = new Query(Criteria.where("_id").is(instance.getId()));
+            current.fields().include("version");
+            WorkflowInstance stored = mongoTemplate.findOne(current, WorkflowInstance.class);
+            if (stored == null || (stored.getVersion() != null && stored.getVersion() > version)) {
+                mongoTemplate.remove(new Query(Criteria.where("instanceId").is(instance.getId())
+                        .and("instanceVersion").is(version)), WorkflowTaskEntry.class);
+            }
+        }
+    }
+
+    /**
+     * Like {@link #refresh}, for a change that leaves the instance version alone, such as an
+     * UPDATE_FIELD auto-action: the record can change which edges pass their conditions, so rows
+     * of the current version are rewritten instead of skipped, and rows for assignees the
+     * instance no longer reaches are removed.
+     */
+    public void replace(WorkflowInstance instance, CompiledWorkflow definition) {
+        long version = instance.getVersion() != null ? instance.getVersion() : 0L;
+        List<WorkflowTaskEntry> entries = buildEntries(instance, definition, version);
+        if (!entries.isEmpty()) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, WorkflowTaskEntry.class);
+            for (WorkflowTaskEntry entry : entries) {
+                bulk.replaceOne(new Query(Criteria.where("_id").is(entry.getId())), entry,
+                        FindAndReplaceOptions.options().upsert());
+            }
+            bulk.execute();
+        }
+        List<String> kept = entries.stream().map(WorkflowTaskEntry::getId).toList();
+        mongoTemplate.remove(new Query(Criteria.where("instanceId").is(instance.getId()).orOperator(
+                Criteria.where("instanceVersion").lt(version),
+                Criteria.where("instanceVersion").is(version).and("_id").nin(kept))), WorkflowTaskEntry.class);
+
+        if (!entries.isEmpty()) {
+            Query current = new Query(Criteria.where("_id").is(instance.getId()));
+            current.fields().include("version");
+            WorkflowInstance stored = mongoTemplate.findOne(current, WorkflowInstance.class);
+            if (stored == null || (stored.getVersion() != null && stored.getVersion() > version)) {
+                mongoTemplate.remove(new Query(Criteria.where("instanceId").is(instance.getId())
+                        .and("instanceVersion").is(version)), WorkflowTaskEntry.class);
+            }
+        }
+    }
+
+    /**
+     * Same as {@link #refresh} for many instances at once: one insert, one stale-row removal and
+     * one version read for the whole batch instead of three round trips per instance.
+     */
+    public void refreshAll(Map<WorkflowInstance, CompiledWorkflow> definitionsByInstance) {
+        if (definitionsByInstance.isEmpty()) {
+            return;
+        }
+        List<WorkflowTaskEntry> entries = new ArrayList<>();
+        List<Criteria> stale = new ArrayList<>();
+        Map<String, Long> refreshed = new HashMap<>();
+        for (Map.Entry<WorkflowInstance, CompiledWorkflow> item : definitionsByInstance.entrySet()) {
+            WorkflowInstance instance = item.getKey();
+            long version = instance.getVersion() != null ? instance.getVersion() : 0L;
+            List<WorkflowTaskEntry> rows = buildEntries(instance, item.getValue(), version);
+            entries.addAll(rows);
+            stale.add(Criteria.where("instanceId").is(instance.getId()).and("instanceVersion").lt(version));
+            if (!rows.isEmpty()) {
+                refreshed.put(instance.getId(), version);
+            }
+        }
+        if (!entries.isEmpty()) {
+            insert(entries);
+        }
+        mongoTemplate.remove(new Query(new Criteria().orOperator(stale)), WorkflowTaskEntry.class);
+
+        if (!refreshed.isEmpty()) {
+            Query current = new Query(Criteria.where("_id").in(refreshed.keySet()));
+            current.fields().include("version");
+            Map<String, Long> stored = new HashMap<>();
+            for (WorkflowInstance instance : mongoTemplate.find(current, WorkflowInstance.class)) {
+                stored.put(instance.getId(), instance.getVersion() != null ? instance.getVersion() : 0L);
+            }
+            List<Criteria> lost = new ArrayList<>();
+            for (Map.Entry<String, Long> row : refreshed.entrySet()) {
+                Long storedVersion = stored.get(row.getKey());
+                if (storedVersion == null || storedVersion > row.getValue()) {
+                    lost.add(Criteria.where("instanceId").is(row.getKey()).and("instanceVersion").is(row.getValue()));
+                }
+            }
+            if (!lost.isEmpty()) {
+                mongoTemplate.remove(new Query(new Criteria().orOperator(lost)), WorkflowTaskEntry.class);
+            }
+        }
+    }
+
+    /**
+     * Returns the caller's tasks ordered by how long they have been waiting.
+     * {@code cursor} is the {@code nextCursor} of the previous page.
+     */
+    public TaskListResponse findTasks(String domainId, String appId, String userId, Set<String> roles,
+            String cursor, int limit) {
+        ensureBuilt(domainId, appId);
+
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        int batch = (size + 1) * 2;
+        List<String> assignees = new ArrayList<>();
+        assignees.add(ANYONE);
+        if (userId != null) {
+            assignees.add("user:" + userId);
+        }
+        for (String role : roles) {
+            assignees.add("role:" + role);
+        }
+
+        Map<String, TaskResponse> tasks = new LinkedHashMap<>();
+        Map<String, Map<String, Map<String, Object>>> edgesByTask = new HashMap<>();
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        while (tasks.size() <= size) {
+            Criteria criteria = Criteria.where("domainId").is(domainId)
+                    .and("appId").is(appId)
+                    .and("assignee").in(assignees);
+            if (after != null) {
+                criteria = criteria.orOperator(
+                        Criteria.where("waitingSince").gt(after.at()),
+                        Criteria.where("waitingSince").is(after.at()).and("instanceId").gt(after.id()));
+            }
+            Query query = new Query(criteria)
+                    .with(Sort.by(Sort.Direction.ASC, "waitingSince", "instanceId"))
+                    .limit(batch);
+            List<WorkflowTaskEntry> entries = mongoTemplate.find(query, WorkflowTaskEntry.class);
+
+            for (WorkflowTaskEntry entry : entries) {
+                TaskResponse task = tasks.get(entry.getInstanceId());
+                if (task == null) {
+                    if (tasks.size() > size) {
+                        break;
+                    }
+                    task = toTask(entry);
+                    tasks.put(entry.getInstanceId(), task);
+                }
+                Map<String, Map<String, Object>> edges = edgesByTask
+                        .computeIfAbsent(entry.getInstanceId(), id -> new LinkedHashMap<>());
+                for (Map<String, Object> edge : entry.getEdges()) {
+                    edges.putIfAbsent(String.valueOf(edge.get("id")), edge);
+                }
+                after = KeysetCursor.of(entry.getWaitingSince(), entry.getInstanceId());
+            }
+            if (entries.size() < batch) {
+                break;
+            }
+        }
+
+        List<TaskResponse> page = new ArrayList<>(tasks.values());
+        String nextCursor = null;
+        if (page.size() > size) {
+            page = new ArrayList<>(page.subList(0, size));
+            TaskResponse last = page.get(size - 1);
+            nextCursor = KeysetCursor.of(last.getWaitingSince(), last.getInstanceId()).encode();
+        }
+        for (TaskResponse task : page) {
+            task.setAvailableEdges(new ArrayList<>(edgesByTask.get(task.getInstanceId()).values()));
+        }
+
+        TaskListResponse response = new TaskListResponse();
+        response.setTasks(page);
+        response.setNextCursor(nextCursor);
+        return response;
+    }
+
+    /** Drops the inbox of an app, e.g. when the application is deleted. */
+    public void deleteApp(String domainId, String appId) {
+        mongoTemplate.remove(new Query(Criteria.where("domainId").is(domainId).and("appId").is(appId)),
+                WorkflowTaskEntry.class);
+        mongoTemplate.remove(new Query(Criteria.where("_id").is(stateId(domainId, appId))),
+                WorkflowTaskInboxState.class);
+        builtApps.remove(stateId(domainId, appId));
+        buildLocks.remove(stateId(domainId, appId));
+    }
+
+    /** Backfills the inbox from ACTIVE instances the first time an app's inbox is queried. */
+    private void ensureBuilt(String domainId, String appId) {
+        String stateId = stateId(domainId, appId);
+        if (builtApps.contains(stateId)) {
+            return;
+        }
+        synchronized (buildLocks.computeIfAbsent(stateId, id -> new Object())) {
+            if (builtApps.contains(stateId)) {
+                return;
+            }
+            if (mongoTemplate.findById(stateId, WorkflowTaskInboxState.class) == null) {
+                rebuild(domainId, appId);
+                WorkflowTaskInboxState state = new WorkflowTaskInboxState();
+                state.setId(stateId);
+                state.setDomainId(domainId);
+                state.setAppId(appId);
+                state.setBuiltAt(Instant.now());
+                mongoTemplate.save(state);
+            }
+            builtApps.add(stateId);
+        }
+    }
+
+    /**
+     * Writes rows for every ACTIVE instance of the app through {@link #refreshAll}, so a row
+     * built from an instance read before a transition committed never replaces the newer rows
+     * that transition wrote, and removes itself once the newer version is seen.
+     */
+    private void rebuild(String domainId, String appId) {
+        Query query = new Query(Criteria.where("domainId").is(domainId)
+                .and("appId").is(appId)
+                .and("status").is(InstanceStatus.ACTIVE));
+        query.fields().exclude("history", "stepRecords");
+        int count = 0;
+        Map<WorkflowInstance, CompiledWorkflow> batch = new LinkedHashMap<>();
+        try (var instances = mongoTemplate.stream(query, WorkflowInstance.class)) {
+            for (WorkflowInstance instance : (Iterable<WorkflowInstance>) instances::iterator) {
+                CompiledWorkflow definition = definitionCache.getOrNull(
+                        instance.getWorkflowDefinitionId(), instance.getWorkflowVersion());
+                if (definition == null) {
+                    continue;
+                }
+                batch.put(instance, definition);
+                count++;
+                if (batch.size() >= REBUILD_BATCH) {
+                    refreshAll(batch);
+                    batch.clear();
+                }
+            }
+        }
+        refreshAll(batch);
+        log.info("Backfilled task inbox for app {} from {} active instances", appId, count);
+    }
+
+    /** Inserts rows in one unordered bulk write, skipping those an earlier refresh already wrote. */
+    private void insert(List<WorkflowTaskEntry> entries) {
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, WorkflowTaskEntry.class)
+                    .insert(entries)
+                    .execute();
+        } catch (BulkOperationException ex) {
+            if (!ex.getErrors().stream().allMatch(error -> error.getCode() == 11000)) {
+                throw ex;
+            }
+        }
+    }
+
+    /** Assignee keys the instance's current state puts in inboxes; empty once it is no longer ACTIVE. */
+    public Set<String> assignees(WorkflowInstance instance, CompiledWorkflow definition) {
+        return edgesByAssignee(instance, definition).keySet();
+    }
+
+    private Map<String, List<Map<String, Object>>> edgesByAssignee(WorkflowInstance instance,
+            CompiledWorkflow definition) {
+        if (instance.getStatus() != InstanceStatus.ACTIVE) {
+            return Map.of();
+        }
+        WorkflowStep step = definition.findStepById(instance.getCurrentStepId());
+        if (step == null) {
+            return Map.of();
+        }
+
+        // Same rules as hasEdgePermission: any role, listed user or (for onlySubmitter) the submitter
+        Map<String, List<Map<String, Object>>> edgesByAssignee = new LinkedHashMap<>();
+        for (WorkflowEdge edge : definition.candidateEdges(step.getId())) {
+            if (!definition.conditionsPass(edge, instance.getPrimaryRecord())) {
+                continue;
+            }
+            Map<String, Object> edgeMap = new HashMap<>();
+            edgeMap.put("id", edge.getId());
+            edgeMap.put("name", edge.getName());
+
+            List<String> assignees = new ArrayList<>();
+            for (String role : edge.getAllowedRoles()) {
+                if (role != null) assignees.add("role:" + role.toLowerCase(Locale.ROOT));
+            }
+            for (String allowedUserId : edge.getAllowedUserIds()) {
+                if (allowedUserId != null) assignees.add("user:" + allowedUserId);
+            }
+            if (edge.isOnlySubmitter() && instance.getStartedBy() != null) {
+                assignees.add("user:" + instance.getStartedBy());
+            }
+            if (edge.getAllowedRoles().isEmpty() && edge.getAllowedUserIds().isEmpty() && !edge.isOnlySubmitter()) {
+                assignees.add(ANYONE);
+            }
+            for (String assignee : assignees) {
+                List<Map<String, Object>> edges = edgesByAssignee.computeIfAbsent(assignee, a -> new ArrayList<>());
+                if (!edges.contains(edgeMap)) edges.add(edgeMap);
+            }
+        }
+        return edgesByAssignee;
+    }
+
+    private List<WorkflowTaskEntry> buildEntries(WorkflowInstance instance, CompiledWorkflow definition, long version) {
+        Map<String, List<Map<String, Object>>> edgesByAssignee = edgesByAssignee(instance, definition);
+        if (edgesByAssignee.isEmpty()) {
+            return List.of();
+        }
+        WorkflowStep step = definition.findStepById(instance.getCurrentStepId());
+
+        Instant waitingSince = lastPerformedAt(instance);
+        Map<String, Object> summary = extractSummaryFromRecord(instance);
+        List<WorkflowTaskEntry> entries = new ArrayList<>();
+        for (Map.Entry<String, List<Map<String, Object>>> assignee : edgesByAssignee.entrySet()) {
+            WorkflowTaskEntry entry = new WorkflowTaskEntry();
+            entry.setId(instance.getId() + ":" + version + ":" + assignee.getKey());
+            entry.setInstanceId(instance.getId());
+            entry.setInstanceVersion(version);
+            entry.setDomainId(instance.getDomainId());
+            entry.setAppId(instance.getAppId());
+            entry.setAssignee(assignee.getKey());
+            entry.setWorkflowDefinitionId(instance.getWorkflowDefinitionId());
+            entry.setWorkflowName(definition.getName());
+            entry.setStepId(step.getId());
+            entry.setStepName(step.getName());
+            entry.setStartedBy(instance.getStartedBy());
+            entry.setStartedAt(instance.getStartedAt());
+            entry.setWaitingSince(waitingSince);
+            entry.setEdges(assignee.getValue());
+            entry.setSummary(summary);
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    private TaskResponse toTask(WorkflowTaskEntry entry) {
+        TaskResponse task = new TaskResponse();
+        task.setInstanceId(entry.getInstanceId());
+        task.setWorkflowDefinitionId(entry.getWorkflowDefinitionId());
+        task.setWorkflowName(entry.getWorkflowName());
+        task.setCurrentStepId(entry.getStepId());
+        task.setCurrentStepName(entry.getStepName());
+        task.setStartedAt(entry.getStartedAt());
+        task.setWaitingSince(entry.getWaitingSince());
+
+        Map<String, Object> startedBy = new HashMap<>();
+        startedBy.put("id", entry.getStartedBy());
+        startedBy.put("name", entry.getStartedBy());
+        task.setStartedBy(startedBy);
+        task.setSummary(entry.getSummary());
+        return task;
+    }
+
+    private Map<String, Object> extractSummaryFromRecord(WorkflowInstance instance) {
+        Map<String, Object> record = instance.getPrimaryRecord();
+        if (record == null || record.isEmpty()) {
+            return new HashMap<>();
+        }
+        Map<String, Object> summary = new HashMap<>();
+        int count = 0;
+        for (Map.Entry<String, Object> entry : record.entrySet()) {
+            if (!entry.getKey().startsWith("_")) {
+                summary.put(entry.getKey(), entry.getValue());
+                if (++count >= 6) break;
+            }
+        }
+        return summary;
+    }
+
+    private Instant lastPerformedAt(WorkflowInstance instance) {
+        List<InstanceHistory> recent = historyService.recent(instance);
+        Instant performedAt = recent.isEmpty() ? null : recent.get(recent.size() - 1).getPerformedAt();
+        if (performedAt == null) {
+            performedAt = instance.getStartedAt();
+        }
+        return performedAt != null ? performedAt : Instant.EPOCH;
+    }
+
+    private static String stateId(String domainId, String appId) {
+        return domainId + ":" + appId;
+    }
+}
@@ -11,7 +11,7 @@ public class WorkflowTaskService {
     @Autowired
     private WorkflowEngineService workflowEngineService;
 
-    public TaskListResponse getMyTasks(String userId, String domainId, String appId) {
-        return workflowEngineService.getMyTasks(userId, domainId, appId);
+    public TaskListResponse getMyTasks(String userId, String domainId, String appId, String cursor, int limit) {
+        return workflowEngineService.getMyTasks(userId, domainId, appId, cursor, limit);
     }
 }
@@ -0,0 +1,142 @@
+package com.adaptivebp.modules.workflow.service;
+
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.adaptivebp.modules.workflow.exception.WorkflowConflictException;
+import com.adaptivebp.modules.workflow.model.WorkflowTimer;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Fires due SLA timers. Each poll claims up to batch-size timers through the dueAt index; a
+ * claim pushes dueAt forward by the lease, so any number of nodes can poll without firing a
+ * timer twice, and a timer whose node died becomes due again. Timed edges run through the
+ * engine's normal transition path as the system user.
+ */
+@Component
+public class WorkflowTimerScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkflowTimerScheduler.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private WorkflowEngineService engineService;
+
+    @Value("${workflow.timers.enabled:true}")
+    private boolean enabled;
+
+    @Value("${workflow.timers.poll-ms:5000}")
+    private long pollMillis;
+
+    @Value("${workflow.timers.batch-size:50}")
+    private int batchSize;
+
+    @Value("${workflow.timers.lease-ms:60000}")
+    private long leaseMillis;
+
+    @Value("${workflow.timers.max-attempts:5}")
+    private int maxAttempts;
+
+    private ScheduledExecutorService scheduler;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "workflow-timer-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::pollQuietly, pollMillis, pollMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private void pollQuietly() {
+        try {
+            poll();
+        } catch (RuntimeException ex) {
+            log.warn("Polling workflow timers failed", ex);
+        }
+    }
+
+    /** Fires up to batch-size due timers. Returns how many were claimed. */
+    int poll() {
+        int claimed = 0;
+        WorkflowTimer timer;
+        while (claimed < batchSize && (timer = claim()) != null) {
+            claimed++;
+            fire(timer);
+        }
+        return claimed;
+    }
+
+    WorkflowTimer claim() {
+        Instant now = Instant.now();
+        Query query = new Query(Criteria.where("dueAt").lte(now)).with(Sort.by(Sort.Direction.ASC, "dueAt"));
+        Update update = new Update()
+                .set("dueAt", now.plusMillis(leaseMillis))
+                .inc("attempts", 1);
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true),
+                WorkflowTimer.class);
+    }
+
+    /**
+     * Runs the timed edge. The timer is removed once it fired, turned out stale or was rejected
+     * by the edge's rules; other failures leave it to become due again when the lease runs out.
+     */
+    void fire(WorkflowTimer timer) {
+        try {
+            if (engineService.executeTimedEdge(timer.getInstanceId(), timer.getInstanceVersion(), timer.getEdgeId())) {
+                log.info("SLA timer {} fired edge '{}' on instance {}", timer.getId(), timer.getEdgeId(),
+                        timer.getInstanceId());
+            }
+            remove(timer);
+        } catch (WorkflowConflictException ex) {
+            // The instance moved on while the edge was being applied
+            remove(timer);
+        } catch (RuntimeException ex) {
+            if (WorkflowEngineService.errorCode(ex) != null) {
+                log.warn("SLA timer {} could not fire edge '{}' on instance {}: {}", timer.getId(),
+                        timer.getEdgeId(), timer.getInstanceId(), ex.getMessage());
+                remove(timer);
+            } else if (timer.getAttempts() >= maxAttempts) {
+                log.error("SLA timer {} dropped after {} attempts", timer.getId(), timer.getAttempts(), ex);
+                remove(timer);
+            } else {
+                log.debug("SLA timer {} attempt {} failed, retrying after the lease", timer.getId(),
+                        timer.getAttempts(), ex);
+            }
+        }
+    }
+
+    private void remove(WorkflowTimer timer) {
+        mongoTemplate.remove(new Query(Criteria.where("_id").is(timer.getId())), WorkflowTimer.class);
+    }
+}
@@ -0,0 +1,91 @@
+package com.adaptivebp.modules.workflow.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import com.adaptivebp.modules.workflow.model.WorkflowEdge;
+import com.adaptivebp.modules.workflow.model.WorkflowInstance;
+import com.adaptivebp.modules.workflow.model.WorkflowTimer;
+import com.adaptivebp.modules.workflow.model.enums.InstanceStatus;
+import com.adaptivebp.modules.workflow.runtime.CompiledWorkflow;
+
+/**
+ * Keeps workflow_timers in line with where instances are: one timer per timed edge of the
+ * current step, tagged with the instance version that entered it. Timers are fired by
+ * {@link WorkflowTimerScheduler}.
+ */
+@Service
+public class WorkflowTimerService {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /** Schedules the timers of the instance's current step and cancels those of earlier versions. */
+    public void schedule(WorkflowInstance instance, CompiledWorkflow definition) {
+        scheduleAll(Map.of(instance, definition));
+    }
+
+    /**
+     * Same as {@link #schedule} for many instances: one insertMany and one removal for the batch.
+     * Safe against out-of-order calls: timers of older versions may briefly survive a newer
+     * call, but the scheduler drops them when it sees the version has moved on. Safe to repeat:
+     * timer ids are fixed and due times count from when the instance entered its step, so a
+     * repair long after the transition schedules exactly what the transition would have.
+     */
+    public void scheduleAll(Map<WorkflowInstance, CompiledWorkflow> definitionsByInstance) {
+        Instant now = Instant.now();
+        List<WorkflowTimer> timers = new ArrayList<>();
+        List<Criteria> stale = new ArrayList<>();
+        for (Map.Entry<WorkflowInstance, CompiledWorkflow> item : definitionsByInstance.entrySet()) {
+            WorkflowInstance instance = item.getKey();
+            if (!item.getValue().hasTimedEdges()) {
+                continue;
+            }
+            long version = instance.getVersion() != null ? instance.getVersion() : 0L;
+            stale.add(Criteria.where("instanceId").is(instance.getId()).and("instanceVersion").lt(version));
+            if (instance.getStatus() != InstanceStatus.ACTIVE) {
+                continue;
+            }
+            Instant enteredAt = instance.getStepEnteredAt() != null ? instance.getStepEnteredAt() : now;
+            for (WorkflowEdge edge : item.getValue().timedEdges(instance.getCurrentStepId())) {
+                WorkflowTimer timer = new WorkflowTimer();
+                timer.setId(instance.getId() + ":" + version + ":" + edge.getId());
+                timer.setInstanceId(instance.getId());
+                timer.setInstanceVersion(version);
+                timer.setDomainId(instance.getDomainId());
+                timer.setAppId(instance.getAppId());
+                timer.setStepId(instance.getCurrentStepId());
+                timer.setEdgeId(edge.getId());
+                timer.setDueAt(enteredAt.plus(Duration.ofMinutes(edge.getTimeoutMinutes())));
+                timer.setCreatedAt(now);
+                timers.add(timer);
+            }
+        }
+
+        if (!timers.isEmpty()) {
+            try {
+                mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, WorkflowTimer.class)
+                        .insert(timers)
+                        .execute();
+            } catch (BulkOperationException ex) {
+                if (!ex.getErrors().stream().allMatch(error -> error.getCode() == 11000)) {
+                    throw ex;
+                }
+            }
+        }
+        if (!stale.isEmpty()) {
+            mongoTemplate.remove(new Query(new Criteria().orOperator(stale)), WorkflowTimer.class);
+        }
+    }
+}
@@ -14,6 +14,7 @@ import org.springframework.stereotype.Service;
 import com.adaptivebp.modules.formbuilder.model.DomainModelField;
 import com.adaptivebp.modules.workflow.dto.response.ValidationResult;
 import com.adaptivebp.modules.workflow.model.AutoFetchRule;
+import com.adaptivebp.modules.workflow.model.EdgeCondition;
 import com.adaptivebp.modules.workflow.model.WorkflowDefinition;
 import com.adaptivebp.modules.workflow.model.WorkflowEdge;
 import com.adaptivebp.modules.workflow.model.WorkflowStep;
@@ -74,6 +75,13 @@ public class WorkflowValidationService {
                     errors.add("Edge '" + edge.getId() + "' in step '" + step.getId()
                             + "' must define allowedRoles, allowedUserIds, or onlySubmitter=true");
                 }
+
+                if (edge.getTimeoutMinutes() != null && edge.getTimeoutMinutes() <= 0) {
+                    errors.add("Edge '" + edge.getId() + "' in step '" + step.getId()
+                            + "' must have a positive timeoutMinutes");
+                }
+
+                validateConditions(edge.getId(), edge.getConditions(), errors);
             }
         }
 
@@ -154,6 +162,10 @@ public class WorkflowValidationService {
             if (isNoPermission(globalEdge)) {
                 errors.add("Global edge '" + globalEdge.getId() + "' must define allowedRoles, allowedUserIds, or onlySubmitter=true");
             }
+            if (globalEdge.getTimeoutMinutes() != null && globalEdge.getTimeoutMinutes() <= 0) {
+                errors.add("Global edge '" + globalEdge.getId() + "' must have a positive timeoutMinutes");
+            }
+            validateConditions(globalEdge.getId(), globalEdge.getConditions(), errors);
         }
 
         return errors.isEmpty() ? ValidationResult.ok() : ValidationResult.fail(errors);
@@ -187,6 +199,24 @@ public class WorkflowValidationService {
         return visited;
     }
 
+    private void validateConditions(String edgeId, List<EdgeCondition> conditions, List<String> errors) {
+        if (conditions == null) {
+            return;
+        }
+        for (EdgeCondition condition : conditions) {
+            if (condition == null) {
+                continue;
+            }
+            if (condition.getConditions() != null && !condition.getConditions().isEmpty()) {
+                validateConditions(edgeId, condition.getConditions(), errors);
+                continue;
+            }
+            if (isBlank(condition.getField()) || condition.getOperator() == null) {
+                errors.add("Edge '" + edgeId + "' has a condition without a field or operator");
+            }
+        }
+    }
+
     private Set<String> fieldKeysFor(WorkflowStep step) {
         List<DomainModelField> fields = step.getFields() != null ? step.getFields() : List.of();
         Set<String> fieldKeys = new HashSet<>();
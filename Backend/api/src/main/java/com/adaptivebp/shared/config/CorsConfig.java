@@ -26,6 +26,7 @@ public class CorsConfig {
                         .allowedOriginPatterns("*")
                         .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH")
                         .allowedHeaders("*")
+                        .exposedHeaders("ETag", "X-Mongo-Commands", "X-Mongo-Documents", "X-Mongo-Bytes", "X-Mongo-Millis")
                         .allowCredentials(true)
                         .maxAge(3600);
             }
@@ -38,6 +39,7 @@ public class CorsConfig {
         configuration.setAllowedOriginPatterns(Arrays.asList("*"));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH"));
         configuration.addAllowedHeader("*");
+        configuration.setExposedHeaders(Arrays.asList("ETag", "X-Mongo-Commands", "X-Mongo-Documents", "X-Mongo-Bytes", "X-Mongo-Millis"));
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(3600L);
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
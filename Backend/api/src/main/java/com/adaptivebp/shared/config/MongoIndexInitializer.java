@@ -0,0 +1,72 @@
+package com.adaptivebp.shared.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the indexes declared with {@code @Indexed} and {@code @CompoundIndex} on every mapped
+ * document. Spring Boot leaves auto-index-creation off, and several writes depend on these
+ * indexes: unique ones turn racing inserts into duplicate-key errors that callers retry or
+ * skip, and the timer and outbox polls would otherwise scan and sort whole collections.
+ *
+ * <p>Runs before the background schedulers start. An index that cannot be built, e.g. a unique
+ * index over existing duplicates, is logged and the rest are still created.
+ */
+@Component
+public class MongoIndexInitializer {
+
+    private static final Logger log = LoggerFactory.getLogger(MongoIndexInitializer.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MongoMappingContext mappingContext;
+
+    @Value("${mongo.indexes.ensure-on-startup:true}")
+    private boolean enabled;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void start() {
+        if (enabled) {
+            ensureIndexes();
+        }
+    }
+
+    /** Returns how many indexes could not be created. */
+    int ensureIndexes() {
+        IndexResolver resolver = IndexResolver.create(mappingContext);
+        int failed = 0;
+        for (MongoPersistentEntity<?> entity : mappingContext.getPersistentEntities()) {
+            if (!entity.isAnnotationPresent(Document.class)) {
+                continue;
+            }
+            IndexOperations indexOps = mongoTemplate.indexOps(entity.getType());
+            for (IndexDefinition index : resolver.resolveIndexFor(entity.getTypeInformation())) {
+                try {
+                    indexOps.ensureIndex(index);
+                } catch (RuntimeException ex) {
+                    failed++;
+                    log.error("Could not create index {} on {}", index.getIndexOptions().get("name"),
+                            entity.getCollection(), ex);
+                }
+            }
+        }
+        return failed;
+    }
+}
@@ -63,6 +63,8 @@ public class WebSecurityConfig {
 						.requestMatchers("/custom_form/model/**").hasAnyAuthority("APP_ADMIN", "DOMAIN_ADMIN", "BUSINESS_OWNER")
 						.requestMatchers("/custom_form/data/**").hasAnyAuthority("APP_ADMIN", "DOMAIN_ADMIN", "BUSINESS_OWNER", "BUSINESS_USER")
 						.requestMatchers("/custom_form/**").authenticated()
+						.requestMatchers("/actuator/health").permitAll()
+						.requestMatchers("/actuator/**").hasAnyAuthority("APP_ADMIN", "DOMAIN_ADMIN", "BUSINESS_OWNER")
 						.anyRequest().denyAll())
 				.formLogin(form -> form.disable())
 				.httpBasic(basic -> basic.disable());
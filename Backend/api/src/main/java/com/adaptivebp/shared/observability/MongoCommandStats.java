@@ -0,0 +1,59 @@
+package com.adaptivebp.shared.observability;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Mongo commands issued within one scope, usually an HTTP request, with the number of
+ * commands per source (repository method or calling class) so an N+1 shows up as one
+ * source with a large count.
+ */
+public class MongoCommandStats {
+
+    private long commands;
+    private long documents;
+    private long bytes;
+    private long millis;
+    private final Map<String, Long> commandsBySource = new LinkedHashMap<>();
+
+    synchronized void record(String source, long documents, long bytes, long millis) {
+        this.commands++;
+        this.documents += documents;
+        this.bytes += bytes;
+        this.millis += millis;
+        commandsBySource.merge(source, 1L, Long::sum);
+    }
+
+    public synchronized long getCommands() {
+        return commands;
+    }
+
+    /** Documents returned by reads plus documents reported as affected by writes. */
+    public synchronized long getDocuments() {
+        return documents;
+    }
+
+    /** Size of the server replies. */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    public synchronized long getMillis() {
+        return millis;
+    }
+
+    public synchronized Map<String, Long> getCommandsBySource() {
+        return new LinkedHashMap<>(commandsBySource);
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringJoiner sources = new StringJoiner(", ", "[", "]");
+        commandsBySource.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .forEach(entry -> sources.add(entry.getKey() + " x" + entry.getValue()));
+        return commands + " commands, " + documents + " documents, " + bytes + " bytes, " + millis + " ms "
+                + sources;
+    }
+}
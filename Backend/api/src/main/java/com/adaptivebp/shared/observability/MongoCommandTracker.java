@@ -0,0 +1,274 @@
+package com.adaptivebp.shared.observability;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.RawBsonDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Driver-level listener that attributes every Mongo command to a source and to the scope
+ * open on the calling thread (see {@link MongoRequestStatsFilter}). The source is the
+ * repository method when the command came through a Spring Data repository, otherwise the
+ * first application frame on the stack, e.g. {@code WorkflowTaskInboxService.findTasks}.
+ *
+ * <p>Commands are also counted in {@code mongodb.commands}, {@code mongodb.command.documents}
+ * and {@code mongodb.command.reply.bytes}, and commands slower than
+ * {@code mongo.instrumentation.slow-command-ms} are logged with the shape of their filter,
+ * values replaced by {@code ?}.
+ */
+@Component
+public class MongoCommandTracker implements CommandListener {
+
+    private static final Logger log = LoggerFactory.getLogger(MongoCommandTracker.class);
+
+    /** Connection handshake, auth and session bookkeeping, not issued by application code. */
+    private static final Set<String> IGNORED_COMMANDS = Set.of(
+            "hello", "isMaster", "ismaster", "ping", "buildInfo", "saslStart", "saslContinue", "endSessions");
+    private static final String APPLICATION_PACKAGE = "com.adaptivebp.";
+    private static final Pattern LAMBDA = Pattern.compile("lambda\\$(.+?)\\$\\d+");
+
+    private record Pending(MongoCommandStats scope, String source, String command, String collection,
+            String shape, boolean awaiting) {
+    }
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    @Value("${mongo.instrumentation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${mongo.instrumentation.slow-command-ms:100}")
+    private long slowCommandMillis;
+
+    private final ThreadLocal<MongoCommandStats> currentScope = new ThreadLocal<>();
+    private final ThreadLocal<String> currentSource = new ThreadLocal<>();
+    private final Map<Integer, Pending> pending = new ConcurrentHashMap<>();
+
+    /** Opens a scope on the calling thread; commands it issues until the scope is closed count towards it. */
+    public Scope open() {
+        Scope scope = new Scope(new MongoCommandStats(), currentScope.get());
+        currentScope.set(scope.stats);
+        return scope;
+    }
+
+    /** The innermost scope open on the calling thread, or null. */
+    public MongoCommandStats current() {
+        return currentScope.get();
+    }
+
+    /** Names the source of the commands issued until {@link #exitSource} is called; returns the previous one. */
+    String enterSource(String source) {
+        String previous = currentSource.get();
+        currentSource.set(source);
+        return previous;
+    }
+
+    void exitSource(String previous) {
+        if (previous == null) {
+            currentSource.remove();
+        } else {
+            currentSource.set(previous);
+        }
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        if (!enabled || IGNORED_COMMANDS.contains(event.getCommandName())) {
+            return;
+        }
+        BsonDocument command = event.getCommand();
+        String name = event.getCommandName();
+        boolean awaiting = name.equals("getMore") && command.containsKey("maxTimeMS");
+        String shape = slowCommandMillis >= 0 ? shape(filterOf(name, command)) : null;
+        pending.put(event.getRequestId(),
+                new Pending(currentScope.get(), source(), name, collectionOf(name, command), shape, awaiting));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        Pending command = pending.remove(event.getRequestId());
+        if (command == null) {
+            return;
+        }
+        BsonDocument response = event.getResponse();
+        long documents = documentsOf(response);
+        long bytes = response instanceof RawBsonDocument raw ? raw.getByteBuffer().remaining() : 0;
+        long millis = event.getElapsedTime(TimeUnit.MILLISECONDS);
+        record(command, "success", documents, bytes, millis);
+        if (isSlow(command, millis)) {
+            log.warn("Slow Mongo command: {} {} {} took {} ms ({} documents) from {}",
+                    command.command(), command.collection(), command.shape(), millis, documents, command.source());
+        }
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        Pending command = pending.remove(event.getRequestId());
+        if (command == null) {
+            return;
+        }
+        long millis = event.getElapsedTime(TimeUnit.MILLISECONDS);
+        record(command, "failure", 0, 0, millis);
+        if (isSlow(command, millis)) {
+            log.warn("Slow Mongo command failed: {} {} {} after {} ms from {}: {}", command.command(),
+                    command.collection(), command.shape(), millis, command.source(),
+                    event.getThrowable().getMessage());
+        }
+    }
+
+    private void record(Pending command, String outcome, long documents, long bytes, long millis) {
+        if (command.scope() != null) {
+            command.scope().record(command.source(), documents, bytes, millis);
+        }
+        if (meterRegistry == null) {
+            return;
+        }
+        String[] tags = { "command", command.command(), "collection", command.collection(),
+                "source", command.source(), "outcome", outcome };
+        meterRegistry.counter("mongodb.commands", tags).increment();
+        meterRegistry.summary("mongodb.command.documents", tags).record(documents);
+        meterRegistry.summary("mongodb.command.reply.bytes", tags).record(bytes);
+    }
+
+    private boolean isSlow(Pending command, long millis) {
+        // Tailing cursors wait on the server by design
+        return slowCommandMillis >= 0 && millis >= slowCommandMillis && !command.awaiting();
+    }
+
+    private String source() {
+        String source = currentSource.get();
+        if (source != null) {
+            return source;
+        }
+        return StackWalker.getInstance().walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith(APPLICATION_PACKAGE)
+                        && !frame.getClassName().equals(MongoCommandTracker.class.getName()))
+                .findFirst()
+                .map(frame -> simpleName(frame.getClassName()) + "." + methodName(frame.getMethodName()))
+                .orElse("unknown"));
+    }
+
+    private static String simpleName(String className) {
+        String name = className.substring(className.lastIndexOf('.') + 1);
+        int nested = name.indexOf('$');
+        return nested > 0 ? name.substring(0, nested) : name;
+    }
+
+    private static String methodName(String methodName) {
+        Matcher lambda = LAMBDA.matcher(methodName);
+        return lambda.matches() ? lambda.group(1) : methodName;
+    }
+
+    private static String collectionOf(String name, BsonDocument command) {
+        BsonValue target = command.get(name.equals("getMore") ? "collection" : name);
+        return target != null && target.isString() ? target.asString().getValue() : "none";
+    }
+
+    private static BsonValue filterOf(String name, BsonDocument command) {
+        return switch (name) {
+            case "find" -> command.get("filter");
+            case "count", "distinct", "findAndModify" -> command.get("query");
+            case "aggregate" -> command.get("pipeline");
+            case "update" -> firstStatement(command, "updates");
+            case "delete" -> firstStatement(command, "deletes");
+            default -> null;
+        };
+    }
+
+    private static BsonValue firstStatement(BsonDocument command, String key) {
+        BsonValue statements = command.get(key);
+        if (statements == null || !statements.isArray() || statements.asArray().isEmpty()) {
+            return null;
+        }
+        BsonValue first = statements.asArray().get(0);
+        return first.isDocument() ? first.asDocument().get("q") : null;
+    }
+
+    /** Documents in the returned batch, or the count the server reports for counts and writes. */
+    private static long documentsOf(BsonDocument response) {
+        BsonValue cursor = response.get("cursor");
+        if (cursor != null && cursor.isDocument()) {
+            BsonValue batch = cursor.asDocument().containsKey("firstBatch")
+                    ? cursor.asDocument().get("firstBatch")
+                    : cursor.asDocument().get("nextBatch");
+            return batch != null && batch.isArray() ? batch.asArray().size() : 0;
+        }
+        if (response.containsKey("value")) {
+            return response.get("value").isNull() ? 0 : 1;
+        }
+        BsonValue n = response.get("n");
+        return n != null && n.isNumber() ? n.asNumber().longValue() : 0;
+    }
+
+    /**
+     * The filter with every value replaced by {@code ?}, keeping field names, operators and the
+     * structure of {@code $and}/{@code $or} groups and pipelines.
+     */
+    static String shape(BsonValue value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.isDocument()) {
+            StringJoiner fields = new StringJoiner(", ", "{", "}");
+            for (Map.Entry<String, BsonValue> entry : value.asDocument().entrySet()) {
+                fields.add(entry.getKey() + ": " + shape(entry.getValue()));
+            }
+            return fields.toString();
+        }
+        if (value.isArray()) {
+            BsonArray array = value.asArray();
+            if (array.isEmpty() || !array.stream().allMatch(BsonValue::isDocument)) {
+                return "?";
+            }
+            StringJoiner elements = new StringJoiner(", ", "[", "]");
+            array.forEach(element -> elements.add(shape(element)));
+            return elements.toString();
+        }
+        return "?";
+    }
+
+    /** A scope opened by {@link #open}; closing it restores the enclosing scope. */
+    public final class Scope implements AutoCloseable {
+
+        private final MongoCommandStats stats;
+        private final MongoCommandStats enclosing;
+
+        private Scope(MongoCommandStats stats, MongoCommandStats enclosing) {
+            this.stats = stats;
+            this.enclosing = enclosing;
+        }
+
+        public MongoCommandStats stats() {
+            return stats;
+        }
+
+        @Override
+        public void close() {
+            if (enclosing == null) {
+                currentScope.remove();
+            } else {
+                currentScope.set(enclosing);
+            }
+        }
+    }
+}
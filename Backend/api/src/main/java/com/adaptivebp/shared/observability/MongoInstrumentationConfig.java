@@ -0,0 +1,33 @@
+package com.adaptivebp.shared.observability;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+@Configuration
+public class MongoInstrumentationConfig {
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoCommandTracking(MongoCommandTracker tracker) {
+        return builder -> builder.addCommandListener(tracker);
+    }
+
+    /** Wraps every repository so the tracker can attribute commands to the repository method. */
+    @Bean
+    public static BeanPostProcessor repositoryMethodTracking(ObjectProvider<MongoCommandTracker> tracker) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, information) -> proxyFactory.addAdvice(new RepositoryMethodInterceptor(
+                                    tracker.getObject(), information.getRepositoryInterface()))));
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,61 @@
+package com.adaptivebp.shared.observability;
+
+import java.io.IOException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Counts the Mongo commands of each HTTP request into {@code mongodb.request.commands},
+ * tagged by handler pattern, and warns when a request exceeds
+ * {@code mongo.instrumentation.request-warn-commands}, listing the busiest sources.
+ * Runs ahead of security so the authentication lookups are counted too.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class MongoRequestStatsFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(MongoRequestStatsFilter.class);
+
+    @Autowired
+    private MongoCommandTracker tracker;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    @Value("${mongo.instrumentation.request-warn-commands:50}")
+    private int warnCommands;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        MongoCommandStats stats;
+        try (MongoCommandTracker.Scope scope = tracker.open()) {
+            stats = scope.stats();
+            chain.doFilter(request, response);
+        }
+
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        if (meterRegistry != null) {
+            meterRegistry.summary("mongodb.request.commands", "method", request.getMethod(), "uri", uri)
+                    .record(stats.getCommands());
+        }
+        if (warnCommands > 0 && stats.getCommands() > warnCommands) {
+            log.warn("{} {} issued {}", request.getMethod(), uri, stats);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.adaptivebp.shared.observability;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Adds the request's Mongo totals as {@code X-Mongo-*} response headers when
+ * {@code mongo.instrumentation.headers} is on, which is meant for development only.
+ */
+@ControllerAdvice
+public class MongoStatsResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String COMMANDS_HEADER = "X-Mongo-Commands";
+    public static final String DOCUMENTS_HEADER = "X-Mongo-Documents";
+    public static final String BYTES_HEADER = "X-Mongo-Bytes";
+    public static final String MILLIS_HEADER = "X-Mongo-Millis";
+
+    @Autowired
+    private MongoCommandTracker tracker;
+
+    @Value("${mongo.instrumentation.headers:false}")
+    private boolean headersEnabled;
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return headersEnabled;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+            Class<? extends HttpMessageConverter<?>> selectedConverterType, ServerHttpRequest request,
+            ServerHttpResponse response) {
+        MongoCommandStats stats = tracker.current();
+        if (stats != null) {
+            HttpHeaders headers = response.getHeaders();
+            headers.set(COMMANDS_HEADER, String.valueOf(stats.getCommands()));
+            headers.set(DOCUMENTS_HEADER, String.valueOf(stats.getDocuments()));
+            headers.set(BYTES_HEADER, String.valueOf(stats.getBytes()));
+            headers.set(MILLIS_HEADER, String.valueOf(stats.getMillis()));
+        }
+        return body;
+    }
+}
@@ -0,0 +1,26 @@
+package com.adaptivebp.shared.observability;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+/** Names the repository method as the source of the commands it issues. */
+class RepositoryMethodInterceptor implements MethodInterceptor {
+
+    private final MongoCommandTracker tracker;
+    private final String repositoryName;
+
+    RepositoryMethodInterceptor(MongoCommandTracker tracker, Class<?> repositoryInterface) {
+        this.tracker = tracker;
+        this.repositoryName = repositoryInterface.getSimpleName();
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        String previous = tracker.enterSource(repositoryName + "." + invocation.getMethod().getName());
+        try {
+            return invocation.proceed();
+        } finally {
+            tracker.exitSource(previous);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.adaptivebp.shared.security;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.CursorType;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Fans {@link PermissionSnapshotCache} invalidations out to every node. Each invalidation is
+ * written to a small capped collection that all nodes tail; a node ignores its own events.
+ * The collection is created on first use, so nothing touches Mongo during startup.
+ *
+ * <p>Other node-local caches share the collection under a topic of their own: they
+ * {@link #subscribe} an eviction callback and {@link #broadcast} keys to evict.
+ */
+@Component
+public class PermissionInvalidationBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(PermissionInvalidationBroadcaster.class);
+
+    static final String COLLECTION = "permission_invalidations";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private PermissionSnapshotCache cache;
+
+    @Value("${permission.cache.broadcast.enabled:true}")
+    private boolean enabled;
+
+    @Value("${permission.cache.broadcast.retry-ms:5000}")
+    private long retryMillis;
+
+    @Value("${permission.cache.broadcast.max-documents:1000}")
+    private long maxDocuments;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    /** Eviction callbacks by topic; a null key means everything. */
+    private final Map<String, Consumer<String>> topics = new ConcurrentHashMap<>();
+    private volatile boolean running;
+    private volatile boolean collectionReady;
+    private Thread listener;
+
+    public void publish(String scopeId, String userId) {
+        insert(new Document("scopeId", scopeId).append("userId", userId), scopeId);
+    }
+
+    /** Registers the local eviction for events of {@code topic} published by other nodes. */
+    public void subscribe(String topic, Consumer<String> evict) {
+        topics.put(topic, evict);
+    }
+
+    /** Tells the other nodes to evict {@code key} from the cache behind {@code topic}. */
+    public void broadcast(String topic, String key) {
+        insert(new Document("topic", topic).append("key", key), topic + " " + key);
+    }
+
+    private void insert(Document event, String subject) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            collection().insertOne(event.append("node", nodeId).append("at", new Date()));
+        } catch (RuntimeException ex) {
+            log.warn("Could not broadcast cache invalidation for {}; other nodes fall back to the TTL", subject, ex);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        listener = new Thread(this::listen, "permission-invalidation-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+        }
+    }
+
+    private void listen() {
+        while (running) {
+            try {
+                tail();
+            } catch (RuntimeException ex) {
+                if (running) {
+                    log.debug("Permission invalidation tail interrupted, retrying in {} ms", retryMillis, ex);
+                }
+            }
+            // Events may have been missed while the tail was down
+            cache.clear();
+            topics.values().forEach(evict -> evict.accept(null));
+            try {
+                Thread.sleep(retryMillis);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /** Follows the capped collection until the cursor dies. Replaying old events is harmless. */
+    private void tail() {
+        try (MongoCursor<Document> cursor = collection().find()
+                .cursorType(CursorType.TailableAwait)
+                .maxAwaitTime(1, TimeUnit.SECONDS)
+                .iterator()) {
+            while (running) {
+                Document event = cursor.tryNext();
+                if (event == null) {
+                    if (cursor.getServerCursor() == null) {
+                        return;
+                    }
+                    continue;
+                }
+                if (nodeId.equals(event.getString("node"))) {
+                    continue;
+                }
+                String topic = event.getString("topic");
+                String scopeId = event.getString("scopeId");
+                if (topic != null) {
+                    Consumer<String> evict = topics.get(topic);
+                    if (evict != null) {
+                        evict.accept(event.getString("key"));
+                    }
+                } else if (scopeId != null) {
+                    cache.evict(scopeId, event.getString("userId"));
+                }
+            }
+        }
+    }
+
+    private MongoCollection<Document> collection() {
+        if (!collectionReady) {
+            synchronized (this) {
+                if (!collectionReady) {
+                    createIfMissing();
+                    collectionReady = true;
+                }
+            }
+        }
+        return mongoTemplate.getCollection(COLLECTION);
+    }
+
+    private void createIfMissing() {
+        if (mongoTemplate.collectionExists(COLLECTION)) {
+            return;
+        }
+        try {
+            mongoTemplate.createCollection(COLLECTION, CollectionOptions.empty()
+                    .capped().size(maxDocuments * 256).maxDocuments(maxDocuments));
+            // A tailable cursor on an empty capped collection dies immediately
+            mongoTemplate.getCollection(COLLECTION).insertOne(new Document("node", nodeId).append("at", new Date()));
+        } catch (RuntimeException ex) {
+            if (!mongoTemplate.collectionExists(COLLECTION)) {
+                throw ex;
+            }
+            // Another node created it first
+        }
+    }
+}
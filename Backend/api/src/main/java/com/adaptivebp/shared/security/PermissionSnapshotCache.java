@@ -0,0 +1,108 @@
+package com.adaptivebp.shared.security;
+
+import java.time.Clock;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * Short-lived, bounded cache of per-user permission and role snapshots, scoped by domain
+ * or app id. Group and membership edits invalidate the affected scope here and on every
+ * other node through {@link PermissionInvalidationBroadcaster}; the TTL bounds staleness
+ * if a broadcast is missed.
+ *
+ * <p>Cached values are shared between callers and must be immutable.
+ */
+@Component
+public class PermissionSnapshotCache {
+
+    private record Key(String kind, String scopeId, String userId) {
+    }
+
+    private record Entry(Object value, long expiresAt) {
+    }
+
+    @Autowired
+    @Lazy
+    private PermissionInvalidationBroadcaster broadcaster;
+
+    private final Map<Key, Entry> entries;
+    private final long ttlMillis;
+    private Clock clock = Clock.systemUTC();
+    /** Bumped on every invalidation so a load that raced with it is not cached. */
+    private long generation;
+
+    public PermissionSnapshotCache(
+            @Value("${permission.cache.max-entries:10000}") int maxEntries,
+            @Value("${permission.cache.ttl-seconds:60}") long ttlSeconds) {
+        this.ttlMillis = ttlSeconds * 1000;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached snapshot of {@code kind} for the user within the scope, loading
+     * and caching it on a miss or after expiry.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String kind, String scopeId, String userId, Supplier<T> loader) {
+        if (scopeId == null || userId == null || ttlMillis <= 0) {
+            return loader.get();
+        }
+        Key key = new Key(kind, scopeId, userId);
+        long loadedAt;
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAt() > clock.millis()) {
+                return (T) entry.value();
+            }
+            loadedAt = generation;
+        }
+        T value = loader.get();
+        synchronized (entries) {
+            if (generation == loadedAt) {
+                entries.put(key, new Entry(value, clock.millis() + ttlMillis));
+            }
+        }
+        return value;
+    }
+
+    /** Drops every user's snapshots for a domain or app, on this node and the others. */
+    public void invalidate(String scopeId) {
+        invalidate(scopeId, null);
+    }
+
+    /** Drops one user's snapshots for a domain or app ({@code userId} null means all users). */
+    public void invalidate(String scopeId, String userId) {
+        if (scopeId == null) {
+            return;
+        }
+        evict(scopeId, userId);
+        broadcaster.publish(scopeId, userId);
+    }
+
+    /** Local-only eviction, used when applying an invalidation received from another node. */
+    void evict(String scopeId, String userId) {
+        synchronized (entries) {
+            generation++;
+            entries.keySet().removeIf(key -> scopeId.equals(key.scopeId())
+                    && (userId == null || userId.equals(key.userId())));
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            generation++;
+            entries.clear();
+        }
+    }
+}
@@ -7,7 +7,16 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 
 @SpringBootTest(properties = {
-		"spring.data.mongodb.uri=mongodb://localhost:27017/adaptivebp"
+		"spring.data.mongodb.uri=mongodb://localhost:27017/adaptivebp",
+		"mongo.indexes.ensure-on-startup=false",
+		"permission.cache.broadcast.enabled=false",
+		"workflow.actions.enabled=false",
+		"workflow.bulk-start.enabled=false",
+		"workflow.migration.enabled=false",
+		"workflow.timers.enabled=false",
+		"workflow.repair.enabled=false",
+		"workflow.storage.migrate.enabled=false",
+		"workflow.events.bridge-enabled=false"
 })
 class ApiApplicationTests {
 
@@ -16,6 +16,10 @@ import com.adaptivebp.modules.identity.port.DomainUserLookupPort;
 import com.adaptivebp.modules.organisation.port.OrganisationLookupPort;
 import com.adaptivebp.modules.organisation.service.PermissionService;
 import com.adaptivebp.modules.organisation.model.Organisation;
+import com.adaptivebp.shared.observability.MongoCommandStats;
+import com.adaptivebp.shared.observability.MongoCommandTracker;
+import com.adaptivebp.shared.observability.MongoQueryBudget;
+import com.adaptivebp.shared.security.PermissionSnapshotCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -25,6 +29,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.Instant;
 import java.util.*;
@@ -58,6 +63,11 @@ class AppGroupControllerTest {
     @Mock
     private PermissionService permissionService;
 
+    @Mock
+    private PermissionSnapshotCache permissionCache;
+
+
+
     @InjectMocks
     private AppGroupController appGroupController;
 
@@ -121,8 +131,7 @@ class AppGroupControllerTest {
         member.setAssignedAt(Instant.now());
         member.setAssignedBy("admin");
 
-        when(appGroupMemberRepository.findByAppIdAndUserId(appId, testUser.getId()))
-                .thenReturn(Arrays.asList(member));
+        when(appGroupMemberRepository.findByAppId(appId)).thenReturn(Arrays.asList(member));
 
         // Act
         ResponseEntity<?> response = appGroupController.listUsersWithGroups(domainSlug, appSlug);
@@ -135,6 +144,51 @@ class AppGroupControllerTest {
         assertEquals(1, usersResponse.size());
         assertEquals(testUser.getId(), usersResponse.get(0).getId());
         assertEquals(1, usersResponse.get(0).getAppGroups().size());
+        verify(appGroupMemberRepository, never()).findByAppIdAndUserId(any(), any());
+    }
+
+    @Test
+    void testListUsersWithGroups_QueryCountDoesNotGrowWithUsers() throws Throwable {
+        MongoCommandTracker tracker = new MongoCommandTracker();
+        ReflectionTestUtils.setField(tracker, "enabled", true);
+        ReflectionTestUtils.setField(tracker, "slowCommandMillis", -1L);
+        OrganisationLookupPort organisations = mock(OrganisationLookupPort.class, MongoQueryBudget.roundTrips(tracker));
+        ApplicationRepository applications = mock(ApplicationRepository.class, MongoQueryBudget.roundTrips(tracker));
+        DomainUserLookupPort domainUsers = mock(DomainUserLookupPort.class, MongoQueryBudget.roundTrips(tracker));
+        AppGroupRepository groups = mock(AppGroupRepository.class, MongoQueryBudget.roundTrips(tracker));
+        AppGroupMemberRepository members = mock(AppGroupMemberRepository.class, MongoQueryBudget.roundTrips(tracker));
+        AppGroupController controller = new AppGroupController();
+        ReflectionTestUtils.setField(controller, "organisationLookupPort", organisations);
+        ReflectionTestUtils.setField(controller, "applicationRepository", applications);
+        ReflectionTestUtils.setField(controller, "domainUserLookupPort", domainUsers);
+        ReflectionTestUtils.setField(controller, "appGroupRepository", groups);
+        ReflectionTestUtils.setField(controller, "appGroupMemberRepository", members);
+        ReflectionTestUtils.setField(controller, "permissionService", permissionService);
+
+        when(organisations.findBySlug(domainSlug)).thenReturn(Optional.of(testOrganisation));
+        when(applications.findByDomainIdAndSlug(domainId, appSlug)).thenReturn(Optional.of(testApp));
+        when(permissionService.hasAppPermission(appId, AppPermission.APP_CONFIGURE)).thenReturn(true);
+        List<DomainUser> users = new ArrayList<>();
+        List<AppGroupMember> memberships = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            DomainUser user = new DomainUser();
+            user.setId("user-" + i);
+            user.setDomainId(domainId);
+            users.add(user);
+            AppGroupMember member = new AppGroupMember();
+            member.setGroupId(testGroup.getId());
+            member.setUserId(user.getId());
+            member.setAppId(appId);
+            memberships.add(member);
+        }
+        when(domainUsers.findByDomainId(domainId)).thenReturn(users);
+        when(groups.findByAppId(appId)).thenReturn(List.of(testGroup));
+        when(members.findByAppId(appId)).thenReturn(memberships);
+
+        MongoCommandStats stats = MongoQueryBudget.assertAtMost(tracker, 5,
+                () -> controller.listUsersWithGroups(domainSlug, appSlug));
+
+        assertEquals(1L, stats.getCommandsBySource().get("AppGroupMemberRepository.findByAppId"));
     }
 
     @Test
@@ -299,6 +353,7 @@ class AppGroupControllerTest {
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
         verify(appGroupMemberRepository).save(any(AppGroupMember.class));
+        verify(permissionCache).invalidate(appId, testUser.getId());
     }
 
     @Test
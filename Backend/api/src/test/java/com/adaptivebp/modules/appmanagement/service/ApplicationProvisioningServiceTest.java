@@ -21,6 +21,7 @@ import com.adaptivebp.modules.appmanagement.model.AppGroupMember;
 import com.adaptivebp.modules.appmanagement.model.Application;
 import com.adaptivebp.modules.appmanagement.repository.AppGroupMemberRepository;
 import com.adaptivebp.modules.appmanagement.repository.AppGroupRepository;
+import com.adaptivebp.shared.security.PermissionSnapshotCache;
 
 @ExtendWith(MockitoExtension.class)
 class ApplicationProvisioningServiceTest {
@@ -31,6 +32,11 @@ class ApplicationProvisioningServiceTest {
     @Mock
     private AppGroupMemberRepository appGroupMemberRepository;
 
+    @Mock
+    private PermissionSnapshotCache permissionCache;
+
+
+
     @InjectMocks
     private ApplicationProvisioningService service;
 
@@ -0,0 +1,87 @@
+package com.adaptivebp.modules.formbuilder.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.adaptivebp.modules.formbuilder.model.ModelRecord;
+import com.adaptivebp.modules.formbuilder.port.ModelRecordPage;
+import com.adaptivebp.modules.formbuilder.port.ModelRecordQuery;
+
+@ExtendWith(MockitoExtension.class)
+class ModelRecordServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private ModelRecordService service;
+
+    @Test
+    void findPage_projectsSortsAndFiltersInTheQuery() {
+        when(mongoTemplate.find(any(Query.class), eq(ModelRecord.class)))
+                .thenReturn(List.of(record("r-1", 10), record("r-2", 20), record("r-3", 30)));
+
+        ModelRecordPage page = service.findPage(new ModelRecordQuery("m-1", "d-1",
+                List.of(new ModelRecordQuery.Filter("department", "EQUALS", "HR")),
+                "salary", false, List.of("name"), null, 2));
+
+        ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(captor.capture(), eq(ModelRecord.class));
+        Query query = captor.getValue();
+        assertEquals(3, query.getLimit());
+        assertEquals(new Document("data.salary", 1).append("_id", 1), query.getSortObject());
+        assertEquals(new Document("data.name", 1).append("data.salary", 1), query.getFieldsObject());
+        assertTrue(query.getQueryObject().toJson().contains("\"data.department\": \"HR\""));
+
+        assertEquals(List.of("r-1", "r-2"), page.records().stream().map(ModelRecord::getId).toList());
+        RecordCursor next = RecordCursor.decode(page.nextCursor());
+        assertEquals(20, next.value());
+        assertEquals("r-2", next.id());
+    }
+
+    @Test
+    void findPage_lastPageHasNoCursor() {
+        when(mongoTemplate.find(any(Query.class), eq(ModelRecord.class))).thenReturn(List.of(record("r-9", 90)));
+
+        ModelRecordPage page = service.findPage(new ModelRecordQuery("m-1", "d-1", null, null, false, null,
+                new RecordCursor(null, "r-8").encode(), 50));
+
+        assertNull(page.nextCursor());
+        assertEquals(1, page.records().size());
+    }
+
+    @Test
+    void findPage_rejectsUnsafeFieldsAndCursors() {
+        assertThrows(IllegalArgumentException.class, () -> service.findPage(
+                new ModelRecordQuery("m-1", "d-1", null, "$where", false, null, null, 10)));
+        assertThrows(IllegalArgumentException.class, () -> service.findPage(
+                new ModelRecordQuery("m-1", "d-1", null, null, false, null, "not-a-cursor", 10)));
+    }
+
+    private ModelRecord record(String id, int salary) {
+        ModelRecord record = new ModelRecord();
+        record.setId(id);
+        record.setData(new HashMap<>(Map.of("name", "n-" + id, "salary", salary)));
+        return record;
+    }
+}
@@ -0,0 +1,122 @@
+package com.adaptivebp.modules.formbuilder.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.adaptivebp.modules.formbuilder.model.ModelRecord;
+import com.adaptivebp.modules.formbuilder.repository.ModelRecordRepository;
+
+@ExtendWith(MockitoExtension.class)
+class MongoModelRecordBatchTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private ModelRecordRepository recordRepository;
+
+    @Mock
+    private BulkOperations bulk;
+
+    private MongoModelRecordBatch batch;
+
+    @BeforeEach
+    void setUp() {
+        batch = new MongoModelRecordBatch(mongoTemplate, recordRepository);
+    }
+
+    @Test
+    void flush_writesOnlyFinalStateOfEachRecord() {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ModelRecord.class)).thenReturn(bulk);
+
+        ModelRecord kept = batch.create("m-1", "d-1", "a-1", "i-1", "u-1", Map.of("status", "new"));
+        batch.update(kept.getId(), Map.of("status", "approved"));
+        ModelRecord dropped = batch.create("m-1", "d-1", "a-1", "i-1", "u-1", Map.of());
+        batch.delete(dropped.getId());
+
+        batch.flush();
+
+        ArgumentCaptor<Object> inserted = ArgumentCaptor.forClass(Object.class);
+        verify(bulk, times(1)).insert(inserted.capture());
+        assertEquals(Map.of("status", "approved"), ((ModelRecord) inserted.getValue()).getData());
+        verify(bulk, never()).remove(any(Query.class));
+        verify(bulk, times(1)).execute();
+        verify(recordRepository, never()).findById(any());
+    }
+
+    @Test
+    void flush_revertsExistingRecordsWhenBulkFails() {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ModelRecord.class)).thenReturn(bulk);
+        when(recordRepository.findById("r-1")).thenReturn(Optional.of(record("r-1", "draft")));
+        when(bulk.execute()).thenThrow(new IllegalStateException("write failed")).thenReturn(null);
+
+        batch.update("r-1", Map.of("status", "approved"));
+        assertThrows(IllegalStateException.class, batch::flush);
+
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Object> replacements = ArgumentCaptor.forClass(Object.class);
+        verify(bulk, times(2)).replaceOne(queries.capture(), replacements.capture());
+        ModelRecord flushed = (ModelRecord) replacements.getAllValues().get(0);
+        assertEquals("approved", flushed.getData().get("status"));
+        assertEquals("draft", ((ModelRecord) replacements.getAllValues().get(1)).getData().get("status"));
+        assertEquals(new Document("_id", "r-1").append("updatedAt", flushed.getUpdatedAt()),
+                queries.getAllValues().get(1).getQueryObject());
+    }
+
+    @Test
+    void rollback_touchesOnlyRecordsStillInTheFlushedState() {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ModelRecord.class)).thenReturn(bulk);
+        when(recordRepository.findById("r-1")).thenReturn(Optional.of(record("r-1", "draft")));
+
+        ModelRecord created = batch.create("m-1", "d-1", "a-1", "i-1", "u-1", Map.of("status", "new"));
+        batch.delete("r-1");
+        batch.flush();
+        batch.rollback();
+
+        ArgumentCaptor<Query> removed = ArgumentCaptor.forClass(Query.class);
+        verify(bulk, times(2)).remove(removed.capture());
+        assertEquals(new Document("_id", "r-1"), removed.getAllValues().get(0).getQueryObject());
+        assertEquals(new Document("_id", created.getId()).append("updatedAt", created.getUpdatedAt()),
+                removed.getAllValues().get(1).getQueryObject());
+        ArgumentCaptor<Object> inserted = ArgumentCaptor.forClass(Object.class);
+        verify(bulk, times(2)).insert(inserted.capture());
+        assertEquals("draft", ((ModelRecord) inserted.getAllValues().get(1)).getData().get("status"));
+        verify(bulk, never()).replaceOne(any(Query.class), any(Object.class), any(FindAndReplaceOptions.class));
+    }
+
+    @Test
+    void update_missingRecordFails() {
+        when(recordRepository.findById("r-404")).thenReturn(Optional.empty());
+
+        assertThrows(RuntimeException.class, () -> batch.update("r-404", Map.of("status", "x")));
+    }
+
+    private ModelRecord record(String id, String status) {
+        ModelRecord record = new ModelRecord();
+        record.setId(id);
+        record.setModelId("m-1");
+        record.setData(new HashMap<>(Map.of("status", status)));
+        return record;
+    }
+}
@@ -36,6 +36,7 @@ import com.adaptivebp.modules.organisation.repository.OrganisationRepository;
 import com.adaptivebp.modules.identity.port.DomainUserLookupPort;
 import com.adaptivebp.modules.organisation.service.PermissionService;
 import com.adaptivebp.modules.organisation.model.Organisation;
+import com.adaptivebp.shared.security.PermissionSnapshotCache;
 
 @ExtendWith(MockitoExtension.class)
 class DomainGroupControllerTest {
@@ -55,6 +56,11 @@ class DomainGroupControllerTest {
     @Mock
     private PermissionService permissionService;
 
+    @Mock
+    private PermissionSnapshotCache permissionCache;
+
+
+
     @InjectMocks
     private DomainGroupController domainGroupController;
 
@@ -361,6 +367,7 @@ class DomainGroupControllerTest {
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
         verify(domainGroupMemberRepository).save(any(DomainGroupMember.class));
+        verify(permissionCache).invalidate("domain-1", "user-1");
     }
 
     @Test
@@ -395,5 +402,6 @@ class DomainGroupControllerTest {
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
         verify(domainGroupMemberRepository).delete(member);
+        verify(permissionCache).invalidate("domain-1", userId);
     }
 }
@@ -22,6 +22,7 @@ import com.adaptivebp.modules.formbuilder.repository.DomainModelRepository;
 import com.adaptivebp.modules.organisation.repository.DomainGroupMemberRepository;
 import com.adaptivebp.modules.organisation.repository.DomainGroupRepository;
 import com.adaptivebp.modules.organisation.model.Organisation;
+import com.adaptivebp.shared.security.PermissionSnapshotCache;
 
 @ExtendWith(MockitoExtension.class)
 class DomainProvisioningServiceTest {
@@ -35,6 +36,11 @@ class DomainProvisioningServiceTest {
     @Mock
     private DomainModelRepository domainModelRepository;
 
+    @Mock
+    private PermissionSnapshotCache permissionCache;
+
+
+
     @InjectMocks
     private DomainProvisioningService service;
 
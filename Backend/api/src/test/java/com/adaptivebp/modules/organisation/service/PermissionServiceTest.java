@@ -12,6 +12,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -24,6 +25,7 @@ import com.adaptivebp.modules.organisation.permission.DomainPermission;
 import com.adaptivebp.modules.organisation.repository.DomainGroupMemberRepository;
 import com.adaptivebp.modules.organisation.repository.DomainGroupRepository;
 import com.adaptivebp.shared.security.AdaptiveUserDetails;
+import com.adaptivebp.shared.security.PermissionSnapshotCache;
 
 @ExtendWith(MockitoExtension.class)
 class PermissionServiceTest {
@@ -37,6 +39,11 @@ class PermissionServiceTest {
     @Mock
     private AppGroupQueryPort appGroupQueryPort;
 
+    @Spy
+    private PermissionSnapshotCache permissionCache = new PermissionSnapshotCache(100, 0);
+
+
+
     @InjectMocks
     private PermissionService permissionService;
 
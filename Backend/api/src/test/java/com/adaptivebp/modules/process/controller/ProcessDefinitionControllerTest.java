@@ -0,0 +1,100 @@
+package com.adaptivebp.modules.process.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import com.adaptivebp.modules.appmanagement.model.Application;
+import com.adaptivebp.modules.appmanagement.permission.AppPermission;
+import com.adaptivebp.modules.appmanagement.port.ApplicationLookupPort;
+import com.adaptivebp.modules.organisation.model.Organisation;
+import com.adaptivebp.modules.organisation.port.OrganisationLookupPort;
+import com.adaptivebp.modules.organisation.service.PermissionService;
+import com.adaptivebp.modules.process.dto.ProcessDefinitionResponse;
+import com.adaptivebp.modules.process.dto.ValidationResult;
+import com.adaptivebp.modules.process.model.ProcessDefinition;
+import com.adaptivebp.modules.process.service.ProcessDefinitionService;
+import com.adaptivebp.modules.process.service.ProcessValidationService;
+
+@ExtendWith(MockitoExtension.class)
+class ProcessDefinitionControllerTest {
+
+    @Mock
+    private OrganisationLookupPort organisationLookupPort;
+
+    @Mock
+    private ApplicationLookupPort applicationLookupPort;
+
+    @Mock
+    private PermissionService permissionService;
+
+    @Mock
+    private ProcessDefinitionService definitionService;
+
+    @Mock
+    private ProcessValidationService validationService;
+
+    @InjectMocks
+    private ProcessDefinitionController controller;
+
+    @BeforeEach
+    void setUp() {
+        Organisation domain = new Organisation("Acme", "acme", "owner");
+        domain.setId("d1");
+        Application app = new Application();
+        app.setId("a1");
+        app.setDomainId("d1");
+        when(organisationLookupPort.findBySlug("acme")).thenReturn(Optional.of(domain));
+        when(applicationLookupPort.findByDomainIdAndSlug("d1", "sales")).thenReturn(Optional.of(app));
+        when(permissionService.hasAppPermission("a1", AppPermission.APP_VIEW)).thenReturn(true);
+    }
+
+    @Test
+    void getProcess_answersMatchingETagWithoutLoadingOrValidating() {
+        when(definitionService.getProcessETag("d1", "a1")).thenReturn("p-1-3");
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.addHeader("If-None-Match", "\"p-1-3\"");
+        ServletWebRequest webRequest = new ServletWebRequest(request, new MockHttpServletResponse());
+
+        ResponseEntity<?> response = controller.getProcess("acme", "sales", webRequest);
+
+        assertNull(response);
+        assertEquals(HttpStatus.NOT_MODIFIED.value(), webRequest.getResponse().getStatus());
+        verify(definitionService, never()).getProcess(anyString(), anyString(), anyString());
+        verifyNoInteractions(validationService);
+    }
+
+    @Test
+    void getProcess_loadsAgainAfterARevisionBump() {
+        ProcessDefinition definition = new ProcessDefinition();
+        when(definitionService.getProcessETag("d1", "a1")).thenReturn("p-1-4");
+        when(definitionService.getProcess("d1", "a1", "sales")).thenReturn(definition);
+        when(validationService.validate(definition)).thenReturn(ValidationResult.ok());
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.addHeader("If-None-Match", "\"p-1-3\"");
+
+        ResponseEntity<?> response = controller.getProcess("acme", "sales",
+                new ServletWebRequest(request, new MockHttpServletResponse()));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(definition, ((ProcessDefinitionResponse) response.getBody()).getDefinition());
+    }
+}
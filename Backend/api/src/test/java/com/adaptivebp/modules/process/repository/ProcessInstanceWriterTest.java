@@ -0,0 +1,135 @@
+package com.adaptivebp.modules.process.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.adaptivebp.modules.process.exception.InvalidNodeSubmissionException;
+import com.adaptivebp.modules.process.model.ProcessInstance;
+import com.adaptivebp.modules.process.model.embedded.HistoryEntry;
+import com.adaptivebp.modules.process.model.enums.InstanceStatus;
+import com.mongodb.client.result.UpdateResult;
+
+@ExtendWith(MockitoExtension.class)
+class ProcessInstanceWriterTest {
+
+    @Mock
+    private ProcessInstanceRepository instanceRepository;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private ProcessInstanceWriter writer;
+
+    @Test
+    void save_loadedInstanceSetsOnlyChangedNodeKeys() {
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(ProcessInstance.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        ProcessInstance instance = loaded(new HashMap<>(Map.of("form", new HashMap<>(Map.of("name", "Ann")))));
+
+        instance.putNodeData("form", "amount", 1500);
+        instance.setCurrentNodeId("approve");
+        instance.appendHistory(new HistoryEntry());
+        writer.save(instance);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(query.capture(), update.capture(), eq(ProcessInstance.class));
+        assertEquals("form", query.getValue().getQueryObject().get("currentNodeId"));
+        Document set = (Document) update.getValue().getUpdateObject().get("$set");
+        assertEquals(1500, set.get("data.form.amount"));
+        assertEquals("approve", set.get("currentNodeId"));
+        assertTrue(set.keySet().stream().noneMatch(key -> key.equals("data") || key.equals("data.form.name")));
+        assertTrue(update.getValue().getUpdateObject().containsKey("$push"));
+        verify(instanceRepository, never()).save(any());
+        assertTrue(instance.newHistory().isEmpty());
+    }
+
+    @Test
+    void save_failsWhenInstanceMovedOnConcurrently() {
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(ProcessInstance.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+        ProcessInstance instance = loaded(new HashMap<>());
+        instance.putNodeDraft("form", "name", "Ann");
+
+        assertThrows(InvalidNodeSubmissionException.class, () -> writer.save(instance));
+    }
+
+    @Test
+    void save_rewritesFlatInstancesWhole() {
+        ProcessInstance instance = loaded(new HashMap<>(Map.of("form__amount", 1500, "approve___action", "approve")));
+        instance.setDataLayout(ProcessInstance.FLAT_DATA);
+        instance.upgradeDataLayout();
+        when(instanceRepository.save(instance)).thenReturn(instance);
+
+        assertEquals(1500, instance.resolveData("form__amount"));
+        assertEquals("approve", instance.nodeData("approve").get("_action"));
+        assertEquals(List.of("_action"), List.copyOf(instance.nodeData("approve").keySet()));
+
+        writer.save(instance);
+
+        verify(instanceRepository).save(instance);
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(ProcessInstance.class));
+        assertEquals(ProcessInstance.NODE_DATA, instance.getDataLayout());
+    }
+
+    @Test
+    void saveDraft_setsNodeKeysUnderNodeAndStatusCondition() {
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(ProcessInstance.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        assertTrue(writer.saveDraft("i-1", "form", Map.of("name", "Ann")));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(query.capture(), update.capture(), eq(ProcessInstance.class));
+        Document filter = query.getValue().getQueryObject();
+        assertEquals("form", filter.get("currentNodeId"));
+        assertEquals(InstanceStatus.ACTIVE, filter.get("status"));
+        assertEquals(ProcessInstance.NODE_DATA, filter.get("dataLayout"));
+        assertEquals(new Document("draftData.form.name", "Ann"), update.getValue().getUpdateObject().get("$set"));
+    }
+
+    @Test
+    void save_rejectsKeysThatAreNotFieldNames() {
+        ProcessInstance instance = loaded(new HashMap<>());
+        instance.putNodeDraft("form", "a.b", "x");
+
+        assertThrows(InvalidNodeSubmissionException.class, () -> writer.save(instance));
+        assertFalse(writer.saveDraft("i-1", "form", Map.of("$where", "x")));
+        verify(instanceRepository, never()).save(any());
+    }
+
+    private ProcessInstance loaded(Map<String, Object> data) {
+        ProcessInstance instance = new ProcessInstance();
+        instance.setId("i-1");
+        instance.setStatus(InstanceStatus.ACTIVE);
+        instance.setCurrentNodeId("form");
+        instance.setDataLayout(ProcessInstance.NODE_DATA);
+        instance.setData(data);
+        instance.markPersisted();
+        return instance;
+    }
+}
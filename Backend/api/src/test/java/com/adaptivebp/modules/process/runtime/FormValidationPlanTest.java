@@ -0,0 +1,66 @@
+package com.adaptivebp.modules.process.runtime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.adaptivebp.modules.process.runtime.FormValidationPlan.FieldError;
+
+class FormValidationPlanTest {
+
+    private static final long BUDGET = 1_000_000;
+
+    @Test
+    void validate_appliesCompiledRules() {
+        FormValidationPlan plan = FormValidationPlan.compile(Map.of("elements", List.of(
+                Map.of("id", "name", "type", "TEXT_INPUT",
+                        "validation", Map.of("required", true, "maxLength", 5, "pattern", "[a-z]+")),
+                Map.of("id", "age", "type", "NUMBER_INPUT", "validation", Map.of("min", 18)),
+                Map.of("id", "color", "type", "SELECT", "validation", Map.of(),
+                        "config", Map.of("options", List.of(Map.of("value", "red"), Map.of("value", "blue")))),
+                Map.of("id", "reason", "type", "TEXT_AREA", "validation", Map.of("required", true),
+                        "visibilityRule", Map.of("dependsOn", "color", "operator", "EQUALS", "value", "red")))));
+
+        List<FieldError> errors = plan.validate(Map.of("name", "Alice1", "age", "12", "color", "green"), BUDGET);
+
+        assertEquals(List.of(
+                new FieldError("name", "Maximum length is 5"),
+                new FieldError("name", "Value does not match the required pattern"),
+                new FieldError("age", "Minimum value is 18"),
+                new FieldError("color", "Invalid option: green")), errors);
+        assertEquals(List.of(new FieldError("reason", "This field is required")),
+                plan.validate(Map.of("name", "bob", "color", "red"), BUDGET));
+    }
+
+    @Test
+    void validate_catastrophicPatternFailsWithinBudget() {
+        FormValidationPlan plan = FormValidationPlan.compile(Map.of("elements", List.of(
+                Map.of("id", "code", "type", "TEXT_INPUT", "validation", Map.of("pattern", "(.*a){10}b")))));
+        String hostile = "a".repeat(40) + "!";
+
+        List<FieldError> errors = assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> plan.validate(Map.of("code", hostile), BUDGET));
+
+        assertEquals(List.of(new FieldError("code", "Value could not be checked against the required pattern")), errors);
+        assertTrue(plan.validate(Map.of("code", "a".repeat(10) + "b"), BUDGET).isEmpty());
+    }
+
+    @Test
+    void compile_keepsInvalidPatternAsFieldError() {
+        FormValidationPlan plan = FormValidationPlan.compile(Map.of("elements", List.of(
+                Map.of("id", "code", "type", "TEXT_INPUT", "validation", Map.of("pattern", "([a-z")))));
+
+        assertEquals(List.of(new FieldError("code", "The field's validation pattern is invalid")),
+                plan.validate(Map.of("code", "abc"), BUDGET));
+        assertNotNull(FormValidationPlan.patternError("([a-z"));
+        assertNull(FormValidationPlan.patternError("[a-z]+"));
+    }
+}
@@ -0,0 +1,110 @@
+package com.adaptivebp.modules.process.runtime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.adaptivebp.modules.process.model.ProcessDefinition;
+import com.adaptivebp.modules.process.model.ProcessEdge;
+import com.adaptivebp.modules.process.model.ProcessNode;
+import com.adaptivebp.modules.process.model.enums.NodeType;
+import com.adaptivebp.modules.process.repository.ProcessDefinitionRepository;
+
+@ExtendWith(MockitoExtension.class)
+class ProcessDefinitionCacheTest {
+
+    @Mock
+    private ProcessDefinitionRepository definitionRepository;
+
+    private ProcessDefinitionCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ProcessDefinitionCache(2);
+        ReflectionTestUtils.setField(cache, "definitionRepository", definitionRepository);
+    }
+
+    @Test
+    void compile_indexesNodesAndAdjacency() {
+        CompiledProcess compiled = CompiledProcess.compile(definition("p-1", 1));
+
+        assertEquals("start", compiled.findStartNode().getId());
+        assertEquals(NodeType.CONDITION, compiled.findNodeById("check").getType());
+        assertEquals(List.of("big", "small"), compiled.outgoingEdges("check").stream().map(ProcessEdge::getId).toList());
+        assertEquals(List.of("big", "after-form"),
+                compiled.incomingEdges("end").stream().map(ProcessEdge::getId).toList());
+        assertTrue(compiled.outgoingEdges("end").isEmpty());
+    }
+
+    @Test
+    void route_takesFirstMatchingRuleElseDefault() {
+        CompiledProcess compiled = CompiledProcess.compile(definition("p-1", 1));
+
+        assertEquals("big", compiled.route("check", Map.of("form__amount", "1500", "form__type", "travel")).getId());
+        assertEquals("small", compiled.route("check", Map.of("form__amount", "1500", "form__type", "meals")).getId());
+        assertEquals("small", compiled.route("check", Map.of("form__amount", "abc", "form__type", "travel")).getId());
+        assertEquals("small", compiled.route("check", Map.of()).getId());
+    }
+
+    @Test
+    void get_loadsOncePerVersionUntilInvalidated() {
+        when(definitionRepository.findById("p-1")).thenReturn(Optional.of(definition("p-1", 3)));
+
+        CompiledProcess first = cache.get("p-1", 3);
+        assertSame(first, cache.get("p-1", 3));
+        verify(definitionRepository, times(1)).findById("p-1");
+
+        cache.invalidate("p-1");
+        cache.get("p-1", 3);
+        verify(definitionRepository, times(2)).findById("p-1");
+    }
+
+    private ProcessDefinition definition(String id, int version) {
+        ProcessNode check = node("check", NodeType.CONDITION);
+        check.setConfig(Map.of(
+                "rules", List.of(Map.of(
+                        "targetEdgeId", "big",
+                        "conditions", List.of(
+                                Map.of("field", "form__amount", "operator", "GREATER_THAN", "value", 1000),
+                                Map.of("field", "form__type", "operator", "EQUALS", "value", "travel")))),
+                "defaultEdgeId", "small"));
+
+        ProcessDefinition definition = new ProcessDefinition();
+        definition.setId(id);
+        definition.setVersion(version);
+        definition.setNodes(List.of(node("start", NodeType.START), check, node("form", NodeType.FORM_PAGE),
+                node("end", NodeType.END)));
+        definition.setEdges(List.of(edge("to-check", "start", "check"), edge("big", "check", "end"),
+                edge("small", "check", "form"), edge("after-form", "form", "end")));
+        return definition;
+    }
+
+    private ProcessNode node(String id, NodeType type) {
+        ProcessNode node = new ProcessNode();
+        node.setId(id);
+        node.setType(type);
+        return node;
+    }
+
+    private ProcessEdge edge(String id, String from, String to) {
+        ProcessEdge edge = new ProcessEdge();
+        edge.setId(id);
+        edge.setFromNodeId(from);
+        edge.setToNodeId(to);
+        return edge;
+    }
+}
@@ -0,0 +1,116 @@
+package com.adaptivebp.modules.process.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class DraftAutosaveBufferTest {
+
+    private record Write(String instanceId, String nodeId, Map<String, Object> values) {
+    }
+
+    private final List<Write> writes = new CopyOnWriteArrayList<>();
+    private final CountDownLatch written = new CountDownLatch(1);
+    private DraftAutosaveBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        buffer = new DraftAutosaveBuffer();
+        ReflectionTestUtils.setField(buffer, "coalesceMillis", 100L);
+        ReflectionTestUtils.setField(buffer, "workerCount", 2);
+        ReflectionTestUtils.setField(buffer, "maxPending", 2);
+        buffer.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        buffer.stop();
+    }
+
+    @Test
+    void add_coalescesSavesOfTheSameNodeIntoOneWrite() throws InterruptedException {
+        buffer.add("i-1", "form", Map.of("name", "A"), "u-1", this::record);
+        buffer.add("i-1", "form", Map.of("name", "Ann", "city", "Oslo"), "u-1", this::record);
+
+        assertEquals(Map.of("name", "Ann", "city", "Oslo"), buffer.pending("i-1", "form"));
+        assertTrue(written.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(new Write("i-1", "form", Map.of("name", "Ann", "city", "Oslo"))), writes);
+        assertTrue(buffer.pending("i-1", "form").isEmpty());
+    }
+
+    @Test
+    void add_writesPendingDraftAtOnceWhenTheNodeChanges() throws InterruptedException {
+        buffer.add("i-1", "form", Map.of("name", "Ann"), "u-1", this::record);
+        buffer.add("i-1", "review", Map.of("note", "ok"), "u-1", this::record);
+
+        assertEquals(Map.of("note", "ok"), buffer.pending("i-1", "review"));
+        assertTrue(written.await(50, TimeUnit.MILLISECONDS));
+        assertEquals(List.of(new Write("i-1", "form", Map.of("name", "Ann"))), writes);
+    }
+
+    @Test
+    void writesOfOneInstanceRunOneAtATimeInOrder() throws InterruptedException {
+        CountDownLatch firstWriting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch bothWritten = new CountDownLatch(2);
+        DraftAutosaveBuffer.DraftWriter slow = (instanceId, nodeId, values, userId) -> {
+            if (nodeId.equals("form")) {
+                firstWriting.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            record(instanceId, nodeId, values, userId);
+            bothWritten.countDown();
+        };
+        buffer.add("i-1", "form", Map.of("name", "Ann"), "u-1", slow);
+        assertTrue(firstWriting.await(5, TimeUnit.SECONDS));
+
+        // Superseded while the expired form draft is still being written by the other worker
+        buffer.add("i-1", "review", Map.of("note", "ok"), "u-1", slow);
+        buffer.add("i-1", "approve", Map.of("note", "fine"), "u-1", slow);
+        assertTrue(writes.isEmpty());
+
+        release.countDown();
+        assertTrue(bothWritten.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(new Write("i-1", "form", Map.of("name", "Ann")),
+                new Write("i-1", "review", Map.of("note", "ok"))), writes);
+    }
+
+    @Test
+    void add_writesInCallersThreadOnceMaxPendingDraftsAreWaiting() {
+        buffer.add("i-1", "form", Map.of("name", "Ann"), "u-1", this::record);
+        buffer.add("i-2", "form", Map.of("name", "Bo"), "u-1", this::record);
+        buffer.add("i-3", "form", Map.of("name", "Cy"), "u-1", this::record);
+
+        assertEquals(List.of(new Write("i-3", "form", Map.of("name", "Cy"))), writes);
+        assertTrue(buffer.pending("i-3", "form").isEmpty());
+        assertEquals(Map.of("name", "Bo"), buffer.pending("i-2", "form"));
+    }
+
+    @Test
+    void stop_writesWhatIsStillPending() {
+        buffer.add("i-2", "form", Map.of("name", "Bo"), "u-1", this::record);
+
+        buffer.stop();
+
+        assertEquals(List.of(new Write("i-2", "form", Map.of("name", "Bo"))), writes);
+    }
+
+    private void record(String instanceId, String nodeId, Map<String, Object> values, String userId) {
+        writes.add(new Write(instanceId, nodeId, Map.copyOf(values)));
+        written.countDown();
+    }
+}
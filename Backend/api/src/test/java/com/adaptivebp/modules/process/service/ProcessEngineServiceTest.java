@@ -0,0 +1,131 @@
+package com.adaptivebp.modules.process.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.adaptivebp.modules.formbuilder.model.ModelRecord;
+import com.adaptivebp.modules.formbuilder.port.ModelRecordBatch;
+import com.adaptivebp.modules.formbuilder.port.ModelRecordQueryPort;
+import com.adaptivebp.modules.process.dto.ProcessInstanceResponse;
+import com.adaptivebp.modules.process.model.ProcessDefinition;
+import com.adaptivebp.modules.process.model.ProcessEdge;
+import com.adaptivebp.modules.process.model.ProcessInstance;
+import com.adaptivebp.modules.process.model.ProcessNode;
+import com.adaptivebp.modules.process.model.enums.NodeType;
+import com.adaptivebp.modules.process.model.enums.ProcessStatus;
+import com.adaptivebp.modules.process.repository.ProcessDefinitionRepository;
+import com.adaptivebp.modules.process.repository.ProcessInstanceWriter;
+import com.adaptivebp.modules.process.runtime.ProcessDefinitionCache;
+
+@ExtendWith(MockitoExtension.class)
+class ProcessEngineServiceTest {
+
+    @Mock
+    private ProcessDefinitionRepository definitionRepository;
+
+    @Mock
+    private ProcessInstanceWriter instanceWriter;
+
+    @Mock
+    private ModelRecordQueryPort modelRecordQueryPort;
+
+    @Mock
+    private ModelRecordBatch records;
+
+    private ProcessEngineService engine;
+
+    @BeforeEach
+    void setUp() {
+        engine = new ProcessEngineService();
+        ReflectionTestUtils.setField(engine, "definitionRepository", definitionRepository);
+        ReflectionTestUtils.setField(engine, "instanceWriter", instanceWriter);
+        ReflectionTestUtils.setField(engine, "definitionCache", new ProcessDefinitionCache(4));
+        ReflectionTestUtils.setField(engine, "modelRecordQueryPort", modelRecordQueryPort);
+
+        when(definitionRepository.findByDomainIdAndAppIdAndStatus("d-1", "a-1", ProcessStatus.PUBLISHED))
+                .thenReturn(List.of(definition()));
+        when(modelRecordQueryPort.batch()).thenReturn(records);
+        ModelRecord created = new ModelRecord();
+        created.setId("r-1");
+        when(records.create(eq("m-1"), eq("d-1"), eq("a-1"), isNull(), eq("u-1"), anyMap())).thenReturn(created);
+    }
+
+    @Test
+    void startProcess_stagesDataActionChainAndFlushesBeforeSavingInstance() {
+        when(instanceWriter.save(any(ProcessInstance.class))).thenAnswer(call -> call.getArgument(0));
+
+        ProcessInstanceResponse response = engine.startProcess("d-1", "a-1", "u-1");
+
+        assertEquals("form", response.getCurrentNode().getId());
+        assertEquals("r-1", response.getInstance().nodeData("create").get("_createdRecordId"));
+        assertEquals("r-1", response.getInstance().resolveData("create___createdRecordId"));
+        InOrder order = inOrder(records, instanceWriter);
+        order.verify(records).create(eq("m-1"), eq("d-1"), eq("a-1"), isNull(), eq("u-1"), anyMap());
+        order.verify(records).update("r-1", Map.of("status", "submitted"));
+        order.verify(records).flush();
+        order.verify(instanceWriter).save(any(ProcessInstance.class));
+        verify(records, never()).rollback();
+        verify(modelRecordQueryPort, never()).create(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void startProcess_revertsRecordsWhenInstanceSaveFails() {
+        when(instanceWriter.save(any(ProcessInstance.class))).thenThrow(new IllegalStateException("save failed"));
+
+        assertThrows(IllegalStateException.class, () -> engine.startProcess("d-1", "a-1", "u-1"));
+
+        verify(records).flush();
+        verify(records).rollback();
+    }
+
+    private ProcessDefinition definition() {
+        ProcessNode create = node("create", NodeType.DATA_ACTION);
+        create.setConfig(Map.of("operation", "CREATE", "modelId", "m-1", "fieldMappings",
+                List.of(Map.of("targetField", "status", "source", "STATIC", "value", "draft"))));
+        ProcessNode update = node("update", NodeType.DATA_ACTION);
+        update.setConfig(Map.of("operation", "UPDATE", "modelId", "m-1", "fieldMappings",
+                List.of(Map.of("targetField", "status", "source", "STATIC", "value", "submitted"))));
+
+        ProcessDefinition definition = new ProcessDefinition();
+        definition.setId("p-1");
+        definition.setVersion(1);
+        definition.setNodes(List.of(node("start", NodeType.START), create, update, node("form", NodeType.FORM_PAGE)));
+        definition.setEdges(List.of(edge("e1", "start", "create"), edge("e2", "create", "update"),
+                edge("e3", "update", "form")));
+        return definition;
+    }
+
+    private ProcessNode node(String id, NodeType type) {
+        ProcessNode node = new ProcessNode();
+        node.setId(id);
+        node.setType(type);
+        return node;
+    }
+
+    private ProcessEdge edge(String id, String from, String to) {
+        ProcessEdge edge = new ProcessEdge();
+        edge.setId(id);
+        edge.setFromNodeId(from);
+        edge.setToNodeId(to);
+        return edge;
+    }
+}
@@ -0,0 +1,126 @@
+package com.adaptivebp.modules.workflow.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import com.adaptivebp.modules.appmanagement.model.Application;
+import com.adaptivebp.modules.appmanagement.permission.AppPermission;
+import com.adaptivebp.modules.appmanagement.port.ApplicationLookupPort;
+import com.adaptivebp.modules.organisation.model.Organisation;
+import com.adaptivebp.modules.organisation.port.OrganisationLookupPort;
+import com.adaptivebp.modules.organisation.service.PermissionService;
+import com.adaptivebp.modules.workflow.dto.response.WorkflowDefinitionResponse;
+import com.adaptivebp.modules.workflow.model.WorkflowDefinition;
+import com.adaptivebp.modules.workflow.service.WorkflowDefinitionService;
+import com.adaptivebp.modules.workflow.service.WorkflowValidationService;
+
+@ExtendWith(MockitoExtension.class)
+class WorkflowDefinitionControllerTest {
+
+    @Mock
+    private OrganisationLookupPort organisationLookupPort;
+
+    @Mock
+    private ApplicationLookupPort applicationLookupPort;
+
+    @Mock
+    private PermissionService permissionService;
+
+    @Mock
+    private WorkflowDefinitionService definitionService;
+
+    @Mock
+    private WorkflowValidationService validationService;
+
+    @InjectMocks
+    private WorkflowDefinitionController controller;
+
+    @BeforeEach
+    void setUp() {
+        Organisation domain = new Organisation("Acme", "acme", "owner");
+        domain.setId("d1");
+        Application app = new Application();
+        app.setId("a1");
+        app.setDomainId("d1");
+        when(organisationLookupPort.findBySlug("acme")).thenReturn(Optional.of(domain));
+        when(applicationLookupPort.findByDomainIdAndSlug("d1", "sales")).thenReturn(Optional.of(app));
+        when(permissionService.hasAppPermission("a1", AppPermission.APP_VIEW)).thenReturn(true);
+    }
+
+    @Test
+    void listWorkflows_answersMatchingETagWithoutListing() {
+        when(definitionService.listWorkflowsETag("d1", "a1")).thenReturn("wf-1-4");
+        ServletWebRequest request = request("\"wf-1-4\"");
+
+        ResponseEntity<List<WorkflowDefinition>> response = controller.listWorkflows("acme", "sales", request);
+
+        assertNull(response);
+        assertEquals(HttpStatus.NOT_MODIFIED.value(), request.getResponse().getStatus());
+        verify(definitionService, never()).listWorkflows(anyString(), anyString());
+    }
+
+    @Test
+    void listWorkflows_listsAgainAfterARevisionBump() {
+        when(definitionService.listWorkflowsETag("d1", "a1")).thenReturn("wf-1-5");
+        when(definitionService.listWorkflows("d1", "a1")).thenReturn(List.of());
+
+        ResponseEntity<List<WorkflowDefinition>> response = controller.listWorkflows("acme", "sales",
+                request("\"wf-1-4\""));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+    }
+
+    @Test
+    void getWorkflow_answersMatchingETagWithoutLoadingOrValidating() {
+        when(definitionService.getWorkflowETag("d1", "a1", "leave", 2)).thenReturn("wf-1-4");
+        ServletWebRequest request = request("\"wf-1-4\"");
+
+        ResponseEntity<WorkflowDefinitionResponse> response = controller.getWorkflow("acme", "sales", "leave", 2,
+                request);
+
+        assertNull(response);
+        assertEquals(HttpStatus.NOT_MODIFIED.value(), request.getResponse().getStatus());
+        verify(definitionService, never()).getWorkflow(anyString(), anyString(), anyString(), any());
+        verifyNoInteractions(validationService);
+    }
+
+    @Test
+    void getWorkflow_loadsAgainAfterARevisionBump() {
+        WorkflowDefinition workflow = new WorkflowDefinition();
+        when(definitionService.getWorkflowETag("d1", "a1", "leave", null)).thenReturn("wf-1-5");
+        when(definitionService.getWorkflow("d1", "a1", "leave", null)).thenReturn(workflow);
+
+        ResponseEntity<WorkflowDefinitionResponse> response = controller.getWorkflow("acme", "sales", "leave", null,
+                request("\"wf-1-4\""));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(workflow, response.getBody().getWorkflow());
+    }
+
+    private ServletWebRequest request(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.addHeader("If-None-Match", ifNoneMatch);
+        return new ServletWebRequest(request, new MockHttpServletResponse());
+    }
+}
@@ -0,0 +1,151 @@
+package com.adaptivebp.modules.workflow.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import com.adaptivebp.modules.appmanagement.model.Application;
+import com.adaptivebp.modules.appmanagement.permission.AppPermission;
+import com.adaptivebp.modules.appmanagement.port.ApplicationLookupPort;
+import com.adaptivebp.modules.organisation.model.Organisation;
+import com.adaptivebp.modules.organisation.port.OrganisationLookupPort;
+import com.adaptivebp.modules.organisation.service.PermissionService;
+import com.adaptivebp.modules.workflow.dto.response.StepViewResponse;
+import com.adaptivebp.modules.workflow.model.WorkflowInstance;
+import com.adaptivebp.modules.workflow.service.WorkflowEngineService;
+import com.adaptivebp.shared.security.AdaptiveUserDetails;
+
+@ExtendWith(MockitoExtension.class)
+class WorkflowInstanceControllerTest {
+
+    @Mock
+    private OrganisationLookupPort organisationLookupPort;
+
+    @Mock
+    private ApplicationLookupPort applicationLookupPort;
+
+    @Mock
+    private PermissionService permissionService;
+
+    @Mock
+    private WorkflowEngineService engineService;
+
+    @InjectMocks
+    private WorkflowInstanceController controller;
+
+    @BeforeEach
+    void setUp() {
+        AdaptiveUserDetails principal = AdaptiveUserDetails.domainUser("u1", "d1", "tester", "t@example.com", "hash");
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        Organisation domain = new Organisation("Acme", "acme", "owner");
+        domain.setId("d1");
+        Application app = new Application();
+        app.setId("a1");
+        app.setDomainId("d1");
+        when(organisationLookupPort.findBySlug("acme")).thenReturn(Optional.of(domain));
+        when(applicationLookupPort.findByDomainIdAndSlug("d1", "sales")).thenReturn(Optional.of(app));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void getInstance_answersMatchingETagWithoutLoadingTheInstance() {
+        when(engineService.getInstanceStamp("i-1")).thenReturn(instance(3L, 7L));
+        ServletWebRequest request = request("\"3-7\"");
+
+        ResponseEntity<WorkflowInstance> response = controller.getInstance("acme", "sales", "i-1", request);
+
+        assertNull(response);
+        assertEquals(HttpStatus.NOT_MODIFIED.value(), request.getResponse().getStatus());
+        verify(engineService, never()).getInstance(anyString());
+    }
+
+    @Test
+    void getInstance_tagsTheInstanceItReturnsAfterARevisionBump() {
+        when(engineService.getInstanceStamp("i-1")).thenReturn(instance(3L, 7L));
+        WorkflowInstance loaded = instance(3L, 8L);
+        when(engineService.getInstance("i-1")).thenReturn(loaded);
+        when(engineService.withStepRecords(loaded)).thenReturn(loaded);
+
+        ResponseEntity<WorkflowInstance> response = controller.getInstance("acme", "sales", "i-1", request("\"3-6\""));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"3-8\"", response.getHeaders().getETag());
+        assertEquals(loaded, response.getBody());
+    }
+
+    @Test
+    void getInstance_checksAccessBeforeTheETag() {
+        WorkflowInstance stamp = instance(3L, 7L);
+        stamp.setStartedBy("u2");
+        when(engineService.getInstanceStamp("i-1")).thenReturn(stamp);
+        when(permissionService.hasAppPermission("a1", AppPermission.APP_VIEW_ALL_INSTANCES)).thenReturn(false);
+
+        ResponseEntity<WorkflowInstance> response = controller.getInstance("acme", "sales", "i-1", request("\"3-7\""));
+
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+    }
+
+    @Test
+    void getStepView_answersMatchingETagWithoutBuildingTheView() {
+        when(engineService.stepViewETag("i-1", "u1")).thenReturn("abc");
+        ServletWebRequest request = request("\"abc\"");
+
+        ResponseEntity<StepViewResponse> response = controller.getStepView("acme", "sales", "i-1", request);
+
+        assertNull(response);
+        assertEquals(HttpStatus.NOT_MODIFIED.value(), request.getResponse().getStatus());
+        verify(engineService, never()).getStepView(anyString(), anyString());
+    }
+
+    @Test
+    void getStepView_buildsTheViewWhenTheETagChanged() {
+        when(engineService.stepViewETag("i-1", "u1")).thenReturn("def");
+        StepViewResponse view = new StepViewResponse();
+        when(engineService.getStepView("i-1", "u1")).thenReturn(view);
+
+        ResponseEntity<StepViewResponse> response = controller.getStepView("acme", "sales", "i-1", request("\"abc\""));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(view, response.getBody());
+    }
+
+    private WorkflowInstance instance(long version, long revision) {
+        WorkflowInstance instance = new WorkflowInstance();
+        instance.setId("i-1");
+        instance.setStartedBy("u1");
+        instance.setVersion(version);
+        instance.setRevision(revision);
+        return instance;
+    }
+
+    private ServletWebRequest request(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.addHeader("If-None-Match", ifNoneMatch);
+        return new ServletWebRequest(request, new MockHttpServletResponse());
+    }
+}
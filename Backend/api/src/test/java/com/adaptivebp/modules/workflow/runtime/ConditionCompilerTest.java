@@ -0,0 +1,93 @@
+package com.adaptivebp.modules.workflow.runtime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.adaptivebp.modules.workflow.model.EdgeCondition;
+import com.adaptivebp.modules.workflow.model.enums.ConditionLogic;
+import com.adaptivebp.modules.workflow.model.enums.ConditionOperator;
+
+class ConditionCompilerTest {
+
+    @Test
+    void compile_emptyListAlwaysPasses() {
+        assertTrue(ConditionCompiler.compile(List.of()).test(Map.of()));
+        assertTrue(ConditionCompiler.compile((List<EdgeCondition>) null).test(null));
+    }
+
+    @Test
+    void compile_topLevelListIsAnd() {
+        ConditionPredicate predicate = ConditionCompiler.compile(List.of(
+                leaf("status", ConditionOperator.EQUALS, "OPEN"),
+                leaf("amount", ConditionOperator.GREATER_THAN, 100)));
+
+        assertTrue(predicate.test(Map.of("status", "OPEN", "amount", 150)));
+        assertFalse(predicate.test(Map.of("status", "OPEN", "amount", 50)));
+        assertFalse(predicate.test(Map.of("status", "CLOSED", "amount", 150)));
+    }
+
+    @Test
+    void compile_nestedOrGroup() {
+        EdgeCondition either = group(ConditionLogic.OR,
+                leaf("priority", ConditionOperator.EQUALS, "HIGH"),
+                leaf("amount", ConditionOperator.GREATER_EQUAL, "1000"));
+        ConditionPredicate predicate = ConditionCompiler.compile(List.of(
+                leaf("region", ConditionOperator.IS_NOT_EMPTY, null), either));
+
+        assertTrue(predicate.test(Map.of("region", "EU", "priority", "HIGH")));
+        assertTrue(predicate.test(Map.of("region", "EU", "amount", "1000.0")));
+        assertFalse(predicate.test(Map.of("region", "EU", "amount", 999)));
+        assertFalse(predicate.test(Map.of("region", " ", "priority", "HIGH")));
+    }
+
+    @Test
+    void numericOperators_failOnNonNumericValuesWithoutThrowing() {
+        ConditionPredicate lessThan = ConditionCompiler.compile(List.of(leaf("amount", ConditionOperator.LESS_THAN, 10)));
+
+        assertTrue(lessThan.test(Map.of("amount", " 9.5 ")));
+        assertFalse(lessThan.test(Map.of("amount", "abc")));
+        assertFalse(lessThan.test(Map.of()));
+        assertFalse(ConditionCompiler.compile(List.of(leaf("amount", ConditionOperator.LESS_THAN, "n/a")))
+                .test(Map.of("amount", 1)));
+    }
+
+    @Test
+    void toDouble_parsesPlainDecimalsOnly() {
+        assertEquals(-12.5, ConditionCompiler.toDouble("-12.5"));
+        assertEquals(1500.0, ConditionCompiler.toDouble("1.5e3"));
+        assertTrue(Double.isNaN(ConditionCompiler.toDouble("1e")));
+        assertTrue(Double.isNaN(ConditionCompiler.toDouble("0x10")));
+        assertTrue(Double.isNaN(ConditionCompiler.toDouble("NaN")));
+        assertTrue(Double.isNaN(ConditionCompiler.toDouble(List.of(1))));
+    }
+
+    @Test
+    void contains_handlesStringsAndCollections() {
+        ConditionPredicate predicate = ConditionCompiler.compile(List.of(leaf("tags", ConditionOperator.CONTAINS, "urgent")));
+
+        assertTrue(predicate.test(Map.of("tags", List.of("urgent", "vip"))));
+        assertTrue(predicate.test(Map.of("tags", "non-urgent")));
+        assertFalse(predicate.test(Map.of("tags", 42)));
+    }
+
+    static EdgeCondition leaf(String field, ConditionOperator operator, Object value) {
+        EdgeCondition condition = new EdgeCondition();
+        condition.setField(field);
+        condition.setOperator(operator);
+        condition.setValue(value);
+        return condition;
+    }
+
+    static EdgeCondition group(ConditionLogic logic, EdgeCondition... children) {
+        EdgeCondition condition = new EdgeCondition();
+        condition.setLogic(logic);
+        condition.setConditions(List.of(children));
+        return condition;
+    }
+}
@@ -0,0 +1,170 @@
+package com.adaptivebp.modules.workflow.runtime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.adaptivebp.modules.formbuilder.model.DomainFieldType;
+import com.adaptivebp.modules.formbuilder.model.DomainModelField;
+import com.adaptivebp.modules.workflow.model.WorkflowDefinition;
+import com.adaptivebp.modules.workflow.model.WorkflowEdge;
+import com.adaptivebp.modules.workflow.model.WorkflowStep;
+import com.adaptivebp.modules.workflow.repository.WorkflowDefinitionRepository;
+import com.adaptivebp.shared.security.PermissionInvalidationBroadcaster;
+
+@ExtendWith(MockitoExtension.class)
+class WorkflowDefinitionCacheTest {
+
+    @Mock
+    private WorkflowDefinitionRepository definitionRepository;
+
+    @Mock
+    private PermissionInvalidationBroadcaster broadcaster;
+
+    private WorkflowDefinitionCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new WorkflowDefinitionCache(2, 300);
+        ReflectionTestUtils.setField(cache, "definitionRepository", definitionRepository);
+        ReflectionTestUtils.setField(cache, "broadcaster", broadcaster);
+        setClock(Instant.parse("2026-01-01T00:00:00Z"));
+    }
+
+    @Test
+    void compile_indexesStepsEdgesAndVisibleFields() {
+        CompiledWorkflow compiled = CompiledWorkflow.compile(definition("wf-1", 1));
+
+        assertEquals("submit", compiled.findStartStep().getId());
+        assertEquals("approve", compiled.findEdge("review", "approve").getId());
+        assertEquals("cancel", compiled.findEdge("review", "cancel").getId());
+        assertNull(compiled.findEdge("submit", "approve"));
+        assertEquals(List.of("send", "cancel"),
+                compiled.candidateEdges("submit").stream().map(WorkflowEdge::getId).toList());
+        assertEquals(List.of("comment", "amount"),
+                compiled.visibleFields("review").stream().map(DomainModelField::getKey).toList());
+        assertEquals(DomainFieldType.NUMBER, compiled.findField("amount").getType());
+    }
+
+    @Test
+    void get_loadsOncePerVersionUntilInvalidated() {
+        when(definitionRepository.findById("wf-1")).thenReturn(Optional.of(definition("wf-1", 3)));
+
+        CompiledWorkflow first = cache.get("wf-1", 3);
+        assertSame(first, cache.get("wf-1", 3));
+        verify(definitionRepository, times(1)).findById("wf-1");
+
+        cache.invalidate("wf-1");
+        cache.get("wf-1", 3);
+        verify(definitionRepository, times(2)).findById("wf-1");
+        verify(broadcaster).broadcast(WorkflowDefinitionCache.TOPIC, "wf-1");
+    }
+
+    @Test
+    void get_doesNotCacheALoadThatRacedWithAnInvalidation() {
+        when(definitionRepository.findById("wf-1")).thenAnswer(invocation -> {
+            // Another node saved the definition while this one was reading it
+            cache.evict("wf-1");
+            return Optional.of(definition("wf-1", 3));
+        });
+
+        cache.get("wf-1", 3);
+        cache.get("wf-1", 3);
+
+        verify(definitionRepository, times(2)).findById("wf-1");
+    }
+
+    @Test
+    void get_reloadsOnceTheTtlHasPassed() {
+        when(definitionRepository.findById("wf-1")).thenReturn(Optional.of(definition("wf-1", 3)));
+        cache.get("wf-1", 3);
+
+        setClock(Instant.parse("2026-01-01T00:04:59Z"));
+        cache.get("wf-1", 3);
+        verify(definitionRepository, times(1)).findById("wf-1");
+
+        setClock(Instant.parse("2026-01-01T00:05:00Z"));
+        cache.get("wf-1", 3);
+        verify(definitionRepository, times(2)).findById("wf-1");
+    }
+
+    @Test
+    void get_cachesUnderRequestedVersionWhenDefinitionWasRepublished() {
+        when(definitionRepository.findById("wf-1")).thenReturn(Optional.of(definition("wf-1", 4)));
+
+        CompiledWorkflow first = cache.get("wf-1", 3);
+        assertSame(first, cache.get("wf-1", 3));
+        assertSame(first, cache.getOrNull("wf-1", 4));
+        verify(definitionRepository, times(1)).findById("wf-1");
+    }
+
+    @Test
+    void put_evictsLeastRecentlyUsedBeyondCapacity() {
+        when(definitionRepository.findById("wf-1")).thenReturn(Optional.of(definition("wf-1", 1)));
+        cache.put(definition("wf-1", 1));
+        cache.put(definition("wf-2", 1));
+        cache.put(definition("wf-3", 1));
+
+        cache.get("wf-1", 1);
+        verify(definitionRepository, times(1)).findById("wf-1");
+    }
+
+    private void setClock(Instant now) {
+        ReflectionTestUtils.setField(cache, "clock", Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    private WorkflowDefinition definition(String id, int version) {
+        WorkflowStep submit = step("submit", 1, field("amount", DomainFieldType.NUMBER));
+        submit.setStart(true);
+        submit.setEdges(List.of(edge("send", "review")));
+
+        WorkflowStep review = step("review", 2, field("comment", DomainFieldType.STRING));
+        review.setReadonlyFieldKeys(List.of("amount", "missing"));
+        review.setEdges(List.of(edge("approve", null)));
+
+        WorkflowDefinition definition = new WorkflowDefinition();
+        definition.setId(id);
+        definition.setVersion(version);
+        definition.setSteps(List.of(submit, review));
+        definition.setGlobalEdges(List.of(edge("cancel", null)));
+        return definition;
+    }
+
+    private WorkflowStep step(String id, int order, DomainModelField field) {
+        WorkflowStep step = new WorkflowStep();
+        step.setId(id);
+        step.setOrder(order);
+        step.setFields(List.of(field));
+        return step;
+    }
+
+    private DomainModelField field(String key, DomainFieldType type) {
+        DomainModelField field = new DomainModelField();
+        field.setKey(key);
+        field.setType(type);
+        return field;
+    }
+
+    private WorkflowEdge edge(String id, String target) {
+        WorkflowEdge edge = new WorkflowEdge();
+        edge.setId(id);
+        edge.setTargetStepId(target);
+        return edge;
+    }
+}
@@ -0,0 +1,145 @@
+package com.adaptivebp.modules.workflow.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.adaptivebp.modules.workflow.model.AutoAction;
+import com.adaptivebp.modules.workflow.model.WorkflowActionOutboxEntry;
+import com.adaptivebp.modules.workflow.model.WorkflowEdge;
+import com.adaptivebp.modules.workflow.model.WorkflowInstance;
+import com.adaptivebp.modules.workflow.model.enums.AutoActionStatus;
+import com.adaptivebp.modules.workflow.model.enums.AutoActionType;
+
+@ExtendWith(MockitoExtension.class)
+class AutoActionOutboxServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private AutoActionExecutor executor;
+
+    @InjectMocks
+    private AutoActionOutboxService outbox;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(outbox, "maxAttempts", 3);
+        ReflectionTestUtils.setField(outbox, "backoffMillis", 1000L);
+        ReflectionTestUtils.setField(outbox, "maxBackoffMillis", 5000L);
+    }
+
+    @Test
+    void stage_pushesEntriesKeyedByInstanceVersionAndResolvesRecordData() {
+        WorkflowInstance instance = new WorkflowInstance();
+        instance.setId("i-1");
+        instance.setAppId("app-1");
+        instance.getPrimaryRecord().put("employee", "E-7");
+
+        AutoAction create = new AutoAction();
+        create.setType(AutoActionType.CREATE_RECORD);
+        create.setConfig(Map.of("modelId", "m-1", "data", Map.of("kind", "leave"),
+                "fieldMapping", Map.of("employeeId", "employee")));
+        AutoAction notify = new AutoAction();
+        notify.setType(AutoActionType.SEND_NOTIFICATION);
+        WorkflowEdge edge = new WorkflowEdge();
+        edge.setId("approve");
+        edge.setAutoActions(List.of(create, notify));
+        Update update = new Update();
+
+        List<WorkflowActionOutboxEntry> entries = outbox.stage(instance, edge, "review", 4, "u-1", update);
+
+        assertEquals(List.of("i-1:4:0", "i-1:4:1"), entries.stream().map(WorkflowActionOutboxEntry::getId).toList());
+        assertEquals(Map.of("kind", "leave", "employeeId", "E-7"), entries.get(0).getConfig().get("data"));
+        assertNotNull(entries.get(0).getConfig().get("recordId"));
+        assertTrue(((Document) update.getUpdateObject().get("$push")).containsKey("pendingActions"));
+    }
+
+    @Test
+    void process_marksDoneOnSuccess() {
+        WorkflowActionOutboxEntry entry = claimed(1);
+
+        outbox.process(entry);
+
+        assertEquals("DONE", statusWritten());
+    }
+
+    @Test
+    void process_reschedulesTransientFailureWithBackoff() {
+        WorkflowActionOutboxEntry entry = claimed(2);
+        doThrow(new IllegalStateException("mongo down")).when(executor).execute(entry);
+
+        Instant before = Instant.now();
+        outbox.process(entry);
+
+        Update update = lastUpdate();
+        Document set = (Document) update.getUpdateObject().get("$set");
+        assertEquals(AutoActionStatus.PENDING, set.get("status"));
+        assertTrue(!((Instant) set.get("nextAttemptAt")).isBefore(before.plusMillis(2000)));
+    }
+
+    @Test
+    void process_failsPermanentlyOnBadConfigOrExhaustedAttempts() {
+        WorkflowActionOutboxEntry badConfig = claimed(1);
+        doThrow(new IllegalArgumentException("no field")).when(executor).execute(badConfig);
+        outbox.process(badConfig);
+        assertEquals("FAILED", statusWritten());
+
+        WorkflowActionOutboxEntry exhausted = claimed(3);
+        doThrow(new IllegalStateException("still down")).when(executor).execute(exhausted);
+        outbox.process(exhausted);
+        assertEquals("FAILED", statusWritten());
+    }
+
+    @Test
+    void backoff_doublesUpToCap() {
+        assertEquals(1000, outbox.backoff(1));
+        assertEquals(4000, outbox.backoff(3));
+        assertEquals(5000, outbox.backoff(10));
+    }
+
+    private WorkflowActionOutboxEntry claimed(int attempts) {
+        WorkflowActionOutboxEntry entry = new WorkflowActionOutboxEntry();
+        entry.setId("i-1:1:" + attempts);
+        entry.setType(AutoActionType.UPDATE_FIELD);
+        entry.setStatus(AutoActionStatus.RUNNING);
+        entry.setAttempts(attempts);
+        entry.setCreatedAt(Instant.now());
+        return entry;
+    }
+
+    private String statusWritten() {
+        Document set = (Document) lastUpdate().getUpdateObject().get("$set");
+        return String.valueOf(set.get("status"));
+    }
+
+    private Update lastUpdate() {
+        ArgumentCaptor<Update> captor = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, atLeastOnce())
+                .updateFirst(any(Query.class), captor.capture(), eq(WorkflowActionOutboxEntry.class));
+        return captor.getValue();
+    }
+}
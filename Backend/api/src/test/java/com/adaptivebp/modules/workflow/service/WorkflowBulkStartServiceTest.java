@@ -0,0 +1,154 @@
+package com.adaptivebp.modules.workflow.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.adaptivebp.modules.workflow.exception.InvalidFormDataException;
+import com.adaptivebp.modules.workflow.model.WorkflowDefinition;
+import com.adaptivebp.modules.workflow.model.WorkflowStartJob;
+import com.adaptivebp.modules.workflow.model.WorkflowStartJobRow;
+import com.adaptivebp.modules.workflow.model.enums.StartJobRowStatus;
+import com.adaptivebp.modules.workflow.model.enums.StartJobStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.client.result.UpdateResult;
+
+@ExtendWith(MockitoExtension.class)
+class WorkflowBulkStartServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private WorkflowEngineService engineService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private WorkflowBulkStartService service;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "maxRows", 3);
+        ReflectionTestUtils.setField(service, "batchSize", 2);
+        ReflectionTestUtils.setField(service, "leaseMillis", 60000L);
+    }
+
+    @Test
+    void submit_acceptsNdjsonAndJsonArraysAndQueuesTheJob() {
+        when(engineService.findPublishedBySlug("d-1", "app-1", "leave")).thenReturn(definition());
+
+        for (String body : List.of(
+                "{\"formData\":{\"days\":2}}\n{\"formData\":{\"days\":3}}\n",
+                "[{\"formData\":{\"days\":2}},{\"formData\":{\"days\":3}}]")) {
+            WorkflowStartJob job = service.submit("d-1", "app-1", "leave", stream(body), "alice", "Alice");
+            assertEquals(StartJobStatus.QUEUED, job.getStatus());
+            assertEquals(2, job.getTotal());
+        }
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<WorkflowStartJobRow>> rows = ArgumentCaptor.forClass(List.class);
+        verify(mongoTemplate, times(2)).insert(rows.capture(), eq(WorkflowStartJobRow.class));
+        for (List<WorkflowStartJobRow> batch : rows.getAllValues()) {
+            assertEquals(List.of(0, 1), batch.stream().map(WorkflowStartJobRow::getRow).toList());
+            assertEquals(Map.of("days", 3), batch.get(1).getFormData());
+        }
+    }
+
+    @Test
+    void submit_rejectsOversizedOrMalformedUploadsAndDiscardsTheJob() {
+        when(engineService.findPublishedBySlug("d-1", "app-1", "leave")).thenReturn(definition());
+
+        assertThrows(IllegalArgumentException.class, () -> service.submit("d-1", "app-1", "leave",
+                stream("{}\n{}\n{}\n{}\n"), "alice", "Alice"));
+        assertThrows(IllegalArgumentException.class, () -> service.submit("d-1", "app-1", "leave",
+                stream("{\"formData\":{}}\n{not json"), "alice", "Alice"));
+
+        verify(mongoTemplate, times(2)).remove(any(Query.class), eq(WorkflowStartJob.class));
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(WorkflowStartJob.class));
+    }
+
+    @Test
+    void run_startsPendingRowsInBatchesAndRecordsEachOutcome() {
+        WorkflowStartJob job = new WorkflowStartJob();
+        job.setId("job-1");
+        job.setWorkflowDefinitionId("wf-1");
+        job.setClaimToken("token");
+        job.setCreatedBy("alice");
+        when(mongoTemplate.findById("wf-1", WorkflowDefinition.class)).thenReturn(definition());
+        when(mongoTemplate.find(any(Query.class), eq(WorkflowStartJobRow.class)))
+                .thenReturn(List.of(row(0), row(1)))
+                .thenReturn(List.of());
+        InvalidFormDataException invalid = new InvalidFormDataException("Invalid start step form data",
+                Map.of("days", "required"));
+        when(engineService.startWorkflows(any(), eq(List.of("i-0", "i-1")), anyList(), eq("alice"), any()))
+                .thenReturn(Arrays.asList(null, invalid));
+        BulkOperations ops = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, WorkflowStartJobRow.class)).thenReturn(ops);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(WorkflowStartJob.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        service.run(job);
+
+        ArgumentCaptor<Update> outcomes = ArgumentCaptor.forClass(Update.class);
+        verify(ops, times(2)).updateOne(any(Query.class), outcomes.capture());
+        Document started = (Document) outcomes.getAllValues().get(0).getUpdateObject().get("$set");
+        Document failed = (Document) outcomes.getAllValues().get(1).getUpdateObject().get("$set");
+        assertEquals(StartJobRowStatus.STARTED, started.get("status"));
+        assertEquals("INVALID_FORM_DATA", failed.get("error"));
+        assertEquals(Map.of("days", "required"), failed.get("details"));
+
+        ArgumentCaptor<Update> jobUpdates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(2)).updateFirst(any(Query.class), jobUpdates.capture(), eq(WorkflowStartJob.class));
+        Document finished = (Document) jobUpdates.getAllValues().get(1).getUpdateObject().get("$set");
+        assertEquals(StartJobStatus.COMPLETED, finished.get("status"));
+    }
+
+    private WorkflowDefinition definition() {
+        WorkflowDefinition definition = new WorkflowDefinition();
+        definition.setId("wf-1");
+        return definition;
+    }
+
+    private WorkflowStartJobRow row(int index) {
+        WorkflowStartJobRow row = new WorkflowStartJobRow();
+        row.setId("r-" + index);
+        row.setRow(index);
+        row.setInstanceId("i-" + index);
+        row.setFormData(Map.of());
+        return row;
+    }
+
+    private ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,53 @@
+package com.adaptivebp.modules.workflow.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.adaptivebp.modules.workflow.model.WorkflowDefinition;
+import com.adaptivebp.modules.workflow.model.enums.InstanceStatus;
+import com.adaptivebp.modules.workflow.model.enums.WorkflowStatus;
+import com.adaptivebp.modules.workflow.repository.WorkflowDefinitionRepository;
+import com.adaptivebp.modules.workflow.repository.WorkflowInstanceRepository;
+import com.adaptivebp.modules.workflow.runtime.WorkflowDefinitionCache;
+
+@ExtendWith(MockitoExtension.class)
+class WorkflowDefinitionServiceTest {
+
+    @Mock
+    private WorkflowDefinitionRepository definitionRepository;
+
+    @Mock
+    private WorkflowInstanceRepository instanceRepository;
+
+    @Mock
+    private WorkflowDefinitionCache definitionCache;
+
+    @InjectMocks
+    private WorkflowDefinitionService definitionService;
+
+    @Test
+    void archiveWorkflow_bumpsRevisionSoCachedCopiesGoStale() {
+        WorkflowDefinition published = new WorkflowDefinition();
+        published.setId("wf-1");
+        published.setStatus(WorkflowStatus.PUBLISHED);
+        published.setRevision(4);
+        when(definitionRepository.findByDomainIdAndAppIdAndSlugAndStatus("d1", "a1", "leave", WorkflowStatus.PUBLISHED))
+                .thenReturn(Optional.of(published));
+        when(instanceRepository.countByWorkflowDefinitionIdAndStatus("wf-1", InstanceStatus.ACTIVE)).thenReturn(0L);
+        when(definitionRepository.save(any(WorkflowDefinition.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        WorkflowDefinition archived = definitionService.archiveWorkflow("d1", "a1", "leave");
+
+        assertEquals(WorkflowStatus.ARCHIVED, archived.getStatus());
+        assertEquals(5, archived.getRevision());
+    }
+}
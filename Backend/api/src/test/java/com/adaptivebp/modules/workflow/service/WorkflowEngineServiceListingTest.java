@@ -0,0 +1,264 @@
+package com.adaptivebp.modules.workflow.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.adaptivebp.modules.appmanagement.model.AppGroup;
+import com.adaptivebp.modules.appmanagement.model.AppGroupMember;
+import com.adaptivebp.modules.appmanagement.permission.AppPermission;
+import com.adaptivebp.modules.appmanagement.repository.AppGroupMemberRepository;
+import com.adaptivebp.modules.appmanagement.repository.AppGroupRepository;
+import com.adaptivebp.modules.appmanagement.service.AppGroupQueryService;
+import com.adaptivebp.modules.organisation.model.DomainGroup;
+import com.adaptivebp.modules.organisation.model.DomainGroupMember;
+import com.adaptivebp.modules.organisation.model.enums.DomainGroupType;
+import com.adaptivebp.modules.organisation.repository.DomainGroupMemberRepository;
+import com.adaptivebp.modules.organisation.repository.DomainGroupRepository;
+import com.adaptivebp.modules.workflow.dto.response.InstancePageResponse;
+import com.adaptivebp.modules.workflow.dto.response.StepViewResponse;
+import com.adaptivebp.modules.workflow.dto.response.TaskListResponse;
+import com.adaptivebp.modules.workflow.model.InstanceHistory;
+import com.adaptivebp.modules.workflow.model.WorkflowDefinition;
+import com.adaptivebp.modules.workflow.model.WorkflowEdge;
+import com.adaptivebp.modules.workflow.model.WorkflowInstance;
+import com.adaptivebp.modules.workflow.model.WorkflowStep;
+import com.adaptivebp.modules.workflow.model.WorkflowTaskEntry;
+import com.adaptivebp.modules.workflow.model.WorkflowTaskInboxState;
+import com.adaptivebp.modules.workflow.model.enums.InstanceStatus;
+import com.adaptivebp.modules.workflow.repository.WorkflowInstanceRepository;
+import com.adaptivebp.modules.workflow.runtime.CompiledWorkflow;
+import com.adaptivebp.modules.workflow.runtime.WorkflowDefinitionCache;
+import com.adaptivebp.shared.observability.MongoCommandStats;
+import com.adaptivebp.shared.observability.MongoCommandTracker;
+import com.adaptivebp.shared.observability.MongoQueryBudget;
+import com.adaptivebp.shared.security.PermissionSnapshotCache;
+
+@ExtendWith(MockitoExtension.class)
+class WorkflowEngineServiceListingTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private WorkflowEngineService engineService;
+
+    @Test
+    void listInstances_projectsFiltersAndReturnsNextCursor() {
+        when(mongoTemplate.find(any(Query.class), eq(WorkflowInstance.class))).thenReturn(List.of(
+                instance("i-3", 3_000), instance("i-2", 2_000), instance("i-1", 1_000)));
+
+        InstancePageResponse page = engineService.listInstances(
+                "d-1", "a-1", "alice", InstanceStatus.ACTIVE, "review", null, 2);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(WorkflowInstance.class));
+        Document filter = query.getValue().getQueryObject();
+        assertEquals("alice", filter.get("startedBy"));
+        assertEquals(InstanceStatus.ACTIVE, filter.get("status"));
+        assertEquals("review", filter.get("currentStepId"));
+        assertEquals(3, query.getValue().getLimit());
+        Document fields = query.getValue().getFieldsObject();
+        assertTrue(fields.containsKey("currentStepId"));
+        assertFalse(fields.containsKey("history"));
+
+        assertEquals(List.of("i-3", "i-2"), page.getInstances().stream().map(i -> i.getId()).toList());
+        assertEquals("2000_i-2", page.getNextCursor());
+    }
+
+    @Test
+    void listInstances_continuesAfterCursor() {
+        when(mongoTemplate.find(any(Query.class), eq(WorkflowInstance.class)))
+                .thenReturn(List.of(instance("i-1", 1_000)));
+
+        InstancePageResponse page = engineService.listInstances("d-1", "a-1", null, null, null, "2000_i-2", 2);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(WorkflowInstance.class));
+        assertTrue(query.getValue().getQueryObject().containsKey("$or"));
+        assertEquals(1, page.getCount());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void getMyTasks_staysWithinQueryBudgetWithColdCaches() throws Throwable {
+        MongoCommandTracker tracker = tracker();
+        WorkflowEngineService engine = countedEngine(tracker);
+        MongoTemplate template = (MongoTemplate) ReflectionTestUtils.getField(engine, "mongoTemplate");
+        when(template.findById("d-1:a-1", WorkflowTaskInboxState.class)).thenReturn(new WorkflowTaskInboxState());
+        List<WorkflowTaskEntry> rows = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            WorkflowTaskEntry row = new WorkflowTaskEntry();
+            row.setInstanceId("i-" + i);
+            row.setWaitingSince(Instant.ofEpochMilli(1_000 + i));
+            row.setAssignee(i % 2 == 0 ? "role:manager" : "user:bob");
+            row.setEdges(List.of(Map.of("id", "approve", "name", "Approve")));
+            rows.add(row);
+        }
+        when(template.find(any(Query.class), eq(WorkflowTaskEntry.class))).thenReturn(rows);
+
+        TaskListResponse[] page = new TaskListResponse[1];
+        MongoCommandStats stats = MongoQueryBudget.assertAtMost(tracker, 4,
+                () -> page[0] = engine.getMyTasks("bob", "d-1", "a-1", null, 20));
+
+        assertEquals(20, page[0].getCount());
+        assertEquals(1L, stats.getCommandsBySource().get("MongoTemplate.find"));
+    }
+
+    @Test
+    void getStepView_staysWithinQueryBudgetWithColdCaches() throws Throwable {
+        MongoCommandTracker tracker = tracker();
+        WorkflowEngineService engine = countedEngine(tracker);
+        WorkflowInstance instance = instance("i-1", 1_000);
+        instance.setDomainId("d-1");
+        instance.setAppId("a-1");
+        instance.setStartedBy("alice");
+        instance.setWorkflowDefinitionId("wf-1");
+        instance.setWorkflowVersion(1);
+        instance.setCurrentStepId("review");
+        instance.setPrimaryRecord(new HashMap<>(Map.of("amount", 25)));
+        instance.setHistoryCount(40);
+        List<InstanceHistory> recent = new ArrayList<>();
+        for (int i = 30; i < 40; i++) {
+            InstanceHistory entry = new InstanceHistory();
+            entry.setSequence(i);
+            recent.add(entry);
+        }
+        instance.setRecentHistory(recent);
+        WorkflowInstanceRepository instances = (WorkflowInstanceRepository) ReflectionTestUtils.getField(engine,
+                "instanceRepository");
+        when(instances.findById("i-1")).thenReturn(Optional.of(instance));
+        WorkflowDefinitionCache definitionCache = mock(WorkflowDefinitionCache.class);
+        ReflectionTestUtils.setField(engine, "definitionCache", definitionCache);
+        when(definitionCache.get("wf-1", 1)).thenReturn(reviewWorkflow());
+        Object appGroupQuery = ReflectionTestUtils.getField(engine, "appGroupQueryPort");
+        AppGroupMemberRepository appMembers = (AppGroupMemberRepository) ReflectionTestUtils.getField(appGroupQuery,
+                "appGroupMemberRepository");
+        AppGroupRepository appGroups = (AppGroupRepository) ReflectionTestUtils.getField(appGroupQuery,
+                "appGroupRepository");
+        AppGroupMember appMember = new AppGroupMember();
+        appMember.setGroupId("g-exec");
+        AppGroup executors = new AppGroup();
+        executors.setId("g-exec");
+        executors.setPermissions(Set.of(AppPermission.APP_EXECUTE_WORKFLOW));
+        when(appMembers.findByAppIdAndUserId("a-1", "bob")).thenReturn(List.of(appMember));
+        when(appGroups.findAllById(any())).thenReturn(List.of(executors));
+
+        StepViewResponse[] view = new StepViewResponse[1];
+        MongoQueryBudget.assertAtMost(tracker, 5, () -> view[0] = engine.getStepView("i-1", "bob"));
+
+        assertEquals(10, view[0].getHistory().size());
+        assertEquals(List.of("approve", "reject"), view[0].getAvailableEdges().stream()
+                .map(StepViewResponse.EdgeView::getId).toList());
+    }
+
+    private MongoCommandTracker tracker() {
+        MongoCommandTracker tracker = new MongoCommandTracker();
+        ReflectionTestUtils.setField(tracker, "enabled", true);
+        ReflectionTestUtils.setField(tracker, "slowCommandMillis", -1L);
+        return tracker;
+    }
+
+    /**
+     * An engine whose data access is mocked and counted, with the permission and role caches
+     * always missing. Bob is a manager; the app permissions are stubbed by the tests that read them.
+     */
+    @SuppressWarnings("unchecked")
+    private WorkflowEngineService countedEngine(MongoCommandTracker tracker) {
+        PermissionSnapshotCache permissionCache = mock(PermissionSnapshotCache.class);
+        when(permissionCache.get(anyString(), anyString(), anyString(), any()))
+                .thenAnswer(invocation -> ((Supplier<Object>) invocation.getArgument(3)).get());
+
+        MongoTemplate template = mock(MongoTemplate.class, MongoQueryBudget.roundTrips(tracker));
+        WorkflowHistoryService history = new WorkflowHistoryService();
+        ReflectionTestUtils.setField(history, "mongoTemplate", template);
+        WorkflowTaskInboxService inbox = new WorkflowTaskInboxService();
+        ReflectionTestUtils.setField(inbox, "mongoTemplate", template);
+
+        AppGroupMemberRepository appMembers = mock(AppGroupMemberRepository.class,
+                MongoQueryBudget.roundTrips(tracker));
+        AppGroupRepository appGroups = mock(AppGroupRepository.class, MongoQueryBudget.roundTrips(tracker));
+        AppGroupQueryService appGroupQuery = new AppGroupQueryService();
+        ReflectionTestUtils.setField(appGroupQuery, "appGroupMemberRepository", appMembers);
+        ReflectionTestUtils.setField(appGroupQuery, "appGroupRepository", appGroups);
+        ReflectionTestUtils.setField(appGroupQuery, "permissionCache", permissionCache);
+
+        DomainGroupMemberRepository domainMembers = mock(DomainGroupMemberRepository.class,
+                MongoQueryBudget.roundTrips(tracker));
+        DomainGroupRepository domainGroups = mock(DomainGroupRepository.class, MongoQueryBudget.roundTrips(tracker));
+        DomainGroupMember domainMember = new DomainGroupMember();
+        domainMember.setDomainGroupId("g-managers");
+        DomainGroup managers = new DomainGroup();
+        managers.setId("g-managers");
+        managers.setName("Manager");
+        managers.setGroupType(DomainGroupType.WORKFLOW_ROLE);
+        when(domainMembers.findByDomainIdAndUserId("d-1", "bob")).thenReturn(List.of(domainMember));
+        when(domainGroups.findAllById(any())).thenReturn(List.of(managers));
+
+        WorkflowEngineService engine = new WorkflowEngineService();
+        ReflectionTestUtils.setField(engine, "mongoTemplate", template);
+        ReflectionTestUtils.setField(engine, "instanceRepository", mock(WorkflowInstanceRepository.class,
+                MongoQueryBudget.roundTrips(tracker)));
+        ReflectionTestUtils.setField(engine, "historyService", history);
+        ReflectionTestUtils.setField(engine, "inboxService", inbox);
+        ReflectionTestUtils.setField(engine, "appGroupQueryPort", appGroupQuery);
+        ReflectionTestUtils.setField(engine, "domainGroupMemberRepository", domainMembers);
+        ReflectionTestUtils.setField(engine, "domainGroupRepository", domainGroups);
+        ReflectionTestUtils.setField(engine, "permissionCache", permissionCache);
+        return engine;
+    }
+
+    private CompiledWorkflow reviewWorkflow() {
+        List<WorkflowEdge> edges = new ArrayList<>();
+        for (String id : List.of("approve", "reject", "escalate")) {
+            WorkflowEdge edge = new WorkflowEdge();
+            edge.setId(id);
+            edge.setName(id);
+            edge.setAllowedRoles(List.of(id.equals("escalate") ? "Director" : "Manager"));
+            edges.add(edge);
+        }
+        WorkflowStep review = new WorkflowStep();
+        review.setId("review");
+        review.setName("Review");
+        review.setEdges(edges);
+        WorkflowDefinition definition = new WorkflowDefinition();
+        definition.setId("wf-1");
+        definition.setName("Expenses");
+        definition.setSteps(List.of(review));
+        return CompiledWorkflow.compile(definition);
+    }
+
+    private WorkflowInstance instance(String id, long startedAtMillis) {
+        WorkflowInstance instance = new WorkflowInstance();
+        instance.setId(id);
+        instance.setStartedAt(Instant.ofEpochMilli(startedAtMillis));
+        return instance;
+    }
+}
@@ -0,0 +1,389 @@
+package com.adaptivebp.modules.workflow.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.adaptivebp.modules.appmanagement.port.AppGroupQueryPort;
+import com.adaptivebp.modules.organisation.repository.DomainGroupMemberRepository;
+import com.adaptivebp.modules.workflow.dto.request.BulkExecuteRequest;
+import com.adaptivebp.modules.workflow.dto.response.BulkExecuteResponse;
+import com.adaptivebp.modules.workflow.dto.response.ExecuteEdgeResponse;
+import com.adaptivebp.modules.workflow.exception.WorkflowConflictException;
+import com.adaptivebp.modules.workflow.model.InstanceHistory;
+import com.adaptivebp.modules.workflow.model.WorkflowActionOutboxEntry;
+import com.adaptivebp.modules.workflow.model.WorkflowDefinition;
+import com.adaptivebp.modules.workflow.model.WorkflowEdge;
+import com.adaptivebp.modules.workflow.model.WorkflowInstance;
+import com.adaptivebp.modules.workflow.model.WorkflowStep;
+import com.adaptivebp.modules.workflow.repository.WorkflowInstanceRepository;
+import com.adaptivebp.modules.workflow.runtime.CompiledWorkflow;
+import com.adaptivebp.modules.workflow.runtime.WorkflowDefinitionCache;
+import com.adaptivebp.shared.security.PermissionSnapshotCache;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.result.UpdateResult;
+
+@ExtendWith(MockitoExtension.class)
+class WorkflowEngineServiceTransitionTest {
+
+    @Mock
+    private WorkflowInstanceRepository instanceRepository;
+
+    @Mock
+    private WorkflowDefinitionCache definitionCache;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private WorkflowHistoryService historyService;
+
+    @Mock
+    private WorkflowTaskInboxService inboxService;
+
+    @Mock
+    private AutoActionOutboxService actionOutbox;
+
+    @Mock
+    private WorkflowTimerService timerService;
+
+    @Mock
+    private WorkflowStatsService statsService;
+
+    @Mock
+    private WorkflowEventService eventService;
+
+    @Mock
+    private AppGroupQueryPort appGroupQueryPort;
+
+    @Mock
+    private DomainGroupMemberRepository domainGroupMemberRepository;
+
+    @Spy
+    private PermissionSnapshotCache permissionCache = new PermissionSnapshotCache(100, 0);
+
+
+
+    @InjectMocks
+    private WorkflowEngineService engineService;
+
+    private WorkflowEdge approve;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(engineService, "conflictRetries", 2);
+
+        approve = new WorkflowEdge();
+        approve.setId("approve");
+        approve.setName("Approve");
+        approve.setTargetStepId("done");
+
+        WorkflowStep review = new WorkflowStep();
+        review.setId("review");
+        review.setStart(true);
+        review.setEdges(List.of(approve));
+        WorkflowStep done = new WorkflowStep();
+        done.setId("done");
+
+        WorkflowDefinition definition = new WorkflowDefinition();
+        definition.setId("wf-1");
+        definition.setVersion(1);
+        definition.setSteps(List.of(review, done));
+        when(definitionCache.get("wf-1", 1)).thenReturn(CompiledWorkflow.compile(definition));
+    }
+
+    @Test
+    void executeEdge_writesOnlyTheDeltaWhenStepAndVersionStillMatch() {
+        WorkflowInstance stored = instance("review", 4L);
+        stored.getPrimaryRecord().put("amount", 10);
+        stored.getPrimaryRecord().put("title", "Laptop");
+        when(instanceRepository.findById("i-1")).thenReturn(Optional.of(stored));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(WorkflowInstance.class))).thenReturn(matched(1));
+
+        ExecuteEdgeResponse response = engineService.executeEdge(
+                "i-1", "approve", Map.of("amount", 25, "title", "Laptop"), null, "alice", "Alice");
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(query.capture(), update.capture(), eq(WorkflowInstance.class));
+        Document filter = query.getValue().getQueryObject();
+        assertEquals("review", filter.get("currentStepId"));
+        assertEquals(4L, filter.get("version"));
+
+        Document set = (Document) update.getValue().getUpdateObject().get("$set");
+        assertEquals(Set.of("stepRecords.review", "primaryRecord.amount", "currentStepId", "stepEnteredAt", "version"),
+                set.keySet());
+        assertEquals(25, set.get("primaryRecord.amount"));
+        assertEquals(5L, set.get("version"));
+        assertEquals(1, ((Document) update.getValue().getUpdateObject().get("$inc")).get("revision"));
+        assertEquals("5-1", WorkflowEngineService.eTag(stored));
+        verify(historyService).appendAll(argThat(staged -> staged.keySet().equals(Set.of(stored))));
+        verify(historyService).confirmation(eq(stored), any());
+        assertEquals("done", response.getCurrentStepId());
+    }
+
+    @Test
+    void executeEdge_confirmsHistoryAndReleasesActionsInOneFollowUpWrite() {
+        WorkflowInstance stored = instance("review", 4L);
+        when(instanceRepository.findById("i-1")).thenReturn(Optional.of(stored));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(WorkflowInstance.class))).thenReturn(matched(1));
+        WorkflowActionOutboxEntry action = new WorkflowActionOutboxEntry();
+        action.setInstanceVersion(5L);
+        when(actionOutbox.stage(eq(stored), eq(approve), eq("review"), eq(5L), eq("alice"), any(Update.class)))
+                .thenReturn(List.of(action));
+        Update confirmation = new Update().pull("pendingHistory", new Document("sequence", new Document("$lte", 0)));
+        when(historyService.confirmation(eq(stored), any())).thenReturn(confirmation);
+        BulkOperations ops = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, WorkflowInstance.class)).thenReturn(ops);
+
+        engineService.executeEdge("i-1", "approve", Map.of(), null, "alice", "Alice");
+
+        verify(actionOutbox).copy(List.of(action));
+        verify(actionOutbox).release(confirmation, List.of(action));
+        ArgumentCaptor<Update> followUp = ArgumentCaptor.forClass(Update.class);
+        verify(ops).updateOne(any(Query.class), followUp.capture());
+        verify(ops).execute();
+        assertSame(confirmation, followUp.getValue());
+        assertEquals(1, ((Document) followUp.getValue().getUpdateObject().get("$inc")).get("revision"));
+        assertEquals("5-2", WorkflowEngineService.eTag(stored));
+        verify(actionOutbox).dispatch();
+    }
+
+    @Test
+    void executeEdge_compactInstanceStoresOnlyChangedValuesInHistory() {
+        WorkflowInstance stored = instance("review", 4L);
+        stored.setStorageFormat(WorkflowInstance.FORMAT_COMPACT);
+        stored.getPrimaryRecord().put("amount", 10);
+        stored.getPrimaryRecord().put("title", "Laptop");
+        when(instanceRepository.findById("i-1")).thenReturn(Optional.of(stored));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(WorkflowInstance.class))).thenReturn(matched(1));
+
+        engineService.executeEdge("i-1", "approve", Map.of("amount", 25, "title", "Laptop"), null, "alice", "Alice");
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(query.capture(), update.capture(), eq(WorkflowInstance.class));
+        assertEquals(WorkflowInstance.FORMAT_COMPACT, query.getValue().getQueryObject().get("storageFormat"));
+        Document set = (Document) update.getValue().getUpdateObject().get("$set");
+        assertEquals(Set.of("primaryRecord.amount", "currentStepId", "stepEnteredAt", "version"),
+                set.keySet());
+        assertTrue(((Document) update.getValue().getUpdateObject().get("$addToSet")).containsKey("submittedStepIds"));
+
+        ArgumentCaptor<InstanceHistory> entry = ArgumentCaptor.forClass(InstanceHistory.class);
+        verify(historyService).stage(eq(stored), entry.capture(), any(Update.class));
+        assertEquals(Map.of("amount", 25), entry.getValue().getFormData());
+        assertEquals(List.of("title"), entry.getValue().getUnchangedKeys());
+    }
+
+    @Test
+    void executeEdge_compactInstanceStoresKeysWrittenOutsideHistoryInFull() {
+        WorkflowInstance stored = instance("review", 4L);
+        stored.setStorageFormat(WorkflowInstance.FORMAT_COMPACT);
+        // An UPDATE_FIELD auto-action set the title; history last submitted something else
+        stored.getPrimaryRecord().put("title", "Laptop");
+        stored.getDivergedKeys().add("title");
+        when(instanceRepository.findById("i-1")).thenReturn(Optional.of(stored));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(WorkflowInstance.class))).thenReturn(matched(1));
+
+        engineService.executeEdge("i-1", "approve", Map.of("title", "Laptop"), null, "alice", "Alice");
+
+        ArgumentCaptor<InstanceHistory> entry = ArgumentCaptor.forClass(InstanceHistory.class);
+        verify(historyService).stage(eq(stored), entry.capture(), any(Update.class));
+        assertEquals(Map.of("title", "Laptop"), entry.getValue().getFormData());
+        assertEquals(List.of(), entry.getValue().getUnchangedKeys());
+    }
+
+    @Test
+    void executeEdge_conflictReturnsFreshStateWithoutRetryForNonIdempotentEdge() {
+        WorkflowInstance fresh = instance("done", 5L);
+        when(instanceRepository.findById("i-1"))
+                .thenReturn(Optional.of(instance("review", 4L)))
+                .thenReturn(Optional.of(fresh));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(WorkflowInstance.class))).thenReturn(matched(0));
+
+        WorkflowConflictException ex = assertThrows(WorkflowConflictException.class,
+                () -> engineService.executeEdge("i-1", "approve", Map.of(), null, "alice", "Alice"));
+
+        assertSame(fresh, ex.getCurrent());
+        assertFalse(ex.isRetryable());
+        verify(mongoTemplate, times(1)).updateFirst(any(Query.class), any(Update.class), eq(WorkflowInstance.class));
+    }
+
+    @Test
+    void executeEdge_retriesIdempotentEdgeWhileInstanceStaysOnStep() {
+        approve.setIdempotent(true);
+        when(instanceRepository.findById("i-1"))
+                .thenReturn(Optional.of(instance("review", 4L)))
+                .thenReturn(Optional.of(instance("review", 5L)))
+                .thenReturn(Optional.of(instance("review", 5L)));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(WorkflowInstance.class)))
+                .thenReturn(matched(0))
+                .thenReturn(matched(1));
+
+        ExecuteEdgeResponse response = engineService.executeEdge("i-1", "approve", Map.of(), null, "alice", "Alice");
+
+        assertEquals("done", response.getCurrentStepId());
+        verify(mongoTemplate, times(2)).updateFirst(any(Query.class), any(Update.class), eq(WorkflowInstance.class));
+        verify(instanceRepository, times(3)).findById(eq("i-1"));
+    }
+
+    @Test
+    void bulkExecuteEdges_writesOnceAndReportsEachItem() {
+        WorkflowInstance first = instance("review", 4L);
+        WorkflowInstance raced = instance("review", 2L);
+        raced.setId("i-2");
+        for (WorkflowInstance instance : List.of(first, raced)) {
+            instance.setDomainId("d-1");
+            instance.setAppId("app-1");
+        }
+        when(instanceRepository.findAllById(any())).thenReturn(List.of(first, raced));
+        BulkOperations ops = mock(BulkOperations.class);
+        BulkWriteResult written = mock(BulkWriteResult.class);
+        when(written.getMatchedCount()).thenReturn(1);
+        when(ops.execute()).thenReturn(written);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, WorkflowInstance.class)).thenReturn(ops);
+        // i-1 landed and carries its transition id; i-2 was moved by someone else first
+        WorkflowInstance movedElsewhere = instance("done", 3L);
+        movedElsewhere.setId("i-2");
+        when(mongoTemplate.find(any(Query.class), eq(WorkflowInstance.class)))
+                .thenReturn(List.of(first, movedElsewhere));
+
+        BulkExecuteResponse response = engineService.bulkExecuteEdges("d-1", "app-1", List.of(
+                item("i-1", "approve"), item("i-2", "approve"), item("i-3", "approve"), item("i-1", "approve")),
+                "alice", "Alice");
+
+        verify(ops, times(2)).updateOne(any(Query.class), any(Update.class));
+        verify(ops).execute();
+        List<BulkExecuteResponse.ItemResult> results = response.getResults();
+        assertTrue(results.get(0).isSuccess());
+        assertEquals("CONCURRENT_MODIFICATION", results.get(1).getError());
+        assertEquals("WORKFLOW_NOT_FOUND", results.get(2).getError());
+        assertEquals("DUPLICATE_INSTANCE", results.get(3).getError());
+        assertEquals(1, response.getSucceeded());
+        verify(historyService).appendAll(argThat(staged -> staged.keySet().equals(Set.of(first))));
+    }
+
+    @Test
+    void bulkExecuteEdges_reportsAnUnexpectedFailureOnItsItemOnly() {
+        WorkflowInstance first = instance("review", 4L);
+        WorkflowInstance broken = instance("review", 2L);
+        broken.setId("i-2");
+        broken.setWorkflowDefinitionId("wf-2");
+        for (WorkflowInstance instance : List.of(first, broken)) {
+            instance.setDomainId("d-1");
+            instance.setAppId("app-1");
+        }
+        when(instanceRepository.findAllById(any())).thenReturn(List.of(first, broken));
+        when(definitionCache.get("wf-2", 1)).thenThrow(new NullPointerException("steps"));
+        BulkOperations ops = mock(BulkOperations.class);
+        BulkWriteResult written = mock(BulkWriteResult.class);
+        when(written.getMatchedCount()).thenReturn(1);
+        when(ops.execute()).thenReturn(written);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, WorkflowInstance.class)).thenReturn(ops);
+
+        BulkExecuteResponse response = engineService.bulkExecuteEdges("d-1", "app-1",
+                List.of(item("i-1", "approve"), item("i-2", "approve")), "alice", "Alice");
+
+        assertTrue(response.getResults().get(0).isSuccess());
+        assertEquals("INTERNAL_ERROR", response.getResults().get(1).getError());
+        assertEquals(1, response.getSucceeded());
+    }
+
+    @Test
+    void executeEdge_runsEveryPostCommitStepAndLeavesHistoryPendingWhenTheInboxRefreshFails() {
+        WorkflowInstance stored = instance("review", 4L);
+        when(instanceRepository.findById("i-1")).thenReturn(Optional.of(stored));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(WorkflowInstance.class))).thenReturn(matched(1));
+        doThrow(new IllegalStateException("inbox down")).when(inboxService).refreshAll(any());
+
+        ExecuteEdgeResponse response = engineService.executeEdge("i-1", "approve", Map.of(), null, "alice", "Alice");
+
+        assertEquals("done", response.getCurrentStepId());
+        verify(historyService).appendAll(any());
+        verify(timerService).scheduleAll(any());
+        verify(statsService).record(any());
+        verify(eventService).publish(any());
+        verify(historyService, never()).confirmation(any(), any());
+    }
+
+    @Test
+    void executeEdge_leavesHistoryPendingWhenTimerSchedulingFails() {
+        WorkflowInstance stored = instance("review", 4L);
+        when(instanceRepository.findById("i-1")).thenReturn(Optional.of(stored));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(WorkflowInstance.class))).thenReturn(matched(1));
+        doThrow(new IllegalStateException("timers down")).when(timerService).scheduleAll(any());
+
+        engineService.executeEdge("i-1", "approve", Map.of(), null, "alice", "Alice");
+
+        verify(inboxService).refreshAll(any());
+        verify(historyService, never()).confirmation(any(), any());
+    }
+
+    @Test
+    void repair_appendsRefreshesReschedulesAndConfirmsUnconfirmedInstances() {
+        WorkflowInstance stored = instance("done", 5L);
+        CompiledWorkflow definition = definitionCache.get("wf-1", 1);
+        when(definitionCache.getOrNull("wf-1", 1)).thenReturn(definition);
+        when(historyService.unconfirmed(stored)).thenReturn(List.of(new InstanceHistory()));
+
+        engineService.repair(List.of(stored));
+
+        verify(historyService).appendAll(argThat(staged -> staged.keySet().equals(Set.of(stored))));
+        verify(inboxService).refreshAll(argThat(refreshed -> refreshed.keySet().equals(Set.of(stored))));
+        verify(timerService).scheduleAll(argThat(scheduled -> scheduled.keySet().equals(Set.of(stored))));
+        verify(historyService).confirmAll(argThat(staged -> staged.keySet().equals(Set.of(stored))));
+    }
+
+    private BulkExecuteRequest.Item item(String instanceId, String edgeId) {
+        BulkExecuteRequest.Item item = new BulkExecuteRequest.Item();
+        item.setInstanceId(instanceId);
+        item.setEdgeId(edgeId);
+        return item;
+    }
+
+    private WorkflowInstance instance(String stepId, Long version) {
+        WorkflowInstance instance = new WorkflowInstance();
+        instance.setId("i-1");
+        instance.setWorkflowDefinitionId("wf-1");
+        instance.setWorkflowVersion(1);
+        instance.setCurrentStepId(stepId);
+        instance.setVersion(version);
+        instance.setStartedBy("alice");
+        return instance;
+    }
+
+    private UpdateResult matched(long count) {
+        return UpdateResult.acknowledged(count, count, null);
+    }
+}
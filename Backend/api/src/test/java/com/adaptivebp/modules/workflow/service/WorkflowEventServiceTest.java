@@ -0,0 +1,173 @@
+package com.adaptivebp.modules.workflow.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mockConstruction;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockedConstruction;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.adaptivebp.modules.workflow.dto.response.WorkflowEventResponse;
+import com.adaptivebp.modules.workflow.model.WorkflowInstance;
+
+@ExtendWith(MockitoExtension.class)
+class WorkflowEventServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private WorkflowEventService eventService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(eventService, "bridgeEnabled", false);
+        ReflectionTestUtils.setField(eventService, "bufferSize", 10);
+        ReflectionTestUtils.setField(eventService, "timeoutMillis", 60000L);
+        ReflectionTestUtils.setField(eventService, "queueSize", 10);
+        ReflectionTestUtils.setField(eventService, "senderThreads", 2);
+        eventService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        eventService.stop();
+    }
+
+    @Test
+    void publish_reachesOnlyUsersWhoseInboxOrInstanceChanged() throws Exception {
+        try (MockedConstruction<SseEmitter> emitters = mockConstruction(SseEmitter.class)) {
+            eventService.subscribe("d-1", "app-1", "alice", Set.of("Manager"), false, null);
+            eventService.subscribe("d-1", "app-1", "bob", Set.of(), false, null);
+            eventService.subscribe("d-1", "app-2", "carol", Set.of("manager"), false, null);
+
+            eventService.publish(List.of(change("app-1", "bob", Set.of(), Set.of("role:manager"))));
+
+            ArgumentCaptor<SseEmitter.SseEventBuilder> sent = ArgumentCaptor.forClass(SseEmitter.SseEventBuilder.class);
+            verify(emitters.constructed().get(0), timeout(1000)).send(sent.capture());
+            assertEquals("ADDED", payload(sent.getValue()).getInbox());
+            verify(emitters.constructed().get(1), timeout(1000)).send(sent.capture());
+            assertNull(payload(sent.getValue()).getInbox());
+            verify(emitters.constructed().get(2), after(100).never()).send(any(SseEmitter.SseEventBuilder.class));
+        }
+    }
+
+    @Test
+    void subscribe_replaysAfterLastEventIdOrAsksUnknownIdsToReset() throws Exception {
+        try (MockedConstruction<SseEmitter> emitters = mockConstruction(SseEmitter.class)) {
+            eventService.subscribe("d-1", "app-1", "alice", Set.of(), false, null);
+            eventService.publish(List.of(change("app-1", "alice", Set.of(), Set.of())));
+            eventService.publish(List.of(change("app-1", "alice", Set.of(), Set.of())));
+            ArgumentCaptor<SseEmitter.SseEventBuilder> sent = ArgumentCaptor.forClass(SseEmitter.SseEventBuilder.class);
+            verify(emitters.constructed().get(0), timeout(1000).times(2)).send(sent.capture());
+            String firstId = eventId(sent.getAllValues().get(0));
+
+            eventService.subscribe("d-1", "app-1", "alice", Set.of(), false, firstId);
+            verify(emitters.constructed().get(1), timeout(1000)).send(sent.capture());
+            assertEquals(eventId(sent.getAllValues().get(1)), eventId(sent.getValue()));
+
+            eventService.subscribe("d-1", "app-1", "alice", Set.of(), false, "unknown");
+            verify(emitters.constructed().get(2), timeout(1000)).send(sent.capture());
+            assertTrue(text(sent.getValue()).contains("event:" + WorkflowEventService.RESET_EVENT_NAME));
+        }
+    }
+
+    @Test
+    void publish_dropsStreamsThatFallBehindWithoutHoldingUpOthers() throws Exception {
+        ReflectionTestUtils.setField(eventService, "queueSize", 1);
+        CountDownLatch stuck = new CountDownLatch(1);
+        // complete() is synchronized, so it is counted here rather than verified with a timeout
+        CountDownLatch completed = new CountDownLatch(1);
+        try (MockedConstruction<SseEmitter> emitters = mockConstruction(SseEmitter.class, (emitter, context) -> {
+            if (context.getCount() == 1) {
+                doAnswer(invocation -> stuck.await(5, TimeUnit.SECONDS))
+                        .when(emitter).send(any(SseEmitter.SseEventBuilder.class));
+                doAnswer(invocation -> {
+                    completed.countDown();
+                    return null;
+                }).when(emitter).complete();
+            }
+        })) {
+            eventService.subscribe("d-1", "app-1", "alice", Set.of(), false, null);
+            eventService.subscribe("d-1", "app-1", "bob", Set.of(), true, null);
+            SseEmitter slow = emitters.constructed().get(0);
+            SseEmitter fast = emitters.constructed().get(1);
+
+            eventService.publish(List.of(change("app-1", "alice", Set.of(), Set.of())));
+            verify(slow, timeout(1000)).send(any(SseEmitter.SseEventBuilder.class));
+            verify(fast, timeout(1000)).send(any(SseEmitter.SseEventBuilder.class));
+            eventService.publish(List.of(change("app-1", "alice", Set.of(), Set.of())));
+            verify(fast, timeout(1000).times(2)).send(any(SseEmitter.SseEventBuilder.class));
+            eventService.publish(List.of(change("app-1", "alice", Set.of(), Set.of())));
+            verify(fast, timeout(1000).times(3)).send(any(SseEmitter.SseEventBuilder.class));
+
+            stuck.countDown();
+            assertTrue(completed.await(1, TimeUnit.SECONDS));
+            verify(slow, after(100).times(1)).send(any(SseEmitter.SseEventBuilder.class));
+            eventService.publish(List.of(change("app-1", "alice", Set.of(), Set.of())));
+            verify(fast, timeout(1000).times(4)).send(any(SseEmitter.SseEventBuilder.class));
+            verify(slow, after(100).times(1)).send(any(SseEmitter.SseEventBuilder.class));
+        }
+    }
+
+    private WorkflowEventService.Change change(String appId, String startedBy, Set<String> before, Set<String> after) {
+        WorkflowInstance instance = new WorkflowInstance();
+        instance.setId("i-1");
+        instance.setDomainId("d-1");
+        instance.setAppId(appId);
+        instance.setStartedBy(startedBy);
+        instance.setCurrentStepId("review");
+        return new WorkflowEventService.Change(instance, before, after);
+    }
+
+    private WorkflowEventResponse payload(SseEmitter.SseEventBuilder builder) {
+        return builder.build().stream()
+                .map(ResponseBodyEmitter.DataWithMediaType::getData)
+                .filter(WorkflowEventResponse.class::isInstance)
+                .map(WorkflowEventResponse.class::cast)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private String eventId(SseEmitter.SseEventBuilder builder) {
+        for (String line : text(builder).split("\n")) {
+            if (line.startsWith("id:")) {
+                return line.substring(3);
+            }
+        }
+        return null;
+    }
+
+    private String text(SseEmitter.SseEventBuilder builder) {
+        StringBuilder text = new StringBuilder();
+        builder.build().stream()
+                .map(ResponseBodyEmitter.DataWithMediaType::getData)
+                .filter(String.class::isInstance)
+                .forEach(text::append);
+        return text.toString();
+    }
+}
@@ -0,0 +1,257 @@
+package com.adaptivebp.modules.workflow.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.Pair;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.adaptivebp.modules.workflow.dto.response.HistoryResponse;
+import com.adaptivebp.modules.workflow.model.InstanceHistory;
+import com.adaptivebp.modules.workflow.model.WorkflowHistoryBucket;
+import com.adaptivebp.modules.workflow.model.WorkflowInstance;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+
+@ExtendWith(MockitoExtension.class)
+class WorkflowHistoryServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private WorkflowHistoryService historyService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(historyService, "bucketSize", 3);
+        ReflectionTestUtils.setField(historyService, "recentEntries", 2);
+    }
+
+    @Test
+    void stage_keepsLegacyHistoryUntilConfirmedAndKeepsRecentBounded() {
+        WorkflowInstance instance = new WorkflowInstance();
+        instance.setHistory(new ArrayList<>(List.of(entry(0), entry(0), entry(0))));
+        Update update = new Update();
+
+        List<InstanceHistory> pending = historyService.stage(instance, entry(0), update);
+
+        assertEquals(List.of(0L, 1L, 2L, 3L), pending.stream().map(InstanceHistory::getSequence).toList());
+        assertEquals(4L, instance.getHistoryCount());
+        assertEquals(List.of(2L, 3L), instance.getRecentHistory().stream().map(InstanceHistory::getSequence).toList());
+        assertEquals(3, instance.getHistory().size());
+        assertEquals(List.of(3L), instance.getPendingHistory().stream().map(InstanceHistory::getSequence).toList());
+        assertNull(update.getUpdateObject().get("$unset"));
+        assertTrue(((Document) update.getUpdateObject().get("$push")).containsKey("pendingHistory"));
+    }
+
+    @Test
+    void stage_continuesAfterLegacyHistoryThatIsStillUnconfirmed() {
+        WorkflowInstance instance = new WorkflowInstance();
+        instance.setHistory(new ArrayList<>(List.of(entry(0), entry(0))));
+        historyService.stage(instance, entry(0), new Update());
+
+        List<InstanceHistory> pending = historyService.stage(instance, entry(0), new Update());
+
+        assertEquals(List.of(0L, 1L, 2L, 3L), pending.stream().map(InstanceHistory::getSequence).toList());
+        assertEquals(4L, instance.getHistoryCount());
+    }
+
+    @Test
+    void stage_pushesOntoRecentHistoryWithSlice() {
+        WorkflowInstance instance = new WorkflowInstance();
+        instance.setHistoryCount(7);
+        Update update = new Update();
+
+        historyService.stage(instance, entry(0), update);
+
+        assertEquals(8L, instance.getHistoryCount());
+        assertTrue(((Document) update.getUpdateObject().get("$push")).containsKey("recentHistory"));
+        assertEquals(1, instance.getRecentHistory().size());
+    }
+
+    @Test
+    void appendAll_retriesDuplicateKeysOnceAndTreatsASecondOneAsAlreadyAppended() {
+        WorkflowInstance instance = new WorkflowInstance();
+        instance.setId("i-1");
+        BulkOperations first = mock(BulkOperations.class);
+        BulkOperations retry = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, WorkflowHistoryBucket.class))
+                .thenReturn(first, retry);
+        when(first.upsert(anyList())).thenReturn(first);
+        when(first.execute()).thenThrow(duplicateKey(1));
+        when(retry.upsert(anyList())).thenReturn(retry);
+        when(retry.execute()).thenThrow(duplicateKey(0));
+
+        historyService.appendAll(Map.of(instance, List.of(entry(4), entry(5))));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Pair<Query, Update>>> retried = ArgumentCaptor.forClass(List.class);
+        verify(retry).upsert(retried.capture());
+        assertEquals(1, retried.getValue().size());
+        Document filter = retried.getValue().get(0).getFirst().getQueryObject();
+        assertEquals(1L, filter.get("bucket"));
+        assertEquals(new Document("$ne", 5L), filter.get("entries.sequence"));
+    }
+
+    @Test
+    void confirmAll_pullsAppendedEntriesAndDropsCopiedLegacyHistory() {
+        WorkflowInstance instance = new WorkflowInstance();
+        instance.setId("i-1");
+        instance.setHistory(new ArrayList<>(List.of(entry(0), entry(0))));
+        List<InstanceHistory> appended = historyService.stage(instance, entry(0), new Update());
+        instance.getPendingHistory().add(entry(3));
+        BulkOperations ops = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, WorkflowInstance.class)).thenReturn(ops);
+
+        historyService.confirmAll(Map.of(instance, appended));
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(ops).updateOne(any(Query.class), update.capture());
+        Document pull = (Document) update.getValue().getUpdateObject().get("$pull");
+        assertEquals(new Document("sequence", new Document("$lte", 2L)), pull.get("pendingHistory"));
+        assertTrue(((Document) update.getValue().getUpdateObject().get("$unset")).containsKey("history"));
+        assertEquals(1, ((Document) update.getValue().getUpdateObject().get("$inc")).get("revision"));
+        assertEquals(List.of(3L), instance.getPendingHistory().stream().map(InstanceHistory::getSequence).toList());
+        assertTrue(instance.getHistory().isEmpty());
+    }
+
+    @Test
+    void page_mergesEntriesStillPendingOnTheInstance() {
+        WorkflowInstance instance = new WorkflowInstance();
+        instance.setId("i-1");
+        instance.setHistoryCount(5);
+        instance.getPendingHistory().addAll(List.of(entry(3), entry(4)));
+        when(mongoTemplate.find(any(Query.class), eq(WorkflowHistoryBucket.class)))
+                .thenReturn(List.of(bucket(0, 0, 1, 2), bucket(1, 3)));
+
+        HistoryResponse page = historyService.page(instance, null, 10);
+
+        assertEquals(List.of(0L, 1L, 2L, 3L, 4L), page.getHistory().stream().map(InstanceHistory::getSequence).toList());
+    }
+
+    @Test
+    void page_readsAcrossBucketsAndReturnsNextCursor() {
+        WorkflowInstance instance = new WorkflowInstance();
+        instance.setId("i-1");
+        instance.setHistoryCount(9);
+        when(mongoTemplate.find(any(Query.class), eq(WorkflowHistoryBucket.class)))
+                .thenReturn(List.of(bucket(1, 5, 4, 3), bucket(2, 6, 7, 8)));
+
+        HistoryResponse page = historyService.page(instance, 4L, 3);
+
+        assertEquals(List.of(4L, 5L, 6L), page.getHistory().stream().map(InstanceHistory::getSequence).toList());
+        assertEquals(7L, page.getNextCursor());
+    }
+
+    @Test
+    void page_servesLegacyEmbeddedHistory() {
+        WorkflowInstance instance = new WorkflowInstance();
+        instance.setHistory(new ArrayList<>(List.of(entry(0), entry(0))));
+
+        HistoryResponse page = historyService.page(instance, null, 10);
+
+        assertEquals(List.of(0L, 1L), page.getHistory().stream().map(InstanceHistory::getSequence).toList());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void stepRecords_fillsUnchangedKeysFromEarlierEntries() {
+        WorkflowInstance instance = new WorkflowInstance();
+        instance.setId("i-1");
+        instance.setHistoryCount(3);
+        InstanceHistory start = entry(0);
+        start.setStepId("draft");
+        start.setFormData(Map.of("amount", 10, "title", "Laptop"));
+        start.setUnchangedKeys(List.of());
+        InstanceHistory submit = entry(1);
+        submit.setStepId("draft");
+        submit.setEdgeId("submit");
+        submit.setFormData(Map.of("amount", 25));
+        submit.setUnchangedKeys(List.of("title"));
+        InstanceHistory approve = entry(2);
+        approve.setStepId("review");
+        approve.setEdgeId("approve");
+        approve.setUnchangedKeys(List.of("amount"));
+        WorkflowHistoryBucket bucket = new WorkflowHistoryBucket();
+        bucket.setEntries(new ArrayList<>(List.of(approve, start, submit)));
+        when(mongoTemplate.find(any(Query.class), eq(WorkflowHistoryBucket.class))).thenReturn(List.of(bucket));
+
+        Map<String, Object> records = historyService.stepRecords(instance);
+
+        assertEquals(Map.of(
+                "draft", Map.of("amount", 25, "title", "Laptop"),
+                "review", Map.of("amount", 25)), records);
+    }
+
+    @Test
+    void stepRecords_leavesOutEntriesAppendedAfterTheInstanceWasRead() {
+        WorkflowInstance instance = new WorkflowInstance();
+        instance.setId("i-1");
+        instance.setHistoryCount(2);
+        InstanceHistory submit = entry(1);
+        submit.setStepId("draft");
+        submit.setEdgeId("submit");
+        submit.setFormData(Map.of("amount", 25));
+        InstanceHistory later = entry(2);
+        later.setStepId("draft");
+        later.setEdgeId("resubmit");
+        later.setFormData(Map.of("amount", 40));
+        WorkflowHistoryBucket bucket = new WorkflowHistoryBucket();
+        bucket.setEntries(new ArrayList<>(List.of(entry(0), submit, later)));
+        when(mongoTemplate.find(any(Query.class), eq(WorkflowHistoryBucket.class))).thenReturn(List.of(bucket));
+
+        Map<String, Object> records = historyService.stepRecords(instance);
+
+        assertEquals(Map.of("draft", Map.of("amount", 25)), records);
+    }
+
+    private WorkflowHistoryBucket bucket(long index, long... sequences) {
+        WorkflowHistoryBucket bucket = new WorkflowHistoryBucket();
+        bucket.setBucket(index);
+        for (long sequence : sequences) {
+            bucket.getEntries().add(entry(sequence));
+        }
+        return bucket;
+    }
+
+    private BulkOperationException duplicateKey(int index) {
+        BulkWriteError error = new BulkWriteError(11000, "E11000 duplicate key", new BsonDocument(), index);
+        return new BulkOperationException("duplicate key", new MongoBulkWriteException(
+                BulkWriteResult.unacknowledged(), List.of(error), null, new ServerAddress(), Set.of()));
+    }
+
+    private InstanceHistory entry(long sequence) {
+        InstanceHistory entry = new InstanceHistory();
+        entry.setSequence(sequence);
+        return entry;
+    }
+}
@@ -0,0 +1,172 @@
+package com.adaptivebp.modules.workflow.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.adaptivebp.modules.workflow.dto.request.MigrateInstancesRequest;
+import com.adaptivebp.modules.workflow.model.WorkflowDefinition;
+import com.adaptivebp.modules.workflow.model.WorkflowInstance;
+import com.adaptivebp.modules.workflow.model.WorkflowMigrationJob;
+import com.adaptivebp.modules.workflow.model.WorkflowStep;
+import com.adaptivebp.modules.workflow.model.enums.InstanceStatus;
+import com.adaptivebp.modules.workflow.model.enums.MigrationJobStatus;
+import com.adaptivebp.modules.workflow.model.enums.WorkflowStatus;
+import com.adaptivebp.modules.workflow.repository.WorkflowDefinitionRepository;
+import com.adaptivebp.modules.workflow.runtime.CompiledWorkflow;
+import com.adaptivebp.modules.workflow.runtime.WorkflowDefinitionCache;
+import com.mongodb.client.result.UpdateResult;
+
+@ExtendWith(MockitoExtension.class)
+class WorkflowMigrationServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private WorkflowEngineService engineService;
+
+    @Mock
+    private WorkflowDefinitionRepository definitionRepository;
+
+    @Mock
+    private WorkflowDefinitionCache definitionCache;
+
+    @InjectMocks
+    private WorkflowMigrationService service;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "batchSize", 3);
+        ReflectionTestUtils.setField(service, "leaseMillis", 60000L);
+    }
+
+    @Test
+    void submit_rejectsMappingsToStepsMissingFromThePublishedVersion() {
+        when(engineService.findPublishedBySlug("d-1", "app-1", "leave")).thenReturn(target());
+        when(definitionCache.get("wf-1", 2)).thenReturn(CompiledWorkflow.compile(target()));
+        MigrateInstancesRequest request = new MigrateInstancesRequest();
+        request.setStepMapping(Map.of("draft", "gone"));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> service.submit("d-1", "app-1", "leave", request, "alice", "Alice"));
+        verify(mongoTemplate, never()).insert(any(WorkflowMigrationJob.class));
+    }
+
+    @Test
+    void run_migratesMappedAndSameNamedStepsAndRecordsTheRest() throws InterruptedException {
+        WorkflowMigrationJob job = job(false);
+        stubTarget();
+        when(mongoTemplate.find(any(Query.class), eq(WorkflowInstance.class)))
+                .thenReturn(List.of(instance("i-1", "draft"), instance("i-2", "review"), instance("i-3", "legacy")))
+                .thenReturn(List.of());
+        when(engineService.migrateInstances(anyList(), eq(Map.of("i-1", "submit", "i-2", "review")), any(),
+                eq("alice"), eq("Alice"))).thenReturn(Set.of("i-1"));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(WorkflowMigrationJob.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        service.run(job);
+
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(2)).updateFirst(any(Query.class), updates.capture(), eq(WorkflowMigrationJob.class));
+        Document progress = updates.getAllValues().get(0).getUpdateObject();
+        Document counters = (Document) progress.get("$inc");
+        assertEquals(3, counters.get("processed"));
+        assertEquals(1L, counters.get("migrated"));
+        assertEquals(1, counters.get("skipped"));
+        assertEquals(1L, counters.get("conflicts"));
+        assertEquals("i-3", ((Document) progress.get("$set")).get("lastInstanceId"));
+        Document finished = (Document) updates.getAllValues().get(1).getUpdateObject().get("$set");
+        assertEquals(MigrationJobStatus.COMPLETED, finished.get("status"));
+    }
+
+    @Test
+    void run_dryRunCountsWithoutWritingInstances() throws InterruptedException {
+        WorkflowMigrationJob job = job(true);
+        stubTarget();
+        when(mongoTemplate.find(any(Query.class), eq(WorkflowInstance.class)))
+                .thenReturn(List.of(instance("i-1", "draft"), instance("i-2", "legacy")))
+                .thenReturn(List.of());
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(WorkflowMigrationJob.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        service.run(job);
+
+        verify(engineService, never()).migrateInstances(anyList(), anyMap(), any(), any(), any());
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(2)).updateFirst(any(Query.class), updates.capture(), eq(WorkflowMigrationJob.class));
+        Document counters = (Document) updates.getAllValues().get(0).getUpdateObject().get("$inc");
+        assertEquals(1L, counters.get("migrated"));
+        assertEquals(1, counters.get("skipped"));
+    }
+
+    private void stubTarget() {
+        when(mongoTemplate.findById("wf-1", WorkflowDefinition.class)).thenReturn(target());
+        when(definitionCache.get("wf-1", 2)).thenReturn(CompiledWorkflow.compile(target()));
+        when(definitionRepository.findByDomainIdAndAppIdAndSlug("d-1", "app-1", "leave")).thenReturn(List.of(target()));
+    }
+
+    private WorkflowMigrationJob job(boolean dryRun) {
+        WorkflowMigrationJob job = new WorkflowMigrationJob();
+        job.setId("job-1");
+        job.setDomainId("d-1");
+        job.setAppId("app-1");
+        job.setWorkflowSlug("leave");
+        job.setTargetDefinitionId("wf-1");
+        job.setTargetVersion(2);
+        job.setStepMapping(Map.of("draft", "submit"));
+        job.setDryRun(dryRun);
+        job.setClaimToken("token");
+        job.setCreatedBy("alice");
+        job.setCreatedByName("Alice");
+        return job;
+    }
+
+    private WorkflowDefinition target() {
+        WorkflowStep submit = new WorkflowStep();
+        submit.setId("submit");
+        submit.setStart(true);
+        WorkflowStep review = new WorkflowStep();
+        review.setId("review");
+        WorkflowDefinition definition = new WorkflowDefinition();
+        definition.setId("wf-1");
+        definition.setVersion(2);
+        definition.setStatus(WorkflowStatus.PUBLISHED);
+        definition.setSteps(List.of(submit, review));
+        return definition;
+    }
+
+    private WorkflowInstance instance(String id, String stepId) {
+        WorkflowInstance instance = new WorkflowInstance();
+        instance.setId(id);
+        instance.setWorkflowDefinitionId("wf-1");
+        instance.setWorkflowVersion(1);
+        instance.setStatus(InstanceStatus.ACTIVE);
+        instance.setCurrentStepId(stepId);
+        return instance;
+    }
+}
@@ -0,0 +1,121 @@
+package com.adaptivebp.modules.workflow.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.adaptivebp.modules.workflow.dto.response.WorkflowStatsResponse;
+import com.adaptivebp.modules.workflow.model.WorkflowDailyStats;
+import com.adaptivebp.modules.workflow.model.WorkflowDefinition;
+import com.adaptivebp.modules.workflow.model.WorkflowStep;
+import com.adaptivebp.modules.workflow.model.WorkflowStepStats;
+import com.adaptivebp.modules.workflow.model.enums.InstanceStatus;
+import com.adaptivebp.modules.workflow.repository.WorkflowDefinitionRepository;
+
+@ExtendWith(MockitoExtension.class)
+class WorkflowStatsServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private WorkflowDefinitionRepository definitionRepository;
+
+    @InjectMocks
+    private WorkflowStatsService statsService;
+
+    @Test
+    void record_mergesMovesIntoOneIncrementPerDocument() {
+        BulkOperations stepOps = mock(BulkOperations.class);
+        BulkOperations dayOps = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, WorkflowStepStats.class)).thenReturn(stepOps);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, WorkflowDailyStats.class)).thenReturn(dayOps);
+
+        statsService.record(List.of(
+                new WorkflowStatsService.Move("d-1", "app-1", "wf-1", "review", "done", 1000L, null, false),
+                new WorkflowStatsService.Move("d-1", "app-1", "wf-1", "review", "done", 3000L, null, false),
+                new WorkflowStatsService.Move("d-1", "app-1", "wf-1", "done", null, null, InstanceStatus.COMPLETED, false)));
+
+        ArgumentCaptor<Update> steps = ArgumentCaptor.forClass(Update.class);
+        verify(stepOps, times(2)).upsert(any(Query.class), steps.capture());
+        Document review = (Document) steps.getAllValues().get(0).getUpdateObject().get("$inc");
+        assertEquals(-2L, review.get("active"));
+        assertEquals(4000L, review.get("dwellMillis"));
+        assertEquals(2L, review.get("dwellSamples"));
+        Document done = (Document) steps.getAllValues().get(1).getUpdateObject().get("$inc");
+        assertEquals(1L, done.get("active"));
+        assertEquals(2L, done.get("entered"));
+        assertEquals(1L, done.get("exited"));
+
+        ArgumentCaptor<Update> days = ArgumentCaptor.forClass(Update.class);
+        verify(dayOps).upsert(any(Query.class), days.capture());
+        assertEquals(1L, ((Document) days.getValue().getUpdateObject().get("$inc")).get("completed"));
+    }
+
+    @Test
+    void stats_sumsVersionsInStepOrderAndFillsEmptyDays() {
+        when(definitionRepository.findByDomainIdAndAppIdAndSlug("d-1", "app-1", "leave"))
+                .thenReturn(List.of(definition("wf-1", 1), definition("wf-2", 2)));
+        when(mongoTemplate.find(any(Query.class), eq(WorkflowStepStats.class)))
+                .thenReturn(List.of(stepStats("wf-1", "review", 2, 1000, 1), stepStats("wf-2", "review", 3, 5000, 3)));
+        WorkflowDailyStats today = new WorkflowDailyStats();
+        today.setDay(LocalDate.now(ZoneOffset.UTC).toString());
+        today.setStarted(4);
+        when(mongoTemplate.find(any(Query.class), eq(WorkflowDailyStats.class))).thenReturn(List.of(today));
+
+        WorkflowStatsResponse stats = statsService.stats("d-1", "app-1", "leave", 7);
+
+        assertEquals(List.of("draft", "review"), stats.getSteps().stream().map(WorkflowStatsResponse.StepStats::getStepId).toList());
+        WorkflowStatsResponse.StepStats review = stats.getSteps().get(1);
+        assertEquals(5, review.getActive());
+        assertEquals(1500, review.getAvgDwellMillis());
+        assertEquals(7, stats.getDays().size());
+        assertEquals(4, stats.getDays().get(6).getStarted());
+        assertEquals(0, stats.getDays().get(0).getStarted());
+    }
+
+    private WorkflowDefinition definition(String id, int version) {
+        WorkflowStep draft = new WorkflowStep();
+        draft.setId("draft");
+        draft.setOrder(0);
+        WorkflowStep review = new WorkflowStep();
+        review.setId("review");
+        review.setOrder(1);
+        WorkflowDefinition definition = new WorkflowDefinition();
+        definition.setId(id);
+        definition.setVersion(version);
+        definition.setSteps(List.of(review, draft));
+        return definition;
+    }
+
+    private WorkflowStepStats stepStats(String definitionId, String stepId, long active, long dwellMillis,
+            long dwellSamples) {
+        WorkflowStepStats stats = new WorkflowStepStats();
+        stats.setWorkflowDefinitionId(definitionId);
+        stats.setStepId(stepId);
+        stats.setActive(active);
+        stats.setDwellMillis(dwellMillis);
+        stats.setDwellSamples(dwellSamples);
+        return stats;
+    }
+}
@@ -0,0 +1,222 @@
+package com.adaptivebp.modules.workflow.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.adaptivebp.modules.workflow.dto.response.TaskListResponse;
+import com.adaptivebp.modules.workflow.model.WorkflowDefinition;
+import com.adaptivebp.modules.workflow.model.WorkflowEdge;
+import com.adaptivebp.modules.workflow.model.WorkflowInstance;
+import com.adaptivebp.modules.workflow.model.WorkflowStep;
+import com.adaptivebp.modules.workflow.model.WorkflowTaskEntry;
+import com.adaptivebp.modules.workflow.model.WorkflowTaskInboxState;
+import com.adaptivebp.modules.workflow.runtime.CompiledWorkflow;
+import com.adaptivebp.modules.workflow.runtime.WorkflowDefinitionCache;
+
+@ExtendWith(MockitoExtension.class)
+class WorkflowTaskInboxServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private WorkflowDefinitionCache definitionCache;
+
+    @Mock
+    private WorkflowHistoryService historyService;
+
+    @InjectMocks
+    private WorkflowTaskInboxService inboxService;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void refresh_writesOneRowPerAssigneeOfTheCurrentStep() {
+        WorkflowInstance instance = instance(3L);
+        when(historyService.recent(instance)).thenReturn(List.of());
+        when(mongoTemplate.findOne(any(Query.class), eq(WorkflowInstance.class))).thenReturn(instance(3L));
+
+        BulkOperations ops = bulkOps();
+
+        inboxService.refresh(instance, compiled());
+
+        ArgumentCaptor<List<WorkflowTaskEntry>> rows = ArgumentCaptor.forClass(List.class);
+        verify(ops).insert(rows.capture());
+        assertEquals(Set.of("role:manager", "user:u-7", "user:alice"),
+                Set.copyOf(rows.getValue().stream().map(WorkflowTaskEntry::getAssignee).toList()));
+        WorkflowTaskEntry managerRow = rows.getValue().stream()
+                .filter(row -> row.getAssignee().equals("role:manager")).findFirst().orElseThrow();
+        assertEquals(List.of("approve", "reject"), managerRow.getEdges().stream().map(e -> e.get("id")).toList());
+        assertEquals(3L, managerRow.getInstanceVersion());
+        assertEquals("i-1:3:role:manager", managerRow.getId());
+        verify(mongoTemplate, times(1)).remove(any(Query.class), eq(WorkflowTaskEntry.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void refresh_dropsOwnRowsWhenANewerTransitionAlreadyCommitted() {
+        WorkflowInstance instance = instance(3L);
+        when(historyService.recent(instance)).thenReturn(List.of());
+        when(mongoTemplate.findOne(any(Query.class), eq(WorkflowInstance.class))).thenReturn(instance(4L));
+        BulkOperations ops = bulkOps();
+
+        inboxService.refresh(instance, compiled());
+
+        verify(ops).insert(anyList());
+        verify(mongoTemplate, times(2)).remove(any(Query.class), eq(WorkflowTaskEntry.class));
+    }
+
+    @Test
+    void replace_rewritesRowsOfTheSameVersionAndDropsUnreachedAssignees() {
+        WorkflowInstance instance = instance(3L);
+        when(historyService.recent(instance)).thenReturn(List.of());
+        when(mongoTemplate.findOne(any(Query.class), eq(WorkflowInstance.class))).thenReturn(instance(3L));
+        BulkOperations ops = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, WorkflowTaskEntry.class)).thenReturn(ops);
+
+        inboxService.replace(instance, compiled());
+
+        verify(ops, never()).insert(anyList());
+        verify(ops, times(3)).replaceOne(any(Query.class), any(WorkflowTaskEntry.class),
+                any(FindAndReplaceOptions.class));
+        ArgumentCaptor<Query> removed = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).remove(removed.capture(), eq(WorkflowTaskEntry.class));
+        String filter = removed.getValue().getQueryObject().toJson();
+        assertTrue(filter.contains("i-1:3:role:manager"), filter);
+        assertTrue(filter.contains("$nin"), filter);
+    }
+
+    @Test
+    void findTasks_backfillsAnUnbuiltInboxWithoutDroppingNewerRows() {
+        WorkflowInstance stale = instance(3L);
+        stale.setWorkflowDefinitionId("wf-1");
+        stale.setWorkflowVersion(1);
+        when(mongoTemplate.findById("d-1:a-1", WorkflowTaskInboxState.class)).thenReturn(null);
+        when(mongoTemplate.stream(any(Query.class), eq(WorkflowInstance.class))).thenReturn(Stream.of(stale));
+        when(definitionCache.getOrNull("wf-1", 1)).thenReturn(compiled());
+        when(historyService.recent(stale)).thenReturn(List.of());
+        // A transition committed while the backfill was reading
+        when(mongoTemplate.find(any(Query.class), eq(WorkflowInstance.class))).thenReturn(List.of(instance(4L)));
+        BulkOperations ops = bulkOps();
+
+        inboxService.findTasks("d-1", "a-1", "bob", Set.of(), null, 10);
+
+        verify(ops).insert(anyList());
+        ArgumentCaptor<Query> removed = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).remove(removed.capture(), eq(WorkflowTaskEntry.class));
+        assertTrue(removed.getAllValues().get(0).getQueryObject().toJson().contains("$lt"));
+        assertTrue(removed.getAllValues().get(1).getQueryObject().toJson().contains("\"instanceVersion\": 3"));
+        verify(mongoTemplate).save(any(WorkflowTaskInboxState.class));
+    }
+
+    @Test
+    void findTasks_mergesRowsOfTheSameInstanceAndPagesByWaitingSince() {
+        when(mongoTemplate.findById("d-1:a-1", WorkflowTaskInboxState.class)).thenReturn(new WorkflowTaskInboxState());
+        Instant t1 = Instant.ofEpochMilli(1_000);
+        Instant t2 = Instant.ofEpochMilli(2_000);
+        when(mongoTemplate.find(any(Query.class), eq(WorkflowTaskEntry.class))).thenReturn(List.of(
+                row("i-1", t1, "role:manager", "approve"),
+                row("i-1", t1, "user:bob", "comment"),
+                row("i-2", t2, "role:manager", "approve")));
+
+        TaskListResponse page = inboxService.findTasks("d-1", "a-1", "bob", Set.of("manager"), null, 1);
+
+        assertEquals(1, page.getCount());
+        assertEquals("i-1", page.getTasks().get(0).getInstanceId());
+        assertEquals(List.of("approve", "comment"),
+                page.getTasks().get(0).getAvailableEdges().stream().map(e -> e.get("id")).toList());
+        assertEquals("1000_i-1", page.getNextCursor());
+    }
+
+    @Test
+    void findTasks_lastPageHasNoCursor() {
+        when(mongoTemplate.findById("d-1:a-1", WorkflowTaskInboxState.class)).thenReturn(new WorkflowTaskInboxState());
+        when(mongoTemplate.find(any(Query.class), eq(WorkflowTaskEntry.class)))
+                .thenReturn(List.of(row("i-2", Instant.ofEpochMilli(2_000), "user:bob", "approve")));
+
+        TaskListResponse page = inboxService.findTasks("d-1", "a-1", "bob", Set.of(), "1000_i-1", 10);
+
+        assertEquals(1, page.getCount());
+        assertNull(page.getNextCursor());
+        verify(mongoTemplate, never()).save(any());
+    }
+
+    private CompiledWorkflow compiled() {
+        WorkflowEdge approve = edge("approve");
+        approve.setAllowedRoles(List.of("Manager"));
+        approve.setAllowedUserIds(List.of("u-7"));
+        WorkflowEdge reject = edge("reject");
+        reject.setAllowedRoles(List.of("manager"));
+        WorkflowEdge withdraw = edge("withdraw");
+        withdraw.setOnlySubmitter(true);
+
+        WorkflowStep review = new WorkflowStep();
+        review.setId("review");
+        review.setName("Review");
+        review.setEdges(List.of(approve, reject, withdraw));
+
+        WorkflowDefinition definition = new WorkflowDefinition();
+        definition.setId("wf-1");
+        definition.setName("Expenses");
+        definition.setSteps(List.of(review));
+        return CompiledWorkflow.compile(definition);
+    }
+
+    private WorkflowEdge edge(String id) {
+        WorkflowEdge edge = new WorkflowEdge();
+        edge.setId(id);
+        edge.setName(id);
+        edge.setTargetStepId("done");
+        return edge;
+    }
+
+    private BulkOperations bulkOps() {
+        BulkOperations ops = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, WorkflowTaskEntry.class)).thenReturn(ops);
+        when(ops.insert(anyList())).thenReturn(ops);
+        return ops;
+    }
+
+    private WorkflowInstance instance(Long version) {
+        WorkflowInstance instance = new WorkflowInstance();
+        instance.setId("i-1");
+        instance.setVersion(version);
+        instance.setCurrentStepId("review");
+        instance.setStartedBy("alice");
+        return instance;
+    }
+
+    private WorkflowTaskEntry row(String instanceId, Instant waitingSince, String assignee, String edgeId) {
+        WorkflowTaskEntry entry = new WorkflowTaskEntry();
+        entry.setInstanceId(instanceId);
+        entry.setWaitingSince(waitingSince);
+        entry.setAssignee(assignee);
+        entry.setEdges(List.of(Map.of("id", edgeId, "name", edgeId)));
+        return entry;
+    }
+}
@@ -0,0 +1,80 @@
+package com.adaptivebp.modules.workflow.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.adaptivebp.modules.workflow.exception.ConditionNotMetException;
+import com.adaptivebp.modules.workflow.model.WorkflowTimer;
+
+@ExtendWith(MockitoExtension.class)
+class WorkflowTimerSchedulerTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private WorkflowEngineService engineService;
+
+    @InjectMocks
+    private WorkflowTimerScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(scheduler, "maxAttempts", 3);
+    }
+
+    @Test
+    void fire_removesTimerOnceFiredOrStale() {
+        when(engineService.executeTimedEdge("i-1", 2L, "escalate")).thenReturn(true).thenReturn(false);
+
+        scheduler.fire(timer(1));
+        scheduler.fire(timer(1));
+
+        verify(mongoTemplate, times(2)).remove(any(Query.class), eq(WorkflowTimer.class));
+    }
+
+    @Test
+    void fire_dropsTimerRejectedByEdgeRules() {
+        when(engineService.executeTimedEdge("i-1", 2L, "escalate"))
+                .thenThrow(new ConditionNotMetException("Conditions for edge 'Escalate' are not met"));
+
+        scheduler.fire(timer(1));
+
+        verify(mongoTemplate).remove(any(Query.class), eq(WorkflowTimer.class));
+    }
+
+    @Test
+    void fire_keepsTimerForRetryAfterTransientFailure() {
+        when(engineService.executeTimedEdge("i-1", 2L, "escalate")).thenThrow(new RuntimeException("mongo down"));
+
+        scheduler.fire(timer(1));
+        verify(mongoTemplate, never()).remove(any(Query.class), eq(WorkflowTimer.class));
+
+        scheduler.fire(timer(3));
+        verify(mongoTemplate).remove(any(Query.class), eq(WorkflowTimer.class));
+    }
+
+    private WorkflowTimer timer(int attempts) {
+        WorkflowTimer timer = new WorkflowTimer();
+        timer.setId("i-1:2:escalate");
+        timer.setInstanceId("i-1");
+        timer.setInstanceVersion(2L);
+        timer.setEdgeId("escalate");
+        timer.setAttempts(attempts);
+        return timer;
+    }
+}
@@ -0,0 +1,93 @@
+package com.adaptivebp.modules.workflow.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.adaptivebp.modules.workflow.model.WorkflowDefinition;
+import com.adaptivebp.modules.workflow.model.WorkflowEdge;
+import com.adaptivebp.modules.workflow.model.WorkflowInstance;
+import com.adaptivebp.modules.workflow.model.WorkflowStep;
+import com.adaptivebp.modules.workflow.model.WorkflowTimer;
+import com.adaptivebp.modules.workflow.model.enums.InstanceStatus;
+import com.adaptivebp.modules.workflow.runtime.CompiledWorkflow;
+
+@ExtendWith(MockitoExtension.class)
+class WorkflowTimerServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private WorkflowTimerService timerService;
+
+    @Test
+    void schedule_insertsTimersForTimedEdgesAndCancelsOlderVersions() {
+        WorkflowEdge approve = edge("approve", null);
+        WorkflowEdge escalate = edge("escalate", 2880L);
+        WorkflowStep review = new WorkflowStep();
+        review.setId("review");
+        review.setEdges(List.of(approve, escalate));
+        WorkflowDefinition definition = new WorkflowDefinition();
+        definition.setSteps(List.of(review));
+
+        WorkflowInstance instance = new WorkflowInstance();
+        instance.setId("i-1");
+        instance.setVersion(3L);
+        instance.setStatus(InstanceStatus.ACTIVE);
+        instance.setCurrentStepId("review");
+        instance.setStepEnteredAt(Instant.parse("2026-03-02T09:00:00Z"));
+        BulkOperations ops = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, WorkflowTimer.class)).thenReturn(ops);
+        when(ops.insert(any(List.class))).thenReturn(ops);
+
+        timerService.schedule(instance, CompiledWorkflow.compile(definition));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<WorkflowTimer>> timers = ArgumentCaptor.forClass(List.class);
+        verify(ops).insert(timers.capture());
+        assertEquals(1, timers.getValue().size());
+        WorkflowTimer timer = timers.getValue().get(0);
+        assertEquals("i-1:3:escalate", timer.getId());
+        assertEquals(Instant.parse("2026-03-04T09:00:00Z"), timer.getDueAt());
+        verify(mongoTemplate).remove(any(Query.class), eq(WorkflowTimer.class));
+    }
+
+    @Test
+    void schedule_skipsDefinitionsWithoutTimedEdges() {
+        WorkflowStep review = new WorkflowStep();
+        review.setId("review");
+        review.setEdges(List.of(edge("approve", null)));
+        WorkflowDefinition definition = new WorkflowDefinition();
+        definition.setSteps(List.of(review));
+
+        timerService.scheduleAll(Map.of(new WorkflowInstance(), CompiledWorkflow.compile(definition)));
+
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    private WorkflowEdge edge(String id, Long timeoutMinutes) {
+        WorkflowEdge edge = new WorkflowEdge();
+        edge.setId(id);
+        edge.setTimeoutMinutes(timeoutMinutes);
+        return edge;
+    }
+}
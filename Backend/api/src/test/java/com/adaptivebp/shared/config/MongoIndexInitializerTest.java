@@ -0,0 +1,98 @@
+package com.adaptivebp.shared.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.adaptivebp.modules.workflow.model.WorkflowActionOutboxEntry;
+import com.adaptivebp.modules.workflow.model.WorkflowHistoryBucket;
+import com.adaptivebp.modules.workflow.model.WorkflowStartJobRow;
+import com.adaptivebp.modules.workflow.model.WorkflowTimer;
+
+@ExtendWith(MockitoExtension.class)
+class MongoIndexInitializerTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private MongoIndexInitializer indexInitializer;
+
+    /** Index options by name, per collection, as passed to ensureIndex. */
+    private final Map<String, Map<String, Document>> created = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+        mappingContext.setInitialEntitySet(Set.of(WorkflowHistoryBucket.class, WorkflowStartJobRow.class, WorkflowTimer.class,
+                WorkflowActionOutboxEntry.class));
+        mappingContext.initialize();
+        ReflectionTestUtils.setField(indexInitializer, "mappingContext", mappingContext);
+        when(mongoTemplate.indexOps(any(Class.class))).thenAnswer(invocation -> {
+            Class<?> type = invocation.getArgument(0);
+            IndexOperations ops = mock(IndexOperations.class);
+            when(ops.ensureIndex(any())).thenAnswer(call -> {
+                IndexDefinition index = call.getArgument(0);
+                Document options = new Document(index.getIndexOptions()).append("key", index.getIndexKeys());
+                created.computeIfAbsent(type.getSimpleName(), key -> new HashMap<>())
+                        .put(options.getString("name"), options);
+                return options.getString("name");
+            });
+            return ops;
+        });
+    }
+
+    @Test
+    void ensureIndexes_createsTheUniqueHistoryBucketIndex() {
+        assertEquals(0, indexInitializer.ensureIndexes());
+
+        Document bucketIndex = created.get("WorkflowHistoryBucket").get("instance_bucket_idx");
+        assertEquals(true, bucketIndex.get("unique"));
+        assertEquals(new ArrayList<>(List.of("instanceId", "bucket")),
+                new ArrayList<>(((Document) bucketIndex.get("key")).keySet()));
+    }
+
+    @Test
+    void ensureIndexes_createsTheUniqueStartJobRowIndex() {
+        assertEquals(0, indexInitializer.ensureIndexes());
+
+        Document rowIndex = created.get("WorkflowStartJobRow").get("job_row_idx");
+        assertEquals(true, rowIndex.get("unique"));
+        assertEquals(new ArrayList<>(List.of("jobId", "row")),
+                new ArrayList<>(((Document) rowIndex.get("key")).keySet()));
+    }
+
+    @Test
+    void ensureIndexes_createsThePollingAndExpiryIndexesOfTimersAndOutbox() {
+        assertEquals(0, indexInitializer.ensureIndexes());
+
+        assertEquals(new Document("dueAt", 1), created.get("WorkflowTimer").get("due_at_idx").get("key"));
+        Map<String, Document> outbox = created.get("WorkflowActionOutboxEntry");
+        assertEquals(new ArrayList<>(List.of("status", "nextAttemptAt")),
+                new ArrayList<>(((Document) outbox.get("status_next_attempt_idx").get("key")).keySet()));
+        assertEquals(7L * 24 * 60 * 60,
+                ((Number) outbox.get("completed_ttl_idx").get("expireAfterSeconds")).longValue());
+    }
+}
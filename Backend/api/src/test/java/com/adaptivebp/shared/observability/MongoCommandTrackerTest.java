@@ -0,0 +1,87 @@
+package com.adaptivebp.shared.observability;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bson.BsonDocument;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opentest4j.AssertionFailedError;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+
+class MongoCommandTrackerTest {
+
+    private final AtomicInteger requestIds = new AtomicInteger();
+    private MongoCommandTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        tracker = new MongoCommandTracker();
+        ReflectionTestUtils.setField(tracker, "enabled", true);
+        ReflectionTestUtils.setField(tracker, "slowCommandMillis", 100L);
+    }
+
+    @Test
+    void scope_countsCommandsDocumentsAndBytesPerSource() throws Throwable {
+        find("{find: 'app_group_members', filter: {appId: 'a'}}", "{cursor: {firstBatch: [{}, {}], id: 0}, ok: 1}");
+
+        MongoCommandStats stats = MongoQueryBudget.measure(tracker, () -> {
+            String previous = tracker.enterSource("AppGroupMemberRepository.findByAppIdAndUserId");
+            try {
+                find("{find: 'app_group_members', filter: {appId: 'a', userId: 'u-1'}}",
+                        "{cursor: {firstBatch: [{}], id: 0}, ok: 1}");
+                find("{find: 'app_group_members', filter: {appId: 'a', userId: 'u-2'}}",
+                        "{cursor: {firstBatch: [{}, {}], id: 0}, ok: 1}");
+            } finally {
+                tracker.exitSource(previous);
+            }
+            find("{findAndModify: 'workflow_instances', query: {_id: 'i-1'}}", "{value: {_id: 'i-1'}, ok: 1}");
+        });
+
+        assertEquals(3, stats.getCommands());
+        assertEquals(4, stats.getDocuments());
+        assertTrue(stats.getBytes() > 0);
+        assertEquals(Map.of("AppGroupMemberRepository.findByAppIdAndUserId", 2L,
+                "MongoCommandTrackerTest.find", 1L),
+                stats.getCommandsBySource());
+    }
+
+    @Test
+    void assertAtMost_failsWithTheBusiestSources() {
+        AssertionFailedError error = assertThrows(AssertionFailedError.class,
+                () -> MongoQueryBudget.assertAtMost(tracker, 1, () -> {
+                    find("{find: 'users', filter: {_id: 'u-1'}}", "{cursor: {firstBatch: [], id: 0}, ok: 1}");
+                    find("{find: 'users', filter: {_id: 'u-2'}}", "{cursor: {firstBatch: [], id: 0}, ok: 1}");
+                }));
+
+        assertTrue(error.getMessage().contains("2 commands"));
+        assertTrue(error.getMessage().contains("MongoCommandTrackerTest.find x2"));
+    }
+
+    @Test
+    void shape_replacesValuesButKeepsOperatorsAndGroups() {
+        BsonDocument filter = BsonDocument.parse(
+                "{domainId: 'd-1', status: {$in: ['ACTIVE', 'SUSPENDED']}, $or: [{a: 1}, {b: {$gt: 2}}]}");
+
+        assertEquals("{domainId: ?, status: {$in: ?}, $or: [{a: ?}, {b: {$gt: ?}}]}",
+                MongoCommandTracker.shape(filter));
+    }
+
+    private void find(String command, String response) {
+        BsonDocument document = BsonDocument.parse(command);
+        String name = document.getFirstKey();
+        int requestId = requestIds.incrementAndGet();
+        tracker.commandStarted(new CommandStartedEvent(null, 1, requestId, null, "adaptivebp", name, document));
+        tracker.commandSucceeded(new CommandSucceededEvent(null, 1, requestId, null, "adaptivebp", name,
+                new RawBsonDocument(BsonDocument.parse(response), new BsonDocumentCodec()), 5_000_000));
+    }
+}
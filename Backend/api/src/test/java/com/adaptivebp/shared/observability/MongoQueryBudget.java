@@ -0,0 +1,97 @@
+package com.adaptivebp.shared.observability;
+
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.withSettings;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bson.BsonDocument;
+import org.bson.BsonInt64;
+import org.bson.BsonString;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.junit.jupiter.api.function.Executable;
+import org.mockito.MockSettings;
+import org.mockito.invocation.Invocation;
+
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+
+/**
+ * Test-side guard for hot endpoints: runs an action (typically a MockMvc request against a
+ * context with a real Mongo) in its own tracker scope and fails if it issued more commands
+ * than the budget, listing where they came from.
+ *
+ * <pre>
+ * MongoQueryBudget.assertAtMost(tracker, 4, () -> mockMvc.perform(get("/adaptive/...")));
+ * </pre>
+ *
+ * Without a Mongo, the repositories and templates an endpoint reads through can be mocked with
+ * {@link #roundTrips}, so each call on them counts as one command:
+ *
+ * <pre>
+ * AppGroupMemberRepository members = mock(AppGroupMemberRepository.class, MongoQueryBudget.roundTrips(tracker));
+ * </pre>
+ */
+public final class MongoQueryBudget {
+
+    private static final AtomicInteger REQUEST_IDS = new AtomicInteger();
+
+    private MongoQueryBudget() {
+    }
+
+    public static MongoCommandStats measure(MongoCommandTracker tracker, Executable action) throws Throwable {
+        try (MongoCommandTracker.Scope scope = tracker.open()) {
+            action.execute();
+            return scope.stats();
+        }
+    }
+
+    public static MongoCommandStats assertAtMost(MongoCommandTracker tracker, int maxCommands, Executable action)
+            throws Throwable {
+        MongoCommandStats stats = measure(tracker, action);
+        if (stats.getCommands() > maxCommands) {
+            fail("Expected at most " + maxCommands + " Mongo commands but got " + stats);
+        }
+        return stats;
+    }
+
+    /**
+     * Mock settings under which every call on the mock is reported to the tracker as one
+     * command, sourced to the mocked type and method, e.g. {@code AppGroupRepository.findByAppId}.
+     * Calls made while stubbing or verifying happen outside any scope and are not counted.
+     */
+    public static MockSettings roundTrips(MongoCommandTracker tracker) {
+        return withSettings().invocationListeners(report -> {
+            Invocation invocation = (Invocation) report.getInvocation();
+            String type = mockingDetails(invocation.getMock()).getMockCreationSettings().getTypeToMock()
+                    .getSimpleName();
+            long documents = report.threwException() ? 0 : documentsOf(report.getReturnedValue());
+            String previous = tracker.enterSource(type + "." + invocation.getMethod().getName());
+            try {
+                int requestId = REQUEST_IDS.incrementAndGet();
+                BsonDocument command = new BsonDocument("find", new BsonString(type));
+                tracker.commandStarted(new CommandStartedEvent(null, 1, requestId, null, "adaptivebp", "find",
+                        command));
+                tracker.commandSucceeded(new CommandSucceededEvent(null, 1, requestId, null, "adaptivebp", "find",
+                        new RawBsonDocument(new BsonDocument("n", new BsonInt64(documents)), new BsonDocumentCodec()),
+                        0));
+            } finally {
+                tracker.exitSource(previous);
+            }
+        });
+    }
+
+    private static long documentsOf(Object value) {
+        if (value instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (value instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        return value != null ? 1 : 0;
+    }
+}
@@ -0,0 +1,97 @@
+package com.adaptivebp.shared.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class PermissionSnapshotCacheTest {
+
+    private final PermissionInvalidationBroadcaster broadcaster = mock(PermissionInvalidationBroadcaster.class);
+    private final AtomicInteger loads = new AtomicInteger();
+    private PermissionSnapshotCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new PermissionSnapshotCache(2, 60);
+        ReflectionTestUtils.setField(cache, "broadcaster", broadcaster);
+        setClock(Instant.parse("2026-01-01T00:00:00Z"));
+    }
+
+    @Test
+    void get_reusesSnapshotUntilTtlExpires() {
+        assertEquals(Set.of("approver"), roles("domain-1", "user-1"));
+        assertEquals(Set.of("approver"), roles("domain-1", "user-1"));
+        assertEquals(1, loads.get());
+
+        setClock(Instant.parse("2026-01-01T00:01:01Z"));
+        roles("domain-1", "user-1");
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void invalidate_dropsOnlyMatchingScopeAndUserAndBroadcasts() {
+        roles("domain-1", "user-1");
+        roles("domain-2", "user-1");
+
+        cache.invalidate("domain-1", "user-1");
+        roles("domain-2", "user-1");
+        assertEquals(2, loads.get());
+        roles("domain-1", "user-1");
+        assertEquals(3, loads.get());
+        verify(broadcaster).publish("domain-1", "user-1");
+    }
+
+    @Test
+    void evict_withoutUserDropsWholeScope() {
+        roles("domain-1", "user-1");
+        roles("domain-1", "user-2");
+
+        cache.evict("domain-1", null);
+        roles("domain-1", "user-1");
+        roles("domain-1", "user-2");
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void get_doesNotCacheLoadThatRacedWithInvalidation() {
+        cache.get("workflow-roles", "domain-1", "user-1", () -> {
+            loads.incrementAndGet();
+            cache.evict("domain-1", "user-1");
+            return Set.of("stale");
+        });
+
+        assertEquals(Set.of("approver"), roles("domain-1", "user-1"));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_boundsEntryCount() {
+        roles("domain-1", "user-1");
+        roles("domain-1", "user-2");
+        roles("domain-1", "user-3");
+
+        roles("domain-1", "user-1");
+        assertEquals(4, loads.get());
+    }
+
+    private Set<String> roles(String domainId, String userId) {
+        return cache.get("workflow-roles", domainId, userId, () -> {
+            loads.incrementAndGet();
+            return Set.of("approver");
+        });
+    }
+
+    private void setClock(Instant instant) {
+        ReflectionTestUtils.setField(cache, "clock", Clock.fixed(instant, ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,77 @@
+package com.adaptivebp.modules.workflow.service;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoExceptionTranslator;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.adaptivebp.modules.workflow.model.WorkflowTaskEntry;
+import com.adaptivebp.modules.workflow.model.WorkflowTaskInboxState;
+
+/**
+ * Serves the task inbox from a list already in index order (waitingSince, instanceId), so
+ * {@link WorkflowTaskInboxService#findTasks} runs its filtering and assembly without a
+ * database. Only the first page is served: keyset cursors are not evaluated.
+ */
+class InMemoryInboxTemplate extends MongoTemplate {
+
+    private final List<WorkflowTaskEntry> entries;
+
+    InMemoryInboxTemplate(List<WorkflowTaskEntry> entries) {
+        super(unusedFactory(), new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext()));
+        this.entries = entries;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T findById(Object id, Class<T> entityClass) {
+        if (entityClass == WorkflowTaskInboxState.class) {
+            // The inbox counts as already backfilled
+            return (T) new WorkflowTaskInboxState();
+        }
+        throw new UnsupportedOperationException("findById " + entityClass.getSimpleName());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> List<T> find(Query query, Class<T> entityClass) {
+        if (entityClass != WorkflowTaskEntry.class) {
+            throw new UnsupportedOperationException("find " + entityClass.getSimpleName());
+        }
+        Document filter = query.getQueryObject();
+        Collection<?> assignees = (Collection<?>) ((Document) filter.get("assignee")).get("$in");
+        List<T> page = new ArrayList<>();
+        for (WorkflowTaskEntry entry : entries) {
+            if (Objects.equals(entry.getDomainId(), filter.get("domainId"))
+                    && Objects.equals(entry.getAppId(), filter.get("appId"))
+                    && assignees.contains(entry.getAssignee())) {
+                page.add((T) entry);
+                if (query.isLimited() && page.size() >= query.getLimit()) {
+                    break;
+                }
+            }
+        }
+        return page;
+    }
+
+    private static MongoDatabaseFactory unusedFactory() {
+        MongoExceptionTranslator translator = new MongoExceptionTranslator();
+        return (MongoDatabaseFactory) Proxy.newProxyInstance(MongoDatabaseFactory.class.getClassLoader(),
+                new Class<?>[] { MongoDatabaseFactory.class }, (proxy, method, args) -> {
+                    if (method.getName().equals("getExceptionTranslator")) {
+                        return translator;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,75 @@
+package com.adaptivebp.modules.workflow.service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.adaptivebp.modules.workflow.model.EdgeCondition;
+import com.adaptivebp.modules.workflow.model.enums.ConditionOperator;
+
+/**
+ * The interpreter WorkflowEngineService used before edge conditions were compiled, kept as
+ * the baseline for {@link WorkflowEngineBenchmark#conditionsPassLegacy}. Leaf conditions only,
+ * as it predates AND/OR groups.
+ */
+final class LegacyConditions {
+
+    private LegacyConditions() {
+    }
+
+    static boolean pass(List<EdgeCondition> conditions, Map<String, Object> data) {
+        for (EdgeCondition condition : conditions) {
+            Object actual = data.get(condition.getField());
+            if (!evaluate(actual, condition.getOperator(), condition.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean evaluate(Object actual, ConditionOperator operator, Object expected) {
+        return switch (operator) {
+            case EQUALS -> Objects.equals(actual, expected);
+            case NOT_EQUALS -> !Objects.equals(actual, expected);
+            case IS_EMPTY -> isEmpty(actual);
+            case IS_NOT_EMPTY -> !isEmpty(actual);
+            case CONTAINS -> actual instanceof String s ? s.contains(String.valueOf(expected))
+                    : actual instanceof Collection<?> c && c.contains(expected);
+            case GREATER_THAN -> compare(actual, expected) > 0;
+            case LESS_THAN -> compare(actual, expected) < 0;
+            case GREATER_EQUAL -> compare(actual, expected) >= 0;
+            case LESS_EQUAL -> compare(actual, expected) <= 0;
+        };
+    }
+
+    private static int compare(Object left, Object right) {
+        Double l = toDouble(left);
+        Double r = toDouble(right);
+        if (l == null || r == null) {
+            return Integer.MIN_VALUE;
+        }
+        return Double.compare(l, r);
+    }
+
+    private static Double toDouble(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Number number) {
+            return number.doubleValue();
+        }
+        try {
+            return Double.parseDouble(String.valueOf(value));
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    private static boolean isEmpty(Object value) {
+        if (value == null) return true;
+        if (value instanceof String s) return s.trim().isEmpty();
+        if (value instanceof Collection<?> c) return c.isEmpty();
+        return false;
+    }
+}
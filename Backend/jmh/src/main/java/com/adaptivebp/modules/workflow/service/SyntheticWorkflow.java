@@ -0,0 +1,232 @@
+package com.adaptivebp.modules.workflow.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.adaptivebp.modules.formbuilder.model.DomainFieldType;
+import com.adaptivebp.modules.formbuilder.model.DomainModelField;
+import com.adaptivebp.modules.workflow.model.EdgeCondition;
+import com.adaptivebp.modules.workflow.model.InstanceHistory;
+import com.adaptivebp.modules.workflow.model.WorkflowDefinition;
+import com.adaptivebp.modules.workflow.model.WorkflowEdge;
+import com.adaptivebp.modules.workflow.model.WorkflowInstance;
+import com.adaptivebp.modules.workflow.model.WorkflowStep;
+import com.adaptivebp.modules.workflow.model.WorkflowTaskEntry;
+import com.adaptivebp.modules.workflow.model.enums.ConditionOperator;
+import com.adaptivebp.modules.workflow.model.enums.WorkflowStatus;
+
+/**
+ * Deterministic generator for definitions, instances and inbox rows of a given size.
+ * Step {@code s<i>} owns fields {@code f<i>_<j>} and reads the previous step's fields;
+ * its edges cycle through role, user, submitter and open permission rules and carry
+ * leaf conditions over the step's fields, about half of which the generated record fails.
+ */
+final class SyntheticWorkflow {
+
+    static final String DOMAIN_ID = "d-bench";
+    static final String APP_ID = "app-bench";
+    static final String DEFINITION_ID = "wf-bench";
+    static final String SUBMITTER = "u-submitter";
+    static final int ROLE_COUNT = 4;
+
+    private static final DomainFieldType[] FIELD_TYPES = {
+            DomainFieldType.STRING, DomainFieldType.NUMBER, DomainFieldType.BOOLEAN,
+            DomainFieldType.DATE, DomainFieldType.REFERENCE, DomainFieldType.ARRAY };
+
+    private SyntheticWorkflow() {
+    }
+
+    static WorkflowDefinition definition(int steps, int edgesPerStep, int fieldsPerStep, int conditionsPerEdge) {
+        WorkflowDefinition definition = new WorkflowDefinition();
+        definition.setId(DEFINITION_ID);
+        definition.setDomainId(DOMAIN_ID);
+        definition.setAppId(APP_ID);
+        definition.setName("Benchmark workflow");
+        definition.setSlug("benchmark");
+        definition.setStatus(WorkflowStatus.PUBLISHED);
+
+        List<WorkflowStep> stepList = new ArrayList<>();
+        for (int i = 0; i < steps; i++) {
+            WorkflowStep step = new WorkflowStep();
+            step.setId(stepId(i));
+            step.setName("Step " + i);
+            step.setOrder(i);
+            step.setStart(i == 0);
+            step.setEnd(i == steps - 1);
+            for (int j = 0; j < fieldsPerStep; j++) {
+                DomainModelField field = new DomainModelField();
+                field.setKey(fieldKey(i, j));
+                field.setType(FIELD_TYPES[j % FIELD_TYPES.length]);
+                field.setRequired(j % 2 == 0);
+                step.getFields().add(field);
+                if (i > 0) {
+                    step.getReadonlyFieldKeys().add(fieldKey(i - 1, j));
+                }
+            }
+            if (i < steps - 1) {
+                for (int e = 0; e < edgesPerStep; e++) {
+                    step.getEdges().add(edge(i, e, fieldsPerStep, conditionsPerEdge));
+                }
+            }
+            stepList.add(step);
+        }
+        definition.setSteps(stepList);
+        return definition;
+    }
+
+    /**
+     * An ACTIVE instance at {@code stepIndex} whose record holds every field up to that step,
+     * with {@code historyLength} entries kept inline as legacy instances do.
+     */
+    static WorkflowInstance instance(String id, int stepIndex, int fieldsPerStep, int historyLength) {
+        WorkflowInstance instance = new WorkflowInstance();
+        instance.setId(id);
+        instance.setVersion((long) historyLength);
+        instance.setWorkflowDefinitionId(DEFINITION_ID);
+        instance.setWorkflowVersion(1);
+        instance.setDomainId(DOMAIN_ID);
+        instance.setAppId(APP_ID);
+        instance.setCurrentStepId(stepId(stepIndex));
+        instance.setStartedBy(SUBMITTER);
+        instance.setStartedAt(Instant.EPOCH);
+        for (int i = 0; i <= stepIndex; i++) {
+            instance.getPrimaryRecord().putAll(stepData(i, fieldsPerStep));
+        }
+
+        List<InstanceHistory> history = new ArrayList<>();
+        for (int n = 0; n < historyLength; n++) {
+            int step = Math.min(n, stepIndex);
+            InstanceHistory entry = new InstanceHistory();
+            entry.setSequence(n);
+            entry.setStepId(stepId(step));
+            entry.setEdgeId(n == 0 ? null : edgeId(step, 0));
+            entry.setPerformedBy(SUBMITTER);
+            entry.setPerformedAt(Instant.EPOCH.plusSeconds(n));
+            entry.setFormData(stepData(step, fieldsPerStep));
+            history.add(entry);
+        }
+        instance.setHistory(history);
+        instance.setHistoryCount(historyLength);
+        return instance;
+    }
+
+    /** Values of the declared type for every field of the step. */
+    static Map<String, Object> stepData(int stepIndex, int fieldsPerStep) {
+        Map<String, Object> data = new HashMap<>();
+        for (int j = 0; j < fieldsPerStep; j++) {
+            data.put(fieldKey(stepIndex, j), value(FIELD_TYPES[j % FIELD_TYPES.length], j));
+        }
+        return data;
+    }
+
+    /**
+     * Inbox rows for {@code count} instances waiting at {@code stepIndex}, oldest first,
+     * each assigned to one of the roles, one user or anyone.
+     */
+    static List<WorkflowTaskEntry> inbox(int count, int stepIndex, int edgesPerStep) {
+        List<WorkflowTaskEntry> entries = new ArrayList<>();
+        for (int n = 0; n < count; n++) {
+            WorkflowTaskEntry entry = new WorkflowTaskEntry();
+            entry.setId("t-" + n);
+            entry.setInstanceId(String.format("i-%06d", n));
+            entry.setDomainId(DOMAIN_ID);
+            entry.setAppId(APP_ID);
+            entry.setAssignee(assignee(n));
+            entry.setWorkflowDefinitionId(DEFINITION_ID);
+            entry.setWorkflowName("Benchmark workflow");
+            entry.setStepId(stepId(stepIndex));
+            entry.setStepName("Step " + stepIndex);
+            entry.setStartedBy(SUBMITTER);
+            entry.setStartedAt(Instant.EPOCH);
+            entry.setWaitingSince(Instant.EPOCH.plusSeconds(n));
+            for (int e = 0; e < edgesPerStep; e++) {
+                Map<String, Object> edge = new HashMap<>();
+                edge.put("id", edgeId(stepIndex, e));
+                edge.put("name", "Edge " + e);
+                entry.getEdges().add(edge);
+            }
+            entry.getSummary().put("title", "Request " + n);
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    static String stepId(int i) {
+        return "s" + i;
+    }
+
+    static String role(int r) {
+        return "role-" + r;
+    }
+
+    private static WorkflowEdge edge(int stepIndex, int e, int fieldsPerStep, int conditionsPerEdge) {
+        WorkflowEdge edge = new WorkflowEdge();
+        edge.setId(edgeId(stepIndex, e));
+        edge.setName("Edge " + e);
+        edge.setTargetStepId(stepId(stepIndex + 1));
+        switch (e % 4) {
+            case 0 -> edge.getAllowedRoles().add(role(e % ROLE_COUNT));
+            case 1 -> edge.getAllowedUserIds().add("u-" + e);
+            case 2 -> edge.setOnlySubmitter(true);
+            default -> {
+                // open to anyone
+            }
+        }
+        for (int c = 0; c < conditionsPerEdge && fieldsPerStep > 0; c++) {
+            edge.getConditions().add(condition(stepIndex, (e + c) % fieldsPerStep, (e + c) % 2 == 0));
+        }
+        return edge;
+    }
+
+    /** A leaf condition over the field that the generated record satisfies or fails. */
+    private static EdgeCondition condition(int stepIndex, int j, boolean passes) {
+        EdgeCondition condition = new EdgeCondition();
+        condition.setField(fieldKey(stepIndex, j));
+        switch (FIELD_TYPES[j % FIELD_TYPES.length]) {
+            case NUMBER -> {
+                condition.setOperator(passes ? ConditionOperator.GREATER_EQUAL : ConditionOperator.LESS_THAN);
+                condition.setValue(j);
+            }
+            case STRING, REFERENCE -> {
+                condition.setOperator(passes ? ConditionOperator.EQUALS : ConditionOperator.NOT_EQUALS);
+                condition.setValue(value(FIELD_TYPES[j % FIELD_TYPES.length], j));
+            }
+            case ARRAY -> {
+                condition.setOperator(ConditionOperator.CONTAINS);
+                condition.setValue(passes ? "v" + j : "missing");
+            }
+            default -> condition.setOperator(passes ? ConditionOperator.IS_NOT_EMPTY : ConditionOperator.IS_EMPTY);
+        }
+        return condition;
+    }
+
+    private static Object value(DomainFieldType type, int j) {
+        return switch (type) {
+            case NUMBER -> j * 10;
+            case BOOLEAN -> j % 2 == 0;
+            case DATE -> "2024-01-01";
+            case REFERENCE -> "ref-" + j;
+            case ARRAY -> List.of("v" + j, "w" + j);
+            default -> "value " + j;
+        };
+    }
+
+    private static String assignee(int n) {
+        return switch (n % 3) {
+            case 0 -> "role:" + role(n % ROLE_COUNT);
+            case 1 -> "user:u-" + n % 7;
+            default -> WorkflowTaskInboxService.ANYONE;
+        };
+    }
+
+    private static String fieldKey(int stepIndex, int j) {
+        return "f" + stepIndex + "_" + j;
+    }
+
+    private static String edgeId(int stepIndex, int e) {
+        return "s" + stepIndex + "-e" + e;
+    }
+}
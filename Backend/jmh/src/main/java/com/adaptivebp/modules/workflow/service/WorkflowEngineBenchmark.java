@@ -0,0 +1,231 @@
+package com.adaptivebp.modules.workflow.service;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.ReflectionUtils;
+
+import com.adaptivebp.modules.appmanagement.permission.AppPermission;
+import com.adaptivebp.modules.appmanagement.port.AppGroupQueryPort;
+import com.adaptivebp.modules.organisation.model.DomainGroup;
+import com.adaptivebp.modules.organisation.model.DomainGroupMember;
+import com.adaptivebp.modules.organisation.model.enums.DomainGroupType;
+import com.adaptivebp.modules.organisation.repository.DomainGroupMemberRepository;
+import com.adaptivebp.modules.organisation.repository.DomainGroupRepository;
+import com.adaptivebp.modules.workflow.dto.response.StepViewResponse;
+import com.adaptivebp.modules.workflow.dto.response.TaskListResponse;
+import com.adaptivebp.modules.workflow.model.WorkflowEdge;
+import com.adaptivebp.modules.workflow.model.WorkflowInstance;
+import com.adaptivebp.modules.workflow.model.WorkflowStep;
+import com.adaptivebp.modules.workflow.repository.WorkflowDefinitionRepository;
+import com.adaptivebp.modules.workflow.repository.WorkflowInstanceRepository;
+import com.adaptivebp.modules.workflow.runtime.CompiledWorkflow;
+import com.adaptivebp.modules.workflow.runtime.WorkflowDefinitionCache;
+import com.adaptivebp.shared.security.PermissionSnapshotCache;
+
+/**
+ * CPU cost of the engine's read and validation paths against a synthetic workflow, with
+ * repositories and the inbox collection replaced by in-memory fakes. The instance waits at
+ * the middle step; the viewer holds two of the roles and is not the submitter.
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar WorkflowEngineBenchmark -prof gc -p steps=50 -p fieldsPerStep=40
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WorkflowEngineBenchmark {
+
+    private static final String VIEWER = "u-viewer";
+    private static final String INSTANCE_ID = "i-bench";
+
+    @Param({ "10", "100" })
+    public int steps;
+
+    @Param({ "4", "16" })
+    public int edgesPerStep;
+
+    @Param({ "10", "40" })
+    public int fieldsPerStep;
+
+    @Param({ "2", "8" })
+    public int conditionsPerEdge;
+
+    @Param({ "20" })
+    public int historyLength;
+
+    /** Inbox rows across all assignees; a page of {@link #pageSize} is read from them. */
+    @Param({ "1000" })
+    public int tasks;
+
+    @Param({ "50" })
+    public int pageSize;
+
+    private WorkflowEngineService engine;
+    private CompiledWorkflow definition;
+    private WorkflowInstance instance;
+    private WorkflowStep step;
+    private List<WorkflowEdge> candidates;
+    private Set<String> viewerRoles;
+    private Map<String, Object> submission;
+
+    @Setup
+    public void setUp() {
+        int current = steps / 2;
+        WorkflowDefinitionCache definitionCache = new WorkflowDefinitionCache(16);
+        inject(definitionCache, "definitionRepository", fake(WorkflowDefinitionRepository.class, (name, args) -> {
+            throw new UnsupportedOperationException(name);
+        }));
+        definition = definitionCache.put(
+                SyntheticWorkflow.definition(steps, edgesPerStep, fieldsPerStep, conditionsPerEdge));
+        instance = SyntheticWorkflow.instance(INSTANCE_ID, current, fieldsPerStep, historyLength);
+        step = definition.findStepById(instance.getCurrentStepId());
+        candidates = definition.candidateEdges(step.getId());
+        viewerRoles = Set.of(SyntheticWorkflow.role(0), SyntheticWorkflow.role(1));
+        submission = SyntheticWorkflow.stepData(current, fieldsPerStep);
+
+        WorkflowHistoryService historyService = new WorkflowHistoryService();
+        inject(historyService, "recentEntries", 5);
+        WorkflowTaskInboxService inboxService = new WorkflowTaskInboxService();
+        inject(inboxService, "mongoTemplate",
+                new InMemoryInboxTemplate(SyntheticWorkflow.inbox(tasks, current, edgesPerStep)));
+        inject(inboxService, "definitionCache", definitionCache);
+        inject(inboxService, "historyService", historyService);
+
+        engine = new WorkflowEngineService();
+        inject(engine, "instanceRepository", fake(WorkflowInstanceRepository.class, (name, args) -> {
+            if (name.equals("findById")) {
+                return Optional.of(instance);
+            }
+            throw new UnsupportedOperationException(name);
+        }));
+        inject(engine, "definitionCache", definitionCache);
+        inject(engine, "appGroupQueryPort",
+                (AppGroupQueryPort) (appId, userId) -> Set.of(AppPermission.APP_EXECUTE_WORKFLOW));
+        inject(engine, "domainGroupMemberRepository", fake(DomainGroupMemberRepository.class, (name, args) -> {
+            if (name.equals("findByDomainIdAndUserId")) {
+                return memberships();
+            }
+            throw new UnsupportedOperationException(name);
+        }));
+        inject(engine, "domainGroupRepository", fake(DomainGroupRepository.class, (name, args) -> {
+            if (name.equals("findAllById")) {
+                return groups();
+            }
+            throw new UnsupportedOperationException(name);
+        }));
+        inject(engine, "permissionCache", new PermissionSnapshotCache(10000, 60));
+        inject(engine, "historyService", historyService);
+        inject(engine, "inboxService", inboxService);
+    }
+
+    @Benchmark
+    public int conditionsPass() {
+        int passed = 0;
+        for (WorkflowEdge edge : candidates) {
+            if (definition.conditionsPass(edge, instance.getPrimaryRecord())) {
+                passed++;
+            }
+        }
+        return passed;
+    }
+
+    /** Same edges and record as {@link #conditionsPass}, through the pre-compilation interpreter. */
+    @Benchmark
+    public int conditionsPassLegacy() {
+        int passed = 0;
+        for (WorkflowEdge edge : candidates) {
+            if (LegacyConditions.pass(edge.getConditions(), instance.getPrimaryRecord())) {
+                passed++;
+            }
+        }
+        return passed;
+    }
+
+    @Benchmark
+    public List<WorkflowEdge> collectPermittedEdges() {
+        return engine.collectPermittedEdges(definition, step, viewerRoles, VIEWER, instance.getStartedBy());
+    }
+
+    @Benchmark
+    public Map<String, String> validateStepData() {
+        return engine.validateStepData(step, submission, true);
+    }
+
+    @Benchmark
+    public TaskListResponse getMyTasks() {
+        return engine.getMyTasks(VIEWER, SyntheticWorkflow.DOMAIN_ID, SyntheticWorkflow.APP_ID, null, pageSize);
+    }
+
+    @Benchmark
+    public StepViewResponse getStepView() {
+        return engine.getStepView(INSTANCE_ID, VIEWER);
+    }
+
+    private List<DomainGroupMember> memberships() {
+        List<DomainGroupMember> memberships = new ArrayList<>();
+        for (String role : viewerRoles) {
+            DomainGroupMember member = new DomainGroupMember();
+            member.setDomainGroupId("g-" + role);
+            member.setDomainId(SyntheticWorkflow.DOMAIN_ID);
+            member.setUserId(VIEWER);
+            memberships.add(member);
+        }
+        return memberships;
+    }
+
+    private List<DomainGroup> groups() {
+        List<DomainGroup> groups = new ArrayList<>();
+        for (String role : viewerRoles) {
+            DomainGroup group = new DomainGroup();
+            group.setId("g-" + role);
+            group.setDomainId(SyntheticWorkflow.DOMAIN_ID);
+            group.setName(role);
+            group.setGroupType(DomainGroupType.WORKFLOW_ROLE);
+            groups.add(group);
+        }
+        return groups;
+    }
+
+    /** An implementation of the repository interface that answers by method name. */
+    private static <T> T fake(Class<T> type, BiFunction<String, Object[], Object> answer) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "toString" -> "fake " + type.getSimpleName();
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> answer.apply(method.getName(), args);
+                }));
+    }
+
+    private static void inject(Object target, String fieldName, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), fieldName);
+        if (field == null) {
+            throw new IllegalStateException(target.getClass().getSimpleName() + " has no field " + fieldName);
+        }
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+}
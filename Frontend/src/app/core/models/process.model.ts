@@ -187,6 +187,26 @@ export interface TaskResponse {
 export interface TaskListResponse {
   count: number;
   tasks: TaskResponse[];
+  nextCursor?: string | null;
+}
+
+export interface InstanceSummary {
+  id: string;
+  workflowDefinitionId: string;
+  workflowVersion: number;
+  domainId: string;
+  appId: string;
+  status: InstanceStatus;
+  currentStepId: string;
+  startedBy: string;
+  startedAt: string;
+  completedAt?: string;
+}
+
+export interface InstancePageResponse {
+  count: number;
+  instances: InstanceSummary[];
+  nextCursor?: string | null;
 }
 
 // Backward-compatible aliases to minimize cross-file churn.
@@ -5,6 +5,7 @@ import { BaseService } from './api.service';
 import {
   ExecuteEdgeResponse,
   HistoryResponse,
+  InstancePageResponse,
   ProcessDefinition,
   ProcessDefinitionResponse,
   ProcessInstance,
@@ -61,16 +62,20 @@ export class ProcessService {
     );
   }
 
-  listInstances(slug: string, appSlug: string): Observable<ProcessInstance[]> {
-    return this.api.get(`${this.base(slug, appSlug)}/instances`, true);
+  listInstances(slug: string, appSlug: string, cursor?: string | null, limit = 50): Observable<InstancePageResponse> {
+    return this.api.get(`${this.base(slug, appSlug)}/instances${this.pageQuery(cursor, limit)}`, true);
   }
 
   listMyTasks(slug: string, appSlug: string): Observable<TaskListResponse> {
     return this.api.get(`${this.base(slug, appSlug)}/instances/my-tasks`, true);
   }
 
-  listMyStartedInstances(slug: string, appSlug: string): Observable<ProcessInstance[]> {
-    return this.api.get(`${this.base(slug, appSlug)}/instances/my-started`, true);
+  listMyStartedInstances(slug: string, appSlug: string, cursor?: string | null, limit = 200): Observable<InstancePageResponse> {
+    return this.api.get(`${this.base(slug, appSlug)}/instances/my-started${this.pageQuery(cursor, limit)}`, true);
+  }
+
+  private pageQuery(cursor: string | null | undefined, limit: number): string {
+    return `?limit=${limit}` + (cursor ? `&cursor=${encodeURIComponent(cursor)}` : '');
   }
 
   getInstance(slug: string, appSlug: string, instanceId: string): Observable<ProcessInstance> {
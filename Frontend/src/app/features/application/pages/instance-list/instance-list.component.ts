@@ -11,7 +11,7 @@ import { ActivatedRoute, Router } from '@angular/router';
 import { ProcessService } from '../../../../core/services/process.service';
 import { AuthService } from '../../../../core/services/auth.service';
 import {
-  ProcessInstance,
+  InstanceSummary,
   TaskResponse,
   WorkflowDefinition,
   WorkflowStep,
@@ -48,8 +48,10 @@ export class InstanceListComponent implements OnInit, OnDestroy {
   mode: 'tasks' | 'instances' = 'tasks';
   activeTab: 'tasks' | 'started' = 'tasks';
 
-  instances: ProcessInstance[] = [];
-  startedInstances: ProcessInstance[] = [];
+  instances: InstanceSummary[] = [];
+  nextCursor: string | null = null;
+  loadingMore = false;
+  startedInstances: InstanceSummary[] = [];
   tasks: TaskResponse[] = [];
   loading = false;
   error = '';
@@ -73,7 +75,7 @@ export class InstanceListComponent implements OnInit, OnDestroy {
   selectedNodeStepId: string | null = null;
 
   // ── Instances (Started By Me tab) ────────────────────────────────────────
-  instancesByStep = new Map<string, ProcessInstance[]>();
+  instancesByStep = new Map<string, InstanceSummary[]>();
   selectedStartedNodeId: string | null = null;
 
   constructor(
@@ -189,7 +191,11 @@ export class InstanceListComponent implements OnInit, OnDestroy {
     }
 
     this.processService.listInstances(this.domainSlug, this.appSlug).subscribe({
-      next: (list) => { this.instances = list || []; this.loading = false; },
+      next: (page) => {
+        this.instances = page?.instances || [];
+        this.nextCursor = page?.nextCursor || null;
+        this.loading = false;
+      },
       error: (err: any) => {
         this.error = err?.error?.message || 'Failed to load instances';
         this.loading = false;
@@ -197,6 +203,22 @@ export class InstanceListComponent implements OnInit, OnDestroy {
     });
   }
 
+  loadMore(): void {
+    if (!this.nextCursor || this.loadingMore) return;
+    this.loadingMore = true;
+    this.processService.listInstances(this.domainSlug, this.appSlug, this.nextCursor).subscribe({
+      next: (page) => {
+        this.instances = [...this.instances, ...(page?.instances || [])];
+        this.nextCursor = page?.nextCursor || null;
+        this.loadingMore = false;
+      },
+      error: (err: any) => {
+        this.error = err?.error?.message || 'Failed to load instances';
+        this.loadingMore = false;
+      }
+    });
+  }
+
   private loadTasksAndStarted(): void {
     this.loading = true;
     this.error = '';
@@ -220,7 +242,7 @@ export class InstanceListComponent implements OnInit, OnDestroy {
     });
 
     this.processService.listMyStartedInstances(this.domainSlug, this.appSlug).subscribe({
-      next: (list) => { this.startedInstances = list || []; startedDone = true; finalize(); },
+      next: (page) => { this.startedInstances = page?.instances || []; startedDone = true; finalize(); },
       error: (err: any) => {
         if (!this.error) this.error = err?.error?.message || 'Failed to load your workflows';
         startedDone = true; finalize();
@@ -360,7 +382,7 @@ export class InstanceListComponent implements OnInit, OnDestroy {
     return this.instancesByStep.get(stepId)?.length ?? 0;
   }
 
-  getStepInstances(stepId: string): ProcessInstance[] {
+  getStepInstances(stepId: string): InstanceSummary[] {
     return this.instancesByStep.get(stepId) ?? [];
   }
 